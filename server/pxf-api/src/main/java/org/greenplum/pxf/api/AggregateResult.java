@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.greenplum.pxf.api;
+
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregate answered from statistics by a {@link StatsAccessor}. The result
+ * is a single row of resolved fields which is sent to GPDB a given number of
+ * times. For count(*) the row carries no values and is repeated once per
+ * counted row, for min, max and sum the row carries the aggregated value of
+ * the projected column and is sent once.
+ */
+public class AggregateResult {
+
+    private final List<OneField> fields;
+    private final long rowCount;
+
+    /**
+     * Constructs an AggregateResult
+     *
+     * @param fields   the resolved fields of the row, one per column
+     * @param rowCount the number of times the row has to be sent
+     */
+    public AggregateResult(List<OneField> fields, long rowCount) {
+        this.fields = fields;
+        this.rowCount = rowCount;
+    }
+
+    public List<OneField> getFields() {
+        return fields;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Creates the result of a count(*), a row of null fields which is sent
+     * once per counted row.
+     *
+     * @param columns the tuple description of the request
+     * @param count   the number of rows
+     * @return the aggregate result
+     */
+    public static AggregateResult ofCount(List<ColumnDescriptor> columns, long count) {
+        return new AggregateResult(nullFields(columns), count);
+    }
+
+    /**
+     * Creates the result of a column aggregate, a single row with the given
+     * value in the aggregated column and nulls everywhere else. A null value
+     * means that there are no values to aggregate and no row is sent.
+     *
+     * @param columns     the tuple description of the request
+     * @param columnIndex the index of the aggregated column
+     * @param value       the aggregated value, of the type of the column
+     * @return the aggregate result
+     */
+    public static AggregateResult ofColumnValue(List<ColumnDescriptor> columns, int columnIndex, Object value) {
+        List<OneField> fields = nullFields(columns);
+        if (value == null) {
+            return new AggregateResult(fields, 0);
+        }
+        fields.get(columnIndex).val = value;
+        return new AggregateResult(fields, 1);
+    }
+
+    /**
+     * Converts a numeric statistic to the Java type used for the given GPDB
+     * type. Returns null if the value cannot be represented in the GPDB type,
+     * for example a sum that overflows an integer column.
+     *
+     * @param type  the GPDB type of the column
+     * @param value the numeric value
+     * @return the converted value, or null if it cannot be converted
+     */
+    public static Object convertNumber(DataType type, Number value) {
+        switch (type) {
+            case SMALLINT:
+                long shortValue = value.longValue();
+                return isExactLong(value) && shortValue >= Short.MIN_VALUE && shortValue <= Short.MAX_VALUE ?
+                        (Object) (short) shortValue : null;
+            case INTEGER:
+                long intValue = value.longValue();
+                return isExactLong(value) && intValue >= Integer.MIN_VALUE && intValue <= Integer.MAX_VALUE ?
+                        (Object) (int) intValue : null;
+            case BIGINT:
+                return isExactLong(value) ? (Object) value.longValue() : null;
+            case REAL:
+                return value.floatValue();
+            case FLOAT8:
+                return value.doubleValue();
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isExactLong(Number value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private static List<OneField> nullFields(List<ColumnDescriptor> columns) {
+        List<OneField> fields = new ArrayList<>(columns.size());
+        for (ColumnDescriptor column : columns) {
+            fields.add(new OneField(column.columnTypeCode(), null));
+        }
+        return fields;
+    }
+}
@@ -39,4 +39,16 @@ public interface StatsAccessor extends Accessor {
      */
     OneRow emitAggObject();
 
+    /**
+     * Returns the aggregate for the current split as an already resolved row,
+     * together with the number of times the row has to be sent to GPDB.
+     * Returns null when the statistics cannot answer the aggregate, in which
+     * case rows are fetched with {@link #emitAggObject()} instead.
+     *
+     * @return the aggregate result or null if not available
+     */
+    default AggregateResult getAggregateResult() {
+        return null;
+    }
+
 }
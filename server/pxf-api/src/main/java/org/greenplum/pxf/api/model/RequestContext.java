@@ -72,6 +72,8 @@ public class RequestContext {
     private int fragmentIndex;
     private byte[] fragmentMetadata = null;
     private String filterString;
+    private boolean queryHasFilter;
+    private long limit;
     // Profile-centric metadata
     private Object metadata;
 
@@ -341,6 +343,21 @@ public class RequestContext {
         return filterString != null;
     }
 
+    /**
+     * Returns true if the query has a WHERE clause, whether or not it was
+     * sent to PXF as a filter string. GPDB applies the quals of the query
+     * to the rows returned by PXF.
+     *
+     * @return whether the query has a WHERE clause
+     */
+    public boolean queryHasFilter() {
+        return queryHasFilter || hasFilter();
+    }
+
+    public void setQueryHasFilter(boolean queryHasFilter) {
+        this.queryHasFilter = queryHasFilter;
+    }
+
     /**
      * Returns true if there is column projection.
      *
@@ -605,6 +622,25 @@ public class RequestContext {
         this.fragmentIndex = fragmentIndex;
     }
 
+    /**
+     * Returns the maximum number of rows the query needs, 0 if the query
+     * has no LIMIT that can be applied by PXF
+     *
+     * @return the maximum number of rows, or 0 if there is no limit
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the maximum number of rows the query needs
+     *
+     * @param limit the maximum number of rows, or 0 if there is no limit
+     */
+    public void setLimit(long limit) {
+        this.limit = limit;
+    }
+
     /**
      * Returns number of attributes projected in a query
      *
@@ -0,0 +1,10 @@
+package org.greenplum.pxf.api.model;
+
+/**
+ * Task a plugin runs in the background when the PXF webapp starts, e.g.
+ * warming up connection pools. A plugin registers its tasks in the file
+ * META-INF/services/org.greenplum.pxf.api.model.StartupTask of its jar, the
+ * tasks are created with their public no-arg constructor.
+ */
+public interface StartupTask extends Runnable {
+}
@@ -0,0 +1,73 @@
+package org.greenplum.pxf.api.utilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the metrics reported by the PXF metrics endpoint. A plugin
+ * registers a source of metrics under a name, the source is asked for a
+ * snapshot of its metrics every time the endpoint is requested. A snapshot
+ * must be serializable to JSON, e.g. a map or a list of maps.
+ */
+public class MetricsRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetricsRegistry.class);
+
+    private static final MetricsRegistry instance = new MetricsRegistry();
+
+    private final Map<String, Supplier<?>> sources = new ConcurrentSkipListMap<>();
+
+    MetricsRegistry() {
+    }
+
+    /**
+     * @return a singleton instance of the metrics registry
+     */
+    public static MetricsRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Registers a source of metrics, replacing the source previously
+     * registered under the same name.
+     *
+     * @param name   name of the metrics
+     * @param source supplier of a snapshot of the metrics
+     */
+    public void register(String name, Supplier<?> source) {
+        LOG.debug("Registering metrics {}", name);
+        sources.put(name, source);
+    }
+
+    /**
+     * Removes the source of metrics registered under the given name.
+     *
+     * @param name name of the metrics
+     */
+    public void unregister(String name) {
+        sources.remove(name);
+    }
+
+    /**
+     * Takes a snapshot of all registered metrics. A source failing to
+     * provide its metrics is skipped.
+     *
+     * @return snapshots of the metrics by their names
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        sources.forEach((name, source) -> {
+            try {
+                metrics.put(name, source.get());
+            } catch (RuntimeException e) {
+                LOG.warn(String.format("Unable to get metrics %s", name), e);
+            }
+        });
+        return metrics;
+    }
+}
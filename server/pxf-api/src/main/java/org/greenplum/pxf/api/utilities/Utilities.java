@@ -284,13 +284,15 @@ public class Utilities {
      * @return true if aggregate optimizations can be applicable to the current context
      */
     public static boolean aggregateOptimizationsSupported(RequestContext requestContext) {
-        boolean isStatsAccessor = implementsInterface(requestContext.getAccessor(), StatsAccessor.class);
+        EnumAggregationType aggType = requestContext.getAggType();
         /* Make sure filter is not present, aggregate operation supports optimization and accessor implements StatsAccessor interface */
-        return (isStatsAccessor
+        /* Row aggregates (count) require no projected columns, column aggregates (min, max, sum) exactly one */
+        /* The accessor is checked last, accessors call this method for requests without an aggregate too */
+        return ((aggType != null)
                 && !requestContext.hasFilter()
-                && (requestContext.getAggType() != null)
-                && requestContext.getAggType().isOptimizationSupported()
-                && requestContext.getNumAttrsProjected() == 0);
+                && aggType.isOptimizationSupported()
+                && requestContext.getNumAttrsProjected() == (aggType.isColumnAggregate() ? 1 : 0)
+                && implementsInterface(requestContext.getAccessor(), StatsAccessor.class));
     }
 
     /**
@@ -0,0 +1,55 @@
+package org.greenplum.pxf.api.utilities;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testSingletonInstance() {
+        assertSame(MetricsRegistry.getInstance(), MetricsRegistry.getInstance());
+    }
+
+    @Test
+    public void testSnapshotIsTakenOnEveryRequest() {
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicInteger counter = new AtomicInteger();
+        registry.register("b", counter::incrementAndGet);
+        registry.register("a", () -> "value");
+
+        Map<String, Object> metrics = registry.getMetrics();
+        assertEquals(Arrays.asList("a", "b"), Arrays.asList(metrics.keySet().toArray()));
+        assertEquals("value", metrics.get("a"));
+        assertEquals(1, metrics.get("b"));
+        assertEquals(2, registry.getMetrics().get("b"));
+    }
+
+    @Test
+    public void testFailingSourceIsSkipped() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.register("a", () -> {
+            throw new IllegalStateException("closed");
+        });
+        registry.register("b", () -> 1);
+
+        Map<String, Object> metrics = registry.getMetrics();
+        assertEquals(1, metrics.size());
+        assertEquals(1, metrics.get("b"));
+    }
+
+    @Test
+    public void testUnregister() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.register("a", () -> 1);
+        registry.unregister("a");
+
+        assertTrue(registry.getMetrics().isEmpty());
+    }
+}
@@ -338,6 +338,25 @@ public class UtilitiesTest {
         assertFalse(Utilities.aggregateOptimizationsSupported(mockCtxProjection));
     }
 
+    @Test
+    public void useStatsForColumnAggregates() {
+        for (EnumAggregationType aggType : new EnumAggregationType[]{EnumAggregationType.MIN, EnumAggregationType.MAX, EnumAggregationType.SUM}) {
+            RequestContext mockCtx = mock(RequestContext.class);
+            when(mockCtx.getAggType()).thenReturn(aggType);
+            when(mockCtx.getAccessor()).thenReturn("org.greenplum.pxf.api.utilities.UtilitiesTest$StatsAccessorImpl");
+
+            //Column aggregates require exactly one projected column
+            when(mockCtx.getNumAttrsProjected()).thenReturn(1);
+            assertTrue(Utilities.aggregateOptimizationsSupported(mockCtx));
+
+            when(mockCtx.getNumAttrsProjected()).thenReturn(0);
+            assertFalse(Utilities.aggregateOptimizationsSupported(mockCtx));
+
+            when(mockCtx.getNumAttrsProjected()).thenReturn(2);
+            assertFalse(Utilities.aggregateOptimizationsSupported(mockCtx));
+        }
+    }
+
     /* TODO move to the proper class
     @Test
     public void useVectorization() {
@@ -24,25 +24,35 @@ import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.filter.FilterParser;
 import org.greenplum.pxf.api.filter.Node;
 import org.greenplum.pxf.api.filter.Operator;
-import org.greenplum.pxf.api.filter.SupportedOperatorPruner;
 import org.greenplum.pxf.api.filter.TreeTraverser;
 import org.greenplum.pxf.api.filter.TreeVisitor;
 import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseColumnDescriptor;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseConnectionManager;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseScanProfile;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseTupleDescription;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseUtilities;
 
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.TableNotFoundException;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
 import org.apache.hadoop.hbase.client.Connection;
-import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Durability;
+import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.util.Bytes;
 
@@ -50,6 +60,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.EnumSet;
+import java.util.List;
 
 /**
  * Accessor for HBase.
@@ -60,7 +71,19 @@ import java.util.EnumSet;
  * For each region, a Scan object is used to describe the requested rows.
  * <p>
  * The class supports filters using the {@link HBaseFilterBuilder}.
- * Regions can be filtered out according to input from {@link HBaseFilterBuilder}.
+ * Regions can be filtered out according to input from {@link HBaseFilterBuilder},
+ * and the scan of a region is limited to the row key ranges of the filter.
+ * <p>
+ * The table is opened from a connection shared with the other requests
+ * of the same user, see {@link HBaseConnectionManager}.
+ * <p>
+ * Only the projected columns are read, and the scan of every region is
+ * tuned with a {@link HBaseScanProfile}.
+ * <p>
+ * Rows are written with a {@link BufferedMutator}, which sends the
+ * {@link Put}s made by {@link HBaseResolver} to the region servers in
+ * batches of WRITE_BUFFER_SIZE bytes. The WRITE_DURABILITY option sets how
+ * the puts are written to the write-ahead log.
  */
 public class HBaseAccessor extends BasePlugin implements Accessor {
 
@@ -74,21 +97,29 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
                     Operator.NOT_EQUALS,
                     Operator.IS_NOT_NULL,
                     Operator.IS_NULL,
+                    Operator.IN,
                     Operator.AND,
                     Operator.OR
             );
 
-    private static final TreeVisitor PRUNER = new SupportedOperatorPruner(SUPPORTED_OPERATORS);
     private static final TreeTraverser TRAVERSER = new TreeTraverser();
 
+    static final String WRITE_BUFFER_SIZE_OPTION = "WRITE_BUFFER_SIZE";
+    static final String WRITE_DURABILITY_OPTION = "WRITE_DURABILITY";
+    static final String WRITE_DURABILITY_PROPERTY_NAME = "pxf.hbase.write.durability";
+
+    private final HBaseConnectionManager connectionManager;
     private HBaseTupleDescription tupleDescription;
+    private HBaseScanProfile scanProfile;
     private Connection connection;
     private Table table;
     private SplitBoundary split;
     private Scan scanDetails;
     private ResultScanner currentScanner;
-    private byte[] scanStartKey;
-    private byte[] scanEndKey;
+    // the ranges of the row keys to read, null to read all the rows
+    private List<RowRange> keyRanges;
+    private BufferedMutator mutator;
+    private Durability writeDurability;
 
     /**
      * The class represents a single split of a table
@@ -112,9 +143,19 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
         }
     }
 
+    public HBaseAccessor() {
+        this(HBaseConnectionManager.getInstance());
+    }
+
+    HBaseAccessor(HBaseConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
     /**
      * Initializes HBaseAccessor based on GPDB table description and
-     * initializes the scan start and end keys of the HBase table to default values.
+     * initializes the scan to read all the rows of the HBase table.
+     * Writes do not scan the table, and their requests carry no lookup
+     * table mappings, so the table description is only built for reads.
      *
      * @param requestContext data provided in the request
      */
@@ -122,10 +163,12 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
     public void initialize(RequestContext requestContext) {
         super.initialize(requestContext);
 
-        tupleDescription = new HBaseTupleDescription(context);
+        if (context.getRequestType() != RequestContext.RequestType.WRITE_BRIDGE) {
+            tupleDescription = new HBaseTupleDescription(context);
+            scanProfile = new HBaseScanProfile(context, configuration);
+        }
         split = null;
-        scanStartKey = HConstants.EMPTY_START_ROW;
-        scanEndKey = HConstants.EMPTY_END_ROW;
+        keyRanges = null;
     }
 
     /**
@@ -144,41 +187,86 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
     }
 
     /**
-     * Closes the HBase table.
+     * Closes the HBase table and releases the connection.
      */
     @Override
     public void closeForRead() throws Exception {
-        table.close();
-        HBaseUtilities.closeConnection(null, connection);
+        try {
+            if (table != null) {
+                table.close();
+            }
+        } finally {
+            connectionManager.releaseConnection(connection);
+            connection = null;
+        }
     }
 
     /**
-     * Opens the resource for write.
+     * Opens the HBase table for write.
      *
      * @return true if the resource is successfully opened
+     * @throws TableNotFoundException if the table does not exist or is disabled
      */
     @Override
-    public boolean openForWrite() {
-        throw new UnsupportedOperationException();
+    public boolean openForWrite() throws Exception {
+        writeDurability = getWriteDurability();
+        TableName tableName = TableName.valueOf(context.getDataSource());
+        BufferedMutatorParams params = new BufferedMutatorParams(tableName);
+        // the size of the write buffer is hbase.client.write.buffer unless set for the table
+        long writeBufferSize = context.getOption(WRITE_BUFFER_SIZE_OPTION, 0, true);
+        if (writeBufferSize > 0) {
+            params.writeBufferSize(writeBufferSize);
+        }
+
+        connection = connectionManager.getConnection(context.getServerName(), HBaseConfiguration.create(configuration));
+        try {
+            try (Admin hbaseAdmin = connection.getAdmin()) {
+                if (!HBaseUtilities.isTableAvailable(hbaseAdmin, context.getDataSource())) {
+                    throw new TableNotFoundException(context.getDataSource());
+                }
+            }
+            mutator = connection.getBufferedMutator(params);
+        } catch (Exception e) {
+            connectionManager.releaseConnection(connection);
+            connection = null;
+            throw e;
+        }
+        return true;
     }
 
     /**
-     * Writes the next object.
+     * Writes the next row. The row is sent to HBase once the write buffer is full.
      *
-     * @param onerow the object to be written
+     * @param onerow the object to be written, with a {@link Put} of the row as data
      * @return true if the write succeeded
+     * @throws IOException if the rows of the write buffer cannot be written
      */
     @Override
-    public boolean writeNextObject(OneRow onerow) {
-        throw new UnsupportedOperationException();
+    public boolean writeNextObject(OneRow onerow) throws IOException {
+        Put put = (Put) onerow.getData();
+        if (writeDurability != null) {
+            put.setDurability(writeDurability);
+        }
+        mutator.mutate(put);
+        return true;
     }
 
     /**
-     * Closes the resource for write.
+     * Writes the rows left in the write buffer and closes the table.
+     *
+     * @throws IOException if the rows of the write buffer cannot be written
      */
     @Override
-    public void closeForWrite() {
-        throw new UnsupportedOperationException();
+    public void closeForWrite() throws IOException {
+        try {
+            if (mutator != null) {
+                mutator.close();
+            }
+        } finally {
+            mutator = null;
+            connectionManager.releaseConnection(connection);
+            connection = null;
+        }
     }
 
     /**
@@ -198,20 +286,44 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
     }
 
     /**
-     * Load hbase table object using ConnectionFactory
+     * Load hbase table object from the shared connection
      */
     private void openTable() throws IOException {
-        connection = ConnectionFactory.createConnection(HBaseConfiguration.create(configuration));
+        connection = connectionManager.getConnection(context.getServerName(), HBaseConfiguration.create(configuration));
         table = connection.getTable(TableName.valueOf(context.getDataSource()));
     }
 
+    /**
+     * Returns the durability of the puts, set with the WRITE_DURABILITY
+     * option or the pxf.hbase.write.durability property.
+     *
+     * @return the durability, or null to use the durability of the table
+     */
+    private Durability getWriteDurability() {
+        String durability = context.getOption(WRITE_DURABILITY_OPTION);
+        if (durability == null) {
+            durability = configuration.getTrimmed(WRITE_DURABILITY_PROPERTY_NAME);
+        }
+        if (durability == null || durability.isEmpty()) {
+            return null;
+        }
+        try {
+            return Durability.valueOf(durability.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format(
+                    "Property %s has incorrect value %s : must be one of USE_DEFAULT, SKIP_WAL, ASYNC_WAL, SYNC_WAL or FSYNC_WAL",
+                    WRITE_DURABILITY_OPTION, durability), e);
+        }
+    }
+
     /**
      * Creates a {@link SplitBoundary} of the table split
      * this accessor instance is assigned to scan.
      * The table split is constructed from the fragment metadata
      * passed in {@link RequestContext#getFragmentMetadata()}.
      * <p>
-     * The function verifies the split is within user supplied range.
+     * The function verifies the split is within user supplied ranges, and
+     * narrows it to the first and last keys of the ranges in the split.
      * <p>
      * It is assumed, |startKeys| == |endKeys|
      * This assumption is made through HBase's code as well.
@@ -229,29 +341,47 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
             byte[] startKey = (byte[]) objectStream.readObject();
             byte[] endKey = (byte[]) objectStream.readObject();
 
-            if (withinScanRange(startKey, endKey)) {
-                split = new SplitBoundary(startKey, endKey);
-            }
+            split = getScanBoundary(startKey, endKey);
         } catch (Exception e) {
             throw new RuntimeException("Exception while reading expected fragment metadata", e);
         }
     }
 
     /**
-     * Returns true if given start/end key pair is within the scan range.
+     * Returns the boundary of the keys to scan in the given region, or null
+     * if no key of the region is within the scan ranges.
      */
-    private boolean withinScanRange(byte[] startKey, byte[] endKey) {
-
-        // startKey <= scanStartKey
-        if (Bytes.compareTo(startKey, scanStartKey) <= 0) {
-            // endKey == table's end or endKey >= scanStartKey
-            return Bytes.equals(endKey, HConstants.EMPTY_END_ROW) ||
-                    Bytes.compareTo(endKey, scanStartKey) >= 0;
-        } else { // startKey > scanStartKey
-            // scanEndKey == table's end or startKey <= scanEndKey
-            return Bytes.equals(scanEndKey, HConstants.EMPTY_END_ROW) ||
-                    Bytes.compareTo(startKey, scanEndKey) <= 0;
+    private SplitBoundary getScanBoundary(byte[] regionStartKey, byte[] regionEndKey) {
+        if (keyRanges == null) {
+            return new SplitBoundary(regionStartKey, regionEndKey);
         }
+
+        byte[] startKey = null;
+        byte[] endKey = null;
+        // the ranges are sorted, the first and last ones in the region bound the scan
+        for (RowRange range : keyRanges) {
+            if (!withinRegion(range, regionStartKey, regionEndKey)) {
+                continue;
+            }
+            if (startKey == null) {
+                startKey = Bytes.compareTo(range.getStartRow(), regionStartKey) > 0 ?
+                        range.getStartRow() : regionStartKey;
+            }
+            endKey = HBaseFilterBuilder.compareStopKeys(range.getStopRow(), regionEndKey) < 0 ?
+                    range.getStopRow() : regionEndKey;
+        }
+        return startKey == null ? null : new SplitBoundary(startKey, endKey);
+    }
+
+    /**
+     * Returns true if the given range of keys overlaps the given region.
+     */
+    private boolean withinRegion(RowRange range, byte[] regionStartKey, byte[] regionEndKey) {
+        // range start < region end, and range stop > region start
+        return (Bytes.equals(regionEndKey, HConstants.EMPTY_END_ROW) ||
+                Bytes.compareTo(range.getStartRow(), regionEndKey) < 0) &&
+                (Bytes.equals(range.getStopRow(), HConstants.EMPTY_END_ROW) ||
+                        Bytes.compareTo(range.getStopRow(), regionStartKey) > 0);
     }
 
     /**
@@ -264,13 +394,20 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
         // Return only one version (latest)
         scanDetails.setMaxVersions(1);
 
-        addColumns();
+        boolean hasColumns = addColumns();
         addFilters();
+
+        // only the row keys are read, one cell of every row is enough
+        if (!hasColumns && scanDetails.getFilter() == null) {
+            scanDetails.setFilter(new FilterList(FilterList.Operator.MUST_PASS_ALL,
+                    new FirstKeyOnlyFilter(), new KeyOnlyFilter()));
+        }
     }
 
     /**
      * Opens the region of the fragment to be scanned.
-     * Updates the Scan object to retrieve only rows from that region.
+     * Updates the Scan object to retrieve only rows from that region,
+     * with the settings of the scan profile.
      */
     private boolean openCurrentRegion() throws IOException {
         if (split == null) {
@@ -279,23 +416,29 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
 
         scanDetails.setStartRow(split.startKey());
         scanDetails.setStopRow(split.endKey());
+        scanProfile.apply(scanDetails, keyRanges == null);
 
         currentScanner = table.getScanner(scanDetails);
         return true;
     }
 
     /**
-     * Adds the table tuple description to {@link #scanDetails},
-     * so only these fields will be returned.
+     * Adds the projected columns of the table tuple description to
+     * {@link #scanDetails}, so only these fields will be returned.
+     *
+     * @return true if a column has been added
      */
-    private void addColumns() {
+    private boolean addColumns() {
+        boolean hasColumns = false;
         for (int i = 0; i < tupleDescription.columns(); ++i) {
             HBaseColumnDescriptor column = tupleDescription.getColumn(i);
-            if (!column.isKeyColumn()) // Row keys return anyway
+            if (!column.isKeyColumn() && column.isProjected()) // Row keys return anyway
             {
                 scanDetails.addColumn(column.columnFamilyBytes(), column.qualifierBytes());
+                hasColumns = true;
             }
         }
+        return hasColumns;
     }
 
     /**
@@ -303,7 +446,7 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
      * HBase {@link Filter} object. The result is added as a filter to the
      * Scan object.
      * <p>
-     * Uses row key ranges to limit split count.
+     * Uses row key ranges to limit split count and the keys scanned in a split.
      */
     private void addFilters() throws Exception {
         if (!context.hasFilter()) {
@@ -316,13 +459,13 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
         Node root = new FilterParser().parse(context.getFilterString());
         // Prune the parsed tree with valid supported operators and then
         // traverse the tree with the hBaseFilterBuilder to produce a filter
-        TRAVERSER.traverse(root, PRUNER, hBaseFilterBuilder);
+        TreeVisitor pruner = new HBaseOperatorPruner(SUPPORTED_OPERATORS, tupleDescription);
+        TRAVERSER.traverse(root, pruner, hBaseFilterBuilder);
 
         // Retrieve the built filter
         Filter filter = hBaseFilterBuilder.build();
         scanDetails.setFilter(filter);
 
-        scanStartKey = hBaseFilterBuilder.getStartKey();
-        scanEndKey = hBaseFilterBuilder.getEndKey();
+        keyRanges = hBaseFilterBuilder.getKeyRanges();
     }
 }
@@ -28,13 +28,12 @@ import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.TableNotFoundException;
 import org.apache.hadoop.hbase.client.Admin;
 import org.apache.hadoop.hbase.client.Connection;
-import org.apache.hadoop.hbase.client.ConnectionFactory;
-import org.apache.hadoop.hbase.client.HBaseAdmin;
 import org.apache.hadoop.hbase.client.RegionLocator;
 import org.greenplum.pxf.api.model.BaseFragmenter;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.FragmentStats;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseConnectionManager;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseLookupTable;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseUtilities;
 
@@ -53,11 +52,23 @@ import java.util.Map;
  *
  * This class also puts HBase lookup table information for the given
  * table (if exists) in each fragment's user data field.
+ *
+ * The regions are looked up with a connection shared with the other requests
+ * of the same user, see {@link HBaseConnectionManager}.
  */
 public class HBaseDataFragmenter extends BaseFragmenter {
 
+    private final HBaseConnectionManager connectionManager;
     private Connection connection;
 
+    public HBaseDataFragmenter() {
+        this(HBaseConnectionManager.getInstance());
+    }
+
+    HBaseDataFragmenter(HBaseConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
     @Override
     public void initialize(RequestContext requestContext) {
         super.initialize(requestContext);
@@ -85,20 +96,19 @@ public class HBaseDataFragmenter extends BaseFragmenter {
     @Override
     public List<Fragment> getFragments() throws Exception {
 
-        // check that Zookeeper and HBase master are available
-        HBaseAdmin.checkHBaseAvailable(configuration);
-        connection = ConnectionFactory.createConnection(configuration);
-        Admin hbaseAdmin = connection.getAdmin();
-        if (!HBaseUtilities.isTableAvailable(hbaseAdmin, context.getDataSource())) {
-            HBaseUtilities.closeConnection(hbaseAdmin, connection);
-            throw new TableNotFoundException(context.getDataSource());
+        connection = connectionManager.getConnection(context.getServerName(), configuration);
+        try (Admin hbaseAdmin = connection.getAdmin()) {
+            if (!HBaseUtilities.isTableAvailable(hbaseAdmin, context.getDataSource())) {
+                throw new TableNotFoundException(context.getDataSource());
+            }
+
+            byte[] userData = prepareUserData();
+            addTableFragments(userData);
+        } finally {
+            connectionManager.releaseConnection(connection);
+            connection = null;
         }
 
-        byte[] userData = prepareUserData();
-        addTableFragments(userData);
-
-        HBaseUtilities.closeConnection(hbaseAdmin, connection);
-
         return fragments;
     }
 
@@ -110,9 +120,10 @@ public class HBaseDataFragmenter extends BaseFragmenter {
      * or serialization fails
      */
     private byte[] prepareUserData() throws Exception {
-        HBaseLookupTable lookupTable = new HBaseLookupTable(configuration);
-        Map<String, byte[]> mappings = lookupTable.getMappings(context.getDataSource());
-        lookupTable.close();
+        Map<String, byte[]> mappings;
+        try (HBaseLookupTable lookupTable = new HBaseLookupTable(connection)) {
+            mappings = lookupTable.getMappings(context.getDataSource());
+        }
 
         if (mappings != null) {
             return serializeMap(mappings);
@@ -140,14 +151,14 @@ public class HBaseDataFragmenter extends BaseFragmenter {
     }
 
     private void addTableFragments(byte[] userData) throws IOException {
-        RegionLocator regionLocator = connection.getRegionLocator(TableName.valueOf(context.getDataSource()));
-        List <HRegionLocation> locations = regionLocator.getAllRegionLocations();
+        List <HRegionLocation> locations;
+        try (RegionLocator regionLocator = connection.getRegionLocator(TableName.valueOf(context.getDataSource()))) {
+            locations = regionLocator.getAllRegionLocations();
+        }
 
         for (HRegionLocation location : locations) {
             addFragment(location, userData);
         }
-
-        regionLocator.close();
     }
 
     private void addFragment(HRegionLocation location,
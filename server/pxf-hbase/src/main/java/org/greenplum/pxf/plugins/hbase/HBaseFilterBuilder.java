@@ -25,10 +25,13 @@ import org.apache.hadoop.hbase.filter.ByteArrayComparable;
 import org.apache.hadoop.hbase.filter.CompareFilter;
 import org.apache.hadoop.hbase.filter.Filter;
 import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
 import org.apache.hadoop.hbase.filter.NullComparator;
 import org.apache.hadoop.hbase.filter.RowFilter;
 import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
 import org.apache.hadoop.hbase.util.Bytes;
+import org.greenplum.pxf.api.filter.CollectionOperandNode;
 import org.greenplum.pxf.api.filter.ColumnIndexOperandNode;
 import org.greenplum.pxf.api.filter.Node;
 import org.greenplum.pxf.api.filter.OperandNode;
@@ -41,11 +44,15 @@ import org.greenplum.pxf.plugins.hbase.utilities.HBaseDoubleComparator;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseFloatComparator;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseIntegerComparator;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseTupleDescription;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseValueCodec;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 import static org.greenplum.pxf.api.io.DataType.TEXT;
@@ -60,9 +67,14 @@ import static org.greenplum.pxf.api.io.DataType.TEXT;
  * This is done before the scan starts. It is not a scan time operation.
  * <p>
  * HBase row key column is a special case.
- * If the user defined row key column as TEXT and used {@code <,>,<=,>=,=}
- * operators, the startKey ({@code >/>=}) and the endKey ({@code </<=}) are
- * stored in addition to the created filter.
+ * The ranges of row keys that can satisfy the expression are computed in
+ * addition to the created filter, from the {@code <,>,<=,>=,=} operators
+ * on a TEXT row key column, and the {@code =} and {@code IN} operators on a
+ * TEXT or binary encoded row key column, combined with {@code AND} and
+ * {@code OR}. {@link HBaseAccessor} skips the regions outside of all the
+ * ranges, and when there are several ranges the filter is combined with a
+ * {@link MultiRowRangeFilter} so that the scan seeks from one range to the
+ * next.
  * <p>
  * This is an addition on top of regular filters and does not replace
  * any logic in HBase filter objects.
@@ -84,19 +96,20 @@ public class HBaseFilterBuilder implements TreeVisitor {
                 put(Operator.OR, FilterList.Operator.MUST_PASS_ONE);
             }});
 
-    private boolean endKeyAssigned = false;
-    private boolean startKeyAssigned = false;
-    private byte[] endKey;
-    private byte[] startKey;
+    // the range of all the row keys
+    private static final RowRange ALL_KEYS = new RowRange(
+            HConstants.EMPTY_START_ROW, true, HConstants.EMPTY_END_ROW, false);
+
     private Deque<Filter> filterQueue;
+    // the row key ranges of the visited expressions, sorted and disjoint
+    private Deque<List<RowRange>> rangesQueue;
     private Filter currentFilter;
     private HBaseTupleDescription tupleDescription;
 
     public HBaseFilterBuilder(HBaseTupleDescription tupleDescription) {
         this.filterQueue = new LinkedList<>();
+        this.rangesQueue = new LinkedList<>();
         this.tupleDescription = tupleDescription;
-        this.startKey = HConstants.EMPTY_START_ROW;
-        this.endKey = HConstants.EMPTY_END_ROW;
     }
 
     @Override
@@ -123,15 +136,27 @@ public class HBaseFilterBuilder implements TreeVisitor {
                 ColumnIndexOperandNode columnIndexOperand = operatorNode.getColumnIndexOperand();
                 HBaseColumnDescriptor hBaseColumn = tupleDescription.getColumn(columnIndexOperand.index());
                 Filter filter;
+                List<RowRange> ranges = Collections.singletonList(ALL_KEYS);
 
                 if (operator == Operator.IS_NULL || operator == Operator.IS_NOT_NULL) {
                     filter = processNullOperator(hBaseColumn, operator);
+                } else if (operator == Operator.IN) {
+                    OperandNode data = operatorNode.getValueOperand();
+                    filter = processInOperator(hBaseColumn, data);
+                    if (isPointRowKey(hBaseColumn)) {
+                        ranges = getPointRanges(hBaseColumn, getValues(data));
+                    }
                 } else {
                     OperandNode data = operatorNode.getValueOperand();
-                    filter = processSimpleColumnOperator(hBaseColumn, operator, data);
+                    filter = processSimpleColumnOperator(hBaseColumn, operator, data.getDataType(), data.toString());
+                    if (isTextualRowKey(hBaseColumn) ||
+                            (operator == Operator.EQUALS && isPointRowKey(hBaseColumn))) {
+                        ranges = getRanges(hBaseColumn, operator, data.toString());
+                    }
                 }
 
                 processFilter(filter);
+                rangesQueue.push(ranges);
             }
         }
         return node;
@@ -144,6 +169,15 @@ public class HBaseFilterBuilder implements TreeVisitor {
             Operator operator = operatorNode.getOperator();
             if (operator.isLogical()) {
                 currentFilter = filterQueue.poll();
+
+                // combines the ranges of the operands
+                List<RowRange> ranges = rangesQueue.pop();
+                for (int i = 1; i < operatorNode.childCount(); i++) {
+                    ranges = operator == Operator.AND ?
+                            intersect(ranges, rangesQueue.pop()) :
+                            union(ranges, rangesQueue.pop());
+                }
+                rangesQueue.push(ranges);
             }
         }
         return node;
@@ -151,38 +185,38 @@ public class HBaseFilterBuilder implements TreeVisitor {
 
     /**
      * Returns the HBase {@link Filter} object after visiting the expression tree.
+     * If the row keys are in several ranges, the filter is combined with a
+     * {@link MultiRowRangeFilter} of the ranges.
      *
      * @return filter object
+     * @throws IOException if the ranges of the filter are invalid
      */
-    public Filter build() {
+    public Filter build() throws IOException {
         if (!filterQueue.isEmpty()) {
             throw new IllegalStateException("Filter queue is not empty after visiting all nodes");
         }
-        return currentFilter;
-    }
-
-    /**
-     * Returns the startKey for scanning the HBase table.
-     * If the user specified a {@code > / >=} operation
-     * on a textual row key column, this value will be returned.
-     * Otherwise, the start of table.
-     *
-     * @return start key for scanning HBase table
-     */
-    public byte[] getStartKey() {
-        return startKey;
+        List<RowRange> ranges = getKeyRanges();
+        if (ranges == null || ranges.size() < 2) {
+            return currentFilter;
+        }
+        return new FilterList(FilterList.Operator.MUST_PASS_ALL,
+                new MultiRowRangeFilter(new ArrayList<>(ranges)), currentFilter);
     }
 
     /**
-     * Returns the endKey for scanning the HBase table.
-     * If the user specified a {@code < / <=} operation
-     * on a textual row key column, this value will be returned.
-     * Otherwise, the end of table.
+     * Returns the ranges of the row keys that can satisfy the expression.
+     * Each range includes its start key and excludes its stop key, an empty
+     * stop key is the end of the table.
      *
-     * @return end key for scanning HBase table
+     * @return the sorted and disjoint ranges of the row keys, an empty list
+     * if no row can satisfy the expression, or null if any row can
      */
-    public byte[] getEndKey() {
-        return endKey;
+    public List<RowRange> getKeyRanges() {
+        List<RowRange> ranges = rangesQueue.peek();
+        if (ranges == null || (ranges.size() == 1 && ranges.get(0) == ALL_KEYS)) {
+            return null;
+        }
+        return ranges;
     }
 
     /**
@@ -196,7 +230,6 @@ public class HBaseFilterBuilder implements TreeVisitor {
         if (head instanceof FilterList) {
             /*
              * Handles operation between already calculated expressions.
-             * Currently only {@code AND}, in the future {@code OR} can be added.
              * Four cases here:
              *  - Both are simple filters.
              *  - Left is a FilterList and right is a filter.
@@ -213,26 +246,18 @@ public class HBaseFilterBuilder implements TreeVisitor {
      * Creates a special filter in the case the column is the row key column.
      *
      * @param hBaseColumn  the HBase column
-     * @param operator the simple column operator
-     * @param data         the optional operand
+     * @param operator     the simple column operator
+     * @param dataType     the data type of the operand
+     * @param data         the operand
      * @return the {@link Filter} for the given simple column operator
      */
     private Filter processSimpleColumnOperator(HBaseColumnDescriptor hBaseColumn,
                                                Operator operator,
-                                               OperandNode data) {
-        // The value of lastOperand has to be stored after visiting
-        // the operand child of this node.
-        ByteArrayComparable comparator = getComparator(
-                hBaseColumn.columnTypeCode(),
-                data);
-
-        /*
-         * If row key is of type TEXT, allow filter in start/stop row
-         * key API in HBaseAccessor/Scan object.
-         */
-        if (data != null && isTextualRowKey(hBaseColumn)) {
-            storeStartEndKeys(operator, data.toString());
-        }
+                                               DataType dataType,
+                                               String data) {
+        ByteArrayComparable comparator = hBaseColumn.isBinaryEncoded() ?
+                new BinaryComparator(HBaseValueCodec.encode(hBaseColumn, data)) :
+                getComparator(hBaseColumn.columnTypeCode(), dataType, data);
 
         if (hBaseColumn.isKeyColumn()) {
             // Special filter for row key column
@@ -248,6 +273,28 @@ public class HBaseFilterBuilder implements TreeVisitor {
         }
     }
 
+    /**
+     * Handles the IN operator, as equality to any of the values.
+     *
+     * @param hBaseColumn the HBase column
+     * @param data        the operand, a list of values or a single value
+     * @return the filter for the given operator
+     */
+    private Filter processInOperator(HBaseColumnDescriptor hBaseColumn, OperandNode data) {
+        List<String> values = getValues(data);
+        DataType dataType = data instanceof CollectionOperandNode ?
+                data.getDataType().getTypeElem() : data.getDataType();
+
+        if (values.size() == 1) {
+            return processSimpleColumnOperator(hBaseColumn, Operator.EQUALS, dataType, values.get(0));
+        }
+        FilterList filter = new FilterList(FilterList.Operator.MUST_PASS_ONE);
+        for (String value : values) {
+            filter.addFilter(processSimpleColumnOperator(hBaseColumn, Operator.EQUALS, dataType, value));
+        }
+        return filter;
+    }
+
     /**
      * Handles IS NULL and IS NOT NULL operators
      *
@@ -266,43 +313,61 @@ public class HBaseFilterBuilder implements TreeVisitor {
                 new NullComparator());
     }
 
+    /**
+     * Returns the values of the operand of an IN operator.
+     */
+    private List<String> getValues(OperandNode data) {
+        return data instanceof CollectionOperandNode ?
+                ((CollectionOperandNode) data).getData() :
+                Collections.singletonList(data.toString());
+    }
+
     /**
      * Returns true if column is of type TEXT and is a row key column.
+     * The order of the values of the column is the order of the row keys.
      */
     private boolean isTextualRowKey(HBaseColumnDescriptor column) {
         return column.isKeyColumn() && column.columnTypeCode() == TEXT.getOID();
     }
 
+    /**
+     * Returns true if column is a row key column whose values have a single
+     * encoding, so that a value is a single row key.
+     */
+    private boolean isPointRowKey(HBaseColumnDescriptor column) {
+        return isTextualRowKey(column) || (column.isKeyColumn() && column.isBinaryEncoded());
+    }
+
     /**
      * Resolves the column's type to a comparator class to be used.
      * Currently, supported types are TEXT and INTEGER types.
      */
-    private ByteArrayComparable getComparator(int type, OperandNode data) {
+    private ByteArrayComparable getComparator(int type, DataType dataType, String data) {
         ByteArrayComparable result;
         switch (DataType.get(type)) {
             case TEXT:
-                result = new BinaryComparator(Bytes.toBytes(data.toString()));
+                result = new BinaryComparator(Bytes.toBytes(data));
                 break;
             case SMALLINT:
             case INTEGER:
-                result = new HBaseIntegerComparator(Long.parseLong(data.toString()));
+                result = new HBaseIntegerComparator(Long.parseLong(data));
                 break;
             case BIGINT:
             case REAL:
 
                 // Check the operand's original data type
-                switch (data.getDataType()) {
+                switch (dataType) {
                     case BIGINT:
                     case INTEGER:
                     case SMALLINT:
-                        result = new HBaseIntegerComparator(Long.parseLong(data.toString()));
+                        result = new HBaseIntegerComparator(Long.parseLong(data));
                         break;
                     case REAL:
-                        result = new HBaseFloatComparator(Float.parseFloat(data.toString()));
+                        result = new HBaseFloatComparator(Float.parseFloat(data));
                         break;
                     case NUMERIC:
                     case FLOAT8:
-                        result = new HBaseDoubleComparator(Double.parseDouble(data.toString()));
+                        result = new HBaseDoubleComparator(Double.parseDouble(data));
                         break;
                     default:
                         result = null;
@@ -311,7 +376,7 @@ public class HBaseFilterBuilder implements TreeVisitor {
                 break;
 
             case FLOAT8:
-                result = new HBaseDoubleComparator(Double.parseDouble(data.toString()));
+                result = new HBaseDoubleComparator(Double.parseDouble(data));
                 break;
             default:
                 throw new IllegalArgumentException(String.format("unsupported column type for filtering %d", type));
@@ -321,56 +386,121 @@ public class HBaseFilterBuilder implements TreeVisitor {
     }
 
     /**
-     * Sets startKey/endKey and their inclusiveness
-     * according to the operation op.
+     * Returns the range of the row keys satisfying the operation op.
      */
-    private void storeStartEndKeys(Operator op, String data) {
-
-        // Adding a zero byte to endKey, makes it inclusive
-        // Adding a zero byte to startKey, makes it exclusive
-        byte[] zeroByte = new byte[1];
+    private List<RowRange> getRanges(HBaseColumnDescriptor column, Operator op, String data) {
+        byte[] key = HBaseValueCodec.encode(column, data);
 
         switch (op) {
             case LESS_THAN:
-                setEndKey(Bytes.toBytes(data));
-                break;
+                return range(HConstants.EMPTY_START_ROW, key);
             case GREATER_THAN:
-                setStartKey(Bytes.add(Bytes.toBytes(data), zeroByte));
-                break;
+                return range(nextKey(key), HConstants.EMPTY_END_ROW);
             case LESS_THAN_OR_EQUAL:
-                setEndKey(Bytes.add(Bytes.toBytes(data), zeroByte));
-                break;
+                return range(HConstants.EMPTY_START_ROW, nextKey(key));
             case GREATER_THAN_OR_EQUAL:
-                setStartKey(Bytes.toBytes(data));
-                break;
+                return range(key, HConstants.EMPTY_END_ROW);
             case EQUALS:
-                setStartKey(Bytes.toBytes(data));
-                setEndKey(Bytes.add(Bytes.toBytes(data), zeroByte));
-                break;
+                return range(key, nextKey(key));
+            default:
+                return Collections.singletonList(ALL_KEYS);
         }
     }
 
     /**
-     * Sets the start key. Only allows for setting the start key during the
-     * first call. Subsequent calls trying to set the start key will be ignored
-     *
-     * @param startKey the start key
+     * Returns the ranges of the single row keys of the values.
      */
-    private void setStartKey(byte[] startKey) {
-        if (startKeyAssigned) return;
-        this.startKey = startKey;
-        this.startKeyAssigned = true;
+    private List<RowRange> getPointRanges(HBaseColumnDescriptor column, List<String> values) {
+        List<RowRange> ranges = new ArrayList<>();
+        for (String value : values) {
+            byte[] key = HBaseValueCodec.encode(column, value);
+            ranges.add(new RowRange(key, true, nextKey(key), false));
+        }
+        return union(ranges, Collections.emptyList());
     }
 
     /**
-     * Sets the end key. Only allows for setting the end key during the
-     * first call. Subsequent calls trying to set the end key will be ignored
-     *
-     * @param endKey the end key
+     * Returns the smallest key greater than the given key.
+     * Adding a zero byte to an end key makes it inclusive,
+     * adding a zero byte to a start key makes it exclusive.
      */
-    private void setEndKey(byte[] endKey) {
-        if (endKeyAssigned) return;
-        this.endKey = endKey;
-        this.endKeyAssigned = true;
+    private static byte[] nextKey(byte[] key) {
+        return Bytes.add(key, new byte[1]);
+    }
+
+    private static List<RowRange> range(byte[] startKey, byte[] stopKey) {
+        if (!isEndOfTable(stopKey) && Bytes.compareTo(startKey, stopKey) >= 0) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(new RowRange(startKey, true, stopKey, false));
+    }
+
+    /**
+     * Returns the keys in both lists of ranges.
+     */
+    private static List<RowRange> intersect(List<RowRange> left, List<RowRange> right) {
+        if (left.size() == 1 && left.get(0) == ALL_KEYS) {
+            return right;
+        } else if (right.size() == 1 && right.get(0) == ALL_KEYS) {
+            return left;
+        }
+        List<RowRange> result = new ArrayList<>();
+        for (RowRange l : left) {
+            for (RowRange r : right) {
+                byte[] startKey = Bytes.compareTo(l.getStartRow(), r.getStartRow()) >= 0 ?
+                        l.getStartRow() : r.getStartRow();
+                byte[] stopKey = compareStopKeys(l.getStopRow(), r.getStopRow()) <= 0 ?
+                        l.getStopRow() : r.getStopRow();
+                result.addAll(range(startKey, stopKey));
+            }
+        }
+        return union(result, Collections.emptyList());
+    }
+
+    /**
+     * Returns the keys in any of the lists of ranges.
+     */
+    private static List<RowRange> union(List<RowRange> left, List<RowRange> right) {
+        if ((left.size() == 1 && left.get(0) == ALL_KEYS) || (right.size() == 1 && right.get(0) == ALL_KEYS)) {
+            return Collections.singletonList(ALL_KEYS);
+        }
+        List<RowRange> ranges = new ArrayList<>(left);
+        ranges.addAll(right);
+        ranges.sort((a, b) -> Bytes.compareTo(a.getStartRow(), b.getStartRow()));
+
+        List<RowRange> result = new ArrayList<>();
+        RowRange current = null;
+        for (RowRange range : ranges) {
+            if (current == null) {
+                current = range;
+            } else if (isEndOfTable(current.getStopRow()) ||
+                    Bytes.compareTo(range.getStartRow(), current.getStopRow()) <= 0) {
+                // the ranges overlap or are adjacent
+                if (compareStopKeys(range.getStopRow(), current.getStopRow()) > 0) {
+                    current = new RowRange(current.getStartRow(), true, range.getStopRow(), false);
+                }
+            } else {
+                result.add(current);
+                current = range;
+            }
+        }
+        if (current != null) {
+            result.add(current);
+        }
+        return result;
+    }
+
+    /**
+     * Compares stop keys, the empty stop key being the end of the table.
+     */
+    static int compareStopKeys(byte[] left, byte[] right) {
+        if (isEndOfTable(left)) {
+            return isEndOfTable(right) ? 0 : 1;
+        }
+        return isEndOfTable(right) ? -1 : Bytes.compareTo(left, right);
+    }
+
+    private static boolean isEndOfTable(byte[] stopKey) {
+        return Bytes.equals(stopKey, HConstants.EMPTY_END_ROW);
     }
 }
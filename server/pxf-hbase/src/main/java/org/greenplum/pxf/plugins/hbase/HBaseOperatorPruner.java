@@ -0,0 +1,124 @@
+package org.greenplum.pxf.plugins.hbase;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.filter.Node;
+import org.greenplum.pxf.api.filter.Operator;
+import org.greenplum.pxf.api.filter.OperatorNode;
+import org.greenplum.pxf.api.filter.SupportedOperatorPruner;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseColumnDescriptor;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseTupleDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumSet;
+
+/**
+ * Prunes the operators that cannot be pushed down to HBase, depending on
+ * the encoding of the columns.
+ * <p>
+ * The order of the bytes of binary encoded numbers is not the order of the
+ * numbers, so only the equality operators are pushed down for binary
+ * encoded columns, except for textual ones, and only for the types whose
+ * values have a single encoding. The IN operator is pushed down for the
+ * types that {@link HBaseFilterBuilder} can compare.
+ */
+public class HBaseOperatorPruner extends SupportedOperatorPruner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HBaseOperatorPruner.class);
+
+    private static final EnumSet<Operator> BINARY_OPERATORS = EnumSet.of(
+            Operator.EQUALS,
+            Operator.NOT_EQUALS,
+            Operator.IN,
+            Operator.IS_NULL,
+            Operator.IS_NOT_NULL
+    );
+
+    // NUMERIC is left out, the encoding of a number depends on its scale
+    private static final EnumSet<DataType> BINARY_TYPES = EnumSet.of(
+            DataType.SMALLINT,
+            DataType.INTEGER,
+            DataType.BIGINT,
+            DataType.REAL,
+            DataType.FLOAT8,
+            DataType.BOOLEAN,
+            DataType.TIMESTAMP
+    );
+
+    private static final EnumSet<DataType> IN_TYPES = EnumSet.of(
+            DataType.TEXT,
+            DataType.SMALLINT,
+            DataType.INTEGER,
+            DataType.BIGINT,
+            DataType.REAL,
+            DataType.FLOAT8
+    );
+
+    private final HBaseTupleDescription tupleDescription;
+
+    public HBaseOperatorPruner(EnumSet<Operator> supportedOperators,
+                               HBaseTupleDescription tupleDescription) {
+        super(supportedOperators);
+        this.tupleDescription = tupleDescription;
+    }
+
+    @Override
+    public Node visit(Node node, final int level) {
+        if (node instanceof OperatorNode &&
+                !canOperatorBePushedDown((OperatorNode) node)) {
+            return null;
+        }
+        return super.visit(node, level);
+    }
+
+    /**
+     * Returns true when the operator is logical, or when the simple
+     * operator can be pushed down for the encoding and type of its column.
+     *
+     * @param operatorNode the operator node
+     * @return true when the filter is compatible, false otherwise
+     */
+    private boolean canOperatorBePushedDown(OperatorNode operatorNode) {
+        Operator operator = operatorNode.getOperator();
+
+        if (operator.isLogical()) {
+            // Skip AND / OR
+            return true;
+        }
+
+        HBaseColumnDescriptor column = tupleDescription.getColumn(operatorNode.getColumnIndexOperand().index());
+        DataType type = DataType.get(column.columnTypeCode());
+
+        boolean canPushDown;
+        if (column.isBinaryEncoded() && type != DataType.TEXT) {
+            canPushDown = BINARY_OPERATORS.contains(operator) &&
+                    (BINARY_TYPES.contains(type) || operator == Operator.IS_NULL || operator == Operator.IS_NOT_NULL);
+        } else {
+            canPushDown = operator != Operator.IN || IN_TYPES.contains(type);
+        }
+
+        if (!canPushDown) {
+            LOG.trace("Operator {} is not supported for column {}, ignore this filter", operator, column.columnName());
+        }
+        return canPushDown;
+    }
+}
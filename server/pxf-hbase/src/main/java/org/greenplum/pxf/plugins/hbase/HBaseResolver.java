@@ -23,21 +23,26 @@ package org.greenplum.pxf.plugins.hbase;
 import org.greenplum.pxf.api.BadRecordException;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
-import org.greenplum.pxf.api.UnsupportedTypeException;
-import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.model.Resolver;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseColumnDescriptor;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseConnectionManager;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseLookupTable;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseTupleDescription;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseValueCodec;
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.util.Bytes;
 
-import java.sql.Timestamp;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Record resolver for HBase.
@@ -46,15 +51,44 @@ import java.util.List;
  * into a List of {@link OneField} objects.
  * That also includes the conversion process of each HBase column's value into its GPDB assigned type.
  *
- * Currently, the class assumes all HBase values are stored as String object Bytes encoded.
+ * For writes, the class converts the fields of a record into a {@link Put}
+ * of the row whose key is the value of the recordkey column.
+ *
+ * The values are stored as the bytes of their string representation, or
+ * binary encoded for the columns listed in the BINARY_COLUMNS option. The
+ * conversion of every column is chosen once, see {@link HBaseValueCodec}.
  */
 public class HBaseResolver extends BasePlugin implements Resolver {
+    private final HBaseConnectionManager connectionManager;
     private HBaseTupleDescription tupleDescription;
+    // the decoders of the projected columns, for reads
+    private HBaseValueCodec.Decoder[] decoders;
+    // the index of the recordkey column, for writes
+    private int keyColumnIndex = -1;
+
+    public HBaseResolver() {
+        this(HBaseConnectionManager.getInstance());
+    }
+
+    HBaseResolver(HBaseConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
 
     @Override
     public void initialize(RequestContext requestContext) {
         super.initialize(requestContext);
-        tupleDescription = new HBaseTupleDescription(context);
+        if (context.getRequestType() == RequestContext.RequestType.WRITE_BRIDGE) {
+            initializeForWrite();
+        } else {
+            tupleDescription = new HBaseTupleDescription(context);
+            decoders = new HBaseValueCodec.Decoder[tupleDescription.columns()];
+            for (int i = 0; i < tupleDescription.columns(); ++i) {
+                HBaseColumnDescriptor column = tupleDescription.getColumn(i);
+                if (column.isProjected()) {
+                    decoders[i] = HBaseValueCodec.getDecoder(column);
+                }
+            }
+        }
     }
 
     /**
@@ -73,7 +107,10 @@ public class HBaseResolver extends BasePlugin implements Resolver {
             HBaseColumnDescriptor column = tupleDescription.getColumn(i);
             byte[] value;
 
-            if (column.isKeyColumn()) // if a row column is requested
+            if (!column.isProjected()) // the column is not read from HBase
+            {
+                value = null;
+            } else if (column.isKeyColumn()) // if a row column is requested
             {
                 value = result.getRow(); // just return the row key
             } else // else, return column value
@@ -83,7 +120,7 @@ public class HBaseResolver extends BasePlugin implements Resolver {
 
             OneField oneField = new OneField();
             oneField.type = column.columnTypeCode();
-            oneField.val = convertToJavaObject(oneField.type, column.columnTypeName(), value);
+            oneField.val = value == null ? null : decoders[i].decode(value);
             fields.add(oneField);
         }
         return fields;
@@ -97,13 +134,40 @@ public class HBaseResolver extends BasePlugin implements Resolver {
      * @throws Exception if constructing a row from the fields failed
      */
     @Override
-    public OneRow setFields(List<OneField> record) {
-        throw new UnsupportedOperationException();
+    public OneRow setFields(List<OneField> record) throws Exception {
+        if (record.size() != tupleDescription.columns()) {
+            throw new BadRecordException("Record has " + record.size() + " fields but the table has " +
+                    tupleDescription.columns() + " columns, the format of the table must be " +
+                    "'CUSTOM' (FORMATTER='pxfwritable_export')");
+        }
+
+        Object key = record.get(keyColumnIndex).val;
+        if (key == null) {
+            throw new BadRecordException("Value of column recordkey cannot be null");
+        }
+
+        Put put = new Put(HBaseValueCodec.encode(tupleDescription.getColumn(keyColumnIndex), key));
+        Iterator<OneField> fields = record.iterator();
+        for (int i = 0; i < tupleDescription.columns(); ++i) {
+            Object value = fields.next().val;
+            // a null value is a missing cell
+            if (i == keyColumnIndex || value == null) {
+                continue;
+            }
+            HBaseColumnDescriptor column = tupleDescription.getColumn(i);
+            put.addColumn(column.columnFamilyBytes(), column.qualifierBytes(), HBaseValueCodec.encode(column, value));
+        }
+
+        if (put.isEmpty()) {
+            throw new BadRecordException("Row " + Bytes.toStringBinary(put.getRow()) +
+                    " has no value to write, all its columns but recordkey are null");
+        }
+        return new OneRow(put.getRow(), put);
     }
 
     /**
-     * Converts given byte array value to the matching java object, according to
-     * the given type code.
+     * Converts given byte array value, stored as a string, to the matching
+     * java object, according to the given type code.
      *
      * @param typeCode ColumnDescriptor type id
      * @param typeName type name. Used for error messages
@@ -115,45 +179,38 @@ public class HBaseResolver extends BasePlugin implements Resolver {
         if (val == null) {
             return null;
         }
-        try {
-            switch (DataType.get(typeCode)) {
-                case TEXT:
-                case VARCHAR:
-                case BPCHAR:
-                case NUMERIC:
-                    return Bytes.toString(val);
-
-                case INTEGER:
-                    return Integer.parseInt(Bytes.toString(val));
-
-                case BIGINT:
-                    return Long.parseLong(Bytes.toString(val));
-
-                case SMALLINT:
-                    return Short.parseShort(Bytes.toString(val));
-
-                case REAL:
-                    return Float.parseFloat(Bytes.toString(val));
-
-                case FLOAT8:
-                    return Double.parseDouble(Bytes.toString(val));
-
-                case BYTEA:
-                    return val;
-
-                case BOOLEAN:
-                    return Boolean.valueOf(Bytes.toString(val));
+        return HBaseValueCodec.getDecoder(typeCode, typeName, false).decode(val);
+    }
 
-                case TIMESTAMP:
-                    return Timestamp.valueOf(Bytes.toString(val));
+    /**
+     * Creates the tuple description of a write. No fragmenter runs for
+     * writes, so the column mappings of the lookup table are read here.
+     */
+    private void initializeForWrite() {
+        Map<String, byte[]> tableMapping;
+        try {
+            Connection connection = connectionManager.getConnection(context.getServerName(),
+                    HBaseConfiguration.create(configuration));
+            try (HBaseLookupTable lookupTable = new HBaseLookupTable(connection)) {
+                tableMapping = lookupTable.getMappings(context.getDataSource());
+            } finally {
+                connectionManager.releaseConnection(connection);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Exception while reading the lookup table mappings of table " +
+                    context.getDataSource(), e);
+        }
+        tupleDescription = new HBaseTupleDescription(context, tableMapping);
 
-                default:
-                    throw new UnsupportedTypeException("Unsupported data type " + typeName);
+        for (int i = 0; i < tupleDescription.columns(); ++i) {
+            if (tupleDescription.getColumn(i).isKeyColumn()) {
+                keyColumnIndex = i;
+                break;
             }
-        } catch (NumberFormatException e) {
-            throw new BadRecordException("Error converting value '" + Bytes.toString(val) + "' " +
-                    "to type " + typeName + ". " +
-                    "(original error: " + e.getMessage() + ")");
+        }
+        if (keyColumnIndex < 0) {
+            throw new IllegalArgumentException("Table must have a recordkey column to write to HBase table " +
+                    context.getDataSource());
         }
     }
 
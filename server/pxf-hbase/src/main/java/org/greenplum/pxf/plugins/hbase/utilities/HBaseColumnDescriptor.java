@@ -31,6 +31,7 @@ import java.util.Arrays;
 public class HBaseColumnDescriptor extends ColumnDescriptor {
     byte[] columnFamily;
     byte[] qualifier;
+    boolean binaryEncoded;
 
     /**
      * Constructs a column descriptor using the given copy's column name.
@@ -88,6 +89,16 @@ public class HBaseColumnDescriptor extends ColumnDescriptor {
         return qualifier;
     }
 
+    /**
+     * Returns true if the values of the column are binary encoded, false if
+     * they are stored as strings. See {@link HBaseValueCodec}.
+     *
+     * @return true if the values of the column are binary encoded
+     */
+    public boolean isBinaryEncoded() {
+        return binaryEncoded;
+    }
+
     private int getSeparatorIndex(byte[] columnName) {
         for (int i = 0; i < columnName.length; ++i) {
             if (columnName[i] == ':') {
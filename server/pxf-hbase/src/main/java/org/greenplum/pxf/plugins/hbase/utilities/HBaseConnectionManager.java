@@ -0,0 +1,347 @@
+package org.greenplum.pxf.plugins.hbase.utilities;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalListeners;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.greenplum.pxf.api.utilities.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares HBase connections between the requests to the same HBase cluster.
+ * <p>
+ * An HBase {@link Connection} is heavyweight: it opens a ZooKeeper session,
+ * caches the locations of the regions and owns the RPC thread pools. The
+ * {@link Table}, {@link Admin} and {@link RegionLocator} handles it creates
+ * are lightweight, so every request creates its own handles from a shared
+ * connection and closes them when it is done.
+ * <p>
+ * A connection is shared by the requests with the same server, the same user
+ * of the current {@link UserGroupInformation} and the same HBase and
+ * ZooKeeper properties. A connection is created in the security context of
+ * the request that first needs it, so a connection authenticated with the
+ * Kerberos credentials of a user, or impersonating a user, is never used by
+ * another user.
+ * <p>
+ * Every connection obtained with {@link #getConnection(String, Configuration)}
+ * must be given back with {@link #releaseConnection(Connection)}. A connection
+ * not obtained for {@link #CONNECTION_EXPIRATION_TIMEOUT_MINUTES} minutes is
+ * closed once all requests using it have released it.
+ */
+public class HBaseConnectionManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HBaseConnectionManager.class);
+
+    static final long CLEANUP_INTERVAL_MINUTES = 1;
+    static final long CLEANUP_SLEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    static final long CLEANUP_TIMEOUT_NANOS = TimeUnit.HOURS.toNanos(24);
+    static final long CONNECTION_EXPIRATION_TIMEOUT_MINUTES = 30;
+    static final String CONNECTION_METRICS_NAME = "hbase.connections";
+
+    // the properties identifying the cluster and how to connect to it
+    private static final String CONNECTION_PROPERTIES_REGEX = "^(hbase|zookeeper)\\.";
+
+    private static final ThreadFactory DAEMON_THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("pxf-hbase-connections-%d")
+            .build();
+
+    /**
+     * Singleton instance of the HBaseConnectionManager
+     */
+    private static final HBaseConnectionManager instance = new HBaseConnectionManager();
+
+    /**
+     * Creates the HBase connections
+     */
+    @FunctionalInterface
+    interface ConnectionCreator {
+        Connection create(Configuration configuration) throws IOException;
+    }
+
+    private final ConnectionCreator creator;
+    private final Cache<ConnectionDescriptor, SharedConnection> connections;
+    private final ConcurrentMap<Connection, SharedConnection> sharedConnections = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an instance of the connection manager that closes expired
+     * connections in the background and registers the metrics of its
+     * connections.
+     */
+    private HBaseConnectionManager() {
+        this(ConnectionFactory::createConnection, Ticker.systemTicker(), CLEANUP_SLEEP_INTERVAL_NANOS,
+                Executors.newCachedThreadPool(DAEMON_THREAD_FACTORY));
+        // the cache evicts expired entries only when it is used, so idle connections are evicted periodically
+        Executors.newSingleThreadScheduledExecutor(DAEMON_THREAD_FACTORY)
+                .scheduleWithFixedDelay(this::cleanCache, CLEANUP_INTERVAL_MINUTES, CLEANUP_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        MetricsRegistry.getInstance().register(CONNECTION_METRICS_NAME, this::getConnectionMetrics);
+    }
+
+    HBaseConnectionManager(ConnectionCreator creator, Ticker ticker, long sleepIntervalNanos, Executor closingExecutor) {
+        this.creator = creator;
+        this.connections = CacheBuilder.newBuilder()
+                .ticker(ticker)
+                .expireAfterAccess(CONNECTION_EXPIRATION_TIMEOUT_MINUTES, TimeUnit.MINUTES)
+                .removalListener(RemovalListeners.asynchronous((RemovalListener<ConnectionDescriptor, SharedConnection>) notification ->
+                        {
+                            SharedConnection sharedConnection = notification.getValue();
+                            LOG.debug("Processing cache removal of HBase connection for {} with cause {}",
+                                    notification.getKey(),
+                                    notification.getCause().toString());
+                            sharedConnection.closeWhenReleased(ticker, sleepIntervalNanos);
+                            sharedConnections.remove(sharedConnection.connection);
+                        }
+                        , closingExecutor))
+                .build();
+    }
+
+    /**
+     * @return a singleton instance of the connection manager.
+     */
+    public static HBaseConnectionManager getInstance() {
+        return instance;
+    }
+
+    /**
+     * Explicitly runs cache maintenance operations.
+     */
+    void cleanCache() {
+        connections.cleanUp();
+    }
+
+    /**
+     * Returns the connection shared by the requests of the current user to
+     * the HBase cluster of the given configuration, creating it if needed.
+     * The connection must not be closed, it must be given back with
+     * {@link #releaseConnection(Connection)} instead.
+     *
+     * @param server        configuration server
+     * @param configuration HBase configuration
+     * @return the shared connection
+     * @throws IOException if the connection cannot be created
+     */
+    public Connection getConnection(String server, Configuration configuration) throws IOException {
+        ConnectionDescriptor descriptor = new ConnectionDescriptor(server,
+                UserGroupInformation.getCurrentUser().getUserName(),
+                configuration.getValByRegex(CONNECTION_PROPERTIES_REGEX));
+
+        while (true) {
+            SharedConnection sharedConnection;
+            try {
+                sharedConnection = connections.get(descriptor, () -> createConnection(descriptor, configuration));
+            } catch (ExecutionException | UncheckedExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException(String.format("Failed to create HBase connection for %s", descriptor), cause);
+            }
+
+            // the connection is being closed after it expired, a new one is created
+            if (!sharedConnection.retain()) {
+                continue;
+            }
+
+            Connection connection = sharedConnection.connection;
+            if (!connection.isClosed() && !connection.isAborted()) {
+                LOG.debug("Returning HBase connection for {}", descriptor);
+                return connection;
+            }
+
+            // the connection has been aborted after an unrecoverable error, it is replaced
+            LOG.warn("HBase connection for {} is closed, replacing it", descriptor);
+            sharedConnection.release();
+            connections.asMap().remove(descriptor, sharedConnection);
+        }
+    }
+
+    /**
+     * Gives back a connection obtained with {@link #getConnection(String, Configuration)}.
+     *
+     * @param connection the connection
+     * @throws IOException if the connection was not shared and cannot be closed
+     */
+    public void releaseConnection(Connection connection) throws IOException {
+        if (connection == null) {
+            return;
+        }
+
+        SharedConnection sharedConnection = sharedConnections.get(connection);
+        if (sharedConnection == null) {
+            LOG.warn("HBase connection {} is not shared, closing it", connection);
+            connection.close();
+            return;
+        }
+        sharedConnection.release();
+    }
+
+    /**
+     * Takes a snapshot of the shared connections, reported by the PXF metrics
+     * endpoint.
+     *
+     * @return the number of requests using every connection, identified by its server and user
+     */
+    List<Map<String, Object>> getConnectionMetrics() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        // iterating over the cache does not count as an access, so the connections still expire
+        connections.asMap().forEach((descriptor, sharedConnection) -> {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("server", descriptor.server);
+            metrics.put("user", descriptor.user);
+            metrics.put("references", sharedConnection.getReferences());
+            result.add(metrics);
+        });
+        return result;
+    }
+
+    private SharedConnection createConnection(ConnectionDescriptor descriptor, Configuration configuration) throws IOException {
+        LOG.debug("Creating HBase connection for {}", descriptor);
+        SharedConnection sharedConnection = new SharedConnection(creator.create(configuration));
+        sharedConnections.put(sharedConnection.connection, sharedConnection);
+        return sharedConnection;
+    }
+
+    /**
+     * A connection with the number of requests using it
+     */
+    private static class SharedConnection {
+        private final Connection connection;
+        private int references;
+        private boolean closing;
+
+        SharedConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * @return true if the connection can be used, false if it is being closed
+         */
+        synchronized boolean retain() {
+            if (closing) {
+                return false;
+            }
+            references++;
+            return true;
+        }
+
+        synchronized void release() {
+            references--;
+        }
+
+        synchronized int getReferences() {
+            return references;
+        }
+
+        /**
+         * @return true if the connection is not used anymore, it cannot be retained afterwards
+         */
+        private synchronized boolean closeIfReleased() {
+            closing = references <= 0;
+            return closing;
+        }
+
+        /**
+         * Waits until the connection is released by all the requests using it,
+         * but no longer than {@link #CLEANUP_TIMEOUT_NANOS}, and closes it.
+         */
+        void closeWhenReleased(Ticker ticker, long sleepIntervalNanos) {
+            long startTime = ticker.read();
+            while (!closeIfReleased()) {
+                if ((ticker.read() - startTime) > CLEANUP_TIMEOUT_NANOS) {
+                    LOG.warn("HBase connection {} is used for too long, closing it", connection);
+                    synchronized (this) {
+                        closing = true;
+                    }
+                    break;
+                }
+                Uninterruptibles.sleepUninterruptibly(sleepIntervalNanos, TimeUnit.NANOSECONDS);
+            }
+            try {
+                connection.close();
+            } catch (IOException e) {
+                LOG.warn(String.format("Failed to close HBase connection %s, ignoring the error.", connection), e);
+            }
+        }
+    }
+
+    /**
+     * Identifies the connections that can be shared
+     */
+    private static class ConnectionDescriptor {
+        private final String server;
+        private final String user;
+        private final Map<String, String> properties;
+
+        ConnectionDescriptor(String server, String user, Map<String, String> properties) {
+            this.server = server;
+            this.user = user;
+            this.properties = properties == null ? new HashMap<>() : properties;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ConnectionDescriptor that = (ConnectionDescriptor) o;
+            return Objects.equals(server, that.server) &&
+                    Objects.equals(user, that.user) &&
+                    Objects.equals(properties, that.properties);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(server, user, properties);
+        }
+
+        @Override
+        public String toString() {
+            return "server=" + server + ", user=" + user;
+        }
+    }
+}
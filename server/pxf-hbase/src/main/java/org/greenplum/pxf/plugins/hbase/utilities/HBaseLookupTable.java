@@ -22,13 +22,11 @@ package org.greenplum.pxf.plugins.hbase.utilities;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.ClusterStatus;
 import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Admin;
 import org.apache.hadoop.hbase.client.Connection;
-import org.apache.hadoop.hbase.client.ConnectionFactory;
 import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.HBaseAdmin;
 import org.apache.hadoop.hbase.client.Result;
@@ -59,7 +57,8 @@ import java.util.Map;
  * Data is returned as a map of string and byte array from
  * {@link #getMappings(String)}.
  * <p>
- * Once created, {@link #close()} MUST be called to cleanup resources.
+ * Once created, {@link #close()} MUST be called to cleanup resources. The
+ * connection is not closed, it is owned by the caller.
  */
 public class HBaseLookupTable implements Closeable {
     private static final String LOOKUPTABLENAME = "pxflookup";
@@ -68,7 +67,6 @@ public class HBaseLookupTable implements Closeable {
     private static final Log LOG = LogFactory.getLog(HBaseLookupTable.class);
 
     private Connection connection;
-    private Configuration hbaseConfiguration;
     private Admin admin;
     private Map<byte[], byte[]> rawTableMapping;
     private Table lookupTable;
@@ -77,16 +75,17 @@ public class HBaseLookupTable implements Closeable {
      * Constructs a connector to HBase lookup table. Requires calling
      * {@link #close()} to close {@link HBaseAdmin} instance.
      *
-     * @param conf HBase configuration
+     * @param connection HBase connection
      * @throws IOException when initializing HBaseAdmin fails
      */
-    public HBaseLookupTable(Configuration conf) throws Exception {
-        hbaseConfiguration = conf;
-        connection = ConnectionFactory.createConnection(hbaseConfiguration);
+    public HBaseLookupTable(Connection connection) throws Exception {
+        this.connection = connection;
         admin = connection.getAdmin();
-        ClusterStatus cs = admin.getClusterStatus();
-        LOG.debug("HBase cluster has " + cs.getServersSize()
-                + " region servers " + "(" + cs.getDeadServers() + " dead)");
+        if (LOG.isDebugEnabled()) {
+            ClusterStatus cs = admin.getClusterStatus();
+            LOG.debug("HBase cluster has " + cs.getServersSize()
+                    + " region servers " + "(" + cs.getDeadServers() + " dead)");
+        }
     }
 
     /**
@@ -204,7 +203,6 @@ public class HBaseLookupTable implements Closeable {
 
     private void closeLookupTable() throws IOException {
         lookupTable.close();
-        HBaseUtilities.closeConnection(admin, connection);
     }
 
     private String lowerCase(byte[] key) {
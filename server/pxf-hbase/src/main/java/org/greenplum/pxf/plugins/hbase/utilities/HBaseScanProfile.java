@@ -0,0 +1,171 @@
+package org.greenplum.pxf.plugins.hbase.utilities;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Scan;
+import org.greenplum.pxf.api.model.RequestContext;
+
+/**
+ * Tuning of the {@link Scan} of a region. A profile gives defaults suited to
+ * a kind of query, and every setting of the profile can be overridden:
+ * <ul>
+ * <li>AUTO - the default. Scans of a whole region, without a row key range,
+ * do not fill the block cache of the region servers.</li>
+ * <li>EXPORT - for bulk reads. Results are fetched in large RPCs, and the
+ * block cache is not filled.</li>
+ * <li>LOOKUP - for reads of a few rows. Small scans are read with a single
+ * RPC, and the block cache is filled.</li>
+ * </ul>
+ * A setting is taken from the option of the external table, or else from the
+ * property of the server configuration, or else from the profile.
+ */
+public class HBaseScanProfile {
+
+    public enum Profile {
+        AUTO,
+        EXPORT,
+        LOOKUP
+    }
+
+    static final String SCAN_PROFILE_OPTION = "SCAN_PROFILE";
+    static final String SCAN_CACHING_OPTION = "SCAN_CACHING";
+    static final String SCAN_MAX_RESULT_SIZE_OPTION = "SCAN_MAX_RESULT_SIZE";
+    static final String SCAN_CACHE_BLOCKS_OPTION = "SCAN_CACHE_BLOCKS";
+    static final String SCAN_SMALL_OPTION = "SCAN_SMALL";
+
+    static final String SCAN_PROFILE_PROPERTY_NAME = "pxf.hbase.scan.profile";
+    static final String SCAN_CACHING_PROPERTY_NAME = "pxf.hbase.scan.caching";
+    static final String SCAN_MAX_RESULT_SIZE_PROPERTY_NAME = "pxf.hbase.scan.maxResultSize";
+    static final String SCAN_CACHE_BLOCKS_PROPERTY_NAME = "pxf.hbase.scan.cacheBlocks";
+    static final String SCAN_SMALL_PROPERTY_NAME = "pxf.hbase.scan.small";
+
+    // the maximum size of the results of a scanner RPC of the EXPORT profile
+    static final long EXPORT_MAX_RESULT_SIZE = 8L * 1024 * 1024;
+
+    private final Profile profile;
+    // the settings that are not set are left to the profile
+    private final Integer caching;
+    private final Long maxResultSize;
+    private final Boolean cacheBlocks;
+    private final Boolean small;
+
+    /**
+     * Reads the settings of the scans of a request.
+     *
+     * @param context       the request context
+     * @param configuration the configuration of the server
+     * @throws IllegalArgumentException if a setting has an invalid value
+     */
+    public HBaseScanProfile(RequestContext context, Configuration configuration) {
+        String profileName = getSetting(context, configuration, SCAN_PROFILE_OPTION, SCAN_PROFILE_PROPERTY_NAME);
+        try {
+            profile = profileName == null ? Profile.AUTO : Profile.valueOf(profileName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format(
+                    "Property %s has incorrect value %s : must be one of AUTO, EXPORT or LOOKUP", SCAN_PROFILE_OPTION, profileName), e);
+        }
+
+        Long cachingValue = getLong(context, configuration, SCAN_CACHING_OPTION, SCAN_CACHING_PROPERTY_NAME);
+        if (cachingValue != null && cachingValue > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                    "Property %s has incorrect value %d : must be at most %d", SCAN_CACHING_OPTION, cachingValue, Integer.MAX_VALUE));
+        }
+        caching = cachingValue == null ? null : cachingValue.intValue();
+        maxResultSize = getLong(context, configuration, SCAN_MAX_RESULT_SIZE_OPTION, SCAN_MAX_RESULT_SIZE_PROPERTY_NAME);
+        cacheBlocks = getBoolean(context, configuration, SCAN_CACHE_BLOCKS_OPTION, SCAN_CACHE_BLOCKS_PROPERTY_NAME);
+        small = getBoolean(context, configuration, SCAN_SMALL_OPTION, SCAN_SMALL_PROPERTY_NAME);
+    }
+
+    /**
+     * @return the profile of the scans
+     */
+    public Profile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Applies the settings to the scan of a region.
+     *
+     * @param scan            the scan of the region
+     * @param wholeRegionScan true if the scan reads the whole region, false if it reads a range of row keys
+     */
+    public void apply(Scan scan, boolean wholeRegionScan) {
+        scan.setCacheBlocks(cacheBlocks != null ? cacheBlocks :
+                profile == Profile.AUTO ? !wholeRegionScan : profile == Profile.LOOKUP);
+
+        Long scanMaxResultSize = maxResultSize != null ? maxResultSize :
+                profile == Profile.EXPORT ? EXPORT_MAX_RESULT_SIZE : null;
+        Boolean scanSmall = small != null ? small :
+                profile == Profile.LOOKUP ? Boolean.TRUE : null;
+
+        // the settings left unset keep the defaults of the HBase client
+        if (caching != null) {
+            scan.setCaching(caching);
+        }
+        if (scanMaxResultSize != null) {
+            scan.setMaxResultSize(scanMaxResultSize);
+        }
+        if (scanSmall != null) {
+            scan.setSmall(scanSmall);
+        }
+    }
+
+    private static String getSetting(RequestContext context, Configuration configuration, String option, String property) {
+        String value = context.getOption(option);
+        if (value == null && configuration != null) {
+            value = configuration.getTrimmed(property);
+        }
+        return StringUtils.isBlank(value) ? null : value.trim();
+    }
+
+    private static Long getLong(RequestContext context, Configuration configuration, String option, String property) {
+        String value = getSetting(context, configuration, option, property);
+        if (value == null) {
+            return null;
+        }
+        long result;
+        try {
+            result = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(
+                    "Property %s has incorrect value %s : must be a positive integer", option, value), e);
+        }
+        if (result <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Property %s has incorrect value %s : must be a positive integer", option, value));
+        }
+        return result;
+    }
+
+    private static Boolean getBoolean(RequestContext context, Configuration configuration, String option, String property) {
+        String value = getSetting(context, configuration, option, property);
+        if (value == null) {
+            return null;
+        } else if (StringUtils.equalsIgnoreCase(value, "true")) {
+            return true;
+        } else if (StringUtils.equalsIgnoreCase(value, "false")) {
+            return false;
+        }
+        throw new IllegalArgumentException(String.format(
+                "Property %s has incorrect value %s : must be either true or false", option, value));
+    }
+}
@@ -26,17 +26,24 @@ import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import java.io.ByteArrayInputStream;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The class extends the tuple description provided by {@link RequestContext}
  * for usage of {@link HBaseColumnDescriptor}.
  * <p>
  * This class also loads lookup table sent (optionally) by the
- * fragmenter.
+ * fragmenter, or given by the caller.
+ * <p>
+ * The columns listed in the BINARY_COLUMNS option, separated by commas,
+ * are binary encoded, see {@link HBaseValueCodec}.
  */
 public class HBaseTupleDescription {
+    static final String BINARY_COLUMNS_OPTION = "BINARY_COLUMNS";
+
     private Map<String, byte[]> tableMapping;
     private List<HBaseColumnDescriptor> tupleDescription;
     private RequestContext context;
@@ -51,6 +58,20 @@ public class HBaseTupleDescription {
         parseHBaseTupleDescription();
     }
 
+    /**
+     * Constructs tuple description of the HBase table, with the given
+     * mappings instead of the ones sent by the fragmenter.
+     *
+     * @param context      data containing table tuple description
+     * @param tableMapping mappings between GPDB column names (in lower case) and HBase column names, or null
+     */
+    public HBaseTupleDescription(RequestContext context, Map<String, byte[]> tableMapping) {
+        this.context = context;
+        this.tableMapping = tableMapping;
+        tupleDescription = new ArrayList<>();
+        createTupleDescription();
+    }
+
     /**
      * Returns the number of fields.
      *
@@ -100,10 +121,34 @@ public class HBaseTupleDescription {
     }
 
     private void createTupleDescription() {
+        Set<String> binaryColumns = getBinaryColumns();
         for (int i = 0; i < context.getColumns(); ++i) {
             ColumnDescriptor column = context.getColumn(i);
-            tupleDescription.add(getHBaseColumn(column));
+            HBaseColumnDescriptor hbaseColumn = getHBaseColumn(column);
+            hbaseColumn.binaryEncoded = binaryColumns.remove(column.columnName().toLowerCase());
+            tupleDescription.add(hbaseColumn);
+        }
+        if (!binaryColumns.isEmpty()) {
+            throw new IllegalArgumentException(String.format(
+                    "Property %s has incorrect value %s : %s is not a column of the table",
+                    BINARY_COLUMNS_OPTION, context.getOption(BINARY_COLUMNS_OPTION), binaryColumns.iterator().next()));
+        }
+    }
+
+    /**
+     * Returns the names, in lower case, of the binary encoded columns.
+     */
+    private Set<String> getBinaryColumns() {
+        Set<String> binaryColumns = new HashSet<>();
+        String option = context.getOption(BINARY_COLUMNS_OPTION);
+        if (option != null) {
+            for (String name : option.split(",")) {
+                if (!name.trim().isEmpty()) {
+                    binaryColumns.add(name.trim().toLowerCase());
+                }
+            }
         }
+        return binaryColumns;
     }
 
     /**
@@ -0,0 +1,210 @@
+package org.greenplum.pxf.plugins.hbase.utilities;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.greenplum.pxf.api.BadRecordException;
+import org.greenplum.pxf.api.UnsupportedTypeException;
+import org.greenplum.pxf.api.io.DataType;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.function.Function;
+
+/**
+ * Conversions between the values of HBase cells and Java objects.
+ * <p>
+ * By default a value is stored as the bytes of its string representation.
+ * The values of a binary encoded column are stored as written by the
+ * {@link Bytes} methods of their type, for example {@link Bytes#toBytes(long)}
+ * for BIGINT columns. Textual and BYTEA values are stored the same way with
+ * both encodings.
+ */
+public final class HBaseValueCodec {
+
+    /**
+     * Converts the value of a cell into the Java object of a column type.
+     * A decoder is chosen once per column, see {@link #getDecoder(int, String, boolean)}.
+     */
+    @FunctionalInterface
+    public interface Decoder {
+
+        /**
+         * @param value the value of the cell, not null
+         * @return the Java object of the value
+         * @throws BadRecordException if the value cannot be converted
+         */
+        Object decode(byte[] value) throws BadRecordException;
+    }
+
+    private HBaseValueCodec() {
+    }
+
+    /**
+     * Returns the decoder of the values of a column.
+     *
+     * @param column the HBase column
+     * @return the decoder of the values of the column
+     * @throws UnsupportedTypeException if the type of the column is not supported
+     */
+    public static Decoder getDecoder(HBaseColumnDescriptor column) {
+        return getDecoder(column.columnTypeCode(), column.columnTypeName(), column.isBinaryEncoded());
+    }
+
+    /**
+     * Returns the decoder of the values of a type.
+     *
+     * @param typeCode ColumnDescriptor type id
+     * @param typeName type name. Used for error messages
+     * @param binary   true if the values are binary encoded
+     * @return the decoder of the values of the type
+     * @throws UnsupportedTypeException if the type is not supported
+     */
+    public static Decoder getDecoder(int typeCode, String typeName, boolean binary) {
+        switch (DataType.get(typeCode)) {
+            case TEXT:
+            case VARCHAR:
+            case BPCHAR:
+                return Bytes::toString;
+
+            case BYTEA:
+                return val -> val;
+
+            case NUMERIC:
+                return binary ?
+                        val -> Bytes.toBigDecimal(checkMinimumLength(val, Bytes.SIZEOF_INT + 1, typeName)).toPlainString() :
+                        Bytes::toString;
+
+            case INTEGER:
+                return binary ?
+                        val -> Bytes.toInt(checkLength(val, Bytes.SIZEOF_INT, typeName)) :
+                        parsing(Integer::parseInt, typeName);
+
+            case BIGINT:
+                return binary ?
+                        val -> Bytes.toLong(checkLength(val, Bytes.SIZEOF_LONG, typeName)) :
+                        parsing(Long::parseLong, typeName);
+
+            case SMALLINT:
+                return binary ?
+                        val -> Bytes.toShort(checkLength(val, Bytes.SIZEOF_SHORT, typeName)) :
+                        parsing(Short::parseShort, typeName);
+
+            case REAL:
+                return binary ?
+                        val -> Bytes.toFloat(checkLength(val, Bytes.SIZEOF_FLOAT, typeName)) :
+                        parsing(Float::parseFloat, typeName);
+
+            case FLOAT8:
+                return binary ?
+                        val -> Bytes.toDouble(checkLength(val, Bytes.SIZEOF_DOUBLE, typeName)) :
+                        parsing(Double::parseDouble, typeName);
+
+            case BOOLEAN:
+                return binary ?
+                        val -> Bytes.toBoolean(checkLength(val, Bytes.SIZEOF_BOOLEAN, typeName)) :
+                        val -> Boolean.valueOf(Bytes.toString(val));
+
+            case TIMESTAMP:
+                return binary ?
+                        val -> new Timestamp(Bytes.toLong(checkLength(val, Bytes.SIZEOF_LONG, typeName))) :
+                        val -> Timestamp.valueOf(Bytes.toString(val));
+
+            default:
+                throw new UnsupportedTypeException("Unsupported data type " + typeName);
+        }
+    }
+
+    /**
+     * Converts a value into the bytes of a cell of a column, the inverse of
+     * the decoder of the column. The value is either the Java object of the
+     * column type or its string representation.
+     *
+     * @param column the HBase column
+     * @param value  the value, not null
+     * @return the bytes of the value
+     * @throws IllegalArgumentException if the value cannot be converted
+     */
+    public static byte[] encode(HBaseColumnDescriptor column, Object value) {
+        if (value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        if (!column.isBinaryEncoded()) {
+            return Bytes.toBytes(value.toString());
+        }
+
+        switch (DataType.get(column.columnTypeCode())) {
+            case INTEGER:
+                return Bytes.toBytes(value instanceof Number ?
+                        ((Number) value).intValue() : Integer.parseInt(value.toString()));
+            case BIGINT:
+                return Bytes.toBytes(value instanceof Number ?
+                        ((Number) value).longValue() : Long.parseLong(value.toString()));
+            case SMALLINT:
+                return Bytes.toBytes(value instanceof Number ?
+                        ((Number) value).shortValue() : Short.parseShort(value.toString()));
+            case REAL:
+                return Bytes.toBytes(value instanceof Number ?
+                        ((Number) value).floatValue() : Float.parseFloat(value.toString()));
+            case FLOAT8:
+                return Bytes.toBytes(value instanceof Number ?
+                        ((Number) value).doubleValue() : Double.parseDouble(value.toString()));
+            case NUMERIC:
+                return Bytes.toBytes(value instanceof BigDecimal ?
+                        (BigDecimal) value : new BigDecimal(value.toString()));
+            case BOOLEAN:
+                return Bytes.toBytes(value instanceof Boolean ?
+                        (Boolean) value : Boolean.parseBoolean(value.toString()));
+            case TIMESTAMP:
+                return Bytes.toBytes(value instanceof Timestamp ?
+                        ((Timestamp) value).getTime() : Timestamp.valueOf(value.toString()).getTime());
+            default:
+                return Bytes.toBytes(value.toString());
+        }
+    }
+
+    private static Decoder parsing(Function<String, Object> parser, String typeName) {
+        return val -> {
+            try {
+                return parser.apply(Bytes.toString(val));
+            } catch (NumberFormatException e) {
+                throw new BadRecordException("Error converting value '" + Bytes.toString(val) + "' " +
+                        "to type " + typeName + ". " +
+                        "(original error: " + e.getMessage() + ")");
+            }
+        };
+    }
+
+    private static byte[] checkLength(byte[] val, int length, String typeName) throws BadRecordException {
+        if (val.length != length) {
+            throw new BadRecordException("Error converting binary value " + Bytes.toStringBinary(val) +
+                    " of " + val.length + " bytes to type " + typeName + ", which has " + length + " bytes");
+        }
+        return val;
+    }
+
+    private static byte[] checkMinimumLength(byte[] val, int length, String typeName) throws BadRecordException {
+        if (val.length < length) {
+            throw new BadRecordException("Error converting binary value " + Bytes.toStringBinary(val) +
+                    " of " + val.length + " bytes to type " + typeName + ", which has at least " + length + " bytes");
+        }
+        return val;
+    }
+}
@@ -20,11 +20,21 @@ package org.greenplum.pxf.plugins.hbase;
  */
 
 
+import org.apache.hadoop.hbase.TableNotFoundException;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
 import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Durability;
+import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseConnectionManager;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseTupleDescription;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HBaseConfiguration;
@@ -33,13 +43,18 @@ import org.junit.After;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -47,7 +62,7 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({HBaseAccessor.class, HBaseConfiguration.class, ConnectionFactory.class})
+@PrepareForTest({HBaseAccessor.class, HBaseConnectionManager.class, HBaseConfiguration.class, ConnectionFactory.class})
 public class HBaseAccessorTest {
     static final String tableName = "fishy_HBase_table";
 
@@ -57,6 +72,8 @@ public class HBaseAccessorTest {
     Scan scanDetails;
     Configuration hbaseConfiguration;
     Connection hbaseConnection;
+    HBaseConnectionManager connectionManager;
+    BufferedMutator mutator;
     HBaseAccessor accessor;
 
     /*
@@ -118,6 +135,78 @@ public class HBaseAccessorTest {
         verifyScannerDidNothing();
     }
 
+    /*
+     * Test rows are written with a buffered mutator
+     * and the connection is released once the buffer is flushed
+     */
+    @Test
+    public void writeRows() throws Exception {
+        prepareWrite(true);
+        context.addOption("WRITE_BUFFER_SIZE", "1048576");
+        context.addOption("WRITE_DURABILITY", "skip_wal");
+
+        HBaseAccessor writeAccessor = new HBaseAccessor(connectionManager);
+        writeAccessor.initialize(context);
+        writeAccessor.openForWrite();
+        Put put = new Put("row1".getBytes());
+        writeAccessor.writeNextObject(new OneRow(put.getRow(), put));
+        writeAccessor.closeForWrite();
+
+        ArgumentCaptor<BufferedMutatorParams> params = ArgumentCaptor.forClass(BufferedMutatorParams.class);
+        verify(hbaseConnection).getBufferedMutator(params.capture());
+        assertEquals(tableName, params.getValue().getTableName().getNameAsString());
+        assertEquals(1048576L, params.getValue().getWriteBufferSize());
+        verify(mutator).mutate(put);
+        assertEquals(Durability.SKIP_WAL, put.getDurability());
+        verify(mutator).close();
+        verify(connectionManager).releaseConnection(hbaseConnection);
+    }
+
+    /*
+     * Test writing to a missing table fails and releases the connection
+     */
+    @Test
+    public void writeToMissingTable() throws Exception {
+        prepareWrite(false);
+
+        HBaseAccessor writeAccessor = new HBaseAccessor(connectionManager);
+        writeAccessor.initialize(context);
+        try {
+            writeAccessor.openForWrite();
+            fail("should throw table not found exception");
+        } catch (TableNotFoundException e) {
+            assertEquals(tableName, e.getMessage());
+        }
+
+        verify(hbaseConnection, never()).getBufferedMutator(any(BufferedMutatorParams.class));
+        verify(connectionManager).releaseConnection(hbaseConnection);
+    }
+
+    /*
+     * Test writing to a table with a column mapped by the lookup table.
+     * The write request has no lookup table mappings, so the accessor
+     * must not parse the column names as HBase column names
+     */
+    @Test
+    public void writeRowsWithLookupMappedColumn() throws Exception {
+        prepareWrite(true);
+        context.setRequestType(RequestContext.RequestType.WRITE_BRIDGE);
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("recordkey", DataType.TEXT.getOID(), 0, "text", null));
+        columns.add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null));
+        context.setTupleDescription(columns);
+
+        HBaseAccessor writeAccessor = new HBaseAccessor(connectionManager);
+        writeAccessor.initialize(context);
+        writeAccessor.openForWrite();
+        Put put = new Put("row1".getBytes());
+        writeAccessor.writeNextObject(new OneRow(put.getRow(), put));
+        writeAccessor.closeForWrite();
+
+        verify(mutator).mutate(put);
+        verify(connectionManager).releaseConnection(hbaseConnection);
+    }
+
     /*
      * Helper for test setup.
      * Creates a mock for HBaseTupleDescription and RequestContext
@@ -182,6 +271,27 @@ public class HBaseAccessorTest {
     /*
      * Close the accessor and make sure table was closed
      */
+    /*
+     * Helper for write tests.
+     * Mocks a connection manager returning a connection to the table
+     */
+    private void prepareWrite(boolean tableExists) throws Exception {
+        context = new RequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource(tableName);
+
+        connectionManager = mock(HBaseConnectionManager.class);
+        hbaseConnection = mock(Connection.class);
+        Admin admin = mock(Admin.class);
+        mutator = mock(BufferedMutator.class);
+        when(connectionManager.getConnection(anyString(), any(Configuration.class))).thenReturn(hbaseConnection);
+        when(hbaseConnection.getAdmin()).thenReturn(admin);
+        when(admin.isTableAvailable(TableName.valueOf(tableName))).thenReturn(tableExists);
+        when(admin.isTableEnabled(TableName.valueOf(tableName))).thenReturn(tableExists);
+        when(hbaseConnection.getBufferedMutator(any(BufferedMutatorParams.class))).thenReturn(mutator);
+    }
+
     private void closeAccessor() throws Exception {
         accessor.closeForRead();
         verify(table).close();
@@ -19,11 +19,16 @@ package org.greenplum.pxf.plugins.hbase;
  * under the License.
  */
 
+import org.apache.hadoop.hbase.filter.BinaryComparator;
 import org.apache.hadoop.hbase.filter.CompareFilter;
 import org.apache.hadoop.hbase.filter.Filter;
 import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
 import org.apache.hadoop.hbase.filter.NullComparator;
+import org.apache.hadoop.hbase.filter.RowFilter;
 import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.greenplum.pxf.api.filter.FilterParser;
 import org.greenplum.pxf.api.filter.Node;
 import org.greenplum.pxf.api.filter.SupportedOperatorPruner;
@@ -38,7 +43,10 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.List;
+
 import static org.greenplum.pxf.plugins.hbase.HBaseAccessor.SUPPORTED_OPERATORS;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -146,8 +154,148 @@ public class HBaseFilterBuilderTest {
     @Test
     public void testInOperator() throws Exception {
         // IN 'bad'
-        Filter filter = helper("a3c25s3dbado10", null);
-        assertNull(filter);
+        Filter filter = helper("a3c25s3dbado10", tupleDescription);
+        assertTrue(filter instanceof SingleColumnValueFilter);
+
+        SingleColumnValueFilter result = (SingleColumnValueFilter) filter;
+        assertSame(families[3], result.getFamily());
+        assertEquals(CompareFilter.CompareOp.EQUAL, result.getOperator());
+        assertEquals(0, result.getComparator().compareTo("bad".getBytes()));
+    }
+
+    @Test
+    public void testInOperatorWithList() throws Exception {
+        // IN ('a', 'b')
+        Filter filter = helper("a3m1009s1das1dbo10", tupleDescription);
+        assertTrue(filter instanceof FilterList);
+
+        FilterList filterList = (FilterList) filter;
+        assertEquals(FilterList.Operator.MUST_PASS_ONE, filterList.getOperator());
+        assertEquals(2, filterList.getFilters().size());
+        SingleColumnValueFilter left = (SingleColumnValueFilter) filterList.getFilters().get(0);
+        SingleColumnValueFilter right = (SingleColumnValueFilter) filterList.getFilters().get(1);
+        assertEquals(CompareFilter.CompareOp.EQUAL, left.getOperator());
+        assertEquals(0, left.getComparator().compareTo("a".getBytes()));
+        assertEquals(CompareFilter.CompareOp.EQUAL, right.getOperator());
+        assertEquals(0, right.getComparator().compareTo("b".getBytes()));
+    }
+
+    @Test
+    public void testRowKeyInOperator() throws Exception {
+        mockKeyColumn(DataType.TEXT, false);
+
+        // recordkey IN ('r3', 'r1', 'r2')
+        HBaseFilterBuilder builder = traverse("a4m1009s2dr3s2dr1s2dr2o10");
+
+        List<RowRange> ranges = builder.getKeyRanges();
+        assertEquals(3, ranges.size());
+        assertRange("r1", "r1\\x00", ranges.get(0));
+        assertRange("r2", "r2\\x00", ranges.get(1));
+        assertRange("r3", "r3\\x00", ranges.get(2));
+
+        // the row filters are combined with the ranges
+        Filter filter = builder.build();
+        assertTrue(filter instanceof FilterList);
+        FilterList filterList = (FilterList) filter;
+        assertEquals(FilterList.Operator.MUST_PASS_ALL, filterList.getOperator());
+        assertTrue(filterList.getFilters().get(0) instanceof MultiRowRangeFilter);
+        FilterList rowFilters = (FilterList) filterList.getFilters().get(1);
+        assertEquals(FilterList.Operator.MUST_PASS_ONE, rowFilters.getOperator());
+        assertEquals(3, rowFilters.getFilters().size());
+        assertTrue(rowFilters.getFilters().get(0) instanceof RowFilter);
+    }
+
+    @Test
+    public void testRowKeyOrOperator() throws Exception {
+        mockKeyColumn(DataType.TEXT, false);
+
+        // recordkey = 'r5' OR recordkey < 'r2' OR recordkey = 'r1'
+        HBaseFilterBuilder builder = traverse("a4c25s2dr5o5a4c25s2dr2o1l1a4c25s2dr1o5l1");
+
+        List<RowRange> ranges = builder.getKeyRanges();
+        assertEquals(2, ranges.size());
+        assertRange("", "r2", ranges.get(0));
+        assertRange("r5", "r5\\x00", ranges.get(1));
+    }
+
+    @Test
+    public void testRowKeyRangesAreIntersected() throws Exception {
+        mockKeyColumn(DataType.TEXT, false);
+
+        // recordkey >= 'r1' AND (recordkey < 'r3' OR recordkey > 'r8')
+        HBaseFilterBuilder builder = traverse("a4c25s2dr1o4a4c25s2dr3o1a4c25s2dr8o2l1l0");
+
+        List<RowRange> ranges = builder.getKeyRanges();
+        assertEquals(2, ranges.size());
+        assertRange("r1", "r3", ranges.get(0));
+        assertRange("r8\\x00", "", ranges.get(1));
+    }
+
+    @Test
+    public void testSingleRowKeyRange() throws Exception {
+        mockKeyColumn(DataType.TEXT, false);
+
+        // recordkey > 'r1' AND recordkey <= 'r3'
+        HBaseFilterBuilder builder = traverse("a4c25s2dr1o2a4c25s2dr3o3l0");
+
+        List<RowRange> ranges = builder.getKeyRanges();
+        assertEquals(1, ranges.size());
+        assertRange("r1\\x00", "r3\\x00", ranges.get(0));
+        // the scan is limited to the range, no range filter is needed
+        FilterList filter = (FilterList) builder.build();
+        assertEquals(2, filter.getFilters().size());
+        assertTrue(filter.getFilters().get(0) instanceof RowFilter);
+    }
+
+    @Test
+    public void testContradictoryRowKeyRanges() throws Exception {
+        mockKeyColumn(DataType.TEXT, false);
+
+        // recordkey = 'r1' AND recordkey = 'r2'
+        HBaseFilterBuilder builder = traverse("a4c25s2dr1o5a4c25s2dr2o5l0");
+
+        assertTrue(builder.getKeyRanges().isEmpty());
+    }
+
+    @Test
+    public void testOrWithOtherColumnReadsAllRowKeys() throws Exception {
+        mockKeyColumn(DataType.TEXT, false);
+
+        // recordkey = 'r1' OR a1 = 'x'
+        HBaseFilterBuilder builder = traverse("a4c25s2dr1o5a1c25s1dxo5l1");
+
+        assertNull(builder.getKeyRanges());
+        assertTrue(builder.build() instanceof FilterList);
+    }
+
+    @Test
+    public void testBinaryRowKeyInOperator() throws Exception {
+        mockKeyColumn(DataType.BIGINT, true);
+
+        // recordkey IN (2, 1)
+        HBaseFilterBuilder builder = traverse("a4m1016s1d2s1d1o10");
+
+        List<RowRange> ranges = builder.getKeyRanges();
+        assertEquals(2, ranges.size());
+        assertArrayEquals(Bytes.toBytes(1L), ranges.get(0).getStartRow());
+        assertArrayEquals(Bytes.add(Bytes.toBytes(1L), new byte[1]), ranges.get(0).getStopRow());
+        assertArrayEquals(Bytes.toBytes(2L), ranges.get(1).getStartRow());
+
+        FilterList rowFilters = (FilterList) ((FilterList) builder.build()).getFilters().get(1);
+        RowFilter rowFilter = (RowFilter) rowFilters.getFilters().get(0);
+        assertTrue(rowFilter.getComparator() instanceof BinaryComparator);
+        assertEquals(0, rowFilter.getComparator().compareTo(Bytes.toBytes(2L)));
+    }
+
+    @Test
+    public void testBinaryColumnEquality() throws Exception {
+        when(tupleDescription.getColumn(0).isBinaryEncoded()).thenReturn(true);
+
+        // a0 = 5
+        SingleColumnValueFilter filter = (SingleColumnValueFilter) helper("a0c23s1d5o5", tupleDescription);
+
+        assertTrue(filter.getComparator() instanceof BinaryComparator);
+        assertEquals(0, filter.getComparator().compareTo(Bytes.toBytes(5)));
     }
 
     @Test
@@ -261,6 +409,26 @@ public class HBaseFilterBuilderTest {
         assertEquals(0, scvFilterRight.getComparator().compareTo("1200".getBytes()));
     }
 
+    private void mockKeyColumn(DataType type, boolean binary) {
+        HBaseColumnDescriptor column = mock(HBaseColumnDescriptor.class);
+        when(tupleDescription.getColumn(4)).thenReturn(column);
+        when(column.isKeyColumn()).thenReturn(true);
+        when(column.columnTypeCode()).thenReturn(type.getOID());
+        when(column.isBinaryEncoded()).thenReturn(binary);
+    }
+
+    private void assertRange(String startKey, String stopKey, RowRange range) {
+        assertEquals(startKey, Bytes.toStringBinary(range.getStartRow()));
+        assertEquals(stopKey, Bytes.toStringBinary(range.getStopRow()));
+    }
+
+    private HBaseFilterBuilder traverse(String filterString) throws Exception {
+        HBaseFilterBuilder hBaseFilterBuilder = new HBaseFilterBuilder(tupleDescription);
+        Node root = new FilterParser().parse(filterString);
+        TRAVERSER.traverse(root, PRUNER, hBaseFilterBuilder);
+        return hBaseFilterBuilder;
+    }
+
     private Filter helper(String filterString, HBaseTupleDescription desc) throws Exception {
         HBaseFilterBuilder hBaseFilterBuilder = new HBaseFilterBuilder(desc);
         Node root = new FilterParser().parse(filterString);
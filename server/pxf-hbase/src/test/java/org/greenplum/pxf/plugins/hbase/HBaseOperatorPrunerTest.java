@@ -0,0 +1,84 @@
+package org.greenplum.pxf.plugins.hbase;
+
+import org.greenplum.pxf.api.filter.FilterParser;
+import org.greenplum.pxf.api.filter.Node;
+import org.greenplum.pxf.api.filter.ToStringTreeVisitor;
+import org.greenplum.pxf.api.filter.TreeTraverser;
+import org.greenplum.pxf.api.filter.TreeVisitor;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseColumnDescriptor;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseTupleDescription;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.greenplum.pxf.plugins.hbase.HBaseAccessor.SUPPORTED_OPERATORS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HBaseOperatorPrunerTest {
+
+    private static final TreeTraverser TRAVERSER = new TreeTraverser();
+
+    private TreeVisitor pruner;
+
+    @Before
+    public void setup() {
+        HBaseTupleDescription tupleDescription = mock(HBaseTupleDescription.class);
+        // a0 is a string integer, a1 a binary integer, a2 a binary text, a3 a binary numeric
+        mockColumn(tupleDescription, 0, DataType.INTEGER, false);
+        mockColumn(tupleDescription, 1, DataType.INTEGER, true);
+        mockColumn(tupleDescription, 2, DataType.TEXT, true);
+        mockColumn(tupleDescription, 3, DataType.NUMERIC, true);
+        pruner = new HBaseOperatorPruner(SUPPORTED_OPERATORS, tupleDescription);
+    }
+
+    @Test
+    public void testStringColumnIsNotPruned() throws Exception {
+        assertEquals("_0_ > 5", prune("a0c23s1d5o2"));
+    }
+
+    @Test
+    public void testEqualityOnBinaryColumnIsNotPruned() throws Exception {
+        assertEquals("_1_ = 5", prune("a1c23s1d5o5"));
+        assertEquals("_1_ IN (1,2)", prune("a1m1007s1d1s1d2o10"));
+    }
+
+    @Test
+    public void testOrderingOnBinaryColumnIsPruned() throws Exception {
+        assertNull(prune("a1c23s1d5o2"));
+        // a1 > 5 AND a0 < 10
+        assertEquals("_0_ < 10", prune("a1c23s1d5o2a0c23s2d10o1l0"));
+        // a1 > 5 OR a0 < 10
+        assertNull(prune("a1c23s1d5o2a0c23s2d10o1l1"));
+    }
+
+    @Test
+    public void testOrderingOnBinaryTextColumnIsNotPruned() throws Exception {
+        assertEquals("_2_ > abc", prune("a2c25s3dabco2"));
+    }
+
+    @Test
+    public void testEqualityOnBinaryNumericColumnIsPruned() throws Exception {
+        assertNull(prune("a3c1700s3d1.5o5"));
+    }
+
+    private String prune(String filterString) throws Exception {
+        Node root = new FilterParser().parse(filterString);
+        root = TRAVERSER.traverse(root, pruner);
+        if (root == null) {
+            return null;
+        }
+        ToStringTreeVisitor toStringTreeVisitor = new ToStringTreeVisitor();
+        TRAVERSER.traverse(root, toStringTreeVisitor);
+        return toStringTreeVisitor.toString();
+    }
+
+    private void mockColumn(HBaseTupleDescription tupleDescription, int index, DataType type, boolean binary) {
+        HBaseColumnDescriptor column = mock(HBaseColumnDescriptor.class);
+        when(tupleDescription.getColumn(index)).thenReturn(column);
+        when(column.columnTypeCode()).thenReturn(type.getOID());
+        when(column.isBinaryEncoded()).thenReturn(binary);
+    }
+}
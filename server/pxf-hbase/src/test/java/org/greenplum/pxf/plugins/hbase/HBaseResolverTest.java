@@ -20,8 +20,28 @@ package org.greenplum.pxf.plugins.hbase;
  */
 
 
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.ClusterStatus;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.conf.Configuration;
 import org.greenplum.pxf.api.BadRecordException;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseConnectionManager;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseTupleDescription;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -29,10 +49,20 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({HBaseResolver.class})
@@ -115,4 +145,161 @@ public class HBaseResolverTest {
         }
 
     }
+
+    @Test
+    /*
+     * Test the conversion of a record to a Put of the row of the recordkey
+     */
+    public void testSetFields() throws Exception {
+        HBaseConnectionManager connectionManager = prepareWrite(false);
+        HBaseResolver resolver = new HBaseResolver(connectionManager);
+        resolver.initialize(context);
+
+        OneRow row = resolver.setFields(Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), 7),
+                new OneField(DataType.TEXT.getOID(), "row1"),
+                new OneField(DataType.TEXT.getOID(), null),
+                new OneField(DataType.BYTEA.getOID(), new byte[]{1, 2})));
+
+        Put put = (Put) row.getData();
+        assertArrayEquals(Bytes.toBytes("row1"), put.getRow());
+        assertEquals(2, put.size());
+        assertArrayEquals(Bytes.toBytes("7"), cellValue(put, "cf1", "q1"));
+        assertFalse(put.has(Bytes.toBytes("cf1"), Bytes.toBytes("q2")));
+        assertArrayEquals(new byte[]{1, 2}, cellValue(put, "cf2", "q3"));
+        verify(connectionManager).releaseConnection(any(Connection.class));
+    }
+
+    @Test
+    /*
+     * Test a column mapped by the lookup table is written to its HBase column
+     */
+    public void testSetFieldsWithLookupTable() throws Exception {
+        HBaseResolver resolver = new HBaseResolver(prepareWrite(true));
+        resolver.initialize(context);
+
+        OneRow row = resolver.setFields(Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), 7),
+                new OneField(DataType.TEXT.getOID(), "row1"),
+                new OneField(DataType.TEXT.getOID(), null),
+                new OneField(DataType.BYTEA.getOID(), null)));
+
+        Put put = (Put) row.getData();
+        assertEquals(1, put.size());
+        assertArrayEquals(Bytes.toBytes("7"), cellValue(put, "cf9", "mapped"));
+    }
+
+    @Test
+    /*
+     * Test the values of binary encoded columns are written and read with their binary encoding
+     */
+    public void testBinaryColumns() throws Exception {
+        HBaseConnectionManager connectionManager = prepareWrite(false);
+        HBaseResolver resolver = new HBaseResolver(connectionManager);
+        context.addOption("BINARY_COLUMNS", "CF1:Q1, cf1:q2");
+        resolver.initialize(context);
+
+        OneRow row = resolver.setFields(Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), 7),
+                new OneField(DataType.TEXT.getOID(), "row1"),
+                new OneField(DataType.TEXT.getOID(), "a"),
+                new OneField(DataType.BYTEA.getOID(), null)));
+
+        Put put = (Put) row.getData();
+        assertArrayEquals(Bytes.toBytes(7), cellValue(put, "cf1", "q1"));
+        assertArrayEquals(Bytes.toBytes("a"), cellValue(put, "cf1", "q2"));
+
+        context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+        resolver = new HBaseResolver(connectionManager);
+        resolver.initialize(context);
+        // the cells of the put are sorted
+        List<OneField> fields = resolver.getFields(new OneRow(null, Result.create(put.getFamilyCellMap()
+                .values().stream().flatMap(List::stream).toArray(Cell[]::new))));
+
+        assertEquals(7, fields.get(0).val);
+        assertEquals("a", fields.get(2).val);
+        assertNull(fields.get(3).val);
+    }
+
+    @Test
+    /*
+     * Test a record without row key is rejected
+     */
+    public void testSetFieldsWithoutKey() throws Exception {
+        HBaseResolver resolver = new HBaseResolver(prepareWrite(false));
+        resolver.initialize(context);
+
+        try {
+            resolver.setFields(Arrays.asList(
+                    new OneField(DataType.INTEGER.getOID(), 7),
+                    new OneField(DataType.TEXT.getOID(), null),
+                    new OneField(DataType.TEXT.getOID(), "a"),
+                    new OneField(DataType.BYTEA.getOID(), null)));
+            fail("A record without row key should throw an exception");
+        } catch (BadRecordException e) {
+            assertEquals("Value of column recordkey cannot be null", e.getMessage());
+        }
+    }
+
+    @Test
+    /*
+     * Test writing requires a recordkey column
+     */
+    public void testWriteWithoutRecordKeyColumn() throws Exception {
+        HBaseConnectionManager connectionManager = prepareWrite(false);
+        context.setTupleDescription(new ArrayList<>(context.getTupleDescription().subList(2, 4)));
+
+        try {
+            new HBaseResolver(connectionManager).initialize(context);
+            fail("Writing without recordkey column should throw an exception");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Table must have a recordkey column to write to HBase table hbase_table", e.getMessage());
+        }
+    }
+
+    /*
+     * Helper for write tests.
+     * Creates a write context and a connection manager with a lookup table
+     * that maps column id to cf9:mapped if the lookup table exists
+     */
+    private HBaseConnectionManager prepareWrite(boolean hasLookupTable) throws Exception {
+        context = new RequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource("hbase_table");
+        context.setRequestType(RequestContext.RequestType.WRITE_BRIDGE);
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        // the first column is mapped by the lookup table, if it exists
+        columns.add(new ColumnDescriptor(hasLookupTable ? "id" : "cf1:q1", DataType.INTEGER.getOID(), 0, "int4", null));
+        columns.add(new ColumnDescriptor("recordkey", DataType.TEXT.getOID(), 1, "text", null));
+        columns.add(new ColumnDescriptor("cf1:q2", DataType.TEXT.getOID(), 2, "text", null));
+        columns.add(new ColumnDescriptor("cf2:q3", DataType.BYTEA.getOID(), 3, "bytea", null));
+        context.setTupleDescription(columns);
+
+        HBaseConnectionManager connectionManager = mock(HBaseConnectionManager.class);
+        Connection connection = mock(Connection.class);
+        Admin admin = mock(Admin.class);
+        when(connectionManager.getConnection(anyString(), any(Configuration.class))).thenReturn(connection);
+        when(connection.getAdmin()).thenReturn(admin);
+        when(admin.getClusterStatus()).thenReturn(mock(ClusterStatus.class));
+
+        TableName lookupTableName = TableName.valueOf("pxflookup");
+        when(admin.isTableAvailable(lookupTableName)).thenReturn(hasLookupTable);
+        when(admin.isTableEnabled(lookupTableName)).thenReturn(hasLookupTable);
+        if (hasLookupTable) {
+            HTableDescriptor descriptor = new HTableDescriptor(lookupTableName);
+            descriptor.addFamily(new HColumnDescriptor("mapping"));
+            when(admin.getTableDescriptor(lookupTableName)).thenReturn(descriptor);
+            Table lookupTable = mock(Table.class);
+            when(connection.getTable(lookupTableName)).thenReturn(lookupTable);
+            when(lookupTable.get(any(Get.class))).thenReturn(Result.create(new Cell[]{
+                    new KeyValue(Bytes.toBytes("hbase_table"), Bytes.toBytes("mapping"),
+                            Bytes.toBytes("id"), Bytes.toBytes("cf9:mapped"))}));
+        }
+        return connectionManager;
+    }
+
+    private byte[] cellValue(Put put, String family, String qualifier) {
+        return CellUtil.cloneValue(put.get(Bytes.toBytes(family), Bytes.toBytes(qualifier)).get(0));
+    }
 }
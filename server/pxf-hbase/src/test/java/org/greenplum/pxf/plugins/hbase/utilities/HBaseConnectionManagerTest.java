@@ -0,0 +1,174 @@
+package org.greenplum.pxf.plugins.hbase.utilities;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Connection;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HBaseConnectionManagerTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private List<Connection> createdConnections;
+    private AtomicLong time;
+    private HBaseConnectionManager manager;
+    private Configuration configuration;
+
+    @Before
+    public void setup() {
+        createdConnections = new ArrayList<>();
+        time = new AtomicLong();
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return time.get();
+            }
+        };
+        manager = new HBaseConnectionManager(conf -> {
+            Connection connection = mock(Connection.class);
+            createdConnections.add(connection);
+            return connection;
+        }, ticker, 0, MoreExecutors.directExecutor());
+
+        configuration = new Configuration(false);
+        configuration.set("hbase.zookeeper.quorum", "zk1,zk2,zk3");
+    }
+
+    @Test
+    public void testSingletonInstance() {
+        assertSame(HBaseConnectionManager.getInstance(), HBaseConnectionManager.getInstance());
+    }
+
+    @Test
+    public void testConnectionIsShared() throws IOException {
+        Connection connection = manager.getConnection("default", configuration);
+        Connection otherConnection = manager.getConnection("default", new Configuration(configuration));
+
+        assertSame(connection, otherConnection);
+        assertEquals(1, createdConnections.size());
+
+        manager.releaseConnection(connection);
+        manager.releaseConnection(otherConnection);
+        verify(connection, never()).close();
+    }
+
+    @Test
+    public void testConnectionsOfDifferentServersAreNotShared() throws IOException {
+        Connection connection = manager.getConnection("default", configuration);
+        Connection otherConnection = manager.getConnection("other", configuration);
+
+        assertNotSame(connection, otherConnection);
+    }
+
+    @Test
+    public void testConnectionsWithDifferentPropertiesAreNotShared() throws IOException {
+        Configuration otherConfiguration = new Configuration(configuration);
+        otherConfiguration.set("hbase.client.retries.number", "3");
+        // properties that are not HBase or ZooKeeper properties do not matter
+        Configuration sameConfiguration = new Configuration(configuration);
+        sameConfiguration.set("fs.defaultFS", "hdfs://namenode:8020");
+
+        Connection connection = manager.getConnection("default", configuration);
+        assertNotSame(connection, manager.getConnection("default", otherConfiguration));
+        assertSame(connection, manager.getConnection("default", sameConfiguration));
+    }
+
+    @Test
+    public void testExpiredConnectionIsClosedWhenReleased() throws IOException {
+        Connection connection = manager.getConnection("default", configuration);
+
+        time.addAndGet(TimeUnit.MINUTES.toNanos(HBaseConnectionManager.CONNECTION_EXPIRATION_TIMEOUT_MINUTES + 1));
+        Thread release = new Thread(() -> {
+            try {
+                manager.releaseConnection(connection);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        // the removal listener waits for the connection to be released
+        release.start();
+        manager.cleanCache();
+
+        verify(connection).close();
+        assertNotSame(connection, manager.getConnection("default", configuration));
+        assertEquals(2, createdConnections.size());
+    }
+
+    @Test
+    public void testUnusedConnectionIsClosedAfterCleanupTimeout() throws IOException {
+        Connection connection = manager.getConnection("default", configuration);
+        manager.releaseConnection(connection);
+
+        time.addAndGet(TimeUnit.MINUTES.toNanos(HBaseConnectionManager.CONNECTION_EXPIRATION_TIMEOUT_MINUTES - 1));
+        manager.cleanCache();
+        verify(connection, never()).close();
+
+        time.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        manager.cleanCache();
+        verify(connection).close();
+    }
+
+    @Test
+    public void testAbortedConnectionIsReplaced() throws IOException {
+        Connection connection = manager.getConnection("default", configuration);
+        manager.releaseConnection(connection);
+        when(connection.isAborted()).thenReturn(true);
+
+        Connection newConnection = manager.getConnection("default", configuration);
+
+        assertNotSame(connection, newConnection);
+        verify(connection).close();
+    }
+
+    @Test
+    public void testConnectionNotSharedIsClosed() throws IOException {
+        Connection connection = mock(Connection.class);
+
+        manager.releaseConnection(connection);
+
+        verify(connection).close();
+    }
+
+    @Test
+    public void testFailureToCreateConnection() throws IOException {
+        expectedException.expect(IOException.class);
+        expectedException.expectMessage("zookeeper is down");
+
+        new HBaseConnectionManager(conf -> {
+            throw new IOException("zookeeper is down");
+        }, Ticker.systemTicker(), 0, MoreExecutors.directExecutor()).getConnection("default", configuration);
+    }
+
+    @Test
+    public void testConnectionMetrics() throws IOException {
+        Connection connection = manager.getConnection("default", configuration);
+        manager.getConnection("default", configuration);
+        manager.releaseConnection(connection);
+
+        List<Map<String, Object>> metrics = manager.getConnectionMetrics();
+
+        assertEquals(1, metrics.size());
+        assertEquals("default", metrics.get(0).get("server"));
+        assertEquals(1, metrics.get(0).get("references"));
+    }
+}
@@ -0,0 +1,129 @@
+package org.greenplum.pxf.plugins.hbase.utilities;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Scan;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HBaseScanProfileTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private RequestContext context;
+    private Configuration configuration;
+    private Scan defaultScan;
+    private Scan scan;
+
+    @Before
+    public void setup() {
+        context = new RequestContext();
+        configuration = new Configuration(false);
+        defaultScan = new Scan();
+        scan = new Scan();
+    }
+
+    @Test
+    public void testAutoProfileDoesNotCacheBlocksOfWholeRegionScans() {
+        HBaseScanProfile profile = new HBaseScanProfile(context, configuration);
+        assertEquals(HBaseScanProfile.Profile.AUTO, profile.getProfile());
+
+        profile.apply(scan, true);
+        assertFalse(scan.getCacheBlocks());
+        assertEquals(defaultScan.getCaching(), scan.getCaching());
+        assertEquals(defaultScan.getMaxResultSize(), scan.getMaxResultSize());
+        assertEquals(defaultScan.isSmall(), scan.isSmall());
+
+        profile.apply(scan, false);
+        assertTrue(scan.getCacheBlocks());
+    }
+
+    @Test
+    public void testExportProfile() {
+        context.addOption("SCAN_PROFILE", "export");
+        HBaseScanProfile profile = new HBaseScanProfile(context, configuration);
+
+        profile.apply(scan, false);
+
+        assertEquals(HBaseScanProfile.Profile.EXPORT, profile.getProfile());
+        assertFalse(scan.getCacheBlocks());
+        assertEquals(HBaseScanProfile.EXPORT_MAX_RESULT_SIZE, scan.getMaxResultSize());
+        assertFalse(scan.isSmall());
+    }
+
+    @Test
+    public void testLookupProfile() {
+        configuration.set("pxf.hbase.scan.profile", "LOOKUP");
+        HBaseScanProfile profile = new HBaseScanProfile(context, configuration);
+
+        profile.apply(scan, true);
+
+        assertEquals(HBaseScanProfile.Profile.LOOKUP, profile.getProfile());
+        assertTrue(scan.getCacheBlocks());
+        assertTrue(scan.isSmall());
+    }
+
+    @Test
+    public void testSettingsOverrideProfile() {
+        context.addOption("SCAN_PROFILE", "export");
+        context.addOption("SCAN_CACHE_BLOCKS", "true");
+        context.addOption("SCAN_CACHING", "500");
+        configuration.set("pxf.hbase.scan.maxResultSize", "1048576");
+        configuration.set("pxf.hbase.scan.small", "true");
+
+        new HBaseScanProfile(context, configuration).apply(scan, true);
+
+        assertTrue(scan.getCacheBlocks());
+        assertEquals(500, scan.getCaching());
+        assertEquals(1048576L, scan.getMaxResultSize());
+        assertTrue(scan.isSmall());
+    }
+
+    @Test
+    public void testOptionOverridesProperty() {
+        configuration.set("pxf.hbase.scan.profile", "lookup");
+        configuration.set("pxf.hbase.scan.caching", "100");
+        context.addOption("SCAN_PROFILE", "auto");
+        context.addOption("SCAN_CACHING", "200");
+
+        HBaseScanProfile profile = new HBaseScanProfile(context, configuration);
+        profile.apply(scan, true);
+
+        assertEquals(HBaseScanProfile.Profile.AUTO, profile.getProfile());
+        assertEquals(200, scan.getCaching());
+    }
+
+    @Test
+    public void testInvalidProfile() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Property SCAN_PROFILE has incorrect value fast : must be one of AUTO, EXPORT or LOOKUP");
+
+        context.addOption("SCAN_PROFILE", "fast");
+        new HBaseScanProfile(context, configuration);
+    }
+
+    @Test
+    public void testInvalidCaching() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Property SCAN_CACHING has incorrect value 0 : must be a positive integer");
+
+        context.addOption("SCAN_CACHING", "0");
+        new HBaseScanProfile(context, configuration);
+    }
+
+    @Test
+    public void testInvalidBoolean() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Property SCAN_SMALL has incorrect value yes : must be either true or false");
+
+        context.addOption("SCAN_SMALL", "yes");
+        new HBaseScanProfile(context, configuration);
+    }
+}
@@ -0,0 +1,95 @@
+package org.greenplum.pxf.plugins.hbase.utilities;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.greenplum.pxf.api.BadRecordException;
+import org.greenplum.pxf.api.UnsupportedTypeException;
+import org.greenplum.pxf.api.io.DataType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HBaseValueCodecTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testStringDecoders() throws Exception {
+        assertEquals(1234L, decode(DataType.BIGINT, false, Bytes.toBytes("1234")));
+        assertEquals(12, decode(DataType.INTEGER, false, Bytes.toBytes("12")));
+        assertEquals((short) 1, decode(DataType.SMALLINT, false, Bytes.toBytes("1")));
+        assertEquals(1.5, decode(DataType.FLOAT8, false, Bytes.toBytes("1.5")));
+        assertEquals("1.50", decode(DataType.NUMERIC, false, Bytes.toBytes("1.50")));
+        assertEquals(true, decode(DataType.BOOLEAN, false, Bytes.toBytes("true")));
+    }
+
+    @Test
+    public void testBinaryDecoders() throws Exception {
+        assertEquals(1234L, decode(DataType.BIGINT, true, Bytes.toBytes(1234L)));
+        assertEquals(-12, decode(DataType.INTEGER, true, Bytes.toBytes(-12)));
+        assertEquals((short) 1, decode(DataType.SMALLINT, true, Bytes.toBytes((short) 1)));
+        assertEquals(1.5f, decode(DataType.REAL, true, Bytes.toBytes(1.5f)));
+        assertEquals(1.5, decode(DataType.FLOAT8, true, Bytes.toBytes(1.5)));
+        assertEquals("1.50", decode(DataType.NUMERIC, true, Bytes.toBytes(new BigDecimal("1.50"))));
+        assertEquals(false, decode(DataType.BOOLEAN, true, Bytes.toBytes(false)));
+        assertEquals(new Timestamp(1000L), decode(DataType.TIMESTAMP, true, Bytes.toBytes(1000L)));
+        assertEquals("text", decode(DataType.TEXT, true, Bytes.toBytes("text")));
+    }
+
+    @Test
+    public void testInvalidStringValue() throws Exception {
+        thrown.expect(BadRecordException.class);
+        thrown.expectMessage("Error converting value 'abc' to type integer. (original error: For input string: \"abc\")");
+
+        decode(DataType.INTEGER, false, Bytes.toBytes("abc"));
+    }
+
+    @Test
+    public void testInvalidBinaryValue() throws Exception {
+        thrown.expect(BadRecordException.class);
+        thrown.expectMessage("Error converting binary value \\x00\\x00\\x00\\x01 of 4 bytes to type bigint, which has 8 bytes");
+
+        decode(DataType.BIGINT, true, Bytes.toBytes(1));
+    }
+
+    @Test
+    public void testUnsupportedType() {
+        thrown.expect(UnsupportedTypeException.class);
+        thrown.expectMessage("Unsupported data type date");
+
+        HBaseValueCodec.getDecoder(DataType.DATE.getOID(), "date", true);
+    }
+
+    @Test
+    public void testEncode() {
+        assertArrayEquals(Bytes.toBytes("12"), HBaseValueCodec.encode(column(DataType.INTEGER, false), 12));
+        assertArrayEquals(Bytes.toBytes(12), HBaseValueCodec.encode(column(DataType.INTEGER, true), 12));
+        assertArrayEquals(Bytes.toBytes(12), HBaseValueCodec.encode(column(DataType.INTEGER, true), "12"));
+        assertArrayEquals(Bytes.toBytes(12L), HBaseValueCodec.encode(column(DataType.BIGINT, true), 12));
+        assertArrayEquals(Bytes.toBytes(1.5), HBaseValueCodec.encode(column(DataType.FLOAT8, true), "1.5"));
+        assertArrayEquals(Bytes.toBytes(true), HBaseValueCodec.encode(column(DataType.BOOLEAN, true), true));
+        assertArrayEquals(Bytes.toBytes("text"), HBaseValueCodec.encode(column(DataType.TEXT, true), "text"));
+
+        byte[] bytes = new byte[]{1, 2, 3};
+        assertArrayEquals(bytes, HBaseValueCodec.encode(column(DataType.BYTEA, true), bytes));
+    }
+
+    private Object decode(DataType type, boolean binary, byte[] value) throws Exception {
+        return HBaseValueCodec.getDecoder(type.getOID(), type.name().toLowerCase(), binary).decode(value);
+    }
+
+    private HBaseColumnDescriptor column(DataType type, boolean binary) {
+        HBaseColumnDescriptor column = mock(HBaseColumnDescriptor.class);
+        when(column.columnTypeCode()).thenReturn(type.getOID());
+        when(column.isBinaryEncoded()).thenReturn(binary);
+        return column;
+    }
+}
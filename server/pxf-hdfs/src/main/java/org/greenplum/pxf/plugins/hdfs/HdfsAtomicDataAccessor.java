@@ -27,6 +27,7 @@ import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.plugins.hdfs.utilities.FileSystemManager;
 import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 
 import java.io.IOException;
@@ -50,6 +51,7 @@ import java.net.URI;
 public abstract class HdfsAtomicDataAccessor extends BasePlugin implements Accessor {
     InputStream inputStream;
     private FileSplit fileSplit;
+    private FileSystem fileSystem;
 
     @Override
     public void initialize(RequestContext requestContext) {
@@ -72,9 +74,11 @@ public abstract class HdfsAtomicDataAccessor extends BasePlugin implements Acces
 
         URI uri = URI.create(context.getDataSource());
         // input data stream, FileSystem.get actually
-        // returns an FSDataInputStream
-        FileSystem fs = FileSystem.get(uri, configuration);
-        inputStream = fs.open(new Path(context.getDataSource()));
+        // returns an FSDataInputStream, the whole file is read ahead
+        // when prefetching is enabled
+        fileSystem = FileSystemManager.getInstance().getFileSystem(context, uri, configuration);
+        inputStream = PrefetchingInputStream.open(fileSystem, new Path(context.getDataSource()),
+                0, Long.MAX_VALUE, configuration);
 
         return (inputStream != null);
     }
@@ -102,8 +106,13 @@ public abstract class HdfsAtomicDataAccessor extends BasePlugin implements Acces
             return;
         }
 
-        if (inputStream != null) {
-            inputStream.close();
+        try {
+            if (inputStream != null) {
+                inputStream.close();
+            }
+        } finally {
+            FileSystemManager.getInstance().releaseFileSystem(fileSystem);
+            fileSystem = null;
         }
     }
 
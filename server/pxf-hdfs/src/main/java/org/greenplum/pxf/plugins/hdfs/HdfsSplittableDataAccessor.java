@@ -20,6 +20,9 @@ package org.greenplum.pxf.plugins.hdfs;
  */
 
 
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.InputFormat;
 import org.apache.hadoop.mapred.InputSplit;
@@ -29,6 +32,7 @@ import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.plugins.hdfs.utilities.FileSystemManager;
 import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 
 import java.io.IOException;
@@ -49,6 +53,7 @@ public abstract class HdfsSplittableDataAccessor extends BasePlugin implements A
     protected Object key, data;
     protected FileSplit fileSplit;
     HcfsType hcfsType;
+    private FileSystem fileSystem;
 
     /**
      * Constructs an HdfsSplittableDataAccessor
@@ -102,6 +107,27 @@ public abstract class HdfsSplittableDataAccessor extends BasePlugin implements A
     abstract protected Object getReader(JobConf jobConf, InputSplit split)
             throws IOException;
 
+    /**
+     * Opens the file of a split, reading the split ahead of the consumer
+     * with {@link PrefetchingInputStream} when it is enabled in the server
+     * configuration. Accessors whose record readers can read from a stream
+     * use it to read object stores with several concurrent ranged reads.
+     * The file system is obtained from the {@link FileSystemManager}, and is
+     * given back when the accessor is closed.
+     *
+     * @param split the split to read
+     * @return the stream, positioned at the start of the split
+     * @throws IOException if the file could not be opened
+     */
+    protected FSDataInputStream openSplit(FileSplit split) throws IOException {
+        Path file = split.getPath();
+        fileSystem = FileSystemManager.getInstance().getFileSystem(context, file.toUri(), jobConf);
+        FSDataInputStream in = PrefetchingInputStream.open(fileSystem, file,
+                split.getStart(), split.getStart() + split.getLength(), jobConf);
+        in.seek(split.getStart());
+        return in;
+    }
+
     /**
      * Fetches one record from the file. The record is returned as a Java
      * object.
@@ -127,8 +153,13 @@ public abstract class HdfsSplittableDataAccessor extends BasePlugin implements A
      */
     @Override
     public void closeForRead() throws Exception {
-        if (reader != null) {
-            reader.close();
+        try {
+            if (reader != null) {
+                reader.close();
+            }
+        } finally {
+            FileSystemManager.getInstance().releaseFileSystem(fileSystem);
+            fileSystem = null;
         }
     }
 
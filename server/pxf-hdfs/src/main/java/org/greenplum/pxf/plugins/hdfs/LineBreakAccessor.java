@@ -24,7 +24,10 @@ import org.apache.commons.io.IOUtils;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.JobConf;
@@ -32,6 +35,7 @@ import org.apache.hadoop.mapred.LineRecordReader;
 import org.apache.hadoop.mapred.TextInputFormat;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.plugins.hdfs.utilities.FileSystemManager;
 import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 
 import java.io.DataOutputStream;
@@ -86,7 +90,29 @@ public class LineBreakAccessor extends HdfsSplittableDataAccessor {
                 LOG.debug("Failed to use ChunkRecordReader, falling back to LineRecordReader : " + e.getMessage());
             }
         }
-        return new LineRecordReader(jobConf, (FileSplit) split);
+        FileSplit fileSplit = (FileSplit) split;
+        // compressed files are decompressed by the reader from the start of the split
+        if ((PrefetchingInputStream.isEnabled(configuration) || FileSystemManager.isEnabled(configuration)) &&
+                new CompressionCodecFactory(jobConf).getCodec(fileSplit.getPath()) == null) {
+            return getStreamReader(jobConf, fileSplit);
+        }
+        return new LineRecordReader(jobConf, fileSplit);
+    }
+
+    /**
+     * Returns a reader of the lines of an uncompressed split, opened with
+     * {@link #openSplit(FileSplit)} to read the split ahead with several
+     * concurrent ranged reads, or with a file system shared between sessions.
+     */
+    private LineRecordReader getStreamReader(JobConf jobConf, FileSplit split) throws IOException {
+        long start = split.getStart();
+        LineRecordReader reader = new LineRecordReader(openSplit(split), start, start + split.getLength(), jobConf);
+        if (start != 0) {
+            // like the reader of a split, skip the first line, it is read
+            // with the previous split
+            reader.next(new LongWritable(), new Text());
+        }
+        return reader;
     }
 
     @Override
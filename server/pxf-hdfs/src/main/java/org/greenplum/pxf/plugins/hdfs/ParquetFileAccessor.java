@@ -24,11 +24,13 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.serde2.io.DateWritable;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapreduce.RecordWriter;
 import org.apache.parquet.HadoopReadOptions;
 import org.apache.parquet.ParquetReadOptions;
 import org.apache.parquet.column.ParquetProperties.WriterVersion;
+import org.apache.parquet.column.statistics.Statistics;
 import org.apache.parquet.example.data.Group;
 import org.apache.parquet.filter2.compat.FilterCompat;
 import org.apache.parquet.format.converter.ParquetMetadataConverter;
@@ -36,18 +38,24 @@ import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.hadoop.ParquetFileWriter;
 import org.apache.parquet.hadoop.ParquetOutputFormat;
 import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.api.ReadSupport;
 import org.apache.parquet.hadoop.example.GroupReadSupport;
 import org.apache.parquet.hadoop.example.GroupWriteSupport;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.apache.parquet.hadoop.metadata.FileMetaData;
 import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
 import org.apache.parquet.schema.MessageType;
 import org.apache.parquet.schema.MessageTypeParser;
 import org.apache.parquet.schema.PrimitiveType;
 import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
 import org.apache.parquet.schema.Type;
 import org.apache.parquet.schema.Types;
+import org.greenplum.pxf.api.AggregateResult;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.StatsAccessor;
 import org.greenplum.pxf.api.UnsupportedTypeException;
 import org.greenplum.pxf.api.filter.FilterParser;
 import org.greenplum.pxf.api.filter.Node;
@@ -55,12 +63,16 @@ import org.greenplum.pxf.api.filter.Operator;
 import org.greenplum.pxf.api.filter.TreeTraverser;
 import org.greenplum.pxf.api.filter.TreeVisitor;
 import org.greenplum.pxf.api.io.DataType;
-import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.model.ConfigurationFactory;
+import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
+import org.greenplum.pxf.api.utilities.Utilities;
 import org.greenplum.pxf.plugins.hdfs.parquet.ParquetOperatorPrunerAndTransformer;
 import org.greenplum.pxf.plugins.hdfs.parquet.ParquetRecordFilterBuilder;
+import org.greenplum.pxf.plugins.hdfs.parquet.ParquetTypeConverter;
+import org.greenplum.pxf.plugins.hdfs.parquet.PrefetchingInputFile;
 import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 
 import java.io.IOException;
@@ -92,8 +104,10 @@ import static org.apache.parquet.schema.LogicalTypeAnnotation.stringType;
 /**
  * Parquet file accessor.
  * Unit of operation is record.
+ * Aggregate queries are answered from the row group statistics of the split
+ * when possible.
  */
-public class ParquetFileAccessor extends BasePlugin implements Accessor {
+public class ParquetFileAccessor extends BasePlugin implements StatsAccessor {
 
     private static final int DEFAULT_ROWGROUP_SIZE = 8 * 1024 * 1024;
     private static final CompressionCodecName DEFAULT_COMPRESSION = CompressionCodecName.SNAPPY;
@@ -142,6 +156,12 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
 
     private long totalReadTimeInNanos;
 
+    private boolean useStats;
+    private boolean statsInitialized;
+    private Map<String, Type> originalFieldsMap;
+    private List<BlockMetaData> rowGroups;
+    private AggregateResult aggregateResult;
+
     public ParquetFileAccessor() {
         super();
     }
@@ -150,6 +170,12 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
         this.configurationFactory = configurationFactory;
     }
 
+    @Override
+    public void initialize(RequestContext requestContext) {
+        super.initialize(requestContext);
+        useStats = Utilities.aggregateOptimizationsSupported(context);
+    }
+
     /**
      * Opens the resource for read.
      *
@@ -163,7 +189,7 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
         // Read the original schema from the parquet file
         MessageType originalSchema = getSchema(file, fileSplit);
         // Get a map of the column name to Types for the given schema
-        Map<String, Type> originalFieldsMap = getOriginalFieldsMap(originalSchema);
+        originalFieldsMap = getOriginalFieldsMap(originalSchema);
         // Get the read schema. This is either the full set or a subset (in
         // case of column projection) of the greenplum schema.
         MessageType readSchema = buildReadSchema(originalFieldsMap, originalSchema);
@@ -173,10 +199,21 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
         // add column projection
         configuration.set(PARQUET_READ_SCHEMA, readSchema.toString());
 
-        fileReader = ParquetReader.builder(new GroupReadSupport(), file)
+        long splitStart = fileSplit.getStart();
+        long splitEnd = splitStart + fileSplit.getLength();
+        ParquetReader.Builder<Group> builder = PrefetchingInputStream.isEnabled(configuration) ?
+                // read the row groups of the split ahead with concurrent ranged reads
+                new ParquetReader.Builder<Group>(new PrefetchingInputFile(file, splitStart, splitEnd, configuration)) {
+                    @Override
+                    protected ReadSupport<Group> getReadSupport() {
+                        return new GroupReadSupport();
+                    }
+                } :
+                ParquetReader.builder(new GroupReadSupport(), file);
+        fileReader = builder
                 .withConf(configuration)
                 // Create reader for a given split, read a range in file
-                .withFileRange(fileSplit.getStart(), fileSplit.getStart() + fileSplit.getLength())
+                .withFileRange(splitStart, splitEnd)
                 .withFilter(recordFilter)
                 .build();
         context.setMetadata(readSchema);
@@ -230,6 +267,56 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
         }
     }
 
+    /**
+     * Computes the aggregate out of the row groups of the split. COUNT is
+     * answered from the row counts, MIN and MAX from the column chunk
+     * statistics. When the statistics cannot answer the aggregate, the
+     * records of the split are emitted instead.
+     */
+    @Override
+    public void retrieveStats() {
+        if (!useStats) {
+            throw new IllegalStateException("Accessor is not using statistics in current context.");
+        }
+        if (context.getAggType() == EnumAggregationType.COUNT) {
+            long count = rowGroups.stream().mapToLong(BlockMetaData::getRowCount).sum();
+            aggregateResult = AggregateResult.ofCount(context.getTupleDescription(), count);
+        } else {
+            aggregateResult = getColumnAggregate(context.getAggType());
+        }
+        statsInitialized = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AggregateResult getAggregateResult() {
+        if (!statsInitialized) {
+            throw new IllegalStateException("retrieveStats() should be called before calling getAggregateResult()");
+        }
+        return aggregateResult;
+    }
+
+    /**
+     * Emits the records of the split for aggregates the statistics cannot
+     * answer, the aggregate is then computed by GPDB.
+     */
+    @Override
+    public OneRow emitAggObject() {
+        if (!statsInitialized) {
+            throw new IllegalStateException("retrieveStats() should be called before calling emitAggObject()");
+        }
+        if (aggregateResult != null) {
+            throw new IllegalStateException("Aggregate was answered from statistics");
+        }
+        try {
+            return readNextObject();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read next object for aggregate operation", e);
+        }
+    }
+
     /**
      * Opens the resource for write.
      * Uses compression codec based on user input which
@@ -362,6 +449,8 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
         try (ParquetFileReader parquetFileReader =
                      ParquetFileReader.open(inputFile, parquetReadOptions)) {
             FileMetaData metadata = parquetFileReader.getFileMetaData();
+            // the row groups of the split, used to answer aggregates
+            rowGroups = parquetFileReader.getRowGroups();
             if (LOG.isDebugEnabled()) {
                 LOG.debug("{}-{}: Reading file {} with {} records in {} RowGroups",
                         context.getTransactionId(), context.getSegmentId(),
@@ -377,6 +466,100 @@ public class ParquetFileAccessor extends BasePlugin implements Accessor {
         }
     }
 
+    /**
+     * Computes MIN or MAX of the single projected column out of the column
+     * chunk statistics of the row groups in the split. Only signed integer,
+     * floating point and date columns are supported, other types either have
+     * no usable statistics or an ordering different from GPDB.
+     *
+     * @param aggType the aggregate operation
+     * @return the aggregate result, or null if the statistics cannot answer it
+     */
+    private AggregateResult getColumnAggregate(EnumAggregationType aggType) {
+        if (aggType != EnumAggregationType.MIN && aggType != EnumAggregationType.MAX) {
+            // parquet statistics have no sum
+            return null;
+        }
+        ColumnDescriptor column = context.getTupleDescription().stream()
+                .filter(ColumnDescriptor::isProjected)
+                .findFirst()
+                .orElse(null);
+        Type type = column != null ? originalFieldsMap.get(column.columnName()) : null;
+        if (type == null || !type.isPrimitive() || type.isRepetition(Type.Repetition.REPEATED)) {
+            return null;
+        }
+
+        PrimitiveTypeName primitiveTypeName = type.asPrimitiveType().getPrimitiveTypeName();
+        LogicalTypeAnnotation logicalType = type.getLogicalTypeAnnotation();
+        boolean isDate = logicalType instanceof LogicalTypeAnnotation.DateLogicalTypeAnnotation;
+        boolean isSignedInt = logicalType == null ||
+                (logicalType instanceof LogicalTypeAnnotation.IntLogicalTypeAnnotation &&
+                        ((LogicalTypeAnnotation.IntLogicalTypeAnnotation) logicalType).isSigned());
+        switch (primitiveTypeName) {
+            case INT32:
+                if (!isDate && !isSignedInt) return null;
+                break;
+            case INT64:
+                if (!isSignedInt) return null;
+                break;
+            case FLOAT:
+            case DOUBLE:
+                if (logicalType != null) return null;
+                break;
+            default:
+                return null;
+        }
+
+        DataType dataType = ParquetTypeConverter.from(type.asPrimitiveType()).getDataType(type);
+        if (dataType != column.getDataType()) {
+            return null;
+        }
+
+        Number result = null;
+        for (BlockMetaData rowGroup : rowGroups) {
+            ColumnChunkMetaData chunk = rowGroup.getColumns().stream()
+                    .filter(c -> c.getPath().size() == 1 && c.getPath().toDotString().equals(type.getName()))
+                    .findFirst()
+                    .orElse(null);
+            if (chunk == null) {
+                return null;
+            }
+            Statistics<?> statistics = chunk.getStatistics();
+            if (statistics == null || statistics.isEmpty()) {
+                // statistics were not written
+                return null;
+            }
+            if (!statistics.hasNonNullValue()) {
+                // the row group holds only nulls
+                continue;
+            }
+            Number value = (Number) (aggType == EnumAggregationType.MIN ?
+                    statistics.genericGetMin() : statistics.genericGetMax());
+            if (result == null || (aggType == EnumAggregationType.MIN ?
+                    compareNumbers(value, result) < 0 : compareNumbers(value, result) > 0)) {
+                result = value;
+            }
+        }
+
+        Object value = null;
+        if (result != null) {
+            value = isDate ?
+                    new DateWritable(result.intValue()).get(true) :
+                    AggregateResult.convertNumber(dataType, result);
+            if (value == null) {
+                return null;
+            }
+        }
+        return AggregateResult.ofColumnValue(context.getTupleDescription(), column.columnIndex(), value);
+    }
+
+    private int compareNumbers(Number a, Number b) {
+        if (a instanceof Float || a instanceof Double) {
+            return Double.compare(a.doubleValue(), b.doubleValue());
+        }
+        return Long.compare(a.longValue(), b.longValue());
+    }
+
     /**
      * Builds a map of names to Types from the original schema, the map allows
      * easy access from a given column name to the schema {@link Type}.
@@ -0,0 +1,481 @@
+package org.greenplum.pxf.plugins.hdfs;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An input stream that reads a range of a file with several concurrent
+ * ranged reads ahead of the consumer, for object stores where a single
+ * sequential connection cannot use the available network bandwidth.
+ * <p>
+ * The range is divided into blocks of {@link #PREFETCH_BLOCK_SIZE} bytes.
+ * While the consumer reads a block, the next blocks are read in the
+ * background, up to {@link #PREFETCH_PARALLELISM} blocks in total, each by
+ * its own stream of the {@link FileSystem}. The blocks of all the streams
+ * are read by one pool of {@link #PREFETCH_THREADS} threads, a system
+ * property of the PXF Server. The blocks are read into a
+ * bounded pool of buffers, so a stream holds at most
+ * {@code parallelism * blockSize} bytes. The buffer of a block that is
+ * dropped while it is being read goes back to the pool once the read stops.
+ * Seeking within the blocks being read keeps them, seeking elsewhere in the
+ * range drops them and starts reading ahead from the new position. The bytes outside the range, for
+ * example the end of a record that crosses the end of a split or the footer
+ * of a file, are read on demand, without reading ahead.
+ * <p>
+ * Accessors opt into reading ahead with
+ * {@link #open(FileSystem, Path, long, long, Configuration)}, which opens a
+ * regular stream unless {@link #PREFETCH_ENABLED} is set in the server
+ * configuration.
+ * <p>
+ * On S3A, the block streams only read their block when
+ * {@code fs.s3a.experimental.input.fadvise} is {@code random}, with the
+ * default policy every block read requests the object up to its end.
+ */
+public class PrefetchingInputStream extends FSInputStream {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrefetchingInputStream.class);
+
+    public static final String PREFETCH_ENABLED = "pxf.reader.prefetch.enabled";
+    public static final String PREFETCH_BLOCK_SIZE = "pxf.reader.prefetch.block-size";
+    public static final String PREFETCH_PARALLELISM = "pxf.reader.prefetch.parallelism";
+    public static final String PREFETCH_THREADS = "pxf.reader.prefetch.threads";
+
+    static final boolean DEFAULT_PREFETCH_ENABLED = false;
+    static final long DEFAULT_PREFETCH_BLOCK_SIZE = 8 * 1024 * 1024;
+    static final int DEFAULT_PREFETCH_PARALLELISM = 4;
+    static final int DEFAULT_PREFETCH_THREADS = 32;
+
+    static final String S3A_FADVISE = "fs.s3a.experimental.input.fadvise";
+
+    private static final ThreadFactory DAEMON_THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("pxf-prefetch-%d")
+            .build();
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+    private static final AtomicBoolean FADVISE_WARNED = new AtomicBoolean();
+
+    private final FileSystem fs;
+    private final Path path;
+    private final long fileLength;
+    private final long rangeStart;
+    private final long rangeEnd;
+    private final int blockSize;
+    private final int parallelism;
+    private final UserGroupInformation ugi;
+
+    // the blocks being read or read, in the order of their offsets
+    private final Deque<Block> blocks = new ArrayDeque<>();
+    // the buffers of the pool not used by a block, shared with the reading threads
+    private final Deque<byte[]> freeBuffers = new ArrayDeque<>();
+    private int allocatedBuffers;
+    // the streams not used by a block read, shared with the reading threads
+    private final Deque<FSDataInputStream> idleStreams = new ArrayDeque<>();
+    private final byte[] singleByte = new byte[1];
+
+    private FSDataInputStream directStream;
+    private long position;
+    private volatile boolean closed;
+    private long blocksRead;
+    private long waitNanos;
+
+    /**
+     * Opens a file for reading, reading the given range ahead of the
+     * consumer when {@link #PREFETCH_ENABLED} is true in the configuration.
+     *
+     * @param fs            the file system of the file
+     * @param path          the path of the file
+     * @param rangeStart    the offset of the first byte of the range to read ahead
+     * @param rangeEnd      the offset after the last byte of the range to read ahead
+     * @param configuration the configuration
+     * @return the stream, positioned at the beginning of the file
+     * @throws IOException when the file cannot be opened
+     */
+    public static FSDataInputStream open(FileSystem fs, Path path, long rangeStart, long rangeEnd,
+                                         Configuration configuration) throws IOException {
+        if (!isEnabled(configuration)) {
+            return fs.open(path);
+        }
+        if ("s3a".equals(fs.getUri().getScheme()) && !"random".equals(configuration.get(S3A_FADVISE))
+                && FADVISE_WARNED.compareAndSet(false, true)) {
+            LOG.warn("Reading ahead from S3A without setting {} to random, every block read requests the rest of the object",
+                    S3A_FADVISE);
+        }
+        long fileLength = fs.getFileStatus(path).getLen();
+        return new FSDataInputStream(new PrefetchingInputStream(fs, path, fileLength,
+                Math.min(rangeStart, fileLength), Math.min(rangeEnd, fileLength),
+                getBlockSize(configuration), getParallelism(configuration)));
+    }
+
+    /**
+     * @param configuration the configuration
+     * @return true if the accessors read ahead
+     */
+    public static boolean isEnabled(Configuration configuration) {
+        return configuration.getBoolean(PREFETCH_ENABLED, DEFAULT_PREFETCH_ENABLED);
+    }
+
+    PrefetchingInputStream(FileSystem fs, Path path, long fileLength, long rangeStart, long rangeEnd,
+                           int blockSize, int parallelism) throws IOException {
+        this.fs = fs;
+        this.path = path;
+        this.fileLength = fileLength;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.blockSize = blockSize;
+        this.parallelism = parallelism;
+        // the streams are opened by the reading threads, with the credentials of the request
+        this.ugi = UserGroupInformation.getCurrentUser();
+    }
+
+    /**
+     * Creates the pool of threads reading the blocks of all the streams. Its
+     * threads stop when they are idle.
+     */
+    private static ExecutorService createExecutor() {
+        int threads = Integer.getInteger(PREFETCH_THREADS, DEFAULT_PREFETCH_THREADS);
+        if (threads <= 0) {
+            LOG.warn("Property {} has incorrect value {} : must be a positive integer, using {} instead",
+                    PREFETCH_THREADS, threads, DEFAULT_PREFETCH_THREADS);
+            threads = DEFAULT_PREFETCH_THREADS;
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), DAEMON_THREAD_FACTORY);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static int getBlockSize(Configuration configuration) {
+        long blockSize = configuration.getLongBytes(PREFETCH_BLOCK_SIZE, DEFAULT_PREFETCH_BLOCK_SIZE);
+        if (blockSize <= 0 || blockSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                    "Property %s has incorrect value %s : must be a positive number of bytes below 2GB",
+                    PREFETCH_BLOCK_SIZE, configuration.get(PREFETCH_BLOCK_SIZE)));
+        }
+        return (int) blockSize;
+    }
+
+    private static int getParallelism(Configuration configuration) {
+        int parallelism = configuration.getInt(PREFETCH_PARALLELISM, DEFAULT_PREFETCH_PARALLELISM);
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Property %s has incorrect value %s : must be a positive integer",
+                    PREFETCH_PARALLELISM, configuration.get(PREFETCH_PARALLELISM)));
+        }
+        return parallelism;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int n = read(singleByte, 0, 1);
+        return n <= 0 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkNotClosed();
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= fileLength) {
+            return -1;
+        }
+        if (position < rangeStart || position >= rangeEnd) {
+            return readDirect(b, off, len);
+        }
+
+        Block block = getBlock(position);
+        int offsetInBlock = (int) (position - block.offset);
+        int n = Math.min(len, block.length - offsetInBlock);
+        System.arraycopy(block.buffer, offsetInBlock, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public void seek(long pos) throws IOException {
+        checkNotClosed();
+        if (pos < 0) {
+            throw new EOFException("Cannot seek to a negative offset " + pos);
+        }
+        if (pos > fileLength) {
+            throw new EOFException("Cannot seek to " + pos + " after the end of file " + path + " of " + fileLength + " bytes");
+        }
+        // the blocks are dropped or kept on the next read
+        position = pos;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        checkNotClosed();
+        if (n <= 0) {
+            return 0;
+        }
+        long skipped = Math.min(n, fileLength - position);
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public long getPos() {
+        return position;
+    }
+
+    @Override
+    public boolean seekToNewSource(long targetPos) {
+        return false;
+    }
+
+    @Override
+    public int available() throws IOException {
+        checkNotClosed();
+        Block block = blocks.peekFirst();
+        if (block == null || !block.future.isDone() || position < block.offset || position >= block.offset + block.length) {
+            return 0;
+        }
+        return (int) (block.offset + block.length - position);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        while (!blocks.isEmpty()) {
+            release(blocks.pollFirst());
+        }
+        synchronized (idleStreams) {
+            idleStreams.forEach(IOUtils::closeStream);
+            idleStreams.clear();
+        }
+        IOUtils.closeStream(directStream);
+        LOG.debug("Read {} blocks of {} bytes of {} ahead, waited {} ms for them",
+                blocksRead, blockSize, path, waitNanos / 1_000_000);
+    }
+
+    /**
+     * Returns the block holding the given position, once it has been read.
+     * The blocks before the position are dropped, and the blocks after it
+     * are read ahead.
+     */
+    private Block getBlock(long pos) throws IOException {
+        long blockOffset = rangeStart + (pos - rangeStart) / blockSize * blockSize;
+
+        // drop the blocks before the position, or all of them on a backward seek
+        while (!blocks.isEmpty() && blocks.peekFirst().offset < blockOffset) {
+            release(blocks.pollFirst());
+        }
+        if (!blocks.isEmpty() && blocks.peekFirst().offset != blockOffset) {
+            while (!blocks.isEmpty()) {
+                release(blocks.pollFirst());
+            }
+        }
+
+        // read ahead up to the parallelism
+        Block last = blocks.peekLast();
+        long nextOffset = last == null ? blockOffset : last.offset + last.length;
+        while (blocks.size() < parallelism && nextOffset < rangeEnd) {
+            int length = (int) Math.min(blockSize, rangeEnd - nextOffset);
+            blocks.addLast(readBlock(nextOffset, length));
+            nextOffset += length;
+        }
+
+        Block block = blocks.peekFirst();
+        long then = System.nanoTime();
+        try {
+            block.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading " + path);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } finally {
+            waitNanos += System.nanoTime() - then;
+        }
+        return block;
+    }
+
+    private Block readBlock(long offset, int length) throws IOException {
+        Block block = new Block(offset, length, takeBuffer());
+        block.future = EXECUTOR.submit(() -> read(block));
+        blocksRead++;
+        return block;
+    }
+
+    /**
+     * Reads a block, called by one of the threads of the pool. The read
+     * stops early when the block is dropped.
+     */
+    private Void read(Block block) throws IOException, InterruptedException {
+        try {
+            if (block.released) {
+                return null;
+            }
+            FSDataInputStream in = borrowStream();
+            boolean success = false;
+            try {
+                in.seek(block.offset);
+                int n = 0;
+                while (n < block.length && !block.released) {
+                    int count = in.read(block.buffer, n, block.length - n);
+                    if (count < 0) {
+                        throw new EOFException("Premature end of file " + path + " at " + (block.offset + n));
+                    }
+                    n += count;
+                }
+                success = true;
+            } finally {
+                if (success) {
+                    returnStream(in);
+                } else {
+                    IOUtils.closeStream(in);
+                }
+            }
+            return null;
+        } finally {
+            unreference(block);
+        }
+    }
+
+    /**
+     * Drops a block. Its buffer goes back to the pool once its read, if still
+     * in progress, stops.
+     */
+    private void release(Block block) {
+        block.released = true;
+        unreference(block);
+    }
+
+    private void unreference(Block block) {
+        if (block.references.decrementAndGet() == 0) {
+            synchronized (freeBuffers) {
+                freeBuffers.addLast(block.buffer);
+                freeBuffers.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Takes a buffer from the pool, waiting for the read of a dropped block
+     * to stop when all the buffers of the pool are used.
+     */
+    private byte[] takeBuffer() throws IOException {
+        synchronized (freeBuffers) {
+            while (freeBuffers.isEmpty()) {
+                if (allocatedBuffers < parallelism) {
+                    allocatedBuffers++;
+                    return new byte[blockSize];
+                }
+                try {
+                    freeBuffers.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while reading " + path);
+                }
+            }
+            return freeBuffers.pollFirst();
+        }
+    }
+
+    /**
+     * @return the number of buffers allocated by the pool
+     */
+    int getAllocatedBuffers() {
+        synchronized (freeBuffers) {
+            return allocatedBuffers;
+        }
+    }
+
+    private FSDataInputStream borrowStream() throws IOException, InterruptedException {
+        synchronized (idleStreams) {
+            if (!idleStreams.isEmpty()) {
+                return idleStreams.pollFirst();
+            }
+        }
+        return ugi.doAs((PrivilegedExceptionAction<FSDataInputStream>) () -> fs.open(path));
+    }
+
+    private void returnStream(FSDataInputStream in) {
+        synchronized (idleStreams) {
+            if (!closed) {
+                idleStreams.addLast(in);
+                return;
+            }
+        }
+        IOUtils.closeStream(in);
+    }
+
+    /**
+     * Reads the bytes outside the range, without reading ahead.
+     */
+    private int readDirect(byte[] b, int off, int len) throws IOException {
+        if (directStream == null) {
+            directStream = fs.open(path);
+        }
+        if (directStream.getPos() != position) {
+            directStream.seek(position);
+        }
+        // do not read into the range
+        int maxLength = position < rangeStart ? (int) Math.min(len, rangeStart - position) : len;
+        int n = directStream.read(b, off, maxLength);
+        if (n > 0) {
+            position += n;
+        }
+        return n;
+    }
+
+    private void checkNotClosed() throws IOException {
+        if (closed) {
+            throw new IOException("Stream of " + path + " is closed");
+        }
+    }
+
+    /**
+     * A block of the range, read into a buffer of the pool. The buffer is
+     * referenced by the consumer until the block is dropped, and by the
+     * read of the block until it stops.
+     */
+    private static class Block {
+        private final long offset;
+        private final int length;
+        private final byte[] buffer;
+        private final AtomicInteger references = new AtomicInteger(2);
+        private volatile boolean released;
+        private Future<?> future;
+
+        Block(long offset, int length, byte[] buffer) {
+            this.offset = offset;
+            this.length = length;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.util.HadoopStreams;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+import org.greenplum.pxf.plugins.hdfs.PrefetchingInputStream;
+
+import java.io.IOException;
+
+/**
+ * A Parquet {@link InputFile} whose streams read the row groups of a split
+ * ahead of the reader with {@link PrefetchingInputStream}. The footer is
+ * outside the split, and is read on demand.
+ */
+public class PrefetchingInputFile implements InputFile {
+
+    private final FileSystem fs;
+    private final Path path;
+    private final long length;
+    private final long rangeStart;
+    private final long rangeEnd;
+    private final Configuration configuration;
+
+    /**
+     * @param path          the path of the Parquet file
+     * @param rangeStart    the offset of the first byte of the split
+     * @param rangeEnd      the offset after the last byte of the split
+     * @param configuration the configuration
+     * @throws IOException when the file cannot be accessed
+     */
+    public PrefetchingInputFile(Path path, long rangeStart, long rangeEnd, Configuration configuration)
+            throws IOException {
+        this.fs = path.getFileSystem(configuration);
+        this.path = path;
+        this.length = fs.getFileStatus(path).getLen();
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.configuration = configuration;
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public SeekableInputStream newStream() throws IOException {
+        return HadoopStreams.wrap(PrefetchingInputStream.open(fs, path, rangeStart, rangeEnd, configuration));
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+}
@@ -0,0 +1,370 @@
+package org.greenplum.pxf.plugins.hdfs.utilities;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalListeners;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares file system instances between the requests of different sessions.
+ * <p>
+ * Hadoop caches a {@link FileSystem} per {@link UserGroupInformation}, and
+ * PXF creates a new UGI for every session and closes its file systems when
+ * the session ends. Every query then creates a new file system, which for
+ * HDFS means a new DFSClient and a new RPC connection to the NameNode. When
+ * {@link #FILE_SYSTEM_POOL_ENABLED} is set in the server configuration, the
+ * file systems are shared instead by the requests with the same server
+ * configuration, the same user of the current {@link UserGroupInformation}
+ * and the same scheme and authority.
+ * <p>
+ * A shared file system is created in the security context of the request
+ * that first needs it, outside of the Hadoop cache, so it is not closed with
+ * the UGI of that request. At most {@link #MAXIMUM_FILE_SYSTEMS} file systems
+ * are shared. Every file system obtained with
+ * {@link #getFileSystem(RequestContext, URI, Configuration)} must be given
+ * back with {@link #releaseFileSystem(FileSystem)}. A file system not
+ * obtained for {@link #FILE_SYSTEM_EXPIRATION_TIMEOUT_MINUTES} minutes, or
+ * evicted to make room for another one, is closed once all requests using it
+ * have released it.
+ */
+public class FileSystemManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileSystemManager.class);
+
+    public static final String FILE_SYSTEM_POOL_ENABLED = "pxf.fs.pool.enabled";
+
+    static final boolean DEFAULT_FILE_SYSTEM_POOL_ENABLED = false;
+    static final long CLEANUP_INTERVAL_MINUTES = 1;
+    static final long CLEANUP_SLEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    static final long CLEANUP_TIMEOUT_NANOS = TimeUnit.HOURS.toNanos(24);
+    static final long FILE_SYSTEM_EXPIRATION_TIMEOUT_MINUTES = 10;
+    static final long MAXIMUM_FILE_SYSTEMS = 256;
+    static final String FILE_SYSTEM_METRICS_NAME = "fs.pool";
+
+    private static final ThreadFactory DAEMON_THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("pxf-fs-pool-%d")
+            .build();
+
+    /**
+     * Singleton instance of the FileSystemManager
+     */
+    private static final FileSystemManager instance = new FileSystemManager();
+
+    /**
+     * Creates the file systems
+     */
+    @FunctionalInterface
+    interface FileSystemCreator {
+        FileSystem create(URI uri, Configuration configuration) throws IOException;
+    }
+
+    private final FileSystemCreator creator;
+    private final Cache<FileSystemDescriptor, SharedFileSystem> fileSystems;
+    private final ConcurrentMap<FileSystem, SharedFileSystem> sharedFileSystems = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an instance of the file system manager that closes expired
+     * file systems in the background and registers the metrics of its file
+     * systems.
+     */
+    private FileSystemManager() {
+        this(FileSystemManager::createUncachedFileSystem, Ticker.systemTicker(), CLEANUP_SLEEP_INTERVAL_NANOS,
+                Executors.newCachedThreadPool(DAEMON_THREAD_FACTORY));
+        // the cache evicts expired entries only when it is used, so idle file systems are evicted periodically
+        Executors.newSingleThreadScheduledExecutor(DAEMON_THREAD_FACTORY)
+                .scheduleWithFixedDelay(this::cleanCache, CLEANUP_INTERVAL_MINUTES, CLEANUP_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        MetricsRegistry.getInstance().register(FILE_SYSTEM_METRICS_NAME, this::getFileSystemMetrics);
+    }
+
+    FileSystemManager(FileSystemCreator creator, Ticker ticker, long sleepIntervalNanos, Executor closingExecutor) {
+        this.creator = creator;
+        this.fileSystems = CacheBuilder.newBuilder()
+                .ticker(ticker)
+                .maximumSize(MAXIMUM_FILE_SYSTEMS)
+                .expireAfterAccess(FILE_SYSTEM_EXPIRATION_TIMEOUT_MINUTES, TimeUnit.MINUTES)
+                .removalListener(RemovalListeners.asynchronous((RemovalListener<FileSystemDescriptor, SharedFileSystem>) notification ->
+                        {
+                            SharedFileSystem sharedFileSystem = notification.getValue();
+                            LOG.debug("Processing cache removal of file system for {} with cause {}",
+                                    notification.getKey(),
+                                    notification.getCause().toString());
+                            sharedFileSystem.closeWhenReleased(ticker, sleepIntervalNanos);
+                            sharedFileSystems.remove(sharedFileSystem.fileSystem);
+                        }
+                        , closingExecutor))
+                .build();
+    }
+
+    /**
+     * @return a singleton instance of the file system manager.
+     */
+    public static FileSystemManager getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param configuration the server configuration
+     * @return true if the file systems are shared between sessions
+     */
+    public static boolean isEnabled(Configuration configuration) {
+        return configuration.getBoolean(FILE_SYSTEM_POOL_ENABLED, DEFAULT_FILE_SYSTEM_POOL_ENABLED);
+    }
+
+    /**
+     * Explicitly runs cache maintenance operations.
+     */
+    void cleanCache() {
+        fileSystems.cleanUp();
+    }
+
+    /**
+     * Returns the file system of the given URI shared by the requests of the
+     * current user with the server configuration of the request, creating it
+     * if needed. When sharing is not enabled in the configuration, returns
+     * the file system cached by Hadoop for the current user. The file system
+     * must not be closed, it must be given back with
+     * {@link #releaseFileSystem(FileSystem)} instead.
+     *
+     * @param context       the request context
+     * @param uri           the URI of the file to access
+     * @param configuration the server configuration
+     * @return the file system
+     * @throws IOException if the file system cannot be created
+     */
+    public FileSystem getFileSystem(RequestContext context, URI uri, Configuration configuration) throws IOException {
+        if (!isEnabled(configuration)) {
+            return FileSystem.get(uri, configuration);
+        }
+
+        URI defaultUri = FileSystem.getDefaultUri(configuration);
+        String scheme = uri.getScheme() != null ? uri.getScheme() : defaultUri.getScheme();
+        String authority = uri.getScheme() != null ? uri.getAuthority() : defaultUri.getAuthority();
+        FileSystemDescriptor descriptor = new FileSystemDescriptor(context.getConfig(), context.getServerName(),
+                context.getUser(), UserGroupInformation.getCurrentUser().getUserName(),
+                scheme, authority, context.getAdditionalConfigProps());
+
+        while (true) {
+            SharedFileSystem sharedFileSystem;
+            try {
+                sharedFileSystem = fileSystems.get(descriptor, () -> createFileSystem(descriptor, uri, configuration));
+            } catch (ExecutionException | UncheckedExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException(String.format("Failed to create file system for %s", descriptor), cause);
+            }
+
+            // the file system is being closed after it expired, a new one is created
+            if (sharedFileSystem.retain()) {
+                LOG.debug("Returning file system for {}", descriptor);
+                return sharedFileSystem.fileSystem;
+            }
+        }
+    }
+
+    /**
+     * Gives back a file system obtained with
+     * {@link #getFileSystem(RequestContext, URI, Configuration)}. The file
+     * systems that are not shared are cached by Hadoop, and are left open.
+     *
+     * @param fileSystem the file system
+     */
+    public void releaseFileSystem(FileSystem fileSystem) {
+        if (fileSystem == null) {
+            return;
+        }
+
+        SharedFileSystem sharedFileSystem = sharedFileSystems.get(fileSystem);
+        if (sharedFileSystem != null) {
+            sharedFileSystem.release();
+        }
+    }
+
+    /**
+     * Takes a snapshot of the shared file systems, reported by the PXF
+     * metrics endpoint.
+     *
+     * @return the number of requests using every file system and how many requests obtained it
+     */
+    List<Map<String, Object>> getFileSystemMetrics() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        // iterating over the cache does not count as an access, so the file systems still expire
+        fileSystems.asMap().forEach((descriptor, sharedFileSystem) -> {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("server", descriptor.server);
+            metrics.put("user", descriptor.ugiUser);
+            metrics.put("scheme", descriptor.scheme);
+            metrics.put("authority", descriptor.authority);
+            metrics.put("references", sharedFileSystem.getReferences());
+            metrics.put("requests", sharedFileSystem.getRequests());
+            result.add(metrics);
+        });
+        return result;
+    }
+
+    private SharedFileSystem createFileSystem(FileSystemDescriptor descriptor, URI uri, Configuration configuration) throws IOException {
+        LOG.debug("Creating file system for {}", descriptor);
+        SharedFileSystem sharedFileSystem = new SharedFileSystem(creator.create(uri, configuration));
+        sharedFileSystems.put(sharedFileSystem.fileSystem, sharedFileSystem);
+        return sharedFileSystem;
+    }
+
+    /**
+     * Creates a file system that is not in the Hadoop cache, so that it is
+     * not closed by {@link FileSystem#closeAllForUGI(UserGroupInformation)}
+     * when the session that created it ends.
+     */
+    private static FileSystem createUncachedFileSystem(URI uri, Configuration configuration) throws IOException {
+        Configuration uncachedConfiguration = new Configuration(configuration);
+        String scheme = uri.getScheme() != null ? uri.getScheme() : FileSystem.getDefaultUri(configuration).getScheme();
+        uncachedConfiguration.setBoolean(String.format("fs.%s.impl.disable.cache", scheme), true);
+        return FileSystem.get(uri, uncachedConfiguration);
+    }
+
+    /**
+     * A file system with the number of requests using it
+     */
+    private static class SharedFileSystem {
+        private final FileSystem fileSystem;
+        private int references;
+        private long requests;
+        private boolean closing;
+
+        SharedFileSystem(FileSystem fileSystem) {
+            this.fileSystem = fileSystem;
+        }
+
+        /**
+         * @return true if the file system can be used, false if it is being closed
+         */
+        synchronized boolean retain() {
+            if (closing) {
+                return false;
+            }
+            references++;
+            requests++;
+            return true;
+        }
+
+        synchronized void release() {
+            references--;
+        }
+
+        synchronized int getReferences() {
+            return references;
+        }
+
+        synchronized long getRequests() {
+            return requests;
+        }
+
+        /**
+         * @return true if the file system is not used anymore, it cannot be retained afterwards
+         */
+        private synchronized boolean closeIfReleased() {
+            closing = references <= 0;
+            return closing;
+        }
+
+        /**
+         * Waits until the file system is released by all the requests using
+         * it, but no longer than {@link #CLEANUP_TIMEOUT_NANOS}, and closes it.
+         */
+        void closeWhenReleased(Ticker ticker, long sleepIntervalNanos) {
+            long startTime = ticker.read();
+            while (!closeIfReleased()) {
+                if ((ticker.read() - startTime) > CLEANUP_TIMEOUT_NANOS) {
+                    LOG.warn("File system {} is used for too long, closing it", fileSystem);
+                    synchronized (this) {
+                        closing = true;
+                    }
+                    break;
+                }
+                Uninterruptibles.sleepUninterruptibly(sleepIntervalNanos, TimeUnit.NANOSECONDS);
+            }
+            try {
+                fileSystem.close();
+            } catch (IOException e) {
+                LOG.warn(String.format("Failed to close file system %s, ignoring the error.", fileSystem), e);
+            }
+        }
+    }
+
+    /**
+     * Identifies the file systems that can be shared
+     */
+    private static class FileSystemDescriptor {
+        private final String config;
+        private final String server;
+        private final String user;
+        private final String ugiUser;
+        private final String scheme;
+        private final String authority;
+        private final Map<String, String> properties;
+
+        FileSystemDescriptor(String config, String server, String user, String ugiUser,
+                             String scheme, String authority, Map<String, String> properties) {
+            this.config = config;
+            this.server = server;
+            this.user = user;
+            this.ugiUser = ugiUser;
+            this.scheme = scheme;
+            this.authority = authority;
+            this.properties = properties == null ? new HashMap<>() : new HashMap<>(properties);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            FileSystemDescriptor that = (FileSystemDescriptor) o;
+            return Objects.equals(config, that.config) &&
+                    Objects.equals(server, that.server) &&
+                    Objects.equals(user, that.user) &&
+                    Objects.equals(ugiUser, that.ugiUser) &&
+                    Objects.equals(scheme, that.scheme) &&
+                    Objects.equals(authority, that.authority) &&
+                    Objects.equals(properties, that.properties);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(config, server, user, ugiUser, scheme, authority, properties);
+        }
+
+        @Override
+        public String toString() {
+            return "server=" + server + ", user=" + ugiUser + ", uri=" + scheme + "://" + StringUtils.defaultString(authority);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.greenplum.pxf.plugins.hdfs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrefetchingInputStreamTest {
+
+    private static final int FILE_LENGTH = 1000;
+
+    private FileSystem fs;
+    private Path path;
+    private byte[] data;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Before
+    public void setup() throws IOException {
+        data = new byte[FILE_LENGTH];
+        for (int i = 0; i < FILE_LENGTH; i++) {
+            data[i] = (byte) i;
+        }
+        File file = temporaryFolder.newFile("data.bin");
+        Files.write(file.toPath(), data);
+
+        fs = FileSystem.getLocal(new Configuration());
+        path = new Path(file.toURI());
+    }
+
+    @Test
+    public void testSequentialRead() throws IOException {
+        try (FSDataInputStream in = open(0, FILE_LENGTH, 64, 3)) {
+            assertArrayEquals(data, readFully(in, FILE_LENGTH));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testSingleByteRead() throws IOException {
+        try (FSDataInputStream in = open(0, FILE_LENGTH, 7, 2)) {
+            for (int i = 0; i < FILE_LENGTH; i++) {
+                assertEquals(data[i] & 0xFF, in.read());
+            }
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        try (FSDataInputStream in = open(0, FILE_LENGTH, 64, 3)) {
+            // forward within the blocks being read
+            in.seek(100);
+            assertArrayEquals(Arrays.copyOfRange(data, 100, 150), readFully(in, 50));
+            // forward past the blocks being read
+            in.seek(800);
+            assertArrayEquals(Arrays.copyOfRange(data, 800, 900), readFully(in, 100));
+            // backward
+            in.seek(10);
+            assertEquals(10, in.getPos());
+            assertArrayEquals(Arrays.copyOfRange(data, 10, 200), readFully(in, 190));
+            assertEquals(200, in.getPos());
+        }
+    }
+
+    @Test
+    public void testBuffersOfDroppedBlocksAreReused() throws IOException {
+        PrefetchingInputStream prefetchingStream = new PrefetchingInputStream(fs, path, FILE_LENGTH,
+                0, FILE_LENGTH, 64, 3);
+        try (FSDataInputStream in = new FSDataInputStream(prefetchingStream)) {
+            for (int i = 0; i < 50; i++) {
+                int pos = i % 2 == 0 ? 900 - i : i;
+                in.seek(pos);
+                assertEquals(data[pos] & 0xFF, in.read());
+            }
+            assertEquals(3, prefetchingStream.getAllocatedBuffers());
+        }
+    }
+
+    @Test
+    public void testReadOutsideRange() throws IOException {
+        try (FSDataInputStream in = open(300, 600, 64, 2)) {
+            // the bytes before the range stop at its beginning
+            byte[] buffer = new byte[400];
+            int n = in.read(buffer, 0, buffer.length);
+            assertTrue(n > 0 && n <= 300);
+            in.seek(0);
+            assertArrayEquals(data, readFully(in, FILE_LENGTH));
+            in.seek(950);
+            assertArrayEquals(Arrays.copyOfRange(data, 950, FILE_LENGTH), readFully(in, 50));
+        }
+    }
+
+    @Test
+    public void testPositionedRead() throws IOException {
+        try (FSDataInputStream in = open(0, FILE_LENGTH, 64, 3)) {
+            in.seek(500);
+            byte[] buffer = new byte[100];
+            in.readFully(20, buffer);
+            assertArrayEquals(Arrays.copyOfRange(data, 20, 120), buffer);
+            assertEquals(500, in.getPos());
+        }
+    }
+
+    @Test
+    public void testSeekAfterEndOfFile() throws IOException {
+        thrown.expect(EOFException.class);
+
+        try (FSDataInputStream in = open(0, FILE_LENGTH, 64, 3)) {
+            in.seek(FILE_LENGTH + 1);
+        }
+    }
+
+    @Test
+    public void testReadAfterClose() throws IOException {
+        thrown.expect(IOException.class);
+        thrown.expectMessage("is closed");
+
+        FSDataInputStream in = open(0, FILE_LENGTH, 64, 3);
+        in.read();
+        in.close();
+        in.read();
+    }
+
+    @Test
+    public void testOpenWhenDisabled() throws IOException {
+        Configuration configuration = new Configuration();
+        assertFalse(PrefetchingInputStream.isEnabled(configuration));
+
+        try (FSDataInputStream in = PrefetchingInputStream.open(fs, path, 0, FILE_LENGTH, configuration)) {
+            assertFalse(in.getWrappedStream() instanceof PrefetchingInputStream);
+        }
+    }
+
+    @Test
+    public void testOpenWhenEnabled() throws IOException {
+        Configuration configuration = new Configuration();
+        configuration.setBoolean(PrefetchingInputStream.PREFETCH_ENABLED, true);
+        configuration.set(PrefetchingInputStream.PREFETCH_BLOCK_SIZE, "128");
+
+        try (FSDataInputStream in = PrefetchingInputStream.open(fs, path, 0, FILE_LENGTH, configuration)) {
+            assertTrue(in.getWrappedStream() instanceof PrefetchingInputStream);
+            assertArrayEquals(data, readFully(in, FILE_LENGTH));
+        }
+    }
+
+    @Test
+    public void testInvalidParallelism() throws IOException {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Property pxf.reader.prefetch.parallelism has incorrect value 0 : must be a positive integer");
+
+        Configuration configuration = new Configuration();
+        configuration.setBoolean(PrefetchingInputStream.PREFETCH_ENABLED, true);
+        configuration.set(PrefetchingInputStream.PREFETCH_PARALLELISM, "0");
+
+        PrefetchingInputStream.open(fs, path, 0, FILE_LENGTH, configuration);
+    }
+
+    private FSDataInputStream open(long rangeStart, long rangeEnd, int blockSize, int parallelism) throws IOException {
+        return new FSDataInputStream(new PrefetchingInputStream(fs, path, FILE_LENGTH,
+                rangeStart, rangeEnd, blockSize, parallelism));
+    }
+
+    private byte[] readFully(FSDataInputStream in, int length) throws IOException {
+        byte[] buffer = new byte[length];
+        in.readFully(buffer);
+        return buffer;
+    }
+}
@@ -0,0 +1,141 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.greenplum.pxf.api.AggregateResult;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
+import org.greenplum.pxf.plugins.hdfs.ParquetFileAccessor;
+import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ParquetAggregateTest extends ParquetBaseTest {
+
+    private ParquetFileAccessor accessor;
+    private RequestContext context;
+
+    @Before
+    public void setup() throws Exception {
+        super.setup();
+
+        accessor = new ParquetFileAccessor();
+        context = new RequestContext();
+
+        String path = Objects.requireNonNull(getClass().getClassLoader().getResource("parquet/parquet_types.parquet")).getPath();
+
+        context.setConfig("fakeConfig");
+        context.setServerName("fakeServerName");
+        context.setUser("test-user");
+        context.setProfileScheme("localfile");
+        context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+        context.setAccessor(ParquetFileAccessor.class.getName());
+        context.setDataSource(path);
+        context.setFragmentMetadata(HdfsUtilities.prepareFragmentMetadata(0, 4196, Fragment.HOSTS));
+        context.setTupleDescription(columnDescriptors);
+    }
+
+    @Test
+    public void testCount() throws Exception {
+        // count(*) is sent with no projected columns, only the first one is marked
+        projectColumn(0);
+        context.setNumAttrsProjected(0);
+        AggregateResult result = getAggregateResult(EnumAggregationType.COUNT);
+
+        assertNotNull(result);
+        assertEquals(25, result.getRowCount());
+        for (OneField field : result.getFields()) {
+            assertNull(field.val);
+        }
+    }
+
+    @Test
+    public void testMinMaxInteger() throws Exception {
+        assertEquals(1, getAggregateValue(EnumAggregationType.MIN, 0));
+        assertEquals(25, getAggregateValue(EnumAggregationType.MAX, 0));
+    }
+
+    @Test
+    public void testMinMaxBigint() throws Exception {
+        assertEquals(-2147483648L, getAggregateValue(EnumAggregationType.MIN, 7));
+        assertEquals(2147483663L, getAggregateValue(EnumAggregationType.MAX, 7));
+    }
+
+    @Test
+    public void testMinMaxSmallint() throws Exception {
+        assertEquals((short) -32768, getAggregateValue(EnumAggregationType.MIN, 9));
+        assertEquals((short) 32767, getAggregateValue(EnumAggregationType.MAX, 9));
+    }
+
+    @Test
+    public void testMinMaxDouble() throws Exception {
+        assertEquals(1200.0, getAggregateValue(EnumAggregationType.MIN, 3));
+        assertEquals(2600.0, getAggregateValue(EnumAggregationType.MAX, 3));
+    }
+
+    @Test
+    public void testMinMaxDate() throws Exception {
+        assertEquals("2019-12-01", getAggregateValue(EnumAggregationType.MIN, 2).toString());
+        assertEquals("2019-12-25", getAggregateValue(EnumAggregationType.MAX, 2).toString());
+    }
+
+    @Test
+    public void testAggregatesNotAnsweredFromStatisticsEmitRows() throws Exception {
+        // text statistics do not follow the GPDB ordering
+        assertRowsEmitted(EnumAggregationType.MIN, 1);
+        // parquet statistics have no sum
+        assertRowsEmitted(EnumAggregationType.SUM, 0);
+    }
+
+    private Object getAggregateValue(EnumAggregationType aggType, int columnIndex) throws Exception {
+        projectColumn(columnIndex);
+        AggregateResult result = getAggregateResult(aggType);
+
+        assertNotNull(result);
+        assertEquals(1, result.getRowCount());
+        for (int i = 0; i < result.getFields().size(); i++) {
+            if (i != columnIndex) {
+                assertNull(result.getFields().get(i).val);
+            }
+        }
+        return result.getFields().get(columnIndex).val;
+    }
+
+    private void assertRowsEmitted(EnumAggregationType aggType, int columnIndex) throws Exception {
+        projectColumn(columnIndex);
+        assertNull(getAggregateResult(aggType));
+
+        int rows = 0;
+        OneRow row;
+        while ((row = accessor.emitAggObject()) != null) {
+            assertNotNull(row.getData());
+            rows++;
+        }
+        assertEquals(25, rows);
+        accessor.closeForRead();
+    }
+
+    private AggregateResult getAggregateResult(EnumAggregationType aggType) throws Exception {
+        context.setAggType(aggType);
+        accessor.initialize(context);
+        assertTrue(accessor.openForRead());
+        accessor.retrieveStats();
+        return accessor.getAggregateResult();
+    }
+
+    private void projectColumn(int columnIndex) {
+        for (ColumnDescriptor column : columnDescriptors) {
+            column.setProjected(column.columnIndex() == columnIndex);
+        }
+        context.setNumAttrsProjected(1);
+    }
+}
@@ -0,0 +1,204 @@
+package org.greenplum.pxf.plugins.hdfs.utilities;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class FileSystemManagerTest {
+
+    private static final URI HDFS_URI = URI.create("hdfs://namenode:8020/tmp/data.csv");
+
+    private List<FileSystem> createdFileSystems;
+    private AtomicLong time;
+    private FileSystemManager manager;
+    private Configuration configuration;
+
+    @Before
+    public void setup() {
+        createdFileSystems = new ArrayList<>();
+        time = new AtomicLong();
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return time.get();
+            }
+        };
+        manager = new FileSystemManager((uri, conf) -> {
+            FileSystem fileSystem = mock(FileSystem.class);
+            createdFileSystems.add(fileSystem);
+            return fileSystem;
+        }, ticker, 0, MoreExecutors.directExecutor());
+
+        configuration = new Configuration(false);
+        configuration.setBoolean(FileSystemManager.FILE_SYSTEM_POOL_ENABLED, true);
+    }
+
+    @Test
+    public void testSingletonInstance() {
+        assertSame(FileSystemManager.getInstance(), FileSystemManager.getInstance());
+    }
+
+    @Test
+    public void testFileSystemIsSharedBetweenSessions() throws IOException {
+        RequestContext otherContext = getContext("default");
+        otherContext.setTransactionId("other-transaction");
+
+        FileSystem fileSystem = manager.getFileSystem(getContext("default"), HDFS_URI, configuration);
+        FileSystem otherFileSystem = manager.getFileSystem(otherContext, URI.create("hdfs://namenode:8020/tmp/other.csv"), configuration);
+
+        assertSame(fileSystem, otherFileSystem);
+        assertEquals(1, createdFileSystems.size());
+
+        manager.releaseFileSystem(fileSystem);
+        manager.releaseFileSystem(otherFileSystem);
+        verify(fileSystem, never()).close();
+    }
+
+    @Test
+    public void testFileSystemsOfDifferentServersAreNotShared() throws IOException {
+        FileSystem fileSystem = manager.getFileSystem(getContext("default"), HDFS_URI, configuration);
+        FileSystem otherFileSystem = manager.getFileSystem(getContext("other"), HDFS_URI, configuration);
+
+        assertNotSame(fileSystem, otherFileSystem);
+    }
+
+    @Test
+    public void testFileSystemsOfDifferentUsersAreNotShared() throws Exception {
+        RequestContext bobContext = getContext("default");
+        bobContext.setUser("bob");
+        UserGroupInformation aliceUgi = UserGroupInformation.createRemoteUser("alice");
+        UserGroupInformation bobUgi = UserGroupInformation.createRemoteUser("bob");
+
+        // the user of the request differs, the UGI is the same
+        FileSystem aliceFileSystem = aliceUgi.doAs((PrivilegedExceptionAction<FileSystem>) () ->
+                manager.getFileSystem(getContext("default"), HDFS_URI, configuration));
+        FileSystem bobFileSystem = aliceUgi.doAs((PrivilegedExceptionAction<FileSystem>) () ->
+                manager.getFileSystem(bobContext, HDFS_URI, configuration));
+        // the UGI differs, the user of the request is the same
+        FileSystem bobUgiFileSystem = bobUgi.doAs((PrivilegedExceptionAction<FileSystem>) () ->
+                manager.getFileSystem(getContext("default"), HDFS_URI, configuration));
+
+        assertNotSame(aliceFileSystem, bobFileSystem);
+        assertNotSame(aliceFileSystem, bobUgiFileSystem);
+        assertNotSame(bobFileSystem, bobUgiFileSystem);
+        assertEquals(3, createdFileSystems.size());
+
+        // each user still shares its own file system
+        assertSame(aliceFileSystem, aliceUgi.doAs((PrivilegedExceptionAction<FileSystem>) () ->
+                manager.getFileSystem(getContext("default"), HDFS_URI, configuration)));
+        assertEquals(3, createdFileSystems.size());
+    }
+
+    @Test
+    public void testFileSystemsOfDifferentAuthoritiesAreNotShared() throws IOException {
+        FileSystem fileSystem = manager.getFileSystem(getContext("default"), HDFS_URI, configuration);
+        FileSystem otherFileSystem = manager.getFileSystem(getContext("default"), URI.create("hdfs://other:8020/tmp/data.csv"), configuration);
+
+        assertNotSame(fileSystem, otherFileSystem);
+    }
+
+    @Test
+    public void testFileSystemsWithDifferentAdditionalPropertiesAreNotShared() throws IOException {
+        RequestContext otherContext = getContext("default");
+        Map<String, String> properties = Collections.singletonMap("fs.s3a.access.key", "other-key");
+        otherContext.setAdditionalConfigProps(properties);
+
+        FileSystem fileSystem = manager.getFileSystem(getContext("default"), HDFS_URI, configuration);
+        FileSystem otherFileSystem = manager.getFileSystem(otherContext, HDFS_URI, configuration);
+
+        assertNotSame(fileSystem, otherFileSystem);
+    }
+
+    @Test
+    public void testExpiredFileSystemIsClosedWhenReleased() throws IOException {
+        FileSystem fileSystem = manager.getFileSystem(getContext("default"), HDFS_URI, configuration);
+
+        time.addAndGet(TimeUnit.MINUTES.toNanos(FileSystemManager.FILE_SYSTEM_EXPIRATION_TIMEOUT_MINUTES + 1));
+        // the removal listener waits for the file system to be released
+        Thread release = new Thread(() -> manager.releaseFileSystem(fileSystem));
+        release.start();
+        manager.cleanCache();
+
+        verify(fileSystem).close();
+        assertNotSame(fileSystem, manager.getFileSystem(getContext("default"), HDFS_URI, configuration));
+        assertEquals(2, createdFileSystems.size());
+    }
+
+    @Test
+    public void testUnusedFileSystemIsClosedAfterExpirationTimeout() throws IOException {
+        FileSystem fileSystem = manager.getFileSystem(getContext("default"), HDFS_URI, configuration);
+        manager.releaseFileSystem(fileSystem);
+
+        time.addAndGet(TimeUnit.MINUTES.toNanos(FileSystemManager.FILE_SYSTEM_EXPIRATION_TIMEOUT_MINUTES - 1));
+        manager.cleanCache();
+        verify(fileSystem, never()).close();
+
+        time.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        manager.cleanCache();
+        verify(fileSystem).close();
+    }
+
+    @Test
+    public void testFileSystemsAreNotSharedWhenDisabled() throws IOException {
+        Configuration disabledConfiguration = new Configuration();
+        URI uri = URI.create("file:///tmp/data.csv");
+
+        FileSystem fileSystem = manager.getFileSystem(getContext("default"), uri, disabledConfiguration);
+
+        // the file system is cached by Hadoop
+        assertSame(FileSystem.get(uri, disabledConfiguration), fileSystem);
+        assertTrue(createdFileSystems.isEmpty());
+        manager.releaseFileSystem(fileSystem);
+    }
+
+    @Test
+    public void testSharedFileSystemIsNotCachedByHadoop() throws IOException {
+        Configuration localConfiguration = new Configuration();
+        localConfiguration.setBoolean(FileSystemManager.FILE_SYSTEM_POOL_ENABLED, true);
+        URI uri = URI.create("file:///tmp/data.csv");
+
+        FileSystemManager sharedManager = FileSystemManager.getInstance();
+        FileSystem fileSystem = sharedManager.getFileSystem(getContext("default"), uri, localConfiguration);
+        FileSystem otherFileSystem = sharedManager.getFileSystem(getContext("default"), uri, localConfiguration);
+        try {
+            assertSame(fileSystem, otherFileSystem);
+            // the file system is not closed with the UGI of the session that created it
+            assertNotSame(FileSystem.get(uri, localConfiguration), fileSystem);
+        } finally {
+            sharedManager.releaseFileSystem(fileSystem);
+            sharedManager.releaseFileSystem(otherFileSystem);
+        }
+    }
+
+    private RequestContext getContext(String server) {
+        RequestContext context = new RequestContext();
+        context.setConfig(server);
+        context.setServerName(server);
+        context.setUser("alice");
+        context.setTransactionId("transaction");
+        return context;
+    }
+}
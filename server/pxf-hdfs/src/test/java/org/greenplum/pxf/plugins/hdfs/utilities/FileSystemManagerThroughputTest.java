@@ -0,0 +1,98 @@
+package org.greenplum.pxf.plugins.hdfs.utilities;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URI;
+import java.security.PrivilegedExceptionAction;
+
+/**
+ * Compares the time of sessions reading the status of a local file through a
+ * file system created per session, the way PXF did before
+ * {@link FileSystemManager}, and through a file system shared between the
+ * sessions. Every session has its own UGI, like the UGIs PXF creates per
+ * session, and a per-session file system is closed with its UGI. A local
+ * file system is cheap to create compared to a DistributedFileSystem and its
+ * NameNode connection, so the gap is a lower bound. Run it on demand, the
+ * numbers depend on the host.
+ */
+@Ignore("timed comparison, run on demand")
+public class FileSystemManagerThroughputTest {
+
+    private static final int SESSION_COUNT = 20000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private URI uri;
+    private Path path;
+
+    @Before
+    public void setup() throws Exception {
+        File file = temporaryFolder.newFile("data.csv");
+        uri = file.toURI();
+        path = new Path(uri);
+    }
+
+    @Test
+    public void compareSharedAndPerSessionFileSystems() throws Exception {
+        // warm up both ways before measuring them
+        perSession(SESSION_COUNT / 10);
+        shared(SESSION_COUNT / 10);
+
+        long perSessionNanos = perSession(SESSION_COUNT);
+        long sharedNanos = shared(SESSION_COUNT);
+        System.out.printf("%d sessions reading a local file: per-session file system %.1f us, shared file system %.1f us per session (%.1fx)%n",
+                SESSION_COUNT, perSessionNanos / 1e3 / SESSION_COUNT, sharedNanos / 1e3 / SESSION_COUNT,
+                (double) perSessionNanos / sharedNanos);
+    }
+
+    private long perSession(int sessionCount) throws Exception {
+        Configuration configuration = new Configuration();
+        long then = System.nanoTime();
+        for (int i = 0; i < sessionCount; i++) {
+            UserGroupInformation ugi = UserGroupInformation.createRemoteUser("alice");
+            ugi.doAs((PrivilegedExceptionAction<Void>) () -> {
+                FileSystem.get(uri, configuration).getFileStatus(path);
+                return null;
+            });
+            FileSystem.closeAllForUGI(ugi);
+        }
+        return System.nanoTime() - then;
+    }
+
+    private long shared(int sessionCount) throws Exception {
+        Configuration configuration = new Configuration();
+        configuration.setBoolean(FileSystemManager.FILE_SYSTEM_POOL_ENABLED, true);
+        FileSystemManager manager = FileSystemManager.getInstance();
+        RequestContext context = new RequestContext();
+        context.setConfig("default");
+        context.setServerName("default");
+        context.setUser("alice");
+        long then = System.nanoTime();
+        for (int i = 0; i < sessionCount; i++) {
+            context.setTransactionId("transaction-" + i);
+            UserGroupInformation ugi = UserGroupInformation.createRemoteUser("alice");
+            ugi.doAs((PrivilegedExceptionAction<Void>) () -> {
+                FileSystem fileSystem = manager.getFileSystem(context, uri, configuration);
+                try {
+                    fileSystem.getFileStatus(path);
+                } finally {
+                    manager.releaseFileSystem(fileSystem);
+                }
+                return null;
+            });
+            FileSystem.closeAllForUGI(ugi);
+        }
+        return System.nanoTime() - then;
+    }
+}
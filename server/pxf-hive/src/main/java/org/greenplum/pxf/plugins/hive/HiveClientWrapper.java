@@ -33,8 +33,10 @@ import java.net.URL;
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Properties;
 
 import static org.greenplum.pxf.api.model.ConfigurationFactory.PXF_CONFIG_RESOURCE_PATH_PROPERTY;
@@ -94,7 +96,45 @@ public class HiveClientWrapper {
     }
 
     public Table getHiveTable(IMetaStoreClient client, Metadata.Item itemName) throws Exception {
-        Table tbl = client.getTable(itemName.getPath(), itemName.getName());
+        return checkHiveTable(client.getTable(itemName.getPath(), itemName.getName()), itemName);
+    }
+
+    /**
+     * Fetches the given tables of a database in one call to the MetaStore.
+     * Tables that are not returned, for example because the MetaStore does
+     * not support bulk fetches, are expected to be fetched one by one with
+     * {@link #getHiveTable(IMetaStoreClient, Metadata.Item)}.
+     *
+     * @param client     MetaStoreClient client
+     * @param dbName     the name of the database
+     * @param tableNames the names of the tables in the database
+     * @return the tables that were fetched, keyed by their lower case name
+     */
+    public Map<String, Table> getHiveTables(IMetaStoreClient client, String dbName, List<String> tableNames) {
+        Map<String, Table> tables = new HashMap<>();
+        try {
+            List<Table> tableObjects = client.getTableObjectsByName(dbName, tableNames);
+            if (tableObjects != null) {
+                for (Table tbl : tableObjects) {
+                    tables.put(StringUtils.lowerCase(tbl.getTableName()), tbl);
+                }
+            }
+        } catch (TException e) {
+            LOG.debug("Unable to fetch {} tables of database {} in bulk, falling back to fetching them one by one: {}",
+                    tableNames.size(), dbName, e.getMessage());
+        }
+        return tables;
+    }
+
+    /**
+     * Verifies that the given table can be read by PXF.
+     *
+     * @param tbl      Hive table
+     * @param itemName the name of the table
+     * @return the given table
+     * @throws UnsupportedOperationException if the table is a view
+     */
+    public Table checkHiveTable(Table tbl, Metadata.Item itemName) {
         String tblType = tbl.getTableType();
 
         LOG.debug("Item: {}.{}, type: {}", itemName.getPath(), itemName.getName(), tblType);
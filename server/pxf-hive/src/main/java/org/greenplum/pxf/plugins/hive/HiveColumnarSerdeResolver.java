@@ -26,7 +26,6 @@ import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hadoop.hive.serde.serdeConstants;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
-import org.apache.hadoop.hive.serde2.objectinspector.StructField;
 import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.BinaryObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.BooleanObjectInspector;
@@ -59,8 +58,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import static org.apache.hadoop.hive.serde2.ColumnProjectionUtils.READ_ALL_COLUMNS;
 import static org.apache.hadoop.hive.serde2.ColumnProjectionUtils.READ_COLUMN_IDS_CONF_STR;
@@ -78,7 +75,7 @@ public class HiveColumnarSerdeResolver extends HiveResolver {
     private String serdeType;
     private String allColumnNames;
     private String allColumnTypes;
-    private Map<String, String[]> partitionColumnNames;
+    private Map<String, String> partitionColumnNames;
     
     /* read the data supplied by the fragmenter: inputformat name, serde name, partition keys */
     @Override
@@ -116,7 +113,9 @@ public class HiveColumnarSerdeResolver extends HiveResolver {
         String[] partitionLevels = partitionKeys.split(HiveDataFragmenter.HIVE_PARTITIONS_DELIM);
         for (String partLevel : partitionLevels) {
             String[] levelKey = partLevel.split(HiveDataFragmenter.HIVE_1_PART_DELIM);
-            partitionColumnNames.put(StringUtils.lowerCase(levelKey[0]), levelKey);
+            // partition values are constant for the fragment, they are
+            // converted to their text representation once
+            partitionColumnNames.put(StringUtils.lowerCase(levelKey[0]), toPartitionText(levelKey[1], levelKey[2]));
         }
     }
 
@@ -195,39 +194,29 @@ public class HiveColumnarSerdeResolver extends HiveResolver {
                 break;
             case STRUCT:
                 StructObjectInspector soi = (StructObjectInspector) objInspector;
-                List<? extends StructField> fields = soi.getAllStructFieldRefs();
-                List<?> list = soi.getStructFieldsDataAsList(obj);
-                if (list == null) {
-                    throw new BadRecordException("Illegal value NULL for Hive data type Struct");
-                }
-
-                Map<String, Integer> columnNameToStructIndexMap =
-                        IntStream.range(0, fields.size())
-                                .boxed()
-                                .collect(Collectors.toMap(i -> StringUtils.lowerCase(fields.get(i).getFieldName()), i -> i));
+                // the deserializer only parses the projected columns, and
+                // lazy records are read field by field
+                List<Object> list = getStructFieldsData(obj, soi);
+                ObjectInspector[] columnInspectors = getColumnInspectors(soi);
 
                 List<ColumnDescriptor> tupleDescription = context.getTupleDescription();
                 for (int j = 0; j < tupleDescription.size(); j++) {
                     ColumnDescriptor columnDescriptor = tupleDescription.get(j);
-                    String lowercaseColumnName = StringUtils.lowerCase(columnDescriptor.columnName());
-                    Integer i = columnNameToStructIndexMap.get(lowercaseColumnName);
                     Integer structIndex = hiveIndexes.get(j);
-                    String[] levelKey;
+                    String partitionText;
 
-                    if ((levelKey = partitionColumnNames.get(lowercaseColumnName)) != null) {
+                    if ((partitionText = partitionColumnNames.get(lowercaseColumnNames[j])) != null) {
                         // Skip partitioned columns
-                        String type = levelKey[1];
-                        String val = levelKey[2];
-                        addPartitionColumn(type, val);
+                        addPartitionColumn(partitionText);
                     } else if (!columnDescriptor.isProjected()) {
                         // Non-projected fields will be sent as null values.
                         // This case is invoked only in the top level of fields and
                         // not when interpreting fields of type struct.
-                        traverseTuple(null, fields.get(i).getFieldObjectInspector());
+                        traverseTuple(null, columnInspectors[j]);
                     } else if (structIndex < list.size()){
-                        traverseTuple(list.get(structIndex), fields.get(i).getFieldObjectInspector());
+                        traverseTuple(list.get(structIndex), columnInspectors[j]);
                     } else {
-                        traverseTuple(null, fields.get(i).getFieldObjectInspector());
+                        traverseTuple(null, columnInspectors[j]);
                     }
                 }
                 break;
@@ -236,60 +225,67 @@ public class HiveColumnarSerdeResolver extends HiveResolver {
         }
     }
 
-    private void addPartitionColumn(String type, String val) {
+    private void addPartitionColumn(String partitionText) {
         if (!firstColumn) {
             builder.append(delimiter);
         }
+        builder.append(partitionText);
+        firstColumn = false;
+    }
 
+    /*
+     * Converts a partition value to its text representation.
+     */
+    private String toPartitionText(String type, String val) {
         if (isDefaultPartition(type, val)) {
-            builder.append(nullChar);
-        } else {
-            // ignore the type's parameters
-            String typeName = type.replaceAll("\\(.*\\)", "");
-            switch (typeName) {
-                case serdeConstants.STRING_TYPE_NAME:
-                case serdeConstants.VARCHAR_TYPE_NAME:
-                case serdeConstants.CHAR_TYPE_NAME:
-                    builder.append(val);
-                    break;
-                case serdeConstants.BOOLEAN_TYPE_NAME:
-                    builder.append(Boolean.parseBoolean(val));
-                    break;
-                case serdeConstants.TINYINT_TYPE_NAME:
-                case serdeConstants.SMALLINT_TYPE_NAME:
-                    builder.append(Short.parseShort(val));
-                    break;
-                case serdeConstants.INT_TYPE_NAME:
-                    builder.append(Integer.parseInt(val));
-                    break;
-                case serdeConstants.BIGINT_TYPE_NAME:
-                    builder.append(Long.parseLong(val));
-                    break;
-                case serdeConstants.FLOAT_TYPE_NAME:
-                    builder.append(Float.parseFloat(val));
-                    break;
-                case serdeConstants.DOUBLE_TYPE_NAME:
-                    builder.append(Double.parseDouble(val));
-                    break;
-                case serdeConstants.TIMESTAMP_TYPE_NAME:
-                    builder.append(Timestamp.valueOf(val));
-                    break;
-                case serdeConstants.DATE_TYPE_NAME:
-                    builder.append(Date.valueOf(val));
-                    break;
-                case serdeConstants.DECIMAL_TYPE_NAME:
-                    builder.append(HiveDecimal.create(val).bigDecimalValue());
-                    break;
-                case serdeConstants.BINARY_TYPE_NAME:
-                    Utilities.byteArrayToOctalString(val.getBytes(), builder);
-                    break;
-                default:
-                    throw new UnsupportedTypeException(
-                            "Unsupported partition type: " + type);
-            }
+            return nullChar;
         }
 
-        firstColumn = false;
+        StringBuilder partitionText = new StringBuilder();
+        // ignore the type's parameters
+        String typeName = type.replaceAll("\\(.*\\)", "");
+        switch (typeName) {
+            case serdeConstants.STRING_TYPE_NAME:
+            case serdeConstants.VARCHAR_TYPE_NAME:
+            case serdeConstants.CHAR_TYPE_NAME:
+                partitionText.append(val);
+                break;
+            case serdeConstants.BOOLEAN_TYPE_NAME:
+                partitionText.append(Boolean.parseBoolean(val));
+                break;
+            case serdeConstants.TINYINT_TYPE_NAME:
+            case serdeConstants.SMALLINT_TYPE_NAME:
+                partitionText.append(Short.parseShort(val));
+                break;
+            case serdeConstants.INT_TYPE_NAME:
+                partitionText.append(Integer.parseInt(val));
+                break;
+            case serdeConstants.BIGINT_TYPE_NAME:
+                partitionText.append(Long.parseLong(val));
+                break;
+            case serdeConstants.FLOAT_TYPE_NAME:
+                partitionText.append(Float.parseFloat(val));
+                break;
+            case serdeConstants.DOUBLE_TYPE_NAME:
+                partitionText.append(Double.parseDouble(val));
+                break;
+            case serdeConstants.TIMESTAMP_TYPE_NAME:
+                partitionText.append(Timestamp.valueOf(val));
+                break;
+            case serdeConstants.DATE_TYPE_NAME:
+                partitionText.append(Date.valueOf(val));
+                break;
+            case serdeConstants.DECIMAL_TYPE_NAME:
+                partitionText.append(HiveDecimal.create(val).bigDecimalValue());
+                break;
+            case serdeConstants.BINARY_TYPE_NAME:
+                Utilities.byteArrayToOctalString(val.getBytes(), partitionText);
+                break;
+            default:
+                throw new UnsupportedTypeException(
+                        "Unsupported partition type: " + type);
+        }
+        return partitionText.toString();
     }
 
     private void resolvePrimitive(Object o, PrimitiveObjectInspector oi) throws IOException {
@@ -20,6 +20,7 @@ package org.greenplum.pxf.plugins.hive;
  */
 
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
@@ -43,6 +44,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Class for connecting to Hive's MetaStore and getting schema of Hive tables.
@@ -51,6 +58,11 @@ public class HiveMetadataFetcher extends BasePlugin implements MetadataFetcher {
 
     private static final String DELIM_FIELD = "DELIMITER";
 
+    static final String METADATA_BATCH_SIZE_PROPERTY = "pxf.hive.metadata.batch.size";
+    static final String METADATA_POOL_SIZE_PROPERTY = "pxf.hive.metadata.pool.size";
+    static final int DEFAULT_METADATA_BATCH_SIZE = 100;
+    static final int DEFAULT_METADATA_POOL_SIZE = 4;
+
     private static final Log LOG = LogFactory.getLog(HiveMetadataFetcher.class);
     private IMetaStoreClient client;
     private JobConf jobConf;
@@ -78,13 +90,17 @@ public class HiveMetadataFetcher extends BasePlugin implements MetadataFetcher {
      * Supported HCatalog types: TINYINT,
      * SMALLINT, INT, BIGINT, BOOLEAN, FLOAT, DOUBLE, STRING, BINARY, TIMESTAMP,
      * DATE, DECIMAL, VARCHAR, CHAR.
+     * <p>
+     * For patterns matching more than one table, the tables of each database
+     * are fetched in batches (sized by {@value #METADATA_BATCH_SIZE_PROPERTY}),
+     * and the batches are processed in parallel by a number of MetaStore
+     * connections (set by {@value #METADATA_POOL_SIZE_PROPERTY}).
      *
      * @param pattern pattern table/file name or pattern in the given source
      */
     @Override
     public List<Metadata> getMetadata(String pattern) throws Exception {
 
-        boolean ignoreErrors = false;
         List<Metadata.Item> tblsDesc = hiveClientWrapper.extractTablesFromPattern(client, pattern);
 
         if (tblsDesc == null || tblsDesc.isEmpty()) {
@@ -92,50 +108,144 @@ public class HiveMetadataFetcher extends BasePlugin implements MetadataFetcher {
             return null;
         }
 
-        List<Metadata> metadataList = new ArrayList<>();
+        if (tblsDesc.size() == 1) {
+            Metadata.Item tblDesc = tblsDesc.get(0);
+            Table tbl = hiveClientWrapper.getHiveTable(client, tblDesc);
+            List<Metadata> metadataList = new ArrayList<>();
+            metadataList.add(getTableMetadata(client, tblDesc, tbl));
+            return metadataList;
+        }
 
-        if (tblsDesc.size() > 1) {
-            ignoreErrors = true;
+        List<List<Metadata.Item>> batches = getBatches(tblsDesc);
+        int poolSize = Math.min(configuration.getInt(METADATA_POOL_SIZE_PROPERTY, DEFAULT_METADATA_POOL_SIZE), batches.size());
+        if (poolSize <= 1) {
+            List<Metadata> metadataList = new ArrayList<>();
+            for (List<Metadata.Item> batch : batches) {
+                metadataList.addAll(getBatchMetadata(client, batch));
+            }
+            return metadataList;
         }
 
-        for (Metadata.Item tblDesc : tblsDesc) {
-            try {
-                Metadata metadata = new Metadata(tblDesc);
-                Table tbl = hiveClientWrapper.getHiveTable(client, tblDesc);
-                hiveClientWrapper.getSchema(tbl, metadata);
-                boolean hasComplexTypes = hiveClientWrapper.hasComplexTypes(metadata);
-                metadataList.add(metadata);
-                List<Partition> tablePartitions = client.listPartitionsByFilter(tblDesc.getPath(), tblDesc.getName(), "", (short) -1);
-                Set<OutputFormat> formats = new HashSet<>();
-                //If table has partitions - find out all formats
-                for (Partition tablePartition : tablePartitions) {
-                    String inputFormat = tablePartition.getSd().getInputFormat();
-                    OutputFormat outputFormat = getOutputFormat(inputFormat, hasComplexTypes);
-                    formats.add(outputFormat);
-                }
-                //If table has no partitions - get single format of table
-                if (tablePartitions.size() == 0) {
-                    String inputFormat = tbl.getSd().getInputFormat();
-                    OutputFormat outputFormat = getOutputFormat(inputFormat, hasComplexTypes);
-                    formats.add(outputFormat);
-                }
-                metadata.setOutputFormats(formats);
-                Map<String, String> outputParameters = new HashMap<>();
-                Integer delimiterCode = hiveClientWrapper.getDelimiterCode(tbl.getSd());
-                outputParameters.put(DELIM_FIELD, delimiterCode.toString());
-                metadata.setOutputParameters(outputParameters);
-            } catch (UnsupportedTypeException | UnsupportedOperationException e) {
-                if (ignoreErrors) {
-                    LOG.warn("Metadata fetch for " + tblDesc.toString() + " failed. " + e.getMessage());
-                } else {
+        LOG.debug("Fetching metadata of " + tblsDesc.size() + " tables in " + batches.size()
+                + " batches using " + poolSize + " MetaStore connections");
+
+        // MetaStore clients are not thread safe, every thread uses its own connection
+        BlockingQueue<IMetaStoreClient> clients = new ArrayBlockingQueue<>(poolSize);
+        List<IMetaStoreClient> newClients = new ArrayList<>();
+        clients.add(client);
+        ExecutorService executorService = Executors.newFixedThreadPool(poolSize);
+        try {
+            for (int i = 1; i < poolSize; i++) {
+                IMetaStoreClient newClient = hiveClientWrapper.initHiveClient(context, configuration);
+                newClients.add(newClient);
+                clients.add(newClient);
+            }
+
+            List<Future<List<Metadata>>> futures = new ArrayList<>();
+            for (List<Metadata.Item> batch : batches) {
+                futures.add(executorService.submit(() -> {
+                    IMetaStoreClient batchClient = clients.take();
+                    try {
+                        return getBatchMetadata(batchClient, batch);
+                    } finally {
+                        clients.add(batchClient);
+                    }
+                }));
+            }
+
+            // keep the order of the tables returned by the MetaStore
+            List<Metadata> metadataList = new ArrayList<>();
+            for (Future<List<Metadata>> future : futures) {
+                try {
+                    metadataList.addAll(future.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Exception) {
+                        throw (Exception) cause;
+                    }
                     throw e;
                 }
             }
+            return metadataList;
+        } finally {
+            executorService.shutdownNow();
+            for (IMetaStoreClient newClient : newClients) {
+                newClient.close();
+            }
+        }
+    }
+
+    /*
+     * Splits the tables into batches of tables of the same database, keeping
+     * the order of the tables.
+     */
+    private List<List<Metadata.Item>> getBatches(List<Metadata.Item> tblsDesc) {
+        int batchSize = Math.max(1, configuration.getInt(METADATA_BATCH_SIZE_PROPERTY, DEFAULT_METADATA_BATCH_SIZE));
+        List<List<Metadata.Item>> batches = new ArrayList<>();
+        List<Metadata.Item> batch = null;
+        for (Metadata.Item tblDesc : tblsDesc) {
+            if (batch == null || batch.size() == batchSize || !batch.get(0).getPath().equals(tblDesc.getPath())) {
+                batch = new ArrayList<>();
+                batches.add(batch);
+            }
+            batch.add(tblDesc);
         }
+        return batches;
+    }
 
+    /*
+     * Fetches the metadata of a batch of tables of the same database. The
+     * tables are fetched with a single MetaStore call, tables that could not
+     * be fetched that way are fetched one by one. Unsupported tables are
+     * skipped.
+     */
+    private List<Metadata> getBatchMetadata(IMetaStoreClient client, List<Metadata.Item> batch) throws Exception {
+        List<String> tableNames = new ArrayList<>(batch.size());
+        for (Metadata.Item tblDesc : batch) {
+            tableNames.add(tblDesc.getName());
+        }
+        Map<String, Table> tables = hiveClientWrapper.getHiveTables(client, batch.get(0).getPath(), tableNames);
+
+        List<Metadata> metadataList = new ArrayList<>();
+        for (Metadata.Item tblDesc : batch) {
+            try {
+                Table tbl = tables.get(StringUtils.lowerCase(tblDesc.getName()));
+                tbl = (tbl == null) ? hiveClientWrapper.getHiveTable(client, tblDesc)
+                        : hiveClientWrapper.checkHiveTable(tbl, tblDesc);
+                metadataList.add(getTableMetadata(client, tblDesc, tbl));
+            } catch (UnsupportedTypeException | UnsupportedOperationException e) {
+                LOG.warn("Metadata fetch for " + tblDesc.toString() + " failed. " + e.getMessage());
+            }
+        }
         return metadataList;
     }
 
+    private Metadata getTableMetadata(IMetaStoreClient client, Metadata.Item tblDesc, Table tbl) throws Exception {
+        Metadata metadata = new Metadata(tblDesc);
+        hiveClientWrapper.getSchema(tbl, metadata);
+        boolean hasComplexTypes = hiveClientWrapper.hasComplexTypes(metadata);
+        List<Partition> tablePartitions = client.listPartitionsByFilter(tblDesc.getPath(), tblDesc.getName(), "", (short) -1);
+        Set<OutputFormat> formats = new HashSet<>();
+        //If table has partitions - find out all formats
+        for (Partition tablePartition : tablePartitions) {
+            String inputFormat = tablePartition.getSd().getInputFormat();
+            OutputFormat outputFormat = getOutputFormat(inputFormat, hasComplexTypes);
+            formats.add(outputFormat);
+        }
+        //If table has no partitions - get single format of table
+        if (tablePartitions.size() == 0) {
+            String inputFormat = tbl.getSd().getInputFormat();
+            OutputFormat outputFormat = getOutputFormat(inputFormat, hasComplexTypes);
+            formats.add(outputFormat);
+        }
+        metadata.setOutputFormats(formats);
+        Map<String, String> outputParameters = new HashMap<>();
+        Integer delimiterCode = hiveClientWrapper.getDelimiterCode(tbl.getSd());
+        outputParameters.put(DELIM_FIELD, delimiterCode.toString());
+        metadata.setOutputParameters(outputParameters);
+        return metadata;
+    }
+
     private OutputFormat getOutputFormat(String inputFormat, boolean hasComplexTypes) throws Exception {
         InputFormat<?, ?> fformat = HiveDataFragmenter.makeInputFormat(inputFormat, jobConf);
         String profile = ProfileFactory.get(fformat, hasComplexTypes);
@@ -23,11 +23,19 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Output;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hadoop.hive.ql.io.orc.OrcInputFormat;
 import org.apache.hadoop.hive.ql.io.orc.Reader;
 import org.apache.hadoop.hive.ql.io.sarg.ConvertAstToSearchArg;
 import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.orc.ColumnStatistics;
+import org.apache.orc.DateColumnStatistics;
+import org.apache.orc.DecimalColumnStatistics;
+import org.apache.orc.DoubleColumnStatistics;
+import org.apache.orc.IntegerColumnStatistics;
+import org.apache.orc.TypeDescription;
+import org.greenplum.pxf.api.AggregateResult;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.StatsAccessor;
 import org.greenplum.pxf.api.filter.FilterParser;
@@ -36,12 +44,17 @@ import org.greenplum.pxf.api.filter.Operator;
 import org.greenplum.pxf.api.filter.SupportedOperatorPruner;
 import org.greenplum.pxf.api.filter.TreeTraverser;
 import org.greenplum.pxf.api.filter.TreeVisitor;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.api.utilities.EnumAggregationType;
 import org.greenplum.pxf.api.utilities.Utilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.EnumSet;
 import java.util.List;
 
@@ -56,6 +69,8 @@ import static org.apache.hadoop.hive.serde2.ColumnProjectionUtils.READ_COLUMN_NA
  */
 public class HiveORCAccessor extends HiveAccessor implements StatsAccessor {
 
+    private static final Logger LOG = LoggerFactory.getLogger(HiveORCAccessor.class);
+
     private static final int KRYO_BUFFER_SIZE = 4 * 1024;
     private static final int KRYO_MAX_BUFFER_SIZE = 10 * 1024 * 1024;
 
@@ -81,9 +96,7 @@ public class HiveORCAccessor extends HiveAccessor implements StatsAccessor {
     Reader orcReader;
 
     private boolean useStats;
-    private long count;
-    private long objectsEmitted;
-    private OneRow rowToEmitCount;
+    private AggregateResult aggregateResult;
 
     private boolean statsInitialized;
 
@@ -102,14 +115,14 @@ public class HiveORCAccessor extends HiveAccessor implements StatsAccessor {
 
     @Override
     public boolean openForRead() throws Exception {
+        // rows are also read when the statistics cannot answer the aggregate
+        addColumns();
         if (useStats) {
             orcReader = getOrcReader();
             if (orcReader == null) {
                 return false;
             }
-            objectsEmitted = 0;
         } else {
-            addColumns();
             addFilters();
         }
         return super.openForRead();
@@ -163,44 +176,170 @@ public class HiveORCAccessor extends HiveAccessor implements StatsAccessor {
     }
 
     /**
-     * Fetches file-level statistics from an ORC file.
+     * Fetches file-level statistics from an ORC file. COUNT is answered from
+     * the number of rows in the file, MIN, MAX and SUM from the column
+     * statistics in the file footer. When the statistics of the file cannot
+     * answer the aggregate, the rows of the split are emitted instead.
+     * <p>
+     * The aggregate is given by the AGG-TYPE request header. Neither the
+     * external table nor the foreign data wrapper extension sends it yet, so
+     * the MIN, MAX and SUM optimizations are only used by clients that set
+     * the header themselves.
      */
     @Override
     public void retrieveStats() throws Exception {
         if (!this.useStats) {
             throw new IllegalStateException("Accessor is not using statistics in current context.");
         }
+        EnumAggregationType aggType = context.getAggType();
+        if (aggType == EnumAggregationType.COUNT) {
+            aggregateResult = AggregateResult.ofCount(context.getTupleDescription(), orcReader.getNumberOfRows());
+        } else {
+            aggregateResult = getColumnAggregate(aggType);
+        }
         /*
          * We are using file-level stats therefore if file has multiple splits,
-         * it's enough to return count for a first split in file.
-         * In case file has multiple splits - we don't want to duplicate counts.
+         * it's enough to return the aggregate for a first split in file.
+         * In case file has multiple splits - we don't want to duplicate it.
          */
-        if (context.getFragmentIndex() == 0) {
-            this.count = this.orcReader.getNumberOfRows();
-            rowToEmitCount = readNextObject();
+        if (aggregateResult != null && context.getFragmentIndex() != 0) {
+            aggregateResult = new AggregateResult(aggregateResult.getFields(), 0);
         }
         statsInitialized = true;
     }
 
     /**
-     * Emits tuple without reading from disk, currently supports COUNT
+     * {@inheritDoc}
+     */
+    @Override
+    public AggregateResult getAggregateResult() {
+        if (!statsInitialized) {
+            throw new IllegalStateException("retrieveStats() should be called before calling getAggregateResult()");
+        }
+        return aggregateResult;
+    }
+
+    /**
+     * Emits the rows of the split for aggregates the file statistics cannot
+     * answer, the aggregate is then computed by GPDB.
      */
     @Override
     public OneRow emitAggObject() {
         if (!statsInitialized) {
             throw new IllegalStateException("retrieveStats() should be called before calling emitAggObject()");
         }
-        OneRow row = null;
         if (context.getAggType() == null)
             throw new UnsupportedOperationException("Aggregate operation is required");
-        if (context.getAggType() != EnumAggregationType.COUNT)
-            throw new UnsupportedOperationException("Aggregation operation is not supported.");
+        if (aggregateResult != null)
+            throw new IllegalStateException("Aggregate was answered from statistics");
+
+        try {
+            return readNextObject();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read next object for aggregate operation", e);
+        }
+    }
 
-        if (objectsEmitted < count) {
-            objectsEmitted++;
-            row = rowToEmitCount;
+    /**
+     * Computes MIN, MAX or SUM of the single projected column out of the
+     * file-level column statistics.
+     *
+     * @param aggType the aggregate operation
+     * @return the aggregate result, or null if the statistics cannot answer it
+     */
+    private AggregateResult getColumnAggregate(EnumAggregationType aggType) {
+        ColumnDescriptor column = context.getTupleDescription().stream()
+                .filter(ColumnDescriptor::isProjected)
+                .findFirst()
+                .orElse(null);
+        if (column == null || hiveIndexes == null) {
+            return null;
+        }
+        // partition columns are not stored in the file
+        Integer hiveIndex = hiveIndexes.get(column.columnIndex());
+        List<TypeDescription> fileColumns = orcReader.getSchema().getChildren();
+        if (hiveIndex == null || fileColumns == null || hiveIndex >= fileColumns.size()) {
+            return null;
+        }
+
+        ColumnStatistics statistics = orcReader.getStatistics()[fileColumns.get(hiveIndex).getId()];
+        if (statistics.getNumberOfValues() == 0) {
+            // the column holds only nulls, there is no value to aggregate
+            return AggregateResult.ofColumnValue(context.getTupleDescription(), column.columnIndex(), null);
+        }
+        Object value = getStatisticsValue(aggType, statistics, column.getDataType());
+        if (value == null) {
+            LOG.debug("{}-{}: Statistics of {} cannot answer {} on column {}", context.getTransactionId(),
+                    context.getSegmentId(), context.getDataSource(), aggType, column.columnName());
+            return null;
+        }
+        return AggregateResult.ofColumnValue(context.getTupleDescription(), column.columnIndex(), value);
+    }
+
+    /**
+     * Extracts the value of the aggregate from ORC column statistics. Only
+     * numeric and date statistics are used, string and timestamp statistics
+     * are not comparable to the GPDB ordering of the values.
+     *
+     * @param aggType    the aggregate operation
+     * @param statistics the column statistics
+     * @param dataType   the GPDB type of the column
+     * @return the value of the aggregate, or null if not available
+     */
+    private Object getStatisticsValue(EnumAggregationType aggType, ColumnStatistics statistics, DataType dataType) {
+        if (statistics instanceof IntegerColumnStatistics) {
+            IntegerColumnStatistics stats = (IntegerColumnStatistics) statistics;
+            switch (aggType) {
+                case MIN:
+                    return AggregateResult.convertNumber(dataType, stats.getMinimum());
+                case MAX:
+                    return AggregateResult.convertNumber(dataType, stats.getMaximum());
+                case SUM:
+                    // the sum is not defined when it overflowed a long
+                    return stats.isSumDefined() ? AggregateResult.convertNumber(dataType, stats.getSum()) : null;
+            }
+        } else if (statistics instanceof DoubleColumnStatistics) {
+            DoubleColumnStatistics stats = (DoubleColumnStatistics) statistics;
+            switch (aggType) {
+                case MIN:
+                    return AggregateResult.convertNumber(dataType, stats.getMinimum());
+                case MAX:
+                    return AggregateResult.convertNumber(dataType, stats.getMaximum());
+                case SUM:
+                    return AggregateResult.convertNumber(dataType, stats.getSum());
+            }
+        } else if (statistics instanceof DecimalColumnStatistics && dataType == DataType.NUMERIC) {
+            DecimalColumnStatistics stats = (DecimalColumnStatistics) statistics;
+            HiveDecimal value = null;
+            switch (aggType) {
+                case MIN:
+                    value = stats.getMinimum();
+                    break;
+                case MAX:
+                    value = stats.getMaximum();
+                    break;
+                case SUM:
+                    value = stats.getSum();
+                    break;
+            }
+            return value == null ? null : value.bigDecimalValue().toPlainString();
+        } else if (statistics instanceof DateColumnStatistics && dataType == DataType.DATE) {
+            DateColumnStatistics stats = (DateColumnStatistics) statistics;
+            Date value = null;
+            switch (aggType) {
+                case MIN:
+                    value = stats.getMinimum();
+                    break;
+                case MAX:
+                    value = stats.getMaximum();
+                    break;
+            }
+            if (value == null) {
+                return null;
+            }
+            return value instanceof java.sql.Date ? value : new java.sql.Date(value.getTime());
         }
-        return row;
+        return null;
     }
 
     /**
@@ -26,6 +26,7 @@ import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.serde.serdeConstants;
 import org.apache.hadoop.hive.serde2.Deserializer;
+import org.apache.hadoop.hive.serde2.StructObject;
 import org.apache.hadoop.hive.serde2.io.ByteWritable;
 import org.apache.hadoop.hive.serde2.objectinspector.ListObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.MapObjectInspector;
@@ -70,13 +71,14 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * Class HiveResolver handles deserialization of records that were serialized
@@ -95,10 +97,15 @@ public class HiveResolver extends HivePlugin implements Resolver {
     protected String propsString;
     protected String partitionKeys;
     protected List<Integer> hiveIndexes;
+    protected String[] lowercaseColumnNames;
 
     private int numberOfPartitions;
     private Map<String, OneField> partitionColumnNames;
     private String hiveDefaultPartName;
+    private OneField[] partitionFields;
+    private List<OneField> partitionColumnsOnlyRecord;
+    private StructObjectInspector recordInspector;
+    private ObjectInspector[] columnInspectors;
 
     /**
      * Initializes the HiveResolver by parsing the request context and
@@ -112,6 +119,9 @@ public class HiveResolver extends HivePlugin implements Resolver {
         super.initialize(requestContext);
 
         hiveDefaultPartName = HiveConf.getVar(configuration, HiveConf.ConfVars.DEFAULTPARTITIONNAME);
+        lowercaseColumnNames = context.getTupleDescription().stream()
+                .map(column -> StringUtils.lowerCase(column.columnName()))
+                .toArray(String[]::new);
 
         try {
             parseUserData(context);
@@ -124,6 +134,11 @@ public class HiveResolver extends HivePlugin implements Resolver {
 
     @Override
     public List<OneField> getFields(OneRow onerow) throws Exception {
+        if (partitionColumnsOnlyRecord != null) {
+            // partition values are constant for the fragment, the record
+            // does not need to be deserialized
+            return partitionColumnsOnlyRecord;
+        }
         Object tuple = deserializer.deserialize((Writable) onerow.getData());
         // Each Hive record is a Struct
         StructObjectInspector soi = (StructObjectInspector) deserializer.getObjectInspector();
@@ -185,6 +200,7 @@ public class HiveResolver extends HivePlugin implements Resolver {
      */
     void initPartitionFields() {
         partitionColumnNames = new HashMap<>();
+        partitionFields = new OneField[context.getTupleDescription().size()];
         if (partitionKeys.equals(HiveDataFragmenter.HIVE_NO_PART_TBL)) {
             return;
         }
@@ -277,6 +293,36 @@ public class HiveResolver extends HivePlugin implements Resolver {
             }
         }
         numberOfPartitions = partitionColumnNames.size();
+
+        boolean dataColumnProjected = false;
+        List<ColumnDescriptor> tupleDescription = context.getTupleDescription();
+        for (int j = 0; j < partitionFields.length; j++) {
+            partitionFields[j] = partitionColumnNames.get(lowercaseColumnNames[j]);
+            dataColumnProjected |= partitionFields[j] == null && tupleDescription.get(j).isProjected();
+        }
+        if (numberOfPartitions > 0 && !dataColumnProjected) {
+            initPartitionColumnsOnlyRecord();
+        }
+    }
+
+    /*
+     * When the query only projects partition columns, every record of the
+     * fragment is the same: the partition values and nulls for the data
+     * columns. The record is built once, and the accessor only needs to
+     * count the rows.
+     */
+    private void initPartitionColumnsOnlyRecord() {
+        List<ColumnDescriptor> tupleDescription = context.getTupleDescription();
+        List<OneField> record = new ArrayList<>(tupleDescription.size());
+        for (int j = 0; j < tupleDescription.size(); j++) {
+            if (partitionFields[j] != null) {
+                record.add(partitionFields[j]);
+            } else {
+                addOneFieldToRecord(record, tupleDescription.get(j).getDataType(), null);
+            }
+        }
+        partitionColumnsOnlyRecord = Collections.unmodifiableList(record);
+        LOG.debug("Only partition columns are projected, records will not be deserialized");
     }
 
     private boolean columnDescriptorContainsColumn(String columnName) {
@@ -463,21 +509,21 @@ public class HiveResolver extends HivePlugin implements Resolver {
                                             StructObjectInspector soi,
                                             boolean toFlatten)
             throws BadRecordException, IOException {
-        // "fields" represents the projected schema
-        List<? extends StructField> fields = soi.getAllStructFieldRefs();
-        // structFields contains a list of all values, null for non-projected fields
-        // the number of structFields matches the number of columns on the original hive table
-        // also the order of the structFields matches the hive table schema
-        List<Object> structFields = soi.getStructFieldsDataAsList(struct);
-        if (structFields == null) {
-            throw new BadRecordException("Illegal value NULL for Hive data type Struct");
-        }
-
         List<OneField> structRecord = new LinkedList<>();
-        List<OneField> complexRecord = new LinkedList<>();
+        List<OneField> complexRecord = toFlatten ? new LinkedList<>()
+                : new ArrayList<>(context.getTupleDescription().size());
         OneField partitionField;
 
         if (toFlatten) {
+            // "fields" represents the projected schema
+            List<? extends StructField> fields = soi.getAllStructFieldRefs();
+            // structFields contains a list of all values, null for non-projected fields
+            // the number of structFields matches the number of columns on the original hive table
+            // also the order of the structFields matches the hive table schema
+            List<Object> structFields = soi.getStructFieldsDataAsList(struct);
+            if (structFields == null) {
+                throw new BadRecordException("Illegal value NULL for Hive data type Struct");
+            }
             for (int i = 0; i < structFields.size(); i++) {
                 complexRecord.add(new OneField(DataType.TEXT.getOID(), String.format("\"%s\"", fields.get(i).getFieldName())));
                 traverseTuple(structFields.get(i), fields.get(i).getFieldObjectInspector(), complexRecord, true);
@@ -485,23 +531,12 @@ public class HiveResolver extends HivePlugin implements Resolver {
                 complexRecord.clear();
             }
         } else {
-            Map<String, Integer> columnNameToStructIndexMap =
-                    IntStream.range(0, fields.size())
-                            .boxed()
-                            .collect(Collectors.toMap(i -> StringUtils.lowerCase(fields.get(i).getFieldName()), i -> i));
-
+            // only the projected fields are read from lazy records
+            List<Object> structFields = getStructFieldsData(struct, soi);
+            ObjectInspector[] columnInspectors = getColumnInspectors(soi);
             List<ColumnDescriptor> tupleDescription = context.getTupleDescription();
             for (int j = 0; j < tupleDescription.size(); j++) {
                 ColumnDescriptor columnDescriptor = tupleDescription.get(j);
-                String lowercaseColumnName = StringUtils.lowerCase(columnDescriptor.columnName());
-                // i is the index of the projected column, this will match j in most
-                // cases, but in some cases where projection information is not passed
-                // to the deserializer, this will not hold true. Let's consider the case
-                // where the hive table is defined as a,b,c,d. The greenplum table
-                // contains a subset of the columns and is defined as c,a. Then fields
-                // will only have two entries, whereas structFields will still have
-                // 4 entries. In this case i will be 0, for the first greenplum column.
-                Integer i = columnNameToStructIndexMap.get(lowercaseColumnName);
                 // structIndex corresponds to the index of the column on hive
                 // for example if the hive table has columns a, b, c, but
                 // Greenplum defines them as c, b, a, hiveIndexes will have values
@@ -509,10 +544,10 @@ public class HiveResolver extends HivePlugin implements Resolver {
                 // column will be 2
                 Integer structIndex = hiveIndexes.get(j);
 
-                if ((partitionField = partitionColumnNames.get(lowercaseColumnName)) != null) {
+                if ((partitionField = partitionFields[j]) != null) {
                     // Skip partitioned columns
                     complexRecord.add(partitionField);
-                } else if (i == null || structIndex >= structFields.size()) {
+                } else if (columnInspectors[j] == null || structIndex >= structFields.size()) {
                     // This is a column not present in the file, but defined in greenplum.
                     LOG.warn("Column {} is not present in the source file, but it is defined in the table", columnDescriptor.columnName());
                     addOneFieldToRecord(complexRecord, columnDescriptor.getDataType(), null);
@@ -520,9 +555,9 @@ public class HiveResolver extends HivePlugin implements Resolver {
                     // Non-projected fields will be sent as null values.
                     // This case is invoked only in the top level of fields and
                     // not when interpreting fields of type struct.
-                    traverseTuple(null, fields.get(i).getFieldObjectInspector(), complexRecord, false);
+                    traverseTuple(null, columnInspectors[j], complexRecord, false);
                 } else {
-                    traverseTuple(structFields.get(structIndex), fields.get(i).getFieldObjectInspector(), complexRecord, false);
+                    traverseTuple(structFields.get(structIndex), columnInspectors[j], complexRecord, false);
                 }
             }
         }
@@ -530,6 +565,74 @@ public class HiveResolver extends HivePlugin implements Resolver {
         return toFlatten ? structRecord : complexRecord;
     }
 
+    /**
+     * Resolves the columns of the tuple description against the fields of
+     * the record's object inspector, matching them by name. The object
+     * inspector of the deserializer does not change between records, so the
+     * resolution is done once and reused for all the records of the fragment.
+     *
+     * @param soi the object inspector of the record
+     * @return the object inspector for each column of the tuple description,
+     * or null when the column is not a field of the record
+     */
+    protected ObjectInspector[] getColumnInspectors(StructObjectInspector soi) {
+        if (soi != recordInspector) {
+            Map<String, ObjectInspector> fieldInspectors = new HashMap<>();
+            for (StructField field : soi.getAllStructFieldRefs()) {
+                fieldInspectors.put(StringUtils.lowerCase(field.getFieldName()), field.getFieldObjectInspector());
+            }
+
+            List<ColumnDescriptor> tupleDescription = context.getTupleDescription();
+            ObjectInspector[] inspectors = new ObjectInspector[tupleDescription.size()];
+            for (int j = 0; j < inspectors.length; j++) {
+                inspectors[j] = fieldInspectors.get(lowercaseColumnNames[j]);
+            }
+            columnInspectors = inspectors;
+            recordInspector = soi;
+        }
+        return columnInspectors;
+    }
+
+    /**
+     * Returns the values of the fields of the record, in the order of the hive
+     * table schema. Lazy records ({@link StructObject}, created by
+     * LazySimpleSerDe, ColumnarSerDe and LazyBinarySerDe) are returned as a
+     * view that only parses a field when it is requested, so the columns that
+     * are not projected are never deserialized. Other records are converted
+     * to a list by the object inspector.
+     *
+     * @param struct the record
+     * @param soi    the object inspector of the record
+     * @return the values of the fields of the record
+     * @throws BadRecordException when the record is null
+     */
+    protected static List<Object> getStructFieldsData(Object struct, StructObjectInspector soi)
+            throws BadRecordException {
+        List<Object> structFields;
+        if (struct instanceof StructObject) {
+            StructObject lazyStruct = (StructObject) struct;
+            // lazy records have one field per field of their object inspector
+            int size = soi.getAllStructFieldRefs().size();
+            structFields = new AbstractList<Object>() {
+                @Override
+                public Object get(int index) {
+                    return lazyStruct.getField(index);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        } else {
+            structFields = soi.getStructFieldsDataAsList(struct);
+        }
+        if (structFields == null) {
+            throw new BadRecordException("Illegal value NULL for Hive data type Struct");
+        }
+        return structFields;
+    }
+
     private List<OneField> traverseMap(Object obj, MapObjectInspector moi)
             throws BadRecordException, IOException {
         List<OneField> complexRecord = new LinkedList<>();
@@ -24,7 +24,6 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
-import org.apache.hadoop.hive.ql.io.orc.OrcFile;
 import org.apache.hadoop.hive.ql.io.orc.Reader;
 import org.apache.hadoop.hive.serde2.Deserializer;
 import org.greenplum.pxf.api.UnsupportedTypeException;
@@ -255,15 +254,18 @@ public class HiveUtilities {
     }
 
     /**
-     * Creates ORC file reader.
+     * Creates ORC file reader. The file tail is shared through the
+     * {@link OrcTailCache}, so repeated calls for the same file do not fetch
+     * and parse the footer again.
      *
+     * @param configuration  the configuration for the request
      * @param requestContext input data with given data source
      * @return ORC file reader
      */
     public static Reader getOrcReader(Configuration configuration, RequestContext requestContext) {
         try {
             Path path = new Path(requestContext.getDataSource());
-            return OrcFile.createReader(path.getFileSystem(configuration), path);
+            return OrcTailCache.getInstance().createReader(configuration, path.getFileSystem(configuration), path);
         } catch (Exception e) {
             throw new RuntimeException("Exception while getting orc reader", e);
         }
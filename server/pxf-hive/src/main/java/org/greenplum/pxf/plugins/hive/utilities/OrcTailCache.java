@@ -0,0 +1,156 @@
+package org.greenplum.pxf.plugins.hive.utilities;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.orc.OrcFile;
+import org.apache.hadoop.hive.ql.io.orc.Reader;
+import org.apache.orc.impl.OrcTail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM-wide cache of ORC file tails (postscript, footer and metadata). The
+ * accessor and the resolver of a request, as well as all the fragments of the
+ * same file, create their ORC readers from the cached tail instead of fetching
+ * and parsing the file tail again. Entries are keyed by the qualified path,
+ * the length and the modification time of the file, so a file that was
+ * rewritten in place is never served a stale tail.
+ */
+public class OrcTailCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrcTailCache.class);
+
+    static final long MAX_ENTRIES = 1000;
+    static final long EXPIRE_AFTER_ACCESS_MINUTES = 10;
+
+    /**
+     * Singleton instance of the OrcTailCache
+     */
+    private static final OrcTailCache instance = new OrcTailCache();
+
+    private final Cache<TailKey, OrcTail> cache = CacheBuilder.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS_MINUTES, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * @return a singleton instance of the cache.
+     */
+    public static OrcTailCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Creates an ORC reader for the given file, reusing the file tail from the
+     * cache when the same version of the file has been opened before.
+     *
+     * @param configuration the configuration for the reader
+     * @param fs            the file system the file lives in
+     * @param path          the path to the ORC file
+     * @return ORC file reader
+     * @throws IOException when the file status or the file tail cannot be read
+     */
+    public Reader createReader(Configuration configuration, FileSystem fs, Path path) throws IOException {
+        FileStatus status = fs.getFileStatus(path);
+        TailKey key = new TailKey(status.getPath().toString(), status.getLen(), status.getModificationTime());
+
+        // passing the length saves the reader another status call on the file
+        OrcFile.ReaderOptions options = OrcFile.readerOptions(configuration)
+                .filesystem(fs)
+                .maxLength(status.getLen());
+
+        OrcTail tail = cache.getIfPresent(key);
+        if (tail != null) {
+            LOG.debug("Using cached ORC file tail for {}", key);
+            options.orcTail(tail);
+            return OrcFile.createReader(path, options);
+        }
+
+        Reader reader = OrcFile.createReader(path, options);
+        // the reader stores the tail it has read back into the options
+        tail = options.getOrcTail();
+        if (tail != null) {
+            LOG.debug("Caching ORC file tail for {}", key);
+            cache.put(key, tail);
+        }
+        return reader;
+    }
+
+    /**
+     * Package private for unit testing
+     *
+     * @return the number of cached file tails
+     */
+    long size() {
+        return cache.size();
+    }
+
+    /**
+     * Package private for unit testing
+     */
+    void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Identifies one version of an ORC file.
+     */
+    static class TailKey {
+        private final String path;
+        private final long length;
+        private final long modificationTime;
+
+        TailKey(String path, long length, long modificationTime) {
+            this.path = path;
+            this.length = length;
+            this.modificationTime = modificationTime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            TailKey that = (TailKey) o;
+            return length == that.length &&
+                    modificationTime == that.modificationTime &&
+                    path.equals(that.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, length, modificationTime);
+        }
+
+        @Override
+        public String toString() {
+            return path + " (length=" + length + ", modificationTime=" + modificationTime + ")";
+        }
+    }
+}
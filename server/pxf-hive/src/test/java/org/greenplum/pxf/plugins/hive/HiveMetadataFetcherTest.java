@@ -43,7 +43,12 @@ import java.util.Map;
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class HiveMetadataFetcherTest {
@@ -268,4 +273,74 @@ public class HiveMetadataFetcherTest {
         assertEquals("field2", field.getName());
         assertEquals("int4", field.getType().getTypeName());
     }
+
+    @Test
+    public void getTableMetadataWithMultipleTablesFetchedInBulk() throws Exception {
+
+        fetcher = new HiveMetadataFetcher(context, mockConfigurationFactory, fakeHiveClientWrapper);
+
+        String dbName = "default";
+        List<String> tableNames = Arrays.asList("table1", "table2", "table3");
+        List<Table> hiveTables = new ArrayList<>();
+        for (String tableName : tableNames) {
+            hiveTables.add(createRegularTable(tableName));
+        }
+
+        when(mockHiveClient.getDatabases("*")).thenReturn(Collections.singletonList(dbName));
+        when(mockHiveClient.getTables(dbName, "*")).thenReturn(tableNames);
+        when(mockHiveClient.getTableObjectsByName(dbName, tableNames)).thenReturn(hiveTables);
+
+        metadataList = fetcher.getMetadata("*.*");
+
+        assertEquals(3, metadataList.size());
+        for (int i = 0; i < tableNames.size(); i++) {
+            assertEquals(dbName + "." + tableNames.get(i), metadataList.get(i).getItem().toString());
+            assertEquals(2, metadataList.get(i).getFields().size());
+        }
+        verify(mockHiveClient, never()).getTable(anyString(), anyString());
+    }
+
+    @Test
+    public void getTableMetadataWithMultipleTablesInParallelBatches() throws Exception {
+
+        configuration.setInt(HiveMetadataFetcher.METADATA_BATCH_SIZE_PROPERTY, 2);
+        configuration.setInt(HiveMetadataFetcher.METADATA_POOL_SIZE_PROPERTY, 2);
+        fetcher = new HiveMetadataFetcher(context, mockConfigurationFactory, fakeHiveClientWrapper);
+
+        String dbName = "default";
+        List<String> tableNames = Arrays.asList("table1", "table2", "table3", "table4", "table5");
+        for (String tableName : tableNames) {
+            // the bulk fetch returns no tables, they are fetched one by one
+            when(mockHiveClient.getTable(dbName, tableName)).thenReturn(createRegularTable(tableName));
+        }
+
+        when(mockHiveClient.getDatabases("*")).thenReturn(Collections.singletonList(dbName));
+        when(mockHiveClient.getTables(dbName, "*")).thenReturn(tableNames);
+
+        metadataList = fetcher.getMetadata("*.*");
+
+        // the order of the tables is kept
+        assertEquals(5, metadataList.size());
+        for (int i = 0; i < tableNames.size(); i++) {
+            assertEquals(dbName + "." + tableNames.get(i), metadataList.get(i).getItem().toString());
+        }
+        // one additional connection for the second thread
+        verify(mockClientFactory, times(2)).initHiveClient(any());
+        verify(mockHiveClient, times(3)).getTableObjectsByName(anyString(), anyListOf(String.class));
+    }
+
+    private Table createRegularTable(String tableName) {
+        List<FieldSchema> fields = new ArrayList<>();
+        fields.add(new FieldSchema("field1", "string", null));
+        fields.add(new FieldSchema("field2", "int", null));
+        StorageDescriptor sd = new StorageDescriptor();
+        sd.setCols(fields);
+        sd.setInputFormat("org.apache.hadoop.mapred.TextInputFormat");
+        Table hiveTable = new Table();
+        hiveTable.setTableName(tableName);
+        hiveTable.setTableType("MANAGED_TABLE");
+        hiveTable.setSd(sd);
+        hiveTable.setPartitionKeys(new ArrayList<>());
+        return hiveTable;
+    }
 }
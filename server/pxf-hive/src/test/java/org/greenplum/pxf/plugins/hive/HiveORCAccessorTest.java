@@ -27,6 +27,7 @@ import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
 import org.apache.hadoop.hive.ql.io.sarg.SearchArgumentFactory;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
 import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 import org.junit.Before;
 import org.junit.Test;
@@ -34,6 +35,9 @@ import org.junit.Test;
 import java.util.Arrays;
 
 import static org.apache.hadoop.hive.ql.io.sarg.ConvertAstToSearchArg.SARG_PUSHDOWN;
+import static org.apache.hadoop.hive.serde2.ColumnProjectionUtils.READ_ALL_COLUMNS;
+import static org.apache.hadoop.hive.serde2.ColumnProjectionUtils.READ_COLUMN_IDS_CONF_STR;
+import static org.apache.hadoop.hive.serde2.ColumnProjectionUtils.READ_COLUMN_NAMES_CONF_STR;
 import static org.junit.Assert.assertEquals;
 
 public class HiveORCAccessorTest {
@@ -111,6 +115,26 @@ public class HiveORCAccessorTest {
         assertEquals(expected, accessor.getJobConf().get(SARG_PUSHDOWN));
     }
 
+    @Test
+    public void openForReadWithStatsReadsProjectedColumnsOnly() {
+        context.setAggType(EnumAggregationType.MAX);
+        context.getTupleDescription().get(1).setProjected(false);
+        context.setNumAttrsProjected(1);
+        accessor = new HiveORCAccessor();
+        accessor.initialize(context);
+
+        try {
+            accessor.openForRead();
+        } catch (Exception e) {
+            // Ignore exception thrown by openForRead complaining about file foo not found
+        }
+
+        // the rows are read when the statistics cannot answer the aggregate
+        assertEquals("false", accessor.getJobConf().get(READ_ALL_COLUMNS));
+        assertEquals("0", accessor.getJobConf().get(READ_COLUMN_IDS_CONF_STR));
+        assertEquals("col1", accessor.getJobConf().get(READ_COLUMN_NAMES_CONF_STR));
+    }
+
     @Test(expected = IllegalStateException.class)
     public void emitAggObjectCountStatsNotInitialized() {
         accessor.emitAggObject();
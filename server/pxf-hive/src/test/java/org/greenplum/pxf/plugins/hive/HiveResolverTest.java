@@ -0,0 +1,122 @@
+package org.greenplum.pxf.plugins.hive;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.hadoop.hive.serde2.lazy.LazySimpleSerDe;
+import org.apache.hadoop.io.Text;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class HiveResolverTest {
+
+    private static final String PROPERTIES = "columns=id,name,amount\ncolumns.types=int:string:double\n";
+
+    private RequestContext context;
+
+    @Before
+    public void setup() {
+        context = new RequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource("foo");
+    }
+
+    @Test
+    public void testNonProjectedColumnsAreSentAsNulls() throws Exception {
+        addColumn("id", DataType.INTEGER, false);
+        addColumn("name", DataType.TEXT, true);
+        addColumn("amount", DataType.FLOAT8, true);
+        HiveResolver resolver = createResolver(0, 1, 2);
+
+        List<OneField> fields = resolver.getFields(new OneRow(null, new Text("1\u0001alice\u00013.5")));
+
+        assertEquals(3, fields.size());
+        assertNull(fields.get(0).val);
+        assertEquals("alice", fields.get(1).val);
+        assertEquals(3.5, fields.get(2).val);
+    }
+
+    @Test
+    public void testColumnsInDifferentOrder() throws Exception {
+        addColumn("amount", DataType.FLOAT8, true);
+        addColumn("id", DataType.INTEGER, true);
+        HiveResolver resolver = createResolver(2, 0);
+
+        List<OneField> fields = resolver.getFields(new OneRow(null, new Text("1\u0001alice\u00013.5")));
+        assertEquals(2, fields.size());
+        assertEquals(3.5, fields.get(0).val);
+        assertEquals(1, fields.get(1).val);
+
+        // the column resolution is reused for the following records
+        fields = resolver.getFields(new OneRow(null, new Text("2\u0001bob\u0001\\N")));
+        assertEquals(2, fields.size());
+        assertNull(fields.get(0).val);
+        assertEquals(2, fields.get(1).val);
+    }
+
+    @Test
+    public void testOnlyPartitionColumnsProjected() throws Exception {
+        addColumn("id", DataType.INTEGER, false);
+        addColumn("dt", DataType.TEXT, true);
+        HiveResolver resolver = createResolver("dt" + HiveDataFragmenter.HIVE_1_PART_DELIM + "string"
+                + HiveDataFragmenter.HIVE_1_PART_DELIM + "2020-01-01", 0, null);
+
+        // the record is not deserialized
+        List<OneField> fields = resolver.getFields(new OneRow(null, null));
+
+        assertEquals(2, fields.size());
+        assertEquals(DataType.INTEGER.getOID(), fields.get(0).type);
+        assertNull(fields.get(0).val);
+        assertEquals("2020-01-01", fields.get(1).val);
+        assertSame(fields, resolver.getFields(new OneRow(null, null)));
+    }
+
+    private HiveResolver createResolver(Integer... hiveIndexes) {
+        return createResolver(HiveDataFragmenter.HIVE_NO_PART_TBL, hiveIndexes);
+    }
+
+    private HiveResolver createResolver(String partitionKeys, Integer... hiveIndexes) {
+        HiveUserData userData = new HiveUserData("", LazySimpleSerDe.class.getName(), PROPERTIES,
+                partitionKeys, true, "1", "", 0, Arrays.asList(hiveIndexes),
+                "id,name,amount", "int:string:double");
+        context.setFragmentUserData(userData.toString().getBytes());
+
+        HiveResolver resolver = new HiveResolver();
+        resolver.initialize(context);
+        return resolver;
+    }
+
+    private void addColumn(String name, DataType type, boolean projected) {
+        int index = context.getTupleDescription().size();
+        context.getTupleDescription().add(new ColumnDescriptor(name, type.getOID(), index, type.toString(), null, projected));
+    }
+}
@@ -0,0 +1,109 @@
+package org.greenplum.pxf.plugins.hive.utilities;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.orc.OrcFile;
+import org.apache.hadoop.hive.ql.io.orc.Reader;
+import org.apache.hadoop.hive.ql.io.orc.Writer;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class OrcTailCacheTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private Configuration configuration;
+    private FileSystem fs;
+    private OrcTailCache cache;
+
+    static class Row {
+        int id;
+        String name;
+
+        Row(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    @Before
+    public void setup() throws IOException {
+        configuration = new Configuration();
+        fs = FileSystem.getLocal(configuration);
+        cache = OrcTailCache.getInstance();
+        cache.invalidateAll();
+    }
+
+    @After
+    public void tearDown() {
+        cache.invalidateAll();
+    }
+
+    @Test
+    public void testReadersOfSameFileShareTail() throws IOException {
+        Path path = writeOrcFile("shared.orc", 10);
+
+        Reader first = cache.createReader(configuration, fs, path);
+        Reader second = cache.createReader(configuration, fs, path);
+
+        assertEquals(1, cache.size());
+        assertEquals(10, first.getNumberOfRows());
+        assertEquals(10, second.getNumberOfRows());
+        assertEquals(first.getObjectInspector().getTypeName(), second.getObjectInspector().getTypeName());
+    }
+
+    @Test
+    public void testRewrittenFileIsNotServedStaleTail() throws IOException {
+        Path path = writeOrcFile("rewritten.orc", 10);
+        assertEquals(10, cache.createReader(configuration, fs, path).getNumberOfRows());
+
+        fs.delete(path, false);
+        path = writeOrcFile("rewritten.orc", 25);
+
+        assertEquals(25, cache.createReader(configuration, fs, path).getNumberOfRows());
+        assertEquals(2, cache.size());
+    }
+
+    private Path writeOrcFile(String name, int rows) throws IOException {
+        Path path = new Path(new File(tempFolder.getRoot(), name).getAbsolutePath());
+        ObjectInspector inspector = ObjectInspectorFactory.getReflectionObjectInspector(
+                Row.class, ObjectInspectorFactory.ObjectInspectorOptions.JAVA);
+        Writer writer = OrcFile.createWriter(path, OrcFile.writerOptions(configuration).inspector(inspector));
+        for (int i = 0; i < rows; i++) {
+            writer.addRow(new Row(i, "row" + i));
+        }
+        writer.close();
+        return path;
+    }
+}
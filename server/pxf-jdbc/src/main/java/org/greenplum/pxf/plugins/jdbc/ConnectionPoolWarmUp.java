@@ -0,0 +1,79 @@
+package org.greenplum.pxf.plugins.jdbc;
+
+import org.greenplum.pxf.api.model.ConfigurationFactory;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.model.StartupTask;
+import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+/**
+ * Startup task of the PXF webapp warming up the connection pools of the
+ * servers that have a jdbc-site.xml file and enable the warm-up of their
+ * pool with the property jdbc.pool.warmUp. Servers whose connections depend
+ * on the Greenplum user are skipped. A server failing to warm up its pool
+ * does not prevent the other servers from warming up theirs.
+ */
+public class ConnectionPoolWarmUp implements StartupTask {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPoolWarmUp.class);
+
+    private static final String JDBC_SITE_FILE_NAME = "jdbc-site.xml";
+    // the table is not accessed, but the plugin requires a data source
+    private static final String WARM_UP_DATA_SOURCE = "pxf_pool_warm_up";
+
+    private final File serversConfigDirectory;
+    private final ConnectionManager connectionManager;
+
+    public ConnectionPoolWarmUp() {
+        this(ConfigurationFactory.SERVERS_CONFIG_DIR, ConnectionManager.getInstance());
+    }
+
+    ConnectionPoolWarmUp(File serversConfigDirectory, ConnectionManager connectionManager) {
+        this.serversConfigDirectory = serversConfigDirectory;
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public void run() {
+        File[] serverDirectories = serversConfigDirectory.listFiles(f ->
+                f.isDirectory() && f.canRead() && new File(f, JDBC_SITE_FILE_NAME).isFile());
+        if (serverDirectories == null) {
+            LOG.debug("Directory {} cannot be read, no connection pool is warmed up", serversConfigDirectory);
+            return;
+        }
+
+        for (File serverDirectory : serverDirectories) {
+            String serverName = serverDirectory.getName();
+            try {
+                if (warmUp(serverDirectory)) {
+                    LOG.info("Connection pool of server {} is warmed up", serverName);
+                }
+            } catch (Exception e) {
+                LOG.warn(String.format("Failed to warm up connection pool of server %s", serverName), e);
+            }
+        }
+    }
+
+    /**
+     * Warms up the connection pool of the server configured in the given
+     * directory, with the configuration the server has for the PXF user.
+     *
+     * @param serverDirectory configuration directory of the server
+     * @return true if the pool has been warmed up, false if the server does not warm it up
+     * @throws Exception if the pool cannot be warmed up
+     */
+    boolean warmUp(File serverDirectory) throws Exception {
+        RequestContext context = new RequestContext();
+        context.setServerName(serverDirectory.getName());
+        context.setConfig(serverDirectory.getAbsolutePath());
+        context.setUser(System.getProperty("user.name"));
+        context.setDataSource(WARM_UP_DATA_SOURCE);
+
+        JdbcBasePlugin plugin = new JdbcBasePlugin(connectionManager);
+        plugin.initialize(context);
+        return plugin.warmUpConnectionPool();
+    }
+}
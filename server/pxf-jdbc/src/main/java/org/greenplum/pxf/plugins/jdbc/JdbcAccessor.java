@@ -19,19 +19,26 @@ package org.greenplum.pxf.plugins.jdbc;
  * under the License.
  */
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang.StringUtils;
+import org.greenplum.pxf.api.AggregateResult;
 import org.greenplum.pxf.api.OneRow;
-import org.greenplum.pxf.api.model.Accessor;
-import org.greenplum.pxf.api.model.ConfigurationFactory;
+import org.greenplum.pxf.api.StatsAccessor;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
+import org.greenplum.pxf.api.utilities.Utilities;
 import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
+import org.greenplum.pxf.plugins.jdbc.utils.FetchSizeTuner;
 import org.greenplum.pxf.plugins.jdbc.writercallable.WriterCallable;
 import org.greenplum.pxf.plugins.jdbc.writercallable.WriterCallableFactory;
+import org.greenplum.pxf.plugins.jdbc.writercallable.WriterPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -39,36 +46,60 @@ import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
 import java.sql.Statement;
 import java.text.ParseException;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 /**
  * JDBC tables accessor
  *
- * The SELECT queries are processed by {@link java.sql.Statement}
+ * The SELECT queries are processed by {@link java.sql.Statement}. The rows are
+ * streamed from the external database, and when a number of bytes to fetch is
+ * set instead of a fetch size, the fetch size is adapted to the width of the
+ * rows (see {@link FetchSizeTuner})
+ *
+ * With PARALLEL_READS, a fragment with a range of values is split into
+ * sub-ranges that are read concurrently over several connections, and their
+ * rows are merged in no particular order (see {@link ParallelReader})
+ *
+ * Aggregates without a filter (COUNT, MIN, MAX, SUM) are computed by the
+ * external database, and only their result is sent to GPDB
  *
  * The INSERT queries are processed by {@link java.sql.PreparedStatement} and
- * built-in JDBC batches of arbitrary size
+ * built-in JDBC batches of arbitrary size. With a pool of several threads,
+ * every thread writes through its own connection and statement for the whole
+ * query (see {@link WriterPool})
+ *
+ * With BULK_LOAD, the rows are loaded with COPY FROM STDIN into PostgreSQL
+ * and Greenplum, and with INSERT queries with multiple VALUES rows into other
+ * databases that support them
  */
-public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
+public class JdbcAccessor extends JdbcBasePlugin implements StatsAccessor {
 
     private static final Logger LOG = LoggerFactory.getLogger(JdbcAccessor.class);
 
+    // The number of rows every sub-range of a parallel read may read ahead
+    private static final int PARALLEL_READ_QUEUE_SIZE = 1000;
+
     // Read variables
     private String queryRead = null;
     private Statement statementRead = null;
     private ResultSet resultSetRead = null;
+    private FetchSizeTuner fetchSizeTuner = null;
+    private RowReader sampleRowReader = null;
+    private SQLQueryBuilder queryBuilderRead = null;
+    private ParallelReader parallelReader = null;
+
+    // Aggregate variables
+    private boolean useStats;
+    private boolean statsInitialized;
+    private AggregateResult aggregateResult;
 
     // Write variables
     private String queryWrite = null;
     private PreparedStatement statementWrite = null;
     private WriterCallableFactory writerCallableFactory = null;
     private WriterCallable writerCallable = null;
-    private ExecutorService executorServiceWrite = null;
-    private List<Future<SQLException> > poolTasks = null;
+    private WriterPool writerPool = null;
 
     /**
      * Creates a new instance of accessor with default connection manager.
@@ -85,9 +116,16 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
         super(connectionManager);
     }
 
+    @Override
+    public void initialize(RequestContext context) {
+        super.initialize(context);
+        useStats = Utilities.aggregateOptimizationsSupported(context);
+    }
+
     /**
      * openForRead() implementation
-     * Create query, open JDBC connection, execute query and store the result into resultSet
+     * Create query, open JDBC connection, execute query and store the result into resultSet.
+     * With aggregate optimizations, the query is executed by {@link #retrieveStats()}
      *
      * @return true if successful
      * @throws SQLException if a database access error occurs
@@ -102,31 +140,105 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
         }
 
         Connection connection = super.getConnection();
-        SQLQueryBuilder sqlQueryBuilder = new SQLQueryBuilder(context, connection.getMetaData(), getQueryText());
+        queryBuilderRead = new SQLQueryBuilder(context, connection.getMetaData(), getQueryText());
 
         // Build SELECT query
         if (quoteColumns == null) {
-            sqlQueryBuilder.autoSetQuoteString();
+            queryBuilderRead.autoSetQuoteString();
         }
         else if (quoteColumns) {
-            sqlQueryBuilder.forceSetQuoteString();
+            queryBuilderRead.forceSetQuoteString();
         }
-        queryRead = sqlQueryBuilder.buildSelectQuery();
-        LOG.trace("Select query: {}", queryRead);
 
         // Execute queries
         statementRead = connection.createStatement();
-        statementRead.setFetchSize(fetchSize);
 
         if (queryTimeout != null) {
             LOG.debug("Setting query timeout to {} seconds", queryTimeout);
             statementRead.setQueryTimeout(queryTimeout);
         }
-        resultSetRead = statementRead.executeQuery(queryRead);
+        if (!useStats) {
+            executeSelectQuery(connection);
+        }
 
         return true;
     }
 
+    /**
+     * Compute the aggregate of the fragment in the external database. If the
+     * result cannot be sent to GPDB as a value of the aggregated column, the
+     * rows are read instead, and the aggregate is computed by GPDB.
+     *
+     * @throws SQLException if a database access error occurs
+     */
+    @Override
+    public void retrieveStats() throws SQLException {
+        if (!useStats) {
+            throw new IllegalStateException("Accessor is not using statistics in current context.");
+        }
+        if (queryBuilderRead == null) {
+            throw new IllegalStateException("openForRead() should be called before calling retrieveStats()");
+        }
+
+        EnumAggregationType aggType = context.getAggType();
+        ColumnDescriptor column = null;
+        if (aggType.isColumnAggregate()) {
+            column = columns.stream()
+                    .filter(ColumnDescriptor::isProjected)
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        if (!aggType.isColumnAggregate() || (column != null && isAggregatePushedDown(aggType, column.getDataType()))) {
+            String query = queryBuilderRead.buildAggregateQuery(aggType, column == null ? null : column.columnName());
+            LOG.debug("Aggregate query: {}", query);
+            try (ResultSet resultSet = statementRead.executeQuery(query)) {
+                if (!resultSet.next()) {
+                    throw new SQLException("Aggregate query returned no rows: " + query);
+                }
+                aggregateResult = column == null ?
+                        AggregateResult.ofCount(columns, resultSet.getLong(1)) :
+                        getColumnAggregate(resultSet, column);
+            }
+        }
+
+        if (aggregateResult == null) {
+            // GPDB computes the aggregate out of the rows
+            executeSelectQuery(statementRead.getConnection());
+        }
+        statsInitialized = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AggregateResult getAggregateResult() {
+        if (!statsInitialized) {
+            throw new IllegalStateException("retrieveStats() should be called before calling getAggregateResult()");
+        }
+        return aggregateResult;
+    }
+
+    /**
+     * Emits the rows of the fragment for aggregates the external database
+     * cannot answer, the aggregate is then computed by GPDB.
+     */
+    @Override
+    public OneRow emitAggObject() {
+        if (!statsInitialized) {
+            throw new IllegalStateException("retrieveStats() should be called before calling emitAggObject()");
+        }
+        if (aggregateResult != null) {
+            throw new IllegalStateException("Aggregate was computed by the external database");
+        }
+        try {
+            return readNextObject();
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to read next object for aggregate operation", e);
+        }
+    }
+
     /**
      * readNextObject() implementation
      * Retreive the next tuple from resultSet and return it
@@ -136,17 +248,219 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
      */
     @Override
     public OneRow readNextObject() throws SQLException {
+        if (parallelReader != null) {
+            Object[] row = parallelReader.next();
+            return row == null ? null : new OneRow(row);
+        }
         if (resultSetRead.next()) {
-            return new OneRow(resultSetRead);
+            if (fetchSizeTuner == null) {
+                return new OneRow(resultSetRead);
+            }
+            // the values of the measured rows are copied once and passed to the resolver
+            if (sampleRowReader == null) {
+                sampleRowReader = new RowReader(columns);
+            }
+            Object[] row = sampleRowReader.copyRow(resultSetRead);
+            if (fetchSizeTuner.sample(row)) {
+                int adaptedFetchSize = fetchSizeTuner.getFetchSize();
+                LOG.debug("Setting fetch size to {} rows after measuring the width of the rows", adaptedFetchSize);
+                resultSetRead.setFetchSize(adaptedFetchSize);
+                fetchSizeTuner = null;
+            }
+            return new OneRow(row);
         }
         return null;
     }
 
+    /**
+     * Execute SELECT query and store the result into resultSet
+     *
+     * @param connection connection of the read statement
+     * @throws SQLException if a database access error occurs
+     */
+    private void executeSelectQuery(Connection connection) throws SQLException {
+        List<String> queries = queryBuilderRead.buildSelectQueries(parallelReads);
+        if (queries.size() > 1) {
+            startParallelRead(queries);
+            return;
+        }
+
+        queryRead = queries.get(0);
+        LOG.trace("Select query: {}", queryRead);
+
+        fetchSizeTuner = prepareStreamingRead(connection, statementRead);
+        resultSetRead = statementRead.executeQuery(queryRead);
+    }
+
+    /**
+     * Stream the rows of a SELECT query, with a fetch size adapted to their
+     * width if a number of bytes to fetch is set and the fetch size is not
+     *
+     * @param connection connection of the statement
+     * @param statement  statement of the SELECT query
+     * @return the tuner adapting the fetch size, or null if the fetch size is fixed
+     * @throws SQLException if a database access error occurs
+     */
+    private FetchSizeTuner prepareStreamingRead(Connection connection, Statement statement) throws SQLException {
+        DbProduct dbProduct = DbProduct.getDbProduct(connection.getMetaData().getDatabaseProductName());
+        FetchSizeTuner tuner = fetchSizeIsSetByUser || fetchBytes <= 0 ? null : new FetchSizeTuner(fetchBytes);
+        boolean fetchSizeIsAdaptive = dbProduct.prepareStreamingRead(connection, statement,
+                tuner == null ? fetchSize : tuner.getInitialFetchSize(), fetchSizeIsSetByUser);
+        return fetchSizeIsAdaptive ? tuner : null;
+    }
+
+    /**
+     * Read the sub-ranges of the fragment concurrently, every sub-range over
+     * its own connection, see {@link ParallelReader}
+     *
+     * @param queries SELECT queries of the sub-ranges
+     */
+    private void startParallelRead(List<String> queries) {
+        LOG.debug("Reading the fragment in {} sub-ranges", queries.size());
+        RowReader rowReader = new RowReader(columns);
+        List<ParallelReader.SubRangeReader> subRangeReaders = new ArrayList<>(queries.size());
+        for (String query : queries) {
+            subRangeReaders.add(reader -> readSubRange(query, rowReader, reader));
+        }
+        parallelReader = new ParallelReader(subRangeReaders, PARALLEL_READ_QUEUE_SIZE * queries.size());
+    }
+
+    /**
+     * Read the rows of a sub-range of the fragment, called by one of the
+     * threads of the {@link ParallelReader}
+     *
+     * @param query     SELECT query of the sub-range
+     * @param rowReader the reader copying the values of the rows
+     * @param reader    the reader the rows are passed to
+     * @throws SQLException if a database access error occurs
+     * @throws InterruptedException if the thread is interrupted while waiting for the rows to be consumed
+     */
+    private void readSubRange(String query, RowReader rowReader, ParallelReader reader) throws SQLException, InterruptedException {
+        LOG.trace("Select query of a sub-range: {}", query);
+        Connection connection = super.getConnection();
+        Statement statement;
+        try {
+            statement = connection.createStatement();
+        } catch (SQLException e) {
+            closeConnection(connection);
+            throw e;
+        }
+
+        try {
+            if (queryTimeout != null) {
+                statement.setQueryTimeout(queryTimeout);
+            }
+            FetchSizeTuner tuner = prepareStreamingRead(connection, statement);
+            try (ResultSet resultSet = statement.executeQuery(query)) {
+                while (resultSet.next()) {
+                    Object[] row = rowReader.copyRow(resultSet);
+                    if (tuner != null && tuner.sample(row)) {
+                        resultSet.setFetchSize(tuner.getFetchSize());
+                        tuner = null;
+                    }
+                    if (!reader.put(row)) {
+                        LOG.debug("Stopped reading a sub-range as the read is closed");
+                        break;
+                    }
+                }
+            }
+        } finally {
+            closeStatementAndConnection(statement);
+        }
+    }
+
+    /**
+     * Check whether the external database computes an aggregate of a column
+     * the same way GPDB does. Text is not aggregated, as the order of text
+     * values depends on the collation of the database.
+     *
+     * @param aggType the aggregate
+     * @param type    the type of the column
+     * @return true if the aggregate is computed by the external database
+     */
+    private static boolean isAggregatePushedDown(EnumAggregationType aggType, DataType type) {
+        switch (type) {
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case REAL:
+            case FLOAT8:
+            case NUMERIC:
+                return true;
+            case DATE:
+            case TIMESTAMP:
+                return aggType != EnumAggregationType.SUM;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Convert the value of a column aggregate to the type used for the column
+     * by {@link JdbcResolver}
+     *
+     * @param resultSet result of the aggregate query, positioned on its row
+     * @param column    the aggregated column
+     * @return the aggregate result, or null if the value does not fit in the column
+     * @throws SQLException if the value cannot be read
+     */
+    private AggregateResult getColumnAggregate(ResultSet resultSet, ColumnDescriptor column) throws SQLException {
+        DataType type = column.getDataType();
+        Object value;
+        switch (type) {
+            case NUMERIC:
+                value = resultSet.getString(1);
+                break;
+            case DATE:
+                value = resultSet.getDate(1);
+                break;
+            case TIMESTAMP:
+                value = resultSet.getTimestamp(1);
+                break;
+            default:
+                Object number = resultSet.getObject(1);
+                if (number == null) {
+                    value = null;
+                    break;
+                }
+                value = AggregateResult.convertNumber(type, toExactNumber((Number) number));
+                if (value == null) {
+                    LOG.debug("Aggregate value {} does not fit in column {}", number, column.columnName());
+                    return null;
+                }
+        }
+        return AggregateResult.ofColumnValue(columns, column.columnIndex(), value);
+    }
+
+    /**
+     * Databases return the sum of integers as a decimal, convert it to a
+     * long if it is an integer
+     *
+     * @param number a number returned by the external database
+     * @return a long if the number is an integer that fits in a long, otherwise the number
+     */
+    private static Number toExactNumber(Number number) {
+        try {
+            if (number instanceof BigDecimal) {
+                return ((BigDecimal) number).longValueExact();
+            }
+            if (number instanceof BigInteger) {
+                return ((BigInteger) number).longValueExact();
+            }
+        } catch (ArithmeticException e) {
+            // not an integer, or too large for a long
+        }
+        return number;
+    }
+
     /**
      * closeForRead() implementation
      */
     @Override
     public void closeForRead() throws SQLException {
+        if (parallelReader != null) {
+            parallelReader.close();
+        }
         closeStatementAndConnection(statementRead);
     }
 
@@ -184,8 +498,22 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
 
         statementWrite = super.getPreparedStatement(connection, queryWrite);
 
+        // Process bulkLoad
+        String copyQuery = null;
+        int maxRowsPerInsert = 1;
+        if (bulkLoad) {
+            DbProduct dbProduct = DbProduct.getDbProduct(connection.getMetaData().getDatabaseProductName());
+            if (dbProduct == DbProduct.POSTGRES && WriterCallableFactory.isCopySupported(connection)) {
+                copyQuery = sqlQueryBuilder.buildCopyQuery();
+                LOG.debug("Bulk load with COPY query: {}", copyQuery);
+            } else {
+                maxRowsPerInsert = dbProduct.getMaxRowsPerInsert(columns.size());
+                LOG.debug("Bulk load with INSERT queries of at most {} rows", maxRowsPerInsert);
+            }
+        }
+
         // Process batchSize
-        if (!connection.getMetaData().supportsBatchUpdates()) {
+        if (copyQuery == null && maxRowsPerInsert == 1 && !connection.getMetaData().supportsBatchUpdates()) {
             if ((batchSizeIsSetByUser) && (batchSize > 1)) {
                 throw new SQLException("The external database does not support batch updates");
             }
@@ -201,15 +529,20 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
                 "The POOL_SIZE is set to the number of CPUs available (" + Integer.toString(poolSize) + ")"
             );
         }
-        if (poolSize > 1) {
-            executorServiceWrite = Executors.newFixedThreadPool(poolSize);
-            poolTasks = new LinkedList<>();
-        }
 
         // Setup WriterCallableFactory
         writerCallableFactory = new WriterCallableFactory(this, queryWrite, statementWrite, batchSize, poolSize);
+        if (copyQuery != null) {
+            writerCallableFactory.setCopyQuery(copyQuery);
+        } else if (maxRowsPerInsert > 1) {
+            writerCallableFactory.setMultiRowInsert(sqlQueryBuilder::buildInsertQuery, maxRowsPerInsert);
+        }
 
-        writerCallable = writerCallableFactory.get();
+        if (poolSize > 1) {
+            writerPool = new WriterPool(writerCallableFactory, this, queryWrite, statementWrite, poolSize);
+        } else {
+            writerCallable = writerCallableFactory.get();
+        }
 
         return true;
     }
@@ -232,22 +565,21 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
      */
     @Override
     public boolean writeNextObject(OneRow row) throws Exception {
+        if (writerPool != null) {
+            // Pooling is used, the row is written by one of the pool threads
+            writerPool.supply(row);
+            return true;
+        }
         if (writerCallable == null) {
             throw new IllegalStateException("The JDBC connection was not properly initialized (writerCallable is null)");
         }
 
         writerCallable.supply(row);
         if (writerCallable.isCallRequired()) {
-            if (poolSize > 1) {
-                // Pooling is used. Create new writerCallable
-                poolTasks.add(executorServiceWrite.submit(writerCallable));
-                writerCallable = writerCallableFactory.get();
-            } else {
-                // Pooling is not used, call directly and process potential error
-                SQLException e = writerCallable.call();
-                if (e != null) {
-                    throw e;
-                }
+            // Pooling is not used, call directly and process potential error
+            SQLException e = writerCallable.call();
+            if (e != null) {
+                throw e;
             }
         }
 
@@ -261,96 +593,30 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
      */
     @Override
     public void closeForWrite() throws Exception {
-        if ((statementWrite == null) || (writerCallable == null)) {
+        if ((statementWrite == null) || (writerCallable == null && writerPool == null)) {
             return;
         }
 
         try {
-            if (poolSize > 1) {
-                // Process thread pool
-                Exception firstException = null;
-                for (Future<SQLException> task : poolTasks) {
-                    // We need this construction to ensure that we try to close all connections opened by pool threads
-                    try {
-                        SQLException currentSqlException = task.get();
-                        if (currentSqlException != null) {
-                            if (firstException == null) {
-                                firstException = currentSqlException;
-                            }
-                            LOG.error(
-                                "A SQLException in a pool thread occured: " + currentSqlException.getClass() + " " + currentSqlException.getMessage()
-                            );
-                        }
-                    }
-                    catch (Exception e) {
-                        // This exception must have been caused by some thread execution error. However, there may be other exception (maybe of class SQLException) that happened in one of threads that were not examined yet. That is why we do not modify firstException
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug(
-                                "A runtime exception in a thread pool occured: " + e.getClass() + " " + e.getMessage()
-                            );
-                        }
-                    }
-                }
-                try {
-                    executorServiceWrite.shutdown();
-                    executorServiceWrite.shutdownNow();
-                }
-                catch (Exception e) {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("executorServiceWrite.shutdown() or .shutdownNow() threw an exception: " + e.getClass() + " " + e.getMessage());
-                    }
-                }
-                if (firstException != null) {
-                    throw firstException;
+            if (writerPool != null) {
+                // Write the rows that are left, then commit or roll back the transactions of all threads
+                writerPool.close();
+            } else {
+                // Send data that is left
+                SQLException e = writerCallable.call();
+                if (e != null) {
+                    throw e;
                 }
             }
-
-            // Send data that is left
-            SQLException e = writerCallable.call();
-            if (e != null) {
-                throw e;
-            }
         } finally {
-            closeStatementAndConnection(statementWrite);
-        }
-    }
-
-
-    /**
-     * Gets the text of the query by reading the file from the server configuration directory. The name of the file
-     * is expected to be the same as the name of the query provided by the user and have extension ".sql"
-     *
-     * @return text of the query
-     */
-    private String getQueryText() {
-        if (StringUtils.isBlank(queryName)) {
-            return null;
-        }
-        // read the contents of the file holding the text of the query with a given name
-        String serverDirectory = configuration.get(ConfigurationFactory.PXF_CONFIG_SERVER_DIRECTORY_PROPERTY);
-        if (StringUtils.isBlank(serverDirectory)) {
-            throw new IllegalStateException("No server configuration directory found for server " + context.getServerName());
-        }
-
-        String queryText;
-        try {
-            File queryFile = new File(serverDirectory, queryName + ".sql");
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Reading text of query={} from {}", queryName, queryFile.getCanonicalPath());
+            try {
+                if (writerCallable != null) {
+                    writerCallable.close();
+                }
+            } finally {
+                closeStatementAndConnection(statementWrite);
             }
-            queryText = FileUtils.readFileToString(queryFile);
-        } catch (IOException e) {
-            throw new RuntimeException(String.format("Failed to read text of query %s : %s", queryName, e.getMessage()), e);
-        }
-        if (StringUtils.isBlank(queryText)) {
-            throw new RuntimeException(String.format("Query text file is empty for query %s", queryName));
         }
-
-        // Remove one or more semicolons followed by optional blank space
-        // happening at the end of the query
-        queryText = queryText.replaceFirst("(;+\\s*)+$", "");
-
-        return queryText;
     }
 
 }
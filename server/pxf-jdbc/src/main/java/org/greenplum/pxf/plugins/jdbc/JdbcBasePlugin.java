@@ -19,9 +19,11 @@ package org.greenplum.pxf.plugins.jdbc;
  * under the License.
  */
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.greenplum.pxf.api.model.BasePlugin;
+import org.greenplum.pxf.api.model.ConfigurationFactory;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.security.SecureLogin;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
@@ -32,6 +34,8 @@ import org.greenplum.pxf.plugins.jdbc.utils.HiveJdbcUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.security.PrivilegedExceptionAction;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
@@ -59,7 +63,10 @@ public class JdbcBasePlugin extends BasePlugin {
     // '100' is a recommended value: https://docs.oracle.com/cd/E11882_01/java.112/e16548/oraperf.htm#JJDBC28754
     private static final int DEFAULT_BATCH_SIZE = 100;
     private static final int DEFAULT_FETCH_SIZE = 1000;
+    // the fetch size is only adapted to the width of the rows when jdbc.statement.fetchBytes is set
+    private static final long DEFAULT_FETCH_BYTES = 0;
     private static final int DEFAULT_POOL_SIZE = 1;
+    private static final int DEFAULT_PARALLEL_READS = 1;
 
     // configuration parameter names
     private static final String JDBC_DRIVER_PROPERTY_NAME = "jdbc.driver";
@@ -75,12 +82,14 @@ public class JdbcBasePlugin extends BasePlugin {
     // statement properties
     private static final String JDBC_STATEMENT_BATCH_SIZE_PROPERTY_NAME = "jdbc.statement.batchSize";
     private static final String JDBC_STATEMENT_FETCH_SIZE_PROPERTY_NAME = "jdbc.statement.fetchSize";
+    private static final String JDBC_STATEMENT_FETCH_BYTES_PROPERTY_NAME = "jdbc.statement.fetchBytes";
     private static final String JDBC_STATEMENT_QUERY_TIMEOUT_PROPERTY_NAME = "jdbc.statement.queryTimeout";
 
     // connection pool properties
     private static final String JDBC_CONNECTION_POOL_ENABLED_PROPERTY_NAME = "jdbc.pool.enabled";
     private static final String JDBC_CONNECTION_POOL_PROPERTY_PREFIX = "jdbc.pool.property.";
     private static final String JDBC_POOL_QUALIFIER_PROPERTY_NAME = "jdbc.pool.qualifier";
+    private static final String JDBC_POOL_WARM_UP_PROPERTY_NAME = "jdbc.pool.warmUp";
 
     // DDL option names
     private static final String JDBC_DRIVER_OPTION_NAME = "JDBC_DRIVER";
@@ -127,16 +136,26 @@ public class JdbcBasePlugin extends BasePlugin {
 
     // Read batch size
     protected int fetchSize;
+    protected boolean fetchSizeIsSetByUser = false;
+
+    // Bytes to read in a single round trip when the fetch size is adapted to the row width
+    protected long fetchBytes;
 
     // Thread pool size
     protected int poolSize;
 
+    // Maximum number of sub-ranges of a fragment read concurrently
+    protected int parallelReads;
+
     // Query timeout.
     protected Integer queryTimeout;
 
     // Quote columns setting set by user (three values are possible)
     protected Boolean quoteColumns = null;
 
+    // Write through the native bulk load path of the external database
+    protected boolean bulkLoad;
+
     // Environment variables to SET before query execution
     protected Map<String, String> sessionConfiguration = new HashMap<String, String>();
 
@@ -234,9 +253,12 @@ public class JdbcBasePlugin extends BasePlugin {
             }
         }
 
+        fetchSizeIsSetByUser = configuration.get(JDBC_STATEMENT_FETCH_SIZE_PROPERTY_NAME) != null;
         fetchSize = configuration.getInt(JDBC_STATEMENT_FETCH_SIZE_PROPERTY_NAME, DEFAULT_FETCH_SIZE);
+        fetchBytes = configuration.getLong(JDBC_STATEMENT_FETCH_BYTES_PROPERTY_NAME, DEFAULT_FETCH_BYTES);
 
         poolSize = context.getOption("POOL_SIZE", DEFAULT_POOL_SIZE);
+        parallelReads = context.getOption("PARALLEL_READS", DEFAULT_PARALLEL_READS, true);
 
         String queryTimeoutString = configuration.get(JDBC_STATEMENT_QUERY_TIMEOUT_PROPERTY_NAME);
         if (StringUtils.isNotBlank(queryTimeoutString)) {
@@ -255,6 +277,9 @@ public class JdbcBasePlugin extends BasePlugin {
             quoteColumns = Boolean.parseBoolean(quoteColumnsRaw);
         }
 
+        // Optional parameter. The default value is false
+        bulkLoad = context.getOption("BULK_LOAD", false);
+
         // Optional parameter. The default value is empty map
         sessionConfiguration.putAll(getPropsWithPrefix(configuration, JDBC_SESSION_PROPERTY_PREFIX));
         // Check forbidden symbols
@@ -385,6 +410,36 @@ public class JdbcBasePlugin extends BasePlugin {
         return connection;
     }
 
+    /**
+     * Create the connection pool of the server and open its idle connections, if the server enables the
+     * warm-up of the pool. Called when PXF starts, so that the first queries do not wait for the pool.
+     * The pool cannot be warmed up when it depends on the Greenplum user, who is only known with a query.
+     *
+     * @return true if the pool has been warmed up, false otherwise
+     * @throws Exception if the pool cannot be created or the connections cannot be obtained
+     */
+    boolean warmUpConnectionPool() throws Exception {
+        if (!isConnectionPoolUsed || !configuration.getBoolean(JDBC_POOL_WARM_UP_PROPERTY_NAME, false)) {
+            return false;
+        }
+        if (configuration.getBoolean(CONFIG_KEY_SERVICE_USER_IMPERSONATION, false) ||
+                StringUtils.contains(configuration.getRaw(JDBC_USER_PROPERTY_NAME), ConfigurationFactory.PXF_SESSION_USER_PROPERTY) ||
+                StringUtils.contains(configuration.getRaw(JDBC_URL_PROPERTY_NAME), ConfigurationFactory.PXF_SESSION_USER_PROPERTY) ||
+                StringUtils.contains(configuration.getRaw(JDBC_POOL_QUALIFIER_PROPERTY_NAME), ConfigurationFactory.PXF_SESSION_USER_PROPERTY)) {
+            LOG.warn("Connection pool of server {} is not warmed up as its connections depend on the Greenplum user", context.getServerName());
+            return false;
+        }
+
+        if (Utilities.isSecurityEnabled(configuration) && StringUtils.startsWith(jdbcUrl, HIVE_URL_PREFIX)) {
+            SecureLogin.getInstance().getLoginUser(context, configuration).
+                    doAs((PrivilegedExceptionAction<Integer>) () ->
+                            connectionManager.warmUpPool(context.getServerName(), jdbcUrl, connectionConfiguration, poolConfiguration, poolQualifier));
+        } else {
+            connectionManager.warmUpPool(context.getServerName(), jdbcUrl, connectionConfiguration, poolConfiguration, poolQualifier);
+        }
+        return true;
+    }
+
     /**
      * Prepare a JDBC PreparedStatement
      *
@@ -472,7 +527,7 @@ public class JdbcBasePlugin extends BasePlugin {
      * @param connection connection to close
      * @throws SQLException
      */
-    private static void closeConnection(Connection connection) throws SQLException {
+    static void closeConnection(Connection connection) throws SQLException {
         if (connection == null) {
             LOG.warn("Call to close connection is ignored as connection provided was null");
             return;
@@ -556,6 +611,43 @@ public class JdbcBasePlugin extends BasePlugin {
         }
     }
 
+    /**
+     * Gets the text of the query by reading the file from the server configuration directory. The name of the file
+     * is expected to be the same as the name of the query provided by the user and have extension ".sql"
+     *
+     * @return text of the query
+     */
+    protected String getQueryText() {
+        if (StringUtils.isBlank(queryName)) {
+            return null;
+        }
+        // read the contents of the file holding the text of the query with a given name
+        String serverDirectory = configuration.get(ConfigurationFactory.PXF_CONFIG_SERVER_DIRECTORY_PROPERTY);
+        if (StringUtils.isBlank(serverDirectory)) {
+            throw new IllegalStateException("No server configuration directory found for server " + context.getServerName());
+        }
+
+        String queryText;
+        try {
+            File queryFile = new File(serverDirectory, queryName + ".sql");
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Reading text of query={} from {}", queryName, queryFile.getCanonicalPath());
+            }
+            queryText = FileUtils.readFileToString(queryFile);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to read text of query %s : %s", queryName, e.getMessage()), e);
+        }
+        if (StringUtils.isBlank(queryText)) {
+            throw new RuntimeException(String.format("Query text file is empty for query %s", queryName));
+        }
+
+        // Remove one or more semicolons followed by optional blank space
+        // happening at the end of the query
+        queryText = queryText.replaceFirst("(;+\\s*)+$", "");
+
+        return queryText;
+    }
+
     /**
      * Constructs a mapping of configuration and includes all properties that start with the specified
      * configuration prefix.  Property names in the mapping are trimmed to remove the configuration prefix.
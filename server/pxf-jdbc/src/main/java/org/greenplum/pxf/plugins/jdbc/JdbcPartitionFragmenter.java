@@ -20,28 +20,72 @@ package org.greenplum.pxf.plugins.jdbc;
  */
 
 import org.apache.commons.lang.SerializationUtils;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.BaseFragmenter;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.FragmentStats;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.jdbc.partitioning.AutoPartitioner;
 import org.greenplum.pxf.plugins.jdbc.partitioning.JdbcFragmentMetadata;
 import org.greenplum.pxf.plugins.jdbc.partitioning.PartitionType;
+import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.List;
 
 /**
  * JDBC fragmenter
  * <p>
  * Splits the query to allow multiple simultaneous SELECTs
+ * <p>
+ * With PARTITION_BY=auto, the partitions are derived from the external
+ * database: a table is split on the physical location of its rows where the
+ * database supports it, otherwise on the range of values of its first integer
+ * or date column. When RANGE is omitted for an INT or DATE partition column,
+ * the range is read from the external database as well. The number of
+ * partitions is given by PARTITIONS and defaults to the number of segments.
+ * If the statistics cannot be read, for example for lack of privileges, the
+ * table is split on the range of a column instead, or read as a single
+ * fragment.
  */
 public class JdbcPartitionFragmenter extends BaseFragmenter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdbcPartitionFragmenter.class);
+
     // A PXF engine to use as a host for fragments
     private static final String[] pxfHosts = {"localhost"};
 
+    private static final String AUTO_PARTITIONING = "auto";
+
+    private final ConnectionManager connectionManager;
+
     private PartitionType partitionType;
     private String column;
     private String range;
     private String interval;
+    private boolean autoPartitioning;
+    private int partitionCount;
+
+    /**
+     * Creates a new instance of the JdbcPartitionFragmenter
+     */
+    public JdbcPartitionFragmenter() {
+        this(ConnectionManager.getInstance());
+    }
+
+    /**
+     * Creates a new instance with the given connection manager
+     *
+     * @param connectionManager connection manager
+     */
+    JdbcPartitionFragmenter(ConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
 
     @Override
     public void initialize(RequestContext context) {
@@ -50,12 +94,19 @@ public class JdbcPartitionFragmenter extends BaseFragmenter {
         String partitionByOption = context.getOption("PARTITION_BY");
         if (partitionByOption == null) return;
 
+        partitionCount = Math.max(1, context.getOption("PARTITIONS", context.getTotalSegments(), true));
+
+        if (AUTO_PARTITIONING.equalsIgnoreCase(partitionByOption.trim())) {
+            autoPartitioning = true;
+            return;
+        }
+
         try {
             String[] partitionBy = partitionByOption.split(":");
             column = partitionBy[0];
             partitionType = PartitionType.of(partitionBy[1]);
         } catch (ArrayIndexOutOfBoundsException e) {
-            throw new IllegalArgumentException("The parameter 'PARTITION_BY' has incorrect format. The correct format is '<column_name>:{int|date|enum}'");
+            throw new IllegalArgumentException("The parameter 'PARTITION_BY' has incorrect format. The correct format is '<column_name>:{int|date|enum}' or 'auto'");
         }
 
         range = context.getOption("RANGE");
@@ -70,10 +121,16 @@ public class JdbcPartitionFragmenter extends BaseFragmenter {
      */
     @Override
     public List<Fragment> getFragments() {
-        if (partitionType == null) {
+        List<JdbcFragmentMetadata> fragmentsMetadata = null;
+        if (autoPartitioning || (range == null && (partitionType == PartitionType.INT || partitionType == PartitionType.DATE))) {
+            fragmentsMetadata = getAutoFragmentsMetadata();
+        } else if (partitionType != null) {
+            fragmentsMetadata = partitionType.getFragmentsMetadata(column, range, interval);
+        }
+
+        if (fragmentsMetadata == null) {
             fragments.add(createFragment(null));
         } else {
-            List<JdbcFragmentMetadata> fragmentsMetadata = partitionType.getFragmentsMetadata(column, range, interval);
             for (JdbcFragmentMetadata fragmentMetadata : fragmentsMetadata) {
                 fragments.add(createFragment(SerializationUtils.serialize(fragmentMetadata)));
             }
@@ -81,6 +138,94 @@ public class JdbcPartitionFragmenter extends BaseFragmenter {
         return fragments;
     }
 
+    /**
+     * Derive the partitions from the statistics of the external database.
+     *
+     * @return a list of fragments metadata, or null if the source must be read as a single fragment
+     */
+    private List<JdbcFragmentMetadata> getAutoFragmentsMetadata() {
+        JdbcBasePlugin plugin = new JdbcBasePlugin(connectionManager);
+        plugin.initialize(context);
+        AutoPartitioner partitioner = new AutoPartitioner(partitionCount);
+
+        Connection connection = null;
+        try {
+            connection = plugin.getConnection();
+            DbProduct dbProduct = DbProduct.getDbProduct(connection.getMetaData().getDatabaseProductName());
+
+            PartitionType rangeType = partitionType;
+            String rangeColumn = column;
+            if (autoPartitioning) {
+                if (plugin.tableName != null) {
+                    try {
+                        List<JdbcFragmentMetadata> result = partitioner.partitionByRowLocation(connection, dbProduct, plugin.tableName);
+                        if (result != null) {
+                            LOG.debug("Table {} is split into {} partitions by row location", plugin.tableName, result.size());
+                            return result;
+                        }
+                    } catch (SQLException e) {
+                        LOG.warn("Failed to split table {} by row location, splitting it by the range of a column instead: {}",
+                                plugin.tableName, e.getMessage());
+                        rollback(connection);
+                    }
+                }
+
+                ColumnDescriptor columnDescriptor = AutoPartitioner.pickColumn(context.getTupleDescription());
+                if (columnDescriptor == null) {
+                    LOG.debug("No column of {} can be used for partitioning", context.getDataSource());
+                    return null;
+                }
+                rangeColumn = columnDescriptor.columnName();
+                rangeType = columnDescriptor.getDataType() == DataType.DATE ? PartitionType.DATE : PartitionType.INT;
+            }
+
+            SQLQueryBuilder sqlQueryBuilder = new SQLQueryBuilder(context, connection.getMetaData(), plugin.getQueryText());
+            if (plugin.quoteColumns == null) {
+                sqlQueryBuilder.autoSetQuoteString();
+            } else if (plugin.quoteColumns) {
+                sqlQueryBuilder.forceSetQuoteString();
+            }
+            String minMaxQuery = sqlQueryBuilder.buildMinMaxQuery(rangeColumn);
+            LOG.debug("Reading the range of column {}: {}", rangeColumn, minMaxQuery);
+
+            try {
+                return partitioner.partitionByRange(connection, minMaxQuery, rangeColumn, rangeType, interval);
+            } catch (SQLException e) {
+                LOG.warn("Failed to read the range of column {} of {}, reading it as a single fragment: {}",
+                        rangeColumn, context.getDataSource(), e.getMessage());
+                rollback(connection);
+                return null;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(String.format("Failed to read partitioning statistics of %s : %s",
+                    context.getDataSource(), e.getMessage()), e);
+        } finally {
+            if (connection != null) {
+                try {
+                    JdbcBasePlugin.closeConnection(connection);
+                } catch (SQLException e) {
+                    LOG.warn("Failed to close the connection used for partitioning", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Roll back the transaction aborted by a failed statistics query, so
+     * that the connection can still be used.
+     *
+     * @param connection connection to the external database
+     */
+    private void rollback(Connection connection) {
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            LOG.warn("Failed to roll back the transaction used for partitioning", e);
+        }
+    }
+
     /**
      * Create {@link Fragment} from byte array.
      *
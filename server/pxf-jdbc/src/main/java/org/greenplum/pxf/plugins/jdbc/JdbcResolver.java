@@ -36,8 +36,8 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
@@ -63,77 +63,56 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
 
     private static final Logger LOG = LoggerFactory.getLogger(JdbcResolver.class);
 
+    // The record returned for every row, its fields are refilled for each row
+    private List<OneField> fields;
+    // The reader of the projected columns
+    private RowReader rowReader;
+
     /**
      * getFields() implementation
      *
-     * @param row one row
+     * @param row one row, either positioned {@link ResultSet} or the values
+     *            of a row copied by {@link RowReader#copyRow(ResultSet)}
      * @throws SQLException if the provided {@link OneRow} object is invalid
      */
     @Override
     public List<OneField> getFields(OneRow row) throws SQLException {
-        ResultSet result = (ResultSet) row.getData();
-        LinkedList<OneField> fields = new LinkedList<>();
-
-        for (ColumnDescriptor column : columns) {
-            String colName = column.columnName();
-            Object value;
-
-            OneField oneField = new OneField();
-            oneField.type = column.columnTypeCode();
+        if (rowReader == null) {
+            initRowReader();
+        }
 
-            fields.add(oneField);
+        if (row.getData() instanceof Object[]) {
+            // the row was read by one of the threads of a parallel read
+            Object[] values = (Object[]) row.getData();
+            for (int i = 0; i < values.length; i++) {
+                fields.get(i).val = values[i];
+            }
+            return fields;
+        }
 
+        ResultSet result = (ResultSet) row.getData();
+        for (int i = 0; i < fields.size(); i++) {
             /*
              * Non-projected columns get null values
              */
-            if (!column.isProjected()) continue;
-
-            switch (DataType.get(oneField.type)) {
-                case INTEGER:
-                    value = result.getInt(colName);
-                    break;
-                case FLOAT8:
-                    value = result.getDouble(colName);
-                    break;
-                case REAL:
-                    value = result.getFloat(colName);
-                    break;
-                case BIGINT:
-                    value = result.getLong(colName);
-                    break;
-                case SMALLINT:
-                    value = result.getShort(colName);
-                    break;
-                case BOOLEAN:
-                    value = result.getBoolean(colName);
-                    break;
-                case BYTEA:
-                    value = result.getBytes(colName);
-                    break;
-                case VARCHAR:
-                case BPCHAR:
-                case TEXT:
-                case NUMERIC:
-                    value = result.getString(colName);
-                    break;
-                case DATE:
-                    value = result.getDate(colName);
-                    break;
-                case TIMESTAMP:
-                    value = result.getTimestamp(colName);
-                    break;
-                default:
-                    throw new UnsupportedOperationException(
-                            String.format("Field type '%s' (column '%s') is not supported",
-                                    DataType.get(oneField.type),
-                                    column));
-            }
+            if (!rowReader.isProjected(i)) continue;
 
-            oneField.val = result.wasNull() ? null : value;
+            fields.get(i).val = rowReader.read(result, i);
         }
         return fields;
     }
 
+    /**
+     * Resolves the reader of every projected column once per query.
+     */
+    private void initRowReader() {
+        rowReader = new RowReader(columns);
+        fields = new ArrayList<>(columns.size());
+        for (ColumnDescriptor column : columns) {
+            fields.add(new OneField(column.columnTypeCode(), null));
+        }
+    }
+
     /**
      * setFields() implementation
      *
@@ -183,46 +162,17 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
                 if (oneField.val == null) {
                     continue;
                 }
-
-                String rawVal = (String) oneField.val;
-                switch (columnType) {
-                    case VARCHAR:
-                    case BPCHAR:
-                    case TEXT:
-                    case BYTEA:
-                        break;
-                    case BOOLEAN:
-                        oneField.val = Boolean.parseBoolean(rawVal);
-                        break;
-                    case INTEGER:
-                        oneField.val = Integer.parseInt(rawVal);
-                        break;
-                    case FLOAT8:
-                        oneField.val = Double.parseDouble(rawVal);
-                        break;
-                    case REAL:
-                        oneField.val = Float.parseFloat(rawVal);
-                        break;
-                    case BIGINT:
-                        oneField.val = Long.parseLong(rawVal);
-                        break;
-                    case SMALLINT:
-                        oneField.val = Short.parseShort(rawVal);
-                        break;
-                    case NUMERIC:
-                        oneField.val = new BigDecimal(rawVal);
-                        break;
-                    case TIMESTAMP:
-                        oneField.val = Timestamp.valueOf(rawVal);
-                        break;
-                    case DATE:
-                        oneField.val = Date.valueOf(rawVal);
-                        break;
-                    default:
-                        throw new UnsupportedOperationException(
-                                String.format("Field type '%s' (column '%s') is not supported",
-                                        oneFieldType, column));
+                if (!DATATYPES_SUPPORTED.contains(columnType)) {
+                    throw new UnsupportedOperationException(
+                            String.format("Field type '%s' (column '%s') is not supported",
+                                    oneFieldType, column));
+                }
+                // A bulk load sends the text as is, it is only parsed if it is bound to a statement
+                if (bulkLoad) {
+                    continue;
                 }
+
+                oneField.val = parseText(columnType, (String) oneField.val);
             }
         }
 
@@ -237,90 +187,110 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
      * @throws IOException  if data in a OneRow is corrupted
      * @throws SQLException if the given statement is broken
      */
-    @SuppressWarnings("unchecked")
     public static void decodeOneRowToPreparedStatement(OneRow row, PreparedStatement statement) throws IOException, SQLException {
+        decodeOneRowToPreparedStatement(row, statement, 0);
+    }
+
+    /**
+     * Decode OneRow object and pass all its contents to the parameters of a
+     * PreparedStatement that follow the given offset
+     *
+     * @param row       one row
+     * @param statement PreparedStatement
+     * @param offset    the number of parameters before the first parameter of the row
+     * @throws IOException  if data in a OneRow is corrupted
+     * @throws SQLException if the given statement is broken
+     */
+    @SuppressWarnings("unchecked")
+    public static void decodeOneRowToPreparedStatement(OneRow row, PreparedStatement statement, int offset) throws IOException, SQLException {
         // This is safe: OneRow comes from JdbcResolver
         List<OneField> tuple = (List<OneField>) row.getData();
         for (int i = 1; i <= tuple.size(); i++) {
             OneField field = tuple.get(i - 1);
-            switch (DataType.get(field.type)) {
+            DataType type = DataType.get(field.type);
+            if (field.val instanceof String) {
+                // the text was kept as is by setFields() for a bulk load
+                field.val = parseText(type, (String) field.val);
+            }
+            int index = offset + i;
+            switch (type) {
                 case INTEGER:
                     if (field.val == null) {
-                        statement.setNull(i, Types.INTEGER);
+                        statement.setNull(index, Types.INTEGER);
                     } else {
-                        statement.setInt(i, (int) field.val);
+                        statement.setInt(index, (int) field.val);
                     }
                     break;
                 case BIGINT:
                     if (field.val == null) {
-                        statement.setNull(i, Types.INTEGER);
+                        statement.setNull(index, Types.INTEGER);
                     } else {
-                        statement.setLong(i, (long) field.val);
+                        statement.setLong(index, (long) field.val);
                     }
                     break;
                 case SMALLINT:
                     if (field.val == null) {
-                        statement.setNull(i, Types.INTEGER);
+                        statement.setNull(index, Types.INTEGER);
                     } else {
-                        statement.setShort(i, (short) field.val);
+                        statement.setShort(index, (short) field.val);
                     }
                     break;
                 case REAL:
                     if (field.val == null) {
-                        statement.setNull(i, Types.FLOAT);
+                        statement.setNull(index, Types.FLOAT);
                     } else {
-                        statement.setFloat(i, (float) field.val);
+                        statement.setFloat(index, (float) field.val);
                     }
                     break;
                 case FLOAT8:
                     if (field.val == null) {
-                        statement.setNull(i, Types.DOUBLE);
+                        statement.setNull(index, Types.DOUBLE);
                     } else {
-                        statement.setDouble(i, (double) field.val);
+                        statement.setDouble(index, (double) field.val);
                     }
                     break;
                 case BOOLEAN:
                     if (field.val == null) {
-                        statement.setNull(i, Types.BOOLEAN);
+                        statement.setNull(index, Types.BOOLEAN);
                     } else {
-                        statement.setBoolean(i, (boolean) field.val);
+                        statement.setBoolean(index, (boolean) field.val);
                     }
                     break;
                 case NUMERIC:
                     if (field.val == null) {
-                        statement.setNull(i, Types.NUMERIC);
+                        statement.setNull(index, Types.NUMERIC);
                     } else {
-                        statement.setBigDecimal(i, (BigDecimal) field.val);
+                        statement.setBigDecimal(index, (BigDecimal) field.val);
                     }
                     break;
                 case VARCHAR:
                 case BPCHAR:
                 case TEXT:
                     if (field.val == null) {
-                        statement.setNull(i, Types.VARCHAR);
+                        statement.setNull(index, Types.VARCHAR);
                     } else {
-                        statement.setString(i, (String) field.val);
+                        statement.setString(index, (String) field.val);
                     }
                     break;
                 case BYTEA:
                     if (field.val == null) {
-                        statement.setNull(i, Types.BINARY);
+                        statement.setNull(index, Types.BINARY);
                     } else {
-                        statement.setBytes(i, (byte[]) field.val);
+                        statement.setBytes(index, (byte[]) field.val);
                     }
                     break;
                 case TIMESTAMP:
                     if (field.val == null) {
-                        statement.setNull(i, Types.TIMESTAMP);
+                        statement.setNull(index, Types.TIMESTAMP);
                     } else {
-                        statement.setTimestamp(i, (Timestamp) field.val);
+                        statement.setTimestamp(index, (Timestamp) field.val);
                     }
                     break;
                 case DATE:
                     if (field.val == null) {
-                        statement.setNull(i, Types.DATE);
+                        statement.setNull(index, Types.DATE);
                     } else {
-                        statement.setDate(i, (Date) field.val);
+                        statement.setDate(index, (Date) field.val);
                     }
                     break;
                 default:
@@ -328,4 +298,42 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
             }
         }
     }
+
+    /**
+     * Parse the text of a field into the native type of its column
+     *
+     * @param type   the type of the column
+     * @param rawVal the text of the field
+     * @return the value of the field
+     */
+    private static Object parseText(DataType type, String rawVal) {
+        switch (type) {
+            case VARCHAR:
+            case BPCHAR:
+            case TEXT:
+            case BYTEA:
+                return rawVal;
+            case BOOLEAN:
+                return Boolean.parseBoolean(rawVal);
+            case INTEGER:
+                return Integer.parseInt(rawVal);
+            case FLOAT8:
+                return Double.parseDouble(rawVal);
+            case REAL:
+                return Float.parseFloat(rawVal);
+            case BIGINT:
+                return Long.parseLong(rawVal);
+            case SMALLINT:
+                return Short.parseShort(rawVal);
+            case NUMERIC:
+                return new BigDecimal(rawVal);
+            case TIMESTAMP:
+                return Timestamp.valueOf(rawVal);
+            case DATE:
+                return Date.valueOf(rawVal);
+            default:
+                throw new UnsupportedOperationException(
+                        String.format("Field type '%s' is not supported", type));
+        }
+    }
 }
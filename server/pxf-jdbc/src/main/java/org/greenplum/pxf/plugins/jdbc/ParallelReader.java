@@ -0,0 +1,143 @@
+package org.greenplum.pxf.plugins.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads the sub-ranges of a fragment concurrently, one thread per sub-range,
+ * and merges their rows in a single stream. The rows are passed from the
+ * threads to the reader through a bounded queue, in no particular order, so
+ * the threads wait when the rows are not consumed fast enough.
+ * <p>
+ * The first error of a thread is thrown by {@link #next()}. When the reader
+ * is closed, the threads stop at their next row.
+ */
+class ParallelReader implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelReader.class);
+
+    // the marker a thread adds to the queue when it is done
+    private static final Object[] END_OF_SUB_RANGE = new Object[0];
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    /**
+     * Reads the rows of a sub-range
+     */
+    @FunctionalInterface
+    interface SubRangeReader {
+        /**
+         * Read the rows of the sub-range, passing every row to
+         * {@link ParallelReader#put(Object[])} until it returns false
+         *
+         * @param reader the reader to pass the rows to
+         * @throws Exception if the rows cannot be read
+         */
+        void read(ParallelReader reader) throws Exception;
+    }
+
+    private final BlockingQueue<Object[]> rows;
+    private final ExecutorService executor;
+    private final int subRangeCount;
+    private final AtomicReference<Exception> error = new AtomicReference<>();
+    private volatile boolean closed;
+    private int finishedSubRanges;
+
+    /**
+     * Starts a thread for every sub-range
+     *
+     * @param subRangeReaders the readers of the sub-ranges
+     * @param queueCapacity   the maximum number of rows read ahead
+     */
+    ParallelReader(List<SubRangeReader> subRangeReaders, int queueCapacity) {
+        this.rows = new ArrayBlockingQueue<>(queueCapacity);
+        this.subRangeCount = subRangeReaders.size();
+        this.executor = Executors.newFixedThreadPool(subRangeCount);
+
+        for (SubRangeReader subRangeReader : subRangeReaders) {
+            executor.execute(() -> {
+                try {
+                    subRangeReader.read(this);
+                } catch (Exception e) {
+                    if (!error.compareAndSet(null, e)) {
+                        LOG.warn("Failed to read a sub-range after another sub-range failed", e);
+                    }
+                } finally {
+                    try {
+                        put(END_OF_SUB_RANGE);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Adds a row to the queue, waiting while the queue is full
+     *
+     * @param row the values of the row
+     * @return true if the row was added, false if the reader is closed
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    boolean put(Object[] row) throws InterruptedException {
+        while (!closed) {
+            if (rows.offer(row, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes the next row read by any of the threads, waiting until one is available
+     *
+     * @return the values of the row, or null once all sub-ranges are read
+     * @throws SQLException if one of the threads failed
+     */
+    Object[] next() throws SQLException {
+        try {
+            while (finishedSubRanges < subRangeCount) {
+                Object[] row = rows.take();
+                throwError();
+                if (row != END_OF_SUB_RANGE) {
+                    return row;
+                }
+                finishedSubRanges++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the rows of the sub-ranges", e);
+        }
+        throwError();
+        return null;
+    }
+
+    /**
+     * Stops the threads, they release their connections once they are done
+     * with the row they are reading
+     */
+    @Override
+    public void close() {
+        closed = true;
+        rows.clear();
+    }
+
+    private void throwError() throws SQLException {
+        Exception e = error.get();
+        if (e instanceof SQLException) {
+            throw (SQLException) e;
+        } else if (e != null) {
+            throw new SQLException("Failed to read a sub-range: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.greenplum.pxf.plugins.jdbc;
+
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Reads the values of the projected columns of the current row of a
+ * {@link ResultSet}. The SELECT query built by {@link SQLQueryBuilder} lists
+ * the projected columns in the order of the tuple description, so columns are
+ * read by their index in the {@link ResultSet} instead of their name.
+ */
+class RowReader {
+
+    /**
+     * Reads the value of a column of the current row of a {@link ResultSet}
+     */
+    @FunctionalInterface
+    private interface ColumnReader {
+        Object read(ResultSet resultSet, int columnIndex) throws SQLException;
+    }
+
+    // The reader for every column, null for non-projected columns
+    private final ColumnReader[] columnReaders;
+    // The index of every projected column in the ResultSet
+    private final int[] columnIndexes;
+
+    /**
+     * Resolves the reader of every projected column
+     *
+     * @param columns the columns of the tuple description
+     * @throws UnsupportedOperationException if a projected column has an unsupported type
+     */
+    RowReader(List<ColumnDescriptor> columns) {
+        columnReaders = new ColumnReader[columns.size()];
+        columnIndexes = new int[columns.size()];
+
+        int columnIndex = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnDescriptor column = columns.get(i);
+            if (!column.isProjected()) continue;
+
+            columnReaders[i] = getColumnReader(column);
+            columnIndexes[i] = ++columnIndex;
+        }
+    }
+
+    /**
+     * @param column the index of the column in the tuple description
+     * @return true if the column is read from the {@link ResultSet}
+     */
+    boolean isProjected(int column) {
+        return columnReaders[column] != null;
+    }
+
+    /**
+     * Reads the value of a projected column
+     *
+     * @param resultSet the result set, positioned on a row
+     * @param column    the index of the column in the tuple description
+     * @return the value, or null if it is SQL NULL
+     * @throws SQLException if the value cannot be read
+     */
+    Object read(ResultSet resultSet, int column) throws SQLException {
+        Object value = columnReaders[column].read(resultSet, columnIndexes[column]);
+        return resultSet.wasNull() ? null : value;
+    }
+
+    /**
+     * Copies the values of the current row, so that the row can be resolved
+     * after the {@link ResultSet} has moved to the next row
+     *
+     * @param resultSet the result set, positioned on a row
+     * @return the value of every column, null for non-projected columns
+     * @throws SQLException if a value cannot be read
+     */
+    Object[] copyRow(ResultSet resultSet) throws SQLException {
+        Object[] values = new Object[columnReaders.length];
+        for (int i = 0; i < columnReaders.length; i++) {
+            if (columnReaders[i] != null) {
+                values[i] = read(resultSet, i);
+            }
+        }
+        return values;
+    }
+
+    private static ColumnReader getColumnReader(ColumnDescriptor column) {
+        DataType dataType = DataType.get(column.columnTypeCode());
+        switch (dataType) {
+            case INTEGER:
+                return ResultSet::getInt;
+            case FLOAT8:
+                return ResultSet::getDouble;
+            case REAL:
+                return ResultSet::getFloat;
+            case BIGINT:
+                return ResultSet::getLong;
+            case SMALLINT:
+                return ResultSet::getShort;
+            case BOOLEAN:
+                return ResultSet::getBoolean;
+            case BYTEA:
+                return ResultSet::getBytes;
+            case VARCHAR:
+            case BPCHAR:
+            case TEXT:
+            case NUMERIC:
+                return ResultSet::getString;
+            case DATE:
+                return ResultSet::getDate;
+            case TIMESTAMP:
+                return ResultSet::getTimestamp;
+            default:
+                throw new UnsupportedOperationException(
+                        String.format("Field type '%s' (column '%s') is not supported",
+                                dataType,
+                                column));
+        }
+    }
+}
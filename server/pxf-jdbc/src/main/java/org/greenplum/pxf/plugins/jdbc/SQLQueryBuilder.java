@@ -28,12 +28,14 @@ import org.greenplum.pxf.api.filter.SupportedOperatorPruner;
 import org.greenplum.pxf.api.filter.TreeTraverser;
 import org.greenplum.pxf.api.filter.TreeVisitor;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
 import org.greenplum.pxf.plugins.jdbc.partitioning.JdbcFragmentMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -130,6 +132,28 @@ public class SQLQueryBuilder {
      * @return Complete SQL query
      */
     public String buildSelectQuery() {
+        return buildSelectQuery(getFragmentMetadata(context));
+    }
+
+    /**
+     * Build SELECT queries reading the fragment in sub-ranges, so that the
+     * fragment can be read over several connections at the same time. The
+     * fragment is not split if the query has a LIMIT.
+     *
+     * @param count the maximum number of queries
+     * @return the queries, a single query if the fragment cannot be split
+     */
+    public List<String> buildSelectQueries(int count) {
+        JdbcFragmentMetadata fragmentMetadata = getFragmentMetadata(context);
+        if (count <= 1 || fragmentMetadata == null || context.getLimit() > 0) {
+            return Collections.singletonList(buildSelectQuery(fragmentMetadata));
+        }
+        return fragmentMetadata.split(count).stream()
+                .map(this::buildSelectQuery)
+                .collect(Collectors.toList());
+    }
+
+    private String buildSelectQuery(JdbcFragmentMetadata fragmentMetadata) {
         StringBuilder sb = new StringBuilder("SELECT ")
                 .append(buildColumnsQuery())
                 .append(" FROM ")
@@ -138,18 +162,70 @@ public class SQLQueryBuilder {
         // Insert regular WHERE constraints
         buildWhereSQL(sb);
 
+        // Insert partition constraints
+        appendFragmentConstraint(fragmentMetadata, dbProduct, quoteString, sb);
+
+        // Insert LIMIT, unless some rows may be filtered out by GPDB, with
+        // quals that were not all sent to PXF or not all pushed down
+        if (context.getLimit() > 0 && !context.queryHasFilter()) {
+            return dbProduct.buildLimitQuery(sb.toString(), context.getLimit());
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Build a query computing an aggregate of the rows of the fragment,
+     * with partition constraints. The query returns a single row with a
+     * single value.
+     *
+     * @param aggType the aggregate
+     * @param column  the name of the aggregated column, unused for COUNT
+     * @return SQL query
+     */
+    public String buildAggregateQuery(EnumAggregationType aggType, String column) {
+        StringBuilder sb = new StringBuilder("SELECT ");
+        if (aggType.isColumnAggregate()) {
+            sb.append(aggType.getAggOperationCode().toUpperCase())
+                    .append("(").append(quoteString).append(column).append(quoteString).append(")");
+        } else {
+            sb.append("COUNT(*)");
+        }
+        sb.append(" FROM ").append(getSource());
+
         // Insert partition constraints
         buildFragmenterSql(context, dbProduct, quoteString, sb);
 
         return sb.toString();
     }
 
+    /**
+     * Build a query returning the minimum and the maximum value of a column of the source
+     *
+     * @param column the name of the column
+     * @return SQL query
+     */
+    public String buildMinMaxQuery(String column) {
+        String quotedColumn = quoteString + column + quoteString;
+        return "SELECT MIN(" + quotedColumn + "), MAX(" + quotedColumn + ") FROM " + getSource();
+    }
+
     /**
      * Build INSERT query template (field values are replaced by placeholders '?')
      *
      * @return SQL query with placeholders instead of actual values
      */
     public String buildInsertQuery() {
+        return buildInsertQuery(1);
+    }
+
+    /**
+     * Build INSERT query template for several rows (field values are replaced by placeholders '?')
+     *
+     * @param rows the number of rows in the VALUES clause
+     * @return SQL query with placeholders instead of actual values
+     */
+    public String buildInsertQuery(int rows) {
         StringBuilder sb = new StringBuilder();
 
         sb.append("INSERT INTO ");
@@ -157,29 +233,59 @@ public class SQLQueryBuilder {
 
         // Insert columns' names
         sb.append("(");
-        String fieldDivisor = "";
-        for (ColumnDescriptor column : columns) {
-            sb.append(fieldDivisor);
-            fieldDivisor = ", ";
-            sb.append(quoteString).append(column.columnName()).append(quoteString);
-        }
+        appendColumnNames(sb);
         sb.append(")");
 
         sb.append(" VALUES ");
 
         // Insert values placeholders
-        sb.append("(");
-        fieldDivisor = "";
-        for (int i = 0; i < columns.size(); i++) {
-            sb.append(fieldDivisor);
-            fieldDivisor = ", ";
-            sb.append("?");
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sb.append(", ");
+            }
+            sb.append("(");
+            String fieldDivisor = "";
+            for (int i = 0; i < columns.size(); i++) {
+                sb.append(fieldDivisor);
+                fieldDivisor = ", ";
+                sb.append("?");
+            }
+            sb.append(")");
         }
+
+        return sb.toString();
+    }
+
+    /**
+     * Build a COPY query loading CSV rows from the client into the source table
+     *
+     * @return SQL query
+     */
+    public String buildCopyQuery() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("COPY ");
+        sb.append(source);
+
+        sb.append("(");
+        appendColumnNames(sb);
         sb.append(")");
 
+        // the syntax without parentheses is understood by all PostgreSQL and Greenplum versions
+        sb.append(" FROM STDIN CSV");
+
         return sb.toString();
     }
 
+    private void appendColumnNames(StringBuilder sb) {
+        String fieldDivisor = "";
+        for (ColumnDescriptor column : columns) {
+            sb.append(fieldDivisor);
+            fieldDivisor = ", ";
+            sb.append(quoteString).append(column.columnName()).append(quoteString);
+        }
+    }
+
     /**
      * Check whether column names must be quoted and set quoteString if so.
      * <p>
@@ -316,12 +422,30 @@ public class SQLQueryBuilder {
      * @param query       SQL query to insert constraints to. The query may may contain other WHERE statements
      */
     public void buildFragmenterSql(RequestContext context, DbProduct dbProduct, String quoteString, StringBuilder query) {
+        appendFragmentConstraint(getFragmentMetadata(context), dbProduct, quoteString, query);
+    }
+
+    /**
+     * Get the partition constraints of the fragment
+     *
+     * @param context RequestContext of the fragment
+     * @return the constraints, or null if the source is not partitioned
+     */
+    private JdbcFragmentMetadata getFragmentMetadata(RequestContext context) {
         if (context.getOption("PARTITION_BY") == null) {
-            return;
+            return null;
         }
 
         byte[] meta = context.getFragmentMetadata();
         if (meta == null) {
+            return null;
+        }
+
+        return JdbcFragmentMetadata.class.cast(SerializationUtils.deserialize(meta));
+    }
+
+    private void appendFragmentConstraint(JdbcFragmentMetadata fragmentMetadata, DbProduct dbProduct, String quoteString, StringBuilder query) {
+        if (fragmentMetadata == null) {
             return;
         }
 
@@ -337,7 +461,6 @@ public class SQLQueryBuilder {
             query.append(" AND ");
         }
 
-        JdbcFragmentMetadata fragmentMetadata = JdbcFragmentMetadata.class.cast(SerializationUtils.deserialize(meta));
         String fragmentSql = fragmentMetadata.toSqlConstraint(quoteString, dbProduct);
 
         query.append(fragmentSql);
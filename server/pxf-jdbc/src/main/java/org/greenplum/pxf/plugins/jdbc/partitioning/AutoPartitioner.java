@@ -0,0 +1,258 @@
+package org.greenplum.pxf.plugins.jdbc.partitioning;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Derives the partitions of a source from the statistics of the external
+ * database, so that the user does not have to provide RANGE and INTERVAL.
+ * <p>
+ * A table is split on the physical location of its rows when the external
+ * database supports it, otherwise the range of values of a column is read
+ * from the database and split into partitions of equal width.
+ */
+public class AutoPartitioner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AutoPartitioner.class);
+
+    private static final EnumSet<DataType> INT_TYPES = EnumSet.of(DataType.BIGINT, DataType.INTEGER, DataType.SMALLINT);
+
+    private final int partitionCount;
+
+    /**
+     * @param partitionCount the desired number of partitions
+     */
+    public AutoPartitioner(int partitionCount) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("The number of partitions must be at least 1, but actual is " + partitionCount);
+        }
+        this.partitionCount = partitionCount;
+    }
+
+    /**
+     * Split a table on the physical location of its rows.
+     *
+     * @param connection connection to the external database
+     * @param dbProduct  the external database
+     * @param tableName  the name of the table
+     * @return a list of fragments metadata, or null if the table cannot be
+     * split this way
+     * @throws SQLException if the size or the extents of the table cannot be
+     *                      read, or the external database would read every
+     *                      partition with a full scan
+     */
+    public List<JdbcFragmentMetadata> partitionByRowLocation(Connection connection, DbProduct dbProduct, String tableName) throws SQLException {
+        String extentQuery = dbProduct.buildExtentQuery();
+        if (extentQuery != null) {
+            return partitionByExtents(connection, extentQuery, tableName);
+        }
+
+        String blockCountQuery = dbProduct.buildBlockCountQuery();
+        if (blockCountQuery == null) {
+            return null;
+        }
+        dbProduct.checkRowLocationRangeScan(connection);
+
+        long blockCount;
+        try (PreparedStatement statement = connection.prepareStatement(blockCountQuery)) {
+            statement.setString(1, tableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                blockCount = resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+        LOG.debug("Table {} has {} blocks", tableName, blockCount);
+        // views and empty tables have no blocks
+        if (blockCount <= 0) {
+            return null;
+        }
+
+        long step = blockCount / partitionCount + (blockCount % partitionCount == 0 ? 0 : 1);
+        List<JdbcFragmentMetadata> result = new ArrayList<>(partitionCount);
+        Long start = null;
+        for (long end = step; end < blockCount; end += step) {
+            result.add(new CtidPartition(start, end));
+            start = end;
+        }
+        // the last partition also gets the rows added after the table was split
+        result.add(new CtidPartition(start == null ? 0L : start, null));
+        return result;
+    }
+
+    /**
+     * Split a table into ranges of ROWIDs, holding about the same number of
+     * blocks. Every range starts at the first ROWID of an extent. Unquoted
+     * parts of the name are upper-cased the way Oracle stores them in its
+     * dictionary.
+     *
+     * @param connection  connection to the external database
+     * @param extentQuery query returning the extents of the table
+     * @param tableName   the name of the table, optionally prefixed with its owner
+     * @return a list of fragments metadata, or null if the table has less than
+     * two extents, or is not a heap table
+     * @throws SQLException if the extents of the table cannot be read
+     */
+    private List<JdbcFragmentMetadata> partitionByExtents(Connection connection, String extentQuery, String tableName) throws SQLException {
+        int dot = tableName.lastIndexOf('.');
+        String owner = dot < 0 ? null : toDictionaryName(tableName.substring(0, dot));
+        String name = toDictionaryName(tableName.substring(dot + 1));
+
+        List<String> extentRowids = new ArrayList<>();
+        List<Long> extentBlocks = new ArrayList<>();
+        long blockCount = 0;
+        try (PreparedStatement statement = connection.prepareStatement(extentQuery)) {
+            statement.setString(1, owner);
+            statement.setString(2, name);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    extentRowids.add(resultSet.getString(1));
+                    extentBlocks.add(resultSet.getLong(2));
+                    blockCount += extentBlocks.get(extentBlocks.size() - 1);
+                }
+            }
+        }
+        LOG.debug("Table {} has {} extents of {} blocks", tableName, extentRowids.size(), blockCount);
+
+        // the first range starts at the lowest ROWID, a new range starts at
+        // the first extent after every 'step' blocks
+        long step = blockCount / partitionCount + (blockCount % partitionCount == 0 ? 0 : 1);
+        List<String> bounds = new ArrayList<>(partitionCount);
+        long blocks = 0;
+        for (int i = 0; i < extentRowids.size() && bounds.size() < partitionCount - 1; i++) {
+            if (blocks >= step * (bounds.size() + 1)) {
+                bounds.add(extentRowids.get(i));
+            }
+            blocks += extentBlocks.get(i);
+        }
+        // views and tables of one extent are not split
+        if (bounds.isEmpty()) {
+            return null;
+        }
+
+        List<JdbcFragmentMetadata> result = new ArrayList<>(bounds.size() + 1);
+        String start = null;
+        for (String end : bounds) {
+            result.add(new RowidPartition(start, end));
+            start = end;
+        }
+        // the last partition also gets the rows of the extents added after the table was split
+        result.add(new RowidPartition(start, null));
+        return result;
+    }
+
+    private static String toDictionaryName(String identifier) {
+        identifier = identifier.trim();
+        if (identifier.length() > 1 && identifier.startsWith("\"") && identifier.endsWith("\"")) {
+            return identifier.substring(1, identifier.length() - 1);
+        }
+        return identifier.toUpperCase();
+    }
+
+    /**
+     * Split the range of values of a column into partitions of equal width.
+     * The range is read from the external database with the given query.
+     *
+     * @param connection   connection to the external database
+     * @param minMaxQuery  query returning the minimum and the maximum value of the column
+     * @param column       the partition column
+     * @param type         the type of partitions
+     * @param interval     INTERVAL provided by the user, or null to derive it from the number of partitions
+     * @return a list of fragments metadata, or null if the column has no values
+     * @throws SQLException if the range of values cannot be read
+     */
+    public List<JdbcFragmentMetadata> partitionByRange(Connection connection, String minMaxQuery, String column,
+                                                       PartitionType type, String interval) throws SQLException {
+        String range;
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(minMaxQuery)) {
+            if (!resultSet.next()) {
+                return null;
+            }
+
+            if (type == PartitionType.INT) {
+                long min = resultSet.getLong(1);
+                long max = resultSet.getLong(2);
+                if (resultSet.wasNull() || min == Long.MAX_VALUE) {
+                    return null;
+                }
+                range = min + ":" + (max == Long.MAX_VALUE ? max : max + 1);
+                if (interval == null) {
+                    long width = max - min < 0 ? Long.MAX_VALUE : max - min;
+                    interval = String.valueOf(width / partitionCount + 1);
+                }
+            } else if (type == PartitionType.DATE) {
+                Date min = resultSet.getDate(1);
+                Date max = resultSet.getDate(2);
+                if (min == null || max == null) {
+                    return null;
+                }
+                LocalDate end = max.toLocalDate().plusDays(1);
+                range = min.toLocalDate() + ":" + end;
+                if (interval == null) {
+                    long days = ChronoUnit.DAYS.between(min.toLocalDate(), end);
+                    interval = (days / partitionCount + (days % partitionCount == 0 ? 0 : 1)) + ":day";
+                }
+            } else {
+                throw new IllegalArgumentException(String.format(
+                        "The parameter 'RANGE' must be specified for partition of type '%s'", type));
+            }
+        }
+
+        LOG.debug("Partitioning column {} with RANGE {} and INTERVAL {}", column, range, interval);
+        return type.getFragmentsMetadata(column, range, interval);
+    }
+
+    /**
+     * Pick a column to split the range of values of: the first integer
+     * column, or the first date column if there is no integer one.
+     *
+     * @param columns the columns of the source
+     * @return the column, or null if no column can be used for partitioning
+     */
+    public static ColumnDescriptor pickColumn(List<ColumnDescriptor> columns) {
+        ColumnDescriptor dateColumn = null;
+        for (ColumnDescriptor column : columns) {
+            DataType dataType = column.getDataType();
+            if (INT_TYPES.contains(dataType)) {
+                return column;
+            }
+            if (dataType == DataType.DATE && dateColumn == null) {
+                dateColumn = column;
+            }
+        }
+        return dateColumn;
+    }
+}
@@ -28,6 +28,31 @@ abstract class BasePartition implements JdbcFragmentMetadata {
         return column;
     }
 
+    /**
+     * Split the range from 'start' (inclusive) to 'end' (exclusive) into at
+     * most 'count' contiguous sub-ranges of nearly the same length
+     *
+     * @param start the start of the range
+     * @param end   the end of the range
+     * @param count the maximum number of sub-ranges
+     * @return the bounds of the sub-ranges, from 'start' to 'end'
+     */
+    static long[] splitRange(long start, long end, int count) {
+        long length;
+        try {
+            length = Math.subtractExact(end, start);
+        } catch (ArithmeticException e) {
+            return new long[]{start, end};
+        }
+        int parts = (int) Math.max(1, Math.min(count, length));
+        long[] bounds = new long[parts + 1];
+        for (int i = 0; i <= parts; i++) {
+            // the remainder is spread over the first sub-ranges
+            bounds[i] = start + length / parts * i + Math.min(i, length % parts);
+        }
+        return bounds;
+    }
+
     /**
      * Generate a range-based SQL constraint
      *
@@ -0,0 +1,93 @@
+package org.greenplum.pxf.plugins.jdbc.partitioning;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A partition of a PostgreSQL table by the physical location of its rows:
+ * contains the rows stored in a range of blocks of the table.
+ * <p>
+ * Rows are selected by the system column 'ctid', so the partition does not
+ * depend on the data of the table.
+ */
+class CtidPartition extends BasePartition implements JdbcFragmentMetadata {
+    private static final long serialVersionUID = 0L;
+
+    static final String CTID_COLUMN = "ctid";
+
+    private final Long[] blocks;
+
+    /**
+     * Construct a CtidPartition covering the blocks from 'start' to 'end'
+     *
+     * @param start the first block of the partition, null for right-bounded interval
+     * @param end   the first block after the partition, null for left-bounded interval
+     */
+    public CtidPartition(Long start, Long end) {
+        super(CTID_COLUMN);
+        if (start == null && end == null) {
+            throw new RuntimeException("Both boundaries cannot be null");
+        }
+        if (start != null && start.equals(end)) {
+            throw new RuntimeException("Boundaries cannot be equal for partition by ctid");
+        }
+
+        this.blocks = new Long[]{start, end};
+    }
+
+    @Override
+    public String toSqlConstraint(String quoteString, DbProduct dbProduct) {
+        // system column, it is never quoted
+        return generateRangeConstraint(column, new String[]{
+                blocks[0] == null ? null : wrapBlock(blocks[0]),
+                blocks[1] == null ? null : wrapBlock(blocks[1])
+        });
+    }
+
+    @Override
+    public List<JdbcFragmentMetadata> split(int count) {
+        if (blocks[0] == null || blocks[1] == null) {
+            return Collections.singletonList(this);
+        }
+
+        long[] bounds = splitRange(blocks[0], blocks[1], count);
+        List<JdbcFragmentMetadata> subRanges = new ArrayList<>(bounds.length - 1);
+        for (int i = 1; i < bounds.length; i++) {
+            subRanges.add(new CtidPartition(bounds[i - 1], bounds[i]));
+        }
+        return subRanges;
+    }
+
+    /**
+     * Getter
+     */
+    public Long[] getBlocks() {
+        return blocks;
+    }
+
+    private String wrapBlock(long block) {
+        return "'(" + block + ",0)'::tid";
+    }
+}
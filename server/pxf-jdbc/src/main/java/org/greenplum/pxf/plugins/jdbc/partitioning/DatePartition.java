@@ -23,6 +23,9 @@ import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
 
 import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.Stream;
 
 class DatePartition extends BasePartition implements JdbcFragmentMetadata {
@@ -71,6 +74,20 @@ class DatePartition extends BasePartition implements JdbcFragmentMetadata {
         );
     }
 
+    @Override
+    public List<JdbcFragmentMetadata> split(int count) {
+        if (boundaries[0] == null || boundaries[1] == null) {
+            return Collections.singletonList(this);
+        }
+
+        long[] bounds = splitRange(boundaries[0].toLocalDate().toEpochDay(), boundaries[1].toLocalDate().toEpochDay(), count);
+        List<JdbcFragmentMetadata> subRanges = new ArrayList<>(bounds.length - 1);
+        for (int i = 1; i < bounds.length; i++) {
+            subRanges.add(new DatePartition(column, LocalDate.ofEpochDay(bounds[i - 1]), LocalDate.ofEpochDay(bounds[i])));
+        }
+        return subRanges;
+    }
+
     /**
      * Getter
      */
@@ -21,6 +21,9 @@ package org.greenplum.pxf.plugins.jdbc.partitioning;
 
 import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.Stream;
 
 class IntPartition extends BasePartition implements JdbcFragmentMetadata {
@@ -58,6 +61,20 @@ class IntPartition extends BasePartition implements JdbcFragmentMetadata {
         );
     }
 
+    @Override
+    public List<JdbcFragmentMetadata> split(int count) {
+        if (boundaries.length == 1 || boundaries[0] == null || boundaries[1] == null) {
+            return Collections.singletonList(this);
+        }
+
+        long[] bounds = splitRange(boundaries[0], boundaries[1], count);
+        List<JdbcFragmentMetadata> subRanges = new ArrayList<>(bounds.length - 1);
+        for (int i = 1; i < bounds.length; i++) {
+            subRanges.add(new IntPartition(column, bounds[i - 1], bounds[i]));
+        }
+        return subRanges;
+    }
+
     /**
      * Getter
      */
@@ -1,6 +1,8 @@
 package org.greenplum.pxf.plugins.jdbc.partitioning;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
 
 /*
  * Licensed to the Apache Software Foundation (ASF) under one
@@ -35,4 +37,16 @@ public interface JdbcFragmentMetadata extends Serializable {
      * @return a pure SQL constraint (without WHERE)
      */
     String toSqlConstraint(String quoteString, DbProduct dbProduct);
+
+    /**
+     * Split this fragment into at most the given number of contiguous
+     * sub-ranges, so that the fragment can be read over several connections.
+     * Fragments that are not a range with two bounds are not split.
+     *
+     * @param count the maximum number of sub-ranges
+     * @return the sub-ranges, or this fragment only if it is not split
+     */
+    default List<JdbcFragmentMetadata> split(int count) {
+        return Collections.singletonList(this);
+    }
 }
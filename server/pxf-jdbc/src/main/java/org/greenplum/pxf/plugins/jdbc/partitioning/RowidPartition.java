@@ -0,0 +1,77 @@
+package org.greenplum.pxf.plugins.jdbc.partitioning;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
+
+/**
+ * A partition of an Oracle table by the physical location of its rows:
+ * contains the rows whose ROWID is in a range of ROWIDs, built from the
+ * extents of the table.
+ * <p>
+ * Rows are selected by the pseudocolumn 'ROWID', so the partition does not
+ * depend on the data of the table, and Oracle only reads the blocks of the
+ * range.
+ */
+class RowidPartition extends BasePartition implements JdbcFragmentMetadata {
+    private static final long serialVersionUID = 0L;
+
+    static final String ROWID_COLUMN = "ROWID";
+
+    private final String[] rowids;
+
+    /**
+     * Construct a RowidPartition covering the ROWIDs from 'start' to 'end'
+     *
+     * @param start the first ROWID of the partition, null for right-bounded interval
+     * @param end   the first ROWID after the partition, null for left-bounded interval
+     */
+    public RowidPartition(String start, String end) {
+        super(ROWID_COLUMN);
+        if (start == null && end == null) {
+            throw new RuntimeException("Both boundaries cannot be null");
+        }
+        if (start != null && start.equals(end)) {
+            throw new RuntimeException("Boundaries cannot be equal for partition by ROWID");
+        }
+
+        this.rowids = new String[]{start, end};
+    }
+
+    @Override
+    public String toSqlConstraint(String quoteString, DbProduct dbProduct) {
+        // pseudocolumn, it is never quoted
+        return generateRangeConstraint(column, new String[]{
+                rowids[0] == null ? null : wrapRowid(rowids[0]),
+                rowids[1] == null ? null : wrapRowid(rowids[1])
+        });
+    }
+
+    /**
+     * Getter
+     */
+    public String[] getRowids() {
+        return rowids;
+    }
+
+    private String wrapRowid(String rowid) {
+        return "CHARTOROWID('" + rowid + "')";
+    }
+}
@@ -10,18 +10,27 @@ import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.apache.commons.lang.StringUtils;
+import org.greenplum.pxf.api.utilities.MetricsRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Responsible for obtaining and maintaining JDBC connections to databases. If configured for a given server,
@@ -34,6 +43,7 @@ public class ConnectionManager {
     static final long CLEANUP_SLEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(5);
     static final long CLEANUP_TIMEOUT_NANOS = TimeUnit.HOURS.toNanos(24);
     static final long POOL_EXPIRATION_TIMEOUT_HOURS = 6;
+    static final String POOL_METRICS_NAME = "jdbc.pools";
 
     /**
      * Singleton instance of the ConnectionManager
@@ -42,12 +52,14 @@ public class ConnectionManager {
 
     private Executor datasourceClosingExecutor;
     private LoadingCache<PoolDescriptor, HikariDataSource> dataSources;
+    private final ConcurrentMap<HikariDataSource, PoolStatistics> statistics = new ConcurrentHashMap<>();
 
     /**
-     * Creates an instance of the connection manager.
+     * Creates an instance of the connection manager and registers the metrics of its pools.
      */
     private ConnectionManager() {
         this(DataSourceFactory.getInstance(), Ticker.systemTicker(), CLEANUP_SLEEP_INTERVAL_NANOS);
+        MetricsRegistry.getInstance().register(POOL_METRICS_NAME, this::getPoolMetrics);
     }
 
     ConnectionManager(DataSourceFactory factory, Ticker ticker, long sleepIntervalNanos) {
@@ -75,6 +87,7 @@ public class ConnectionManager {
                             }
                             LOG.debug("Destroying the pool {}", hds.getPoolName());
                             hds.close();
+                            statistics.remove(hds);
                         }
                         , datasourceClosingExecutor))
                 .build(CacheLoader.from(key -> factory.createDataSource(key)));
@@ -102,6 +115,7 @@ public class ConnectionManager {
      * @param connectionConfiguration connection configuration properties
      * @param isPoolEnabled true if the connection pool is enabled, false otherwise
      * @param poolConfiguration pool configuration properties
+     * @param qualifier qualifier of the pool, a separate pool is created for every value
      * @return connection instance
      * @throws SQLException if connection can not be obtained
      */
@@ -114,23 +128,115 @@ public class ConnectionManager {
         } else {
 
             PoolDescriptor poolDescriptor = new PoolDescriptor(server, jdbcUrl, connectionConfiguration, poolConfiguration, qualifier);
+            HikariDataSource dataSource = getDataSource(server, poolDescriptor);
 
-            DataSource dataSource;
+            PoolStatistics poolStatistics = statistics.computeIfAbsent(dataSource, ds -> new PoolStatistics());
+            long startTime = System.nanoTime();
             try {
-                LOG.debug("Requesting datasource for server={} and {}", server, poolDescriptor);
-                dataSource = dataSources.getUnchecked(poolDescriptor);
-                LOG.debug("Obtained datasource {} for server={} and {}", dataSource.hashCode(), server, poolDescriptor);
-            } catch (UncheckedExecutionException e) {
-                Throwable cause = e.getCause() != null ? e.getCause() : e;
-                throw new SQLException(String.format("Could not obtain datasource for server %s and %s : %s", server, poolDescriptor, cause.getMessage()), cause);
+                result = dataSource.getConnection();
+            } catch (SQLException e) {
+                poolStatistics.recordFailure();
+                throw e;
             }
-            result = dataSource.getConnection();
+            poolStatistics.recordAcquisition(System.nanoTime() - startTime);
         }
         LOG.debug("Returning JDBC connection {} for server={}", result, server);
 
         return result;
     }
 
+    /**
+     * Creates the connection pool for the given parameters, unless it already exists, and opens as many
+     * connections as the pool keeps idle, at least one. The first queries using the pool then neither wait
+     * for the pool to be created nor for the connections to the database to be established.
+     *
+     * @param server configuration server
+     * @param jdbcUrl JDBC url of the target database
+     * @param connectionConfiguration connection configuration properties
+     * @param poolConfiguration pool configuration properties
+     * @param qualifier qualifier of the pool, a separate pool is created for every value
+     * @return the number of connections opened
+     * @throws SQLException if the pool can not be created or the connections can not be obtained
+     */
+    public int warmUpPool(String server, String jdbcUrl, Properties connectionConfiguration, Properties poolConfiguration, String qualifier) throws SQLException {
+        PoolDescriptor poolDescriptor = new PoolDescriptor(server, jdbcUrl, connectionConfiguration, poolConfiguration, qualifier);
+        HikariDataSource dataSource = getDataSource(server, poolDescriptor);
+
+        // hold all connections at the same time, otherwise the pool hands out the same connection again
+        int connectionCount = Math.max(1, Math.min(dataSource.getMinimumIdle(), dataSource.getMaximumPoolSize()));
+        List<Connection> connections = new ArrayList<>(connectionCount);
+        try {
+            while (connections.size() < connectionCount) {
+                connections.add(dataSource.getConnection());
+            }
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    LOG.warn(String.format("Failed to return connection %s to the pool, ignoring the error.", connection), e);
+                }
+            }
+        }
+        LOG.info("Warmed up pool {} for server={} and {} with {} connections", dataSource.getPoolName(), server, poolDescriptor, connectionCount);
+        return connectionCount;
+    }
+
+    /**
+     * Takes a snapshot of the usage of the connection pools, reported by the PXF metrics endpoint. Pool
+     * statistics are the ones of {@link HikariPoolMXBean}, the latency to acquire a connection is measured
+     * by the connection manager since the pool has been created.
+     *
+     * @return the metrics of every pool, identified by its server, user and qualifier
+     */
+    List<Map<String, Object>> getPoolMetrics() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        // iterating over the cache does not count as an access, so the pools still expire
+        dataSources.asMap().forEach((poolDescriptor, dataSource) -> {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("server", poolDescriptor.getServer());
+            metrics.put("user", poolDescriptor.getUser());
+            metrics.put("qualifier", poolDescriptor.getQualifier());
+            metrics.put("pool", dataSource.getPoolName());
+            metrics.put("maximumPoolSize", dataSource.getMaximumPoolSize());
+
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            if (pool != null) {
+                metrics.put("active", pool.getActiveConnections());
+                metrics.put("idle", pool.getIdleConnections());
+                metrics.put("total", pool.getTotalConnections());
+                metrics.put("pending", pool.getThreadsAwaitingConnection());
+            }
+
+            PoolStatistics poolStatistics = statistics.get(dataSource);
+            if (poolStatistics != null) {
+                poolStatistics.addTo(metrics);
+            }
+            result.add(metrics);
+        });
+        return result;
+    }
+
+    /**
+     * Returns the pool for the given descriptor, creating it if it does not exist yet.
+     *
+     * @param server configuration server
+     * @param poolDescriptor descriptor of the pool
+     * @return the pool
+     * @throws SQLException if the pool can not be created
+     */
+    private HikariDataSource getDataSource(String server, PoolDescriptor poolDescriptor) throws SQLException {
+        try {
+            LOG.debug("Requesting datasource for server={} and {}", server, poolDescriptor);
+            HikariDataSource dataSource = dataSources.getUnchecked(poolDescriptor);
+            LOG.debug("Obtained datasource {} for server={} and {}", dataSource.hashCode(), server, poolDescriptor);
+            return dataSource;
+        } catch (UncheckedExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new SQLException(String.format("Could not obtain datasource for server %s and %s : %s", server, poolDescriptor, cause.getMessage()), cause);
+        }
+    }
+
     /**
      * Masks all password characters with asterisks, used for logging password values
      *
@@ -141,6 +247,35 @@ public class ConnectionManager {
         return password == null ? "" : StringUtils.repeat("*", password.length());
     }
 
+    /**
+     * Latency to acquire a connection from a pool, measured from the first request to the pool.
+     */
+    private static class PoolStatistics {
+
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder acquisitionNanos = new LongAdder();
+        private final LongAccumulator maxAcquisitionNanos = new LongAccumulator(Long::max, 0);
+        private final LongAdder failures = new LongAdder();
+
+        void recordAcquisition(long nanos) {
+            acquisitions.increment();
+            acquisitionNanos.add(nanos);
+            maxAcquisitionNanos.accumulate(nanos);
+        }
+
+        void recordFailure() {
+            failures.increment();
+        }
+
+        void addTo(Map<String, Object> metrics) {
+            long count = acquisitions.sum();
+            metrics.put("acquisitions", count);
+            metrics.put("acquisitionFailures", failures.sum());
+            metrics.put("averageAcquisitionMillis", count == 0 ? 0.0 : acquisitionNanos.sum() / (count * 1e6));
+            metrics.put("maxAcquisitionMillis", maxAcquisitionNanos.get() / 1e6);
+        }
+    }
+
     /**
      * Factory class to create instances of datasources.
      * Default implementation creates instances of HikariDataSource.
@@ -22,6 +22,12 @@ package org.greenplum.pxf.plugins.jdbc.utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+
 /**
  * A tool class to change PXF-JDBC plugin behaviour for certain external databases
  */
@@ -36,6 +42,17 @@ public enum DbProduct {
         public String buildSessionQuery(String key, String value) {
             return String.format("SET %s %s", key, value);
         }
+
+        @Override
+        public String buildLimitQuery(String query, long limit) {
+            return "SELECT TOP " + limit + " * FROM (" + query + ") pxflimit";
+        }
+
+        @Override
+        public int getMaxRowsPerInsert(int columnCount) {
+            // at most 1000 rows and 2100 parameters per statement, some of the parameters are used by the driver
+            return Math.max(1, Math.min(1000, 2000 / Math.max(1, columnCount)));
+        }
     },
 
     MYSQL {
@@ -43,6 +60,15 @@ public enum DbProduct {
         public String wrapDate(Object val) {
             return "DATE('" + val + "')";
         }
+
+        @Override
+        public boolean prepareStreamingRead(Connection connection, Statement statement, int fetchSize,
+                                            boolean fetchSizeIsSetByUser) throws SQLException {
+            // Connector/J keeps the whole result set in memory unless it streams it row by row,
+            // or reads it through a cursor when useCursorFetch is set with the fetch size of the user
+            statement.setFetchSize(fetchSizeIsSetByUser ? fetchSize : Integer.MIN_VALUE);
+            return false;
+        }
     },
 
     ORACLE {
@@ -60,6 +86,30 @@ public enum DbProduct {
         public String buildSessionQuery(String key, String value) {
             return String.format("ALTER SESSION SET %s = %s", key, value);
         }
+
+        @Override
+        public String buildLimitQuery(String query, long limit) {
+            // FETCH FIRST is only supported since Oracle 12c
+            return "SELECT * FROM (" + query + ") WHERE ROWNUM <= " + limit;
+        }
+
+        @Override
+        public int getMaxRowsPerInsert(int columnCount) {
+            // multi-row VALUES are not supported
+            return 1;
+        }
+
+        @Override
+        public String buildExtentQuery() {
+            // views, external tables and index-organized tables have no extents of type TABLE
+            String firstRowid = "DBMS_ROWID.ROWID_CREATE(1, o.DATA_OBJECT_ID, e.RELATIVE_FNO, e.BLOCK_ID, 0)";
+            return "SELECT ROWIDTOCHAR(" + firstRowid + "), e.BLOCKS FROM DBA_EXTENTS e" +
+                    " JOIN ALL_OBJECTS o ON o.OWNER = e.OWNER AND o.OBJECT_NAME = e.SEGMENT_NAME" +
+                    " AND o.OBJECT_TYPE = e.SEGMENT_TYPE AND NVL(o.SUBOBJECT_NAME, ' ') = NVL(e.PARTITION_NAME, ' ')" +
+                    " WHERE e.OWNER = NVL(?, SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA')) AND e.SEGMENT_NAME = ?" +
+                    " AND e.SEGMENT_TYPE IN ('TABLE', 'TABLE PARTITION', 'TABLE SUBPARTITION')" +
+                    " ORDER BY " + firstRowid;
+        }
     },
 
     POSTGRES {
@@ -67,6 +117,37 @@ public enum DbProduct {
         public String wrapDate(Object val) {
             return "date'" + val + "'";
         }
+
+        @Override
+        public boolean prepareStreamingRead(Connection connection, Statement statement, int fetchSize,
+                                            boolean fetchSizeIsSetByUser) throws SQLException {
+            // the driver only fetches the rows through a cursor outside of autocommit mode
+            if (connection.getAutoCommit() && connection.getMetaData().supportsTransactions()) {
+                LOG.debug("Setting autoCommit to false on connection {} to read through a cursor", connection);
+                connection.setAutoCommit(false);
+            }
+            statement.setFetchSize(fetchSize);
+            return true;
+        }
+
+        @Override
+        public String buildBlockCountQuery() {
+            return "SELECT pg_relation_size(CAST(? AS regclass)) / current_setting('block_size')::bigint";
+        }
+
+        @Override
+        public void checkRowLocationRangeScan(Connection connection) throws SQLException {
+            int version;
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(SERVER_VERSION_QUERY)) {
+                version = resultSet.next() ? resultSet.getInt(1) : 0;
+            }
+            // a range of ctid is read with a TID Range Scan since PostgreSQL 14, and with a full scan before
+            if (version < MIN_TID_RANGE_SCAN_VERSION) {
+                throw new SQLFeatureNotSupportedException(String.format(
+                        "Splitting a table by ctid requires PostgreSQL 14 or later, but server_version_num is %d", version));
+            }
+        }
     },
 
     S3_SELECT {
@@ -79,6 +160,11 @@ public enum DbProduct {
         public String wrapTimestamp(Object val) {
             return "TO_TIMESTAMP('" + val + "')";
         }
+
+        @Override
+        public int getMaxRowsPerInsert(int columnCount) {
+            return 1;
+        }
     };
 
     /**
@@ -110,6 +196,84 @@ public enum DbProduct {
         return String.format("SET %s = %s", key, value);
     }
 
+    /**
+     * Wrap a SELECT query so that it returns at most the given number of rows
+     *
+     * @param query SELECT query
+     * @param limit the maximum number of rows
+     * @return a string with the limited query
+     */
+    public String buildLimitQuery(String query, long limit) {
+        return query + " LIMIT " + limit;
+    }
+
+    /**
+     * Get the maximum number of rows a single INSERT query with multiple
+     * VALUES rows may have, so that the query stays within the limits of the
+     * target database and its driver.
+     *
+     * @param columnCount the number of columns in a row
+     * @return the maximum number of rows, 1 if multi-row VALUES are not supported
+     */
+    public int getMaxRowsPerInsert(int columnCount) {
+        // the number of bind parameters of a statement is limited to 32767 by the PostgreSQL driver
+        return Math.max(1, Short.MAX_VALUE / Math.max(1, columnCount));
+    }
+
+    /**
+     * Prepare a statement of a SELECT query, so that the driver streams the
+     * rows of the result set instead of keeping all of them in memory. For
+     * Oracle, the fetch size is the number of rows prefetched by the driver.
+     *
+     * @param connection connection of the statement
+     * @param statement  statement of the SELECT query
+     * @param fetchSize            the number of rows to fetch in a single round trip
+     * @param fetchSizeIsSetByUser true if the fetch size is set in the configuration or the external table
+     * @return true if the fetch size may be changed while the rows are read
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public boolean prepareStreamingRead(Connection connection, Statement statement, int fetchSize,
+                                        boolean fetchSizeIsSetByUser) throws SQLException {
+        statement.setFetchSize(fetchSize);
+        return true;
+    }
+
+    /**
+     * Build a query returning the number of storage blocks of a table, used
+     * to split the table on the physical location of its rows. The name of
+     * the table is the only parameter of the query.
+     *
+     * @return a query, or null if the target database does not support it
+     */
+    public String buildBlockCountQuery() {
+        return null;
+    }
+
+    /**
+     * Check that the target database reads a range of row locations without
+     * scanning the whole table, before a table is split on the physical
+     * location of its rows.
+     *
+     * @param connection connection to the external database
+     * @throws SQLException if the check fails, or the target database does
+     *                      not support it
+     */
+    public void checkRowLocationRangeScan(Connection connection) throws SQLException {
+    }
+
+    /**
+     * Build a query returning the extents of a table, used to split the table
+     * on the physical location of its rows: the first row location of each
+     * extent, in order, and its number of blocks. The owner of the table, or
+     * null for the current schema, and the name of the table are the
+     * parameters of the query.
+     *
+     * @return a query, or null if the target database does not support it
+     */
+    public String buildExtentQuery() {
+        return null;
+    }
+
     /**
      * Get DbProduct for database by database name
      *
@@ -140,5 +304,8 @@ public enum DbProduct {
         return result;
     }
 
+    private static final String SERVER_VERSION_QUERY = "SELECT current_setting('server_version_num')::integer";
+    private static final int MIN_TID_RANGE_SCAN_VERSION = 140000;
+
     private static final Logger LOG = LoggerFactory.getLogger(DbProduct.class);
 }
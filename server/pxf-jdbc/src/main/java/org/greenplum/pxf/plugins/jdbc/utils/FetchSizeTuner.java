@@ -0,0 +1,103 @@
+package org.greenplum.pxf.plugins.jdbc.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * Adapts the fetch size of a SELECT query to the width of its rows, so that
+ * every round trip to the external database moves about the same number of
+ * bytes, whether the rows are narrow or wide.
+ * <p>
+ * The query starts with a small fetch size. The width of the first rows is
+ * measured on the values copied for the resolver, so that no value is read
+ * twice, and the fetch size for the rest of the result set is derived from it.
+ */
+public class FetchSizeTuner {
+
+    // Rows fetched and measured before the fetch size is adapted
+    static final int SAMPLE_ROWS = 100;
+    static final int MIN_FETCH_SIZE = 10;
+    static final int MAX_FETCH_SIZE = 100000;
+
+    // Estimated memory taken by a value, apart from its characters or bytes
+    private static final int VALUE_OVERHEAD = 16;
+    // Estimated width of values that are not measured
+    private static final int FIXED_WIDTH = 8;
+
+    private final long targetBytes;
+    private long sampledBytes;
+    private int sampledRows;
+
+    /**
+     * Create a new tuner
+     *
+     * @param targetBytes the number of bytes to fetch in a single round trip
+     */
+    public FetchSizeTuner(long targetBytes) {
+        if (targetBytes < 1) {
+            throw new IllegalArgumentException("The number of bytes to fetch must be positive, but actual is " + targetBytes);
+        }
+        this.targetBytes = targetBytes;
+    }
+
+    /**
+     * @return the fetch size to start the query with
+     */
+    public int getInitialFetchSize() {
+        return SAMPLE_ROWS;
+    }
+
+    /**
+     * Measure the width of a row
+     *
+     * @param values the values of the row, null for non-projected columns
+     * @return true if enough rows were measured to adapt the fetch size
+     */
+    public boolean sample(Object[] values) {
+        for (Object value : values) {
+            sampledBytes += VALUE_OVERHEAD + getWidth(value);
+        }
+        return ++sampledRows >= SAMPLE_ROWS;
+    }
+
+    /**
+     * @return the fetch size that moves about the target number of bytes with the rows measured so far
+     */
+    public int getFetchSize() {
+        if (sampledRows == 0) {
+            return getInitialFetchSize();
+        }
+        long rowWidth = Math.max(1, sampledBytes / sampledRows);
+        return (int) Math.max(MIN_FETCH_SIZE, Math.min(MAX_FETCH_SIZE, targetBytes / rowWidth));
+    }
+
+    private static int getWidth(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            // characters take two bytes on the heap
+            return 2 * ((String) value).length();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        return FIXED_WIDTH;
+    }
+}
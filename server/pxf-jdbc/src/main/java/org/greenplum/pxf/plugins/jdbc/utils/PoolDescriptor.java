@@ -66,6 +66,10 @@ public class PoolDescriptor {
         return poolConfig;
     }
 
+    public String getQualifier() {
+        return qualifier;
+    }
+
 
     @Override
     public boolean equals(Object o) {
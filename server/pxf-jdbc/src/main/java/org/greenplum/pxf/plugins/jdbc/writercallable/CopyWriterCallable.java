@@ -0,0 +1,172 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * This writer loads rows with the COPY FROM STDIN protocol of PostgreSQL
+ * and Greenplum.
+ * <p>
+ * Rows are encoded as CSV straight from their fields, and a COPY is run when
+ * the buffered text reaches a certain size. A call() is required after a
+ * certain number of supply() calls.
+ */
+class CopyWriterCallable implements WriterCallable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CopyWriterCallable.class);
+
+    // Characters of CSV text loaded by a single COPY
+    static final int COPY_BUFFER_SIZE = 1024 * 1024;
+
+    private final JdbcBasePlugin plugin;
+    private final String query;
+    private final PreparedStatement statement;
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**
+     * Construct a new COPY writer
+     *
+     * @param plugin    the plugin to get a connection from if no statement is given
+     * @param query     COPY FROM STDIN query in CSV format
+     * @param statement a statement whose connection is used for all COPY queries, or null
+     */
+    CopyWriterCallable(JdbcBasePlugin plugin, String query, PreparedStatement statement) {
+        if (plugin == null || query == null) {
+            throw new IllegalArgumentException("The provided JdbcBasePlugin or SQL query is null");
+        }
+
+        this.plugin = plugin;
+        this.query = query;
+        this.statement = statement;
+    }
+
+    /**
+     * Check whether COPY can be used on a connection
+     *
+     * @param connection connection to the external database
+     * @return true if the connection is a PostgreSQL driver connection
+     */
+    static boolean isSupported(Connection connection) {
+        try {
+            return connection.isWrapperFor(PGConnection.class);
+        } catch (SQLException | LinkageError e) {
+            // the PostgreSQL driver is not available
+            LOG.debug("COPY is not supported on connection {}: {}", connection, e.toString());
+            return false;
+        }
+    }
+
+    @Override
+    public void supply(OneRow row) throws IllegalStateException {
+        if (row == null) {
+            throw new IllegalArgumentException("Trying to supply() a null OneRow object");
+        }
+        appendRow(buffer, row);
+    }
+
+    @Override
+    public boolean isCallRequired() {
+        return buffer.length() >= COPY_BUFFER_SIZE;
+    }
+
+    @Override
+    public SQLException call() throws IOException, SQLException {
+        if (buffer.length() == 0) {
+            return null;
+        }
+
+        Connection connection = statement != null ? statement.getConnection() : plugin.getConnection();
+        try {
+            long rows = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn(query, new StringReader(buffer.toString()));
+            LOG.debug("Loaded {} rows with COPY", rows);
+            if (statement == null && !connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            return e;
+        } finally {
+            buffer.setLength(0);
+            if (statement == null) {
+                connection.close();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Append a row to CSV text. NULL values are empty, all other values are
+     * quoted, so empty strings and special characters are preserved.
+     *
+     * @param sb  CSV text
+     * @param row row from JdbcResolver
+     */
+    @SuppressWarnings("unchecked")
+    static void appendRow(StringBuilder sb, OneRow row) {
+        // This is safe: OneRow comes from JdbcResolver
+        List<OneField> tuple = (List<OneField>) row.getData();
+        for (int i = 0; i < tuple.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            Object val = tuple.get(i).val;
+            if (val == null) {
+                continue;
+            }
+
+            sb.append('"');
+            if (val instanceof byte[]) {
+                // escape format of bytea is understood by all PostgreSQL and Greenplum versions
+                for (byte b : (byte[]) val) {
+                    int octet = b & 0xFF;
+                    sb.append('\\')
+                            .append((char) ('0' + (octet >> 6)))
+                            .append((char) ('0' + ((octet >> 3) & 7)))
+                            .append((char) ('0' + (octet & 7)));
+                }
+            } else {
+                String text = val.toString();
+                for (int j = 0; j < text.length(); j++) {
+                    char c = text.charAt(j);
+                    if (c == '"') {
+                        sb.append('"');
+                    }
+                    sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+        sb.append('\n');
+    }
+}
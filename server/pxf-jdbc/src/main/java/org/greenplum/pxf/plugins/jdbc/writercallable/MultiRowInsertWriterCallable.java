@@ -0,0 +1,152 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.greenplum.pxf.plugins.jdbc.JdbcResolver;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * This writer makes INSERTs with multiple VALUES rows, so that a single
+ * statement execution loads many rows.
+ * <p>
+ * When a statement is given, the INSERT query for a full batch of rows is
+ * prepared once and reused by every call(); only a shorter last batch gets a
+ * statement of its own. The reused statement is closed by close().
+ * <p>
+ * A call() is required after a certain number of supply() calls
+ */
+class MultiRowInsertWriterCallable implements WriterCallable {
+
+    private final JdbcBasePlugin plugin;
+    private final IntFunction<String> queryBuilder;
+    private final PreparedStatement statement;
+    private final int rowsPerInsert;
+    private final List<OneRow> rows;
+    private PreparedStatement fullInsert;
+
+    /**
+     * Construct a new multi-row writer
+     *
+     * @param plugin        the plugin to get a connection from if no statement is given
+     * @param queryBuilder  builds an INSERT query for the given number of rows
+     * @param statement     a statement whose connection is used for all INSERT queries, or null
+     * @param rowsPerInsert the maximum number of rows in a single INSERT query
+     */
+    MultiRowInsertWriterCallable(JdbcBasePlugin plugin, IntFunction<String> queryBuilder, PreparedStatement statement, int rowsPerInsert) {
+        if (plugin == null || queryBuilder == null) {
+            throw new IllegalArgumentException("The provided JdbcBasePlugin or SQL query builder is null");
+        }
+        if (rowsPerInsert < 1) {
+            throw new IllegalArgumentException("The number of rows per INSERT query must be at least 1, but actual is " + rowsPerInsert);
+        }
+
+        this.plugin = plugin;
+        this.queryBuilder = queryBuilder;
+        this.statement = statement;
+        this.rowsPerInsert = rowsPerInsert;
+
+        rows = new ArrayList<>(rowsPerInsert);
+    }
+
+    @Override
+    public void supply(OneRow row) throws IllegalStateException {
+        if (rows.size() >= rowsPerInsert) {
+            throw new IllegalStateException("Trying to supply() a OneRow object to a full WriterCallable");
+        }
+        if (row == null) {
+            throw new IllegalArgumentException("Trying to supply() a null OneRow object");
+        }
+        rows.add(row);
+    }
+
+    @Override
+    public boolean isCallRequired() {
+        return rows.size() >= rowsPerInsert;
+    }
+
+    @Override
+    public SQLException call() throws IOException, SQLException, ClassNotFoundException {
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        Connection connection = statement != null ? statement.getConnection() : plugin.getConnection();
+        PreparedStatement insert = null;
+        try {
+            if (statement != null && rows.size() == rowsPerInsert) {
+                if (fullInsert == null) {
+                    fullInsert = plugin.getPreparedStatement(connection, queryBuilder.apply(rowsPerInsert));
+                }
+                insert = fullInsert;
+            } else {
+                insert = plugin.getPreparedStatement(connection, queryBuilder.apply(rows.size()));
+            }
+            int offset = 0;
+            for (OneRow row : rows) {
+                JdbcResolver.decodeOneRowToPreparedStatement(row, insert, offset);
+                offset += getFieldCount(row);
+            }
+            if (insert.executeUpdate() != rows.size()) {
+                throw new SQLException("The number of rows affected by INSERT query is not equal to the number of rows provided");
+            }
+        } catch (SQLException e) {
+            return e;
+        } finally {
+            rows.clear();
+            if (statement == null && insert != null) {
+                // commits the transaction of the connection opened for this call
+                JdbcBasePlugin.closeStatementAndConnection(insert);
+            } else if (statement == null) {
+                connection.close();
+            } else if (insert != null && insert != fullInsert) {
+                insert.close();
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (fullInsert != null) {
+            try {
+                fullInsert.close();
+            } finally {
+                fullInsert = null;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int getFieldCount(OneRow row) {
+        // This is safe: OneRow comes from JdbcResolver
+        return ((List<OneField>) row.getData()).size();
+    }
+}
@@ -52,4 +52,13 @@ public interface WriterCallable extends Callable<SQLException> {
      */
     @Override
     SQLException call() throws Exception;
+
+    /**
+     * Release the statements this WriterCallable prepared for itself. The
+     * statement given to this WriterCallable is not closed.
+     *
+     * @throws SQLException if a statement cannot be closed
+     */
+    default void close() throws SQLException {
+    }
 }
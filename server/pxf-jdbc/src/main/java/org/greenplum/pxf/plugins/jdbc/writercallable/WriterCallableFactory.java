@@ -22,7 +22,9 @@ package org.greenplum.pxf.plugins.jdbc.writercallable;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.util.function.IntFunction;
 
 /**
  * An object that processes INSERT operation on {@link OneRow} objects
@@ -33,6 +35,9 @@ public class WriterCallableFactory {
     private JdbcBasePlugin plugin;
     private String query;
     private PreparedStatement statement;
+    private String copyQuery;
+    private IntFunction<String> multiRowQueryBuilder;
+    private int maxRowsPerInsert;
 
     /**
      * Create a new instance of the factory.
@@ -48,13 +53,61 @@ public class WriterCallableFactory {
         }
     }
 
+    /**
+     * Check whether the rows can be loaded with the COPY FROM STDIN protocol
+     *
+     * @param connection connection to the external database
+     * @return true if the connection supports COPY
+     */
+    public static boolean isCopySupported(Connection connection) {
+        return CopyWriterCallable.isSupported(connection);
+    }
+
+    /**
+     * Load the rows with the COPY FROM STDIN protocol instead of INSERT queries
+     *
+     * @param copyQuery COPY query in CSV format
+     */
+    public void setCopyQuery(String copyQuery) {
+        this.copyQuery = copyQuery;
+    }
+
+    /**
+     * Load the rows with INSERT queries with multiple VALUES rows instead of
+     * single-row INSERT queries
+     *
+     * @param queryBuilder     builds an INSERT query for the given number of rows
+     * @param maxRowsPerInsert the maximum number of rows the external database accepts in a single INSERT query
+     */
+    public void setMultiRowInsert(IntFunction<String> queryBuilder, int maxRowsPerInsert) {
+        this.multiRowQueryBuilder = queryBuilder;
+        this.maxRowsPerInsert = maxRowsPerInsert;
+    }
+
     /**
      * Get an instance of WriterCallable
      *
      * @return an implementation of WriterCallable, chosen based on parameters that were set for this factory
      */
     public WriterCallable get() {
+        return get(statement);
+    }
 
+    /**
+     * Get an instance of WriterCallable that writes through the given
+     * statement. The statement is not closed by the WriterCallable.
+     *
+     * @param statement statement of the INSERT query, or null to open a new connection on every call()
+     * @return an implementation of WriterCallable, chosen based on parameters that were set for this factory
+     */
+    public WriterCallable get(PreparedStatement statement) {
+        if (copyQuery != null) {
+            return new CopyWriterCallable(plugin, copyQuery, statement);
+        }
+        int rowsPerInsert = Math.min(batchSize, maxRowsPerInsert);
+        if (multiRowQueryBuilder != null && rowsPerInsert > 1) {
+            return new MultiRowInsertWriterCallable(plugin, multiRowQueryBuilder, statement, rowsPerInsert);
+        }
         if (batchSize > 1) {
             return new BatchWriterCallable(plugin, query, statement, batchSize);
         }
@@ -0,0 +1,288 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A pool of long-lived writer threads for INSERT queries.
+ * <p>
+ * Every thread owns a single connection and a single prepared statement for
+ * the whole write, and a {@link WriterCallable} that writes through them. The
+ * threads take chunks of rows from a bounded queue, so the
+ * writer is throttled when the external database falls behind. The
+ * transactions of all threads are committed when the write completes, or
+ * rolled back if any of the threads failed.
+ */
+public class WriterPool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriterPool.class);
+
+    // Rows of a single queue entry
+    private static final int CHUNK_SIZE = 100;
+
+    // Tells a thread there are no more rows to write
+    private static final List<OneRow> END_OF_DATA = Collections.emptyList();
+
+    private final List<PreparedStatement> statements = new ArrayList<>();
+    private final List<Future<?>> tasks = new ArrayList<>();
+    private final BlockingQueue<List<OneRow>> queue;
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private final ExecutorService executorService;
+    private List<OneRow> rows;
+
+    /**
+     * Create a pool of writer threads and open their statements.
+     *
+     * @param factory   the factory of the writers of the threads
+     * @param plugin    the plugin to get connections from
+     * @param query     INSERT query
+     * @param statement a statement for the query to use in the first thread
+     * @param poolSize  the number of threads
+     * @throws SQLException if a connection or a statement cannot be opened
+     */
+    public WriterPool(WriterCallableFactory factory, JdbcBasePlugin plugin, String query, PreparedStatement statement, int poolSize) throws SQLException {
+        if (factory == null || plugin == null || query == null || statement == null) {
+            throw new IllegalArgumentException("The provided WriterCallableFactory, JdbcBasePlugin, SQL query or statement is null");
+        }
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("The number of writer threads must be at least 1, but actual is " + poolSize);
+        }
+
+        this.queue = new ArrayBlockingQueue<>(2 * poolSize);
+        this.rows = new ArrayList<>(CHUNK_SIZE);
+
+        statements.add(statement);
+        try {
+            for (int i = 1; i < poolSize; i++) {
+                statements.add(plugin.getPreparedStatement(plugin.getConnection(), query));
+            }
+        } catch (SQLException e) {
+            // the first statement is owned by the caller
+            statements.remove(0);
+            closeStatements();
+            throw e;
+        }
+
+        executorService = Executors.newFixedThreadPool(poolSize);
+        for (PreparedStatement threadStatement : statements) {
+            WriterCallable writer = factory.get(threadStatement);
+            tasks.add(executorService.submit(() -> write(writer)));
+        }
+        LOG.debug("Started {} writer threads", poolSize);
+    }
+
+    /**
+     * Pass the next row to the pool. The rows are written asynchronously.
+     *
+     * @param row row
+     * @throws Exception the first error that happened in a thread
+     */
+    public void supply(OneRow row) throws Exception {
+        if (row == null) {
+            throw new IllegalArgumentException("Trying to supply() a null OneRow object");
+        }
+        rows.add(row);
+        if (rows.size() >= CHUNK_SIZE) {
+            enqueue(rows);
+            rows = new ArrayList<>(CHUNK_SIZE);
+        }
+    }
+
+    /**
+     * Write the remaining rows, wait for the threads to complete, then
+     * commit the transactions of all threads, or roll them back if any of the
+     * threads failed. The statements opened by the pool are closed, the
+     * statement passed to the constructor is left open.
+     *
+     * @throws Exception the first error that happened in a thread
+     */
+    public void close() throws Exception {
+        Exception exception = null;
+        try {
+            if (!rows.isEmpty()) {
+                enqueue(rows);
+            }
+        } catch (Exception e) {
+            exception = e;
+        } finally {
+            rows = new ArrayList<>();
+            for (int i = 0; i < tasks.size(); i++) {
+                queue.put(END_OF_DATA);
+            }
+        }
+
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (Exception e) {
+                LOG.error("A writer thread failed", e);
+                if (exception == null) {
+                    exception = e;
+                }
+            }
+        }
+        executorService.shutdownNow();
+
+        if (failure.get() != null) {
+            exception = failure.get();
+        }
+        try {
+            endTransactions(exception == null);
+        } catch (SQLException e) {
+            if (exception == null) {
+                exception = e;
+            }
+        } finally {
+            // the first statement is owned by the caller
+            statements.remove(0);
+            closeStatements();
+        }
+
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private void enqueue(List<OneRow> chunk) throws Exception {
+        // do not block forever on a full queue if the threads have stopped writing
+        while (!queue.offer(chunk, 1, TimeUnit.SECONDS)) {
+            throwIfFailed();
+        }
+        throwIfFailed();
+    }
+
+    private void throwIfFailed() throws Exception {
+        Exception e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * Write the rows taken from the queue until the end of data. After an
+     * error, the rows are discarded so the writer does not block. The
+     * writer is closed when the thread completes.
+     *
+     * @param writer writer of the thread
+     * @return null
+     * @throws InterruptedException if interrupted while waiting for the queue
+     */
+    private Void write(WriterCallable writer) throws InterruptedException {
+        try {
+            List<OneRow> chunk;
+            while ((chunk = queue.take()) != END_OF_DATA) {
+                if (failure.get() != null) {
+                    continue;
+                }
+                try {
+                    for (OneRow row : chunk) {
+                        writer.supply(row);
+                        if (writer.isCallRequired()) {
+                            call(writer);
+                        }
+                    }
+                } catch (Exception e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+            if (failure.get() == null) {
+                try {
+                    call(writer);
+                } catch (Exception e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        } finally {
+            try {
+                writer.close();
+            } catch (SQLException e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+        return null;
+    }
+
+    private void call(WriterCallable writer) throws Exception {
+        SQLException e = writer.call();
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * Commit or roll back the transactions of all threads
+     *
+     * @param commit true to commit, false to roll back
+     * @throws SQLException the first error that happened
+     */
+    private void endTransactions(boolean commit) throws SQLException {
+        SQLException exception = null;
+        for (PreparedStatement statement : statements) {
+            try {
+                Connection connection = statement.getConnection();
+                if (connection.getAutoCommit()) {
+                    continue;
+                }
+                if (commit) {
+                    connection.commit();
+                } else {
+                    LOG.debug("Rolling back transaction on connection {}", connection);
+                    connection.rollback();
+                }
+            } catch (SQLException e) {
+                if (exception == null) {
+                    exception = e;
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private void closeStatements() {
+        for (PreparedStatement statement : statements) {
+            try {
+                JdbcBasePlugin.closeStatementAndConnection(statement);
+            } catch (SQLException e) {
+                LOG.warn("Failed to close a writer statement", e);
+            }
+        }
+        statements.clear();
+    }
+}
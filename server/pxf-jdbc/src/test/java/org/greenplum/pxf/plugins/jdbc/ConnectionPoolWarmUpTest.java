@@ -0,0 +1,91 @@
+package org.greenplum.pxf.plugins.jdbc;
+
+import org.apache.commons.io.FileUtils;
+import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConnectionPoolWarmUpTest {
+
+    @Rule
+    public TemporaryFolder serversFolder = new TemporaryFolder();
+
+    private ConnectionManager mockConnectionManager;
+
+    @Before
+    public void setup() {
+        mockConnectionManager = mock(ConnectionManager.class);
+    }
+
+    @Test
+    public void testPoolsOfEnabledServersAreWarmedUp() throws Exception {
+        createServer("pg", "test-url", true);
+        createServer("mysql", "test-url-2", false);
+        serversFolder.newFolder("hdfs");
+
+        new ConnectionPoolWarmUp(serversFolder.getRoot(), mockConnectionManager).run();
+
+        verify(mockConnectionManager).warmUpPool(eq("pg"), eq("test-url"), anyObject(), anyObject(), anyString());
+        verify(mockConnectionManager, times(1)).warmUpPool(anyString(), anyString(), anyObject(), anyObject(), anyString());
+    }
+
+    @Test
+    public void testFailingServerDoesNotStopWarmUp() throws Exception {
+        createServer("a", "test-url", true);
+        createServer("b", "test-url-2", true);
+        when(mockConnectionManager.warmUpPool(eq("a"), anyString(), anyObject(), anyObject(), anyString()))
+                .thenThrow(new SQLException("connection refused"));
+
+        new ConnectionPoolWarmUp(serversFolder.getRoot(), mockConnectionManager).run();
+
+        verify(mockConnectionManager).warmUpPool(eq("b"), eq("test-url-2"), anyObject(), anyObject(), anyString());
+    }
+
+    @Test
+    public void testServersDependingOnGreenplumUserAreSkipped() throws Exception {
+        createServer("impersonated", "test-url", true, "pxf.service.user.impersonation", "true");
+        createServer("session-user", "test-url", true, "jdbc.user", "${pxf.session.user}");
+
+        new ConnectionPoolWarmUp(serversFolder.getRoot(), mockConnectionManager).run();
+
+        verify(mockConnectionManager, never()).warmUpPool(anyString(), anyString(), anyObject(), anyObject(), anyString());
+    }
+
+    @Test
+    public void testMissingServersDirectory() {
+        new ConnectionPoolWarmUp(new File(serversFolder.getRoot(), "missing"), mockConnectionManager).run();
+    }
+
+    private void createServer(String name, String url, boolean warmUp, String... extraProperties) throws IOException {
+        File directory = serversFolder.newFolder(name);
+        Properties properties = new Properties();
+        properties.setProperty("jdbc.driver", "org.greenplum.pxf.plugins.jdbc.FakeJdbcDriver");
+        properties.setProperty("jdbc.url", url);
+        properties.setProperty("jdbc.pool.warmUp", String.valueOf(warmUp));
+        for (int i = 0; i < extraProperties.length; i += 2) {
+            properties.setProperty(extraProperties[i], extraProperties[i + 1]);
+        }
+
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?>\n<configuration>\n");
+        properties.forEach((key, value) -> xml.append("    <property><name>").append(key)
+                .append("</name><value>").append(value).append("</value></property>\n"));
+        xml.append("</configuration>\n");
+        FileUtils.writeStringToFile(new File(directory, "jdbc-site.xml"), xml.toString());
+    }
+}
@@ -1,7 +1,11 @@
 package org.greenplum.pxf.plugins.jdbc;
 
 import org.apache.commons.lang.SerializationUtils;
+import org.greenplum.pxf.api.AggregateResult;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
 import org.greenplum.pxf.plugins.jdbc.partitioning.PartitionType;
 import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
 import org.junit.Before;
@@ -14,6 +18,7 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.io.File;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
@@ -23,9 +28,18 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -64,6 +78,7 @@ public class JdbcAccessorTest {
         when(mockConnectionManager.getConnection(anyString(), anyString(), anyObject(), anyBoolean(), anyObject(), anyString())).thenReturn(mockConnection);
         when(mockConnection.getMetaData()).thenReturn(mockMetaData);
         when(mockConnection.createStatement()).thenReturn(mockStatement);
+        when(mockStatement.getConnection()).thenReturn(mockConnection);
         when(mockMetaData.getDatabaseProductName()).thenReturn("Greenplum");
         when(mockMetaData.getExtraNameCharacters()).thenReturn("");
     }
@@ -244,4 +259,119 @@ public class JdbcAccessorTest {
                 "GROUP BY dept.name) pxfsubquery WHERE count >= 1 AND count < 2";
         assertEquals(expected, queryPassed.getValue());
     }
+
+    @Test
+    public void testDefaultFetchSizeIsNotAdapted() throws Exception {
+        when(mockStatement.executeQuery(anyString())).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+
+        accessor.initialize(context);
+        accessor.openForRead();
+        for (int i = 0; i < 200; i++) {
+            accessor.readNextObject();
+        }
+
+        verify(mockStatement).setFetchSize(1000);
+        verify(mockResultSet, never()).setFetchSize(anyInt());
+    }
+
+    @Test
+    public void testFetchSizeIsAdaptedToRowWidth() throws Exception {
+        context.getAdditionalConfigProps().put("jdbc.statement.fetchBytes", "4194304");
+        context.getTupleDescription().add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 0, "text", null));
+        when(mockStatement.executeQuery(anyString())).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getString(1)).thenReturn(new String(new char[1000]));
+
+        accessor.initialize(context);
+        accessor.openForRead();
+        verify(mockStatement).setFetchSize(100);
+
+        for (int i = 0; i < 100; i++) {
+            // the values of the measured rows are read once and passed to the resolver
+            assertTrue(accessor.readNextObject().getData() instanceof Object[]);
+        }
+        verify(mockResultSet, times(100)).getString(1);
+        // 4 MB are fetched in rows of 2016 bytes
+        verify(mockResultSet).setFetchSize(2080);
+        assertTrue(accessor.readNextObject().getData() instanceof ResultSet);
+    }
+
+    @Test
+    public void testFetchSizeSetByUserIsNotAdapted() throws Exception {
+        context.getAdditionalConfigProps().put("jdbc.statement.fetchSize", "500");
+        when(mockStatement.executeQuery(anyString())).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+
+        accessor.initialize(context);
+        accessor.openForRead();
+        for (int i = 0; i < 200; i++) {
+            accessor.readNextObject();
+        }
+
+        verify(mockStatement).setFetchSize(500);
+        verify(mockResultSet, never()).setFetchSize(anyInt());
+    }
+
+    @Test
+    public void testCountIsComputedByExternalDatabase() throws Exception {
+        addColumn("id", DataType.INTEGER, true);
+        addColumn("name", DataType.TEXT, false);
+        setAggregate(EnumAggregationType.COUNT, 0);
+        when(mockStatement.executeQuery("SELECT COUNT(*) FROM test-table")).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getLong(1)).thenReturn(3000000000L);
+
+        accessor.initialize(context);
+        accessor.openForRead();
+        accessor.retrieveStats();
+
+        AggregateResult result = accessor.getAggregateResult();
+        assertNotNull(result);
+        assertEquals(3000000000L, result.getRowCount());
+        verify(mockStatement, never()).executeQuery(startsWith("SELECT id"));
+    }
+
+    @Test
+    public void testSumOverflowIsComputedByGreenplum() throws Exception {
+        addColumn("id", DataType.INTEGER, true);
+        setAggregate(EnumAggregationType.SUM, 1);
+        ResultSet mockRowsResultSet = mock(ResultSet.class);
+        when(mockStatement.executeQuery("SELECT SUM(id) FROM test-table")).thenReturn(mockResultSet);
+        when(mockStatement.executeQuery("SELECT id FROM test-table")).thenReturn(mockRowsResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getObject(1)).thenReturn(new BigDecimal("3000000000"));
+
+        accessor.initialize(context);
+        accessor.openForRead();
+        accessor.retrieveStats();
+
+        assertNull(accessor.getAggregateResult());
+        assertNull(accessor.emitAggObject());
+    }
+
+    @Test
+    public void testMinOfTextIsComputedByGreenplum() throws Exception {
+        addColumn("name", DataType.TEXT, true);
+        setAggregate(EnumAggregationType.MIN, 1);
+        when(mockStatement.executeQuery("SELECT name FROM test-table")).thenReturn(mockResultSet);
+
+        accessor.initialize(context);
+        accessor.openForRead();
+        accessor.retrieveStats();
+
+        assertNull(accessor.getAggregateResult());
+        verify(mockStatement, never()).executeQuery("SELECT MIN(name) FROM test-table");
+    }
+
+    private void setAggregate(EnumAggregationType aggType, int numAttrsProjected) {
+        context.setAccessor(JdbcAccessor.class.getName());
+        context.setAggType(aggType);
+        context.setNumAttrsProjected(numAttrsProjected);
+    }
+
+    private void addColumn(String name, DataType type, boolean projected) {
+        int index = context.getTupleDescription().size();
+        context.getTupleDescription().add(new ColumnDescriptor(name, type.getOID(), index, type.toString(), null, projected));
+    }
 }
@@ -38,7 +38,9 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Mockito.anyInt;
@@ -514,4 +516,55 @@ public class JdbcBasePluginTest {
 
         verify(mockConnectionManager).getConnection("test-server", "test-url", connProps, false, null, null);
     }
+
+    @Test
+    public void testWarmUpConnectionPool() throws Exception {
+        context.setServerName("test-server");
+        additionalProps.put("jdbc.driver", "org.greenplum.pxf.plugins.jdbc.FakeJdbcDriver");
+        additionalProps.put("jdbc.url", "test-url");
+        additionalProps.put("jdbc.user", "foo");
+        additionalProps.put("jdbc.pool.warmUp", "true");
+
+        JdbcBasePlugin plugin = new JdbcBasePlugin(mockConnectionManager);
+        plugin.initialize(context);
+        assertTrue(plugin.warmUpConnectionPool());
+
+        Properties connProps = new Properties();
+        connProps.setProperty("user", "foo");
+        verify(mockConnectionManager).warmUpPool("test-server", "test-url", connProps, poolProps, null);
+    }
+
+    @Test
+    public void testWarmUpConnectionPoolIsDisabledByDefault() throws Exception {
+        context.setServerName("test-server");
+        additionalProps.put("jdbc.driver", "org.greenplum.pxf.plugins.jdbc.FakeJdbcDriver");
+        additionalProps.put("jdbc.url", "test-url");
+
+        JdbcBasePlugin plugin = new JdbcBasePlugin(mockConnectionManager);
+        plugin.initialize(context);
+        assertFalse(plugin.warmUpConnectionPool());
+
+        verify(mockConnectionManager, never()).warmUpPool(anyString(), anyString(), anyObject(), anyObject(), anyString());
+    }
+
+    @Test
+    public void testWarmUpConnectionPoolDependingOnGreenplumUser() throws Exception {
+        context.setServerName("test-server");
+        additionalProps.put("jdbc.driver", "org.greenplum.pxf.plugins.jdbc.FakeJdbcDriver");
+        additionalProps.put("jdbc.url", "test-url");
+        additionalProps.put("jdbc.pool.warmUp", "true");
+        additionalProps.put("jdbc.pool.qualifier", "${pxf.session.user}");
+
+        JdbcBasePlugin plugin = new JdbcBasePlugin(mockConnectionManager);
+        plugin.initialize(context);
+        assertFalse(plugin.warmUpConnectionPool());
+
+        additionalProps.remove("jdbc.pool.qualifier");
+        additionalProps.put("pxf.service.user.impersonation", "true");
+        plugin = new JdbcBasePlugin(mockConnectionManager);
+        plugin.initialize(context);
+        assertFalse(plugin.warmUpConnectionPool());
+
+        verify(mockConnectionManager, never()).warmUpPool(anyString(), anyString(), anyObject(), anyObject(), anyString());
+    }
 }
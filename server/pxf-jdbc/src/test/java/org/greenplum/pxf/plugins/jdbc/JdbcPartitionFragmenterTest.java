@@ -19,16 +19,38 @@ package org.greenplum.pxf.plugins.jdbc;
  * under the License.
  */
 
+import org.apache.commons.lang.SerializationUtils;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.jdbc.partitioning.JdbcFragmentMetadata;
+import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class JdbcPartitionFragmenterTest {
     @Rule
@@ -69,4 +91,203 @@ public class JdbcPartitionFragmenterTest {
         context.addOption("PARTITION_BY", "level-enum");
         new JdbcPartitionFragmenter().initialize(context);
     }
+
+    @Test
+    public void testAutoPartitionOfPostgresTable() throws Exception {
+        context.addOption("PARTITION_BY", "auto");
+        context.setTotalSegments(3);
+        Connection connection = mockConnection("PostgreSQL");
+        mockServerVersion(connection, 140000);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(30L);
+
+        List<Fragment> fragments = getFragments(connection);
+
+        assertEquals(3, fragments.size());
+        assertEquals("ctid >= '(10,0)'::tid AND ctid < '(20,0)'::tid", getConstraint(fragments.get(1)));
+        verify(connection).close();
+    }
+
+    @Test
+    public void testAutoPartitionOfMysqlTableUsesIntColumn() throws Exception {
+        context.addOption("PARTITION_BY", "auto");
+        context.addOption("PARTITIONS", "2");
+        context.getTupleDescription().add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 0, "text", null));
+        context.getTupleDescription().add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 1, "int4", null));
+        Connection connection = mockConnection("MySQL");
+        ResultSet resultSet = mockMinMaxQuery(connection, "SELECT MIN(id), MAX(id) FROM table");
+        when(resultSet.getLong(1)).thenReturn(0L);
+        when(resultSet.getLong(2)).thenReturn(9L);
+
+        List<Fragment> fragments = getFragments(connection);
+
+        // 2 ranges, values out of the range and NULL values
+        assertEquals(5, fragments.size());
+        assertEquals("id >= 0 AND id < 5", getConstraint(fragments.get(2)));
+        assertEquals("id >= 5 AND id < 10", getConstraint(fragments.get(3)));
+        verify(connection, never()).prepareStatement(anyString());
+    }
+
+    @Test
+    public void testAutoPartitionFallsBackToColumnRangeWhenTableSizeCannotBeRead() throws Exception {
+        context.addOption("PARTITION_BY", "auto");
+        context.addOption("PARTITIONS", "2");
+        context.getTupleDescription().add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        Connection connection = mockConnection("PostgreSQL");
+        mockServerVersion(connection, 140000);
+        when(connection.prepareStatement(anyString())).thenThrow(new SQLException("permission denied for function pg_relation_size"));
+        ResultSet resultSet = mockMinMaxQuery(connection, "SELECT MIN(id), MAX(id) FROM table");
+        when(resultSet.getLong(1)).thenReturn(0L);
+        when(resultSet.getLong(2)).thenReturn(9L);
+
+        List<Fragment> fragments = getFragments(connection);
+
+        assertEquals(5, fragments.size());
+        assertEquals("id >= 0 AND id < 5", getConstraint(fragments.get(2)));
+        // the aborted transaction is rolled back before the range is read
+        verify(connection).rollback();
+        verify(connection).close();
+    }
+
+    @Test
+    public void testAutoPartitionOfPostgresBefore14UsesIntColumn() throws Exception {
+        context.addOption("PARTITION_BY", "auto");
+        context.addOption("PARTITIONS", "2");
+        context.getTupleDescription().add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        Connection connection = mockConnection("PostgreSQL");
+        mockServerVersion(connection, 130004);
+        ResultSet resultSet = mockMinMaxQuery(connection, "SELECT MIN(id), MAX(id) FROM table");
+        when(resultSet.getLong(1)).thenReturn(0L);
+        when(resultSet.getLong(2)).thenReturn(9L);
+
+        List<Fragment> fragments = getFragments(connection);
+
+        // a range of ctid would be read with a full scan of the table
+        assertEquals(5, fragments.size());
+        assertEquals("id >= 0 AND id < 5", getConstraint(fragments.get(2)));
+        verify(connection, never()).prepareStatement(anyString());
+        verify(connection).close();
+    }
+
+    @Test
+    public void testAutoPartitionFallsBackToSingleFragmentWhenRangeCannotBeRead() throws Exception {
+        context.addOption("PARTITION_BY", "auto");
+        context.getTupleDescription().add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        Connection connection = mockConnection("MySQL");
+        Statement statement = mock(Statement.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenThrow(new SQLException("SELECT command denied"));
+
+        List<Fragment> fragments = getFragments(connection);
+
+        assertEquals(1, fragments.size());
+        assertNull(fragments.get(0).getMetadata());
+        verify(connection).close();
+    }
+
+    @Test
+    public void testAutoPartitionWithoutSuitableColumn() throws Exception {
+        context.addOption("PARTITION_BY", "auto");
+        context.getTupleDescription().add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 0, "text", null));
+        Connection connection = mockConnection("MySQL");
+
+        List<Fragment> fragments = getFragments(connection);
+
+        assertEquals(1, fragments.size());
+        assertNull(fragments.get(0).getMetadata());
+    }
+
+    @Test
+    public void testIntPartitionWithoutRangeReadsRange() throws Exception {
+        context.addOption("PARTITION_BY", "id:int");
+        context.addOption("INTERVAL", "3");
+        Connection connection = mockConnection("PostgreSQL");
+        ResultSet resultSet = mockMinMaxQuery(connection, "SELECT MIN(id), MAX(id) FROM table");
+        when(resultSet.getLong(1)).thenReturn(1L);
+        when(resultSet.getLong(2)).thenReturn(4L);
+
+        List<Fragment> fragments = getFragments(connection);
+
+        assertEquals(5, fragments.size());
+        assertEquals("id >= 1 AND id < 4", getConstraint(fragments.get(2)));
+        assertEquals("id >= 4 AND id < 5", getConstraint(fragments.get(3)));
+    }
+
+    @Test
+    public void testAutoPartitionOfEmptyTable() throws Exception {
+        context.addOption("PARTITION_BY", "id:date");
+        Connection connection = mockConnection("PostgreSQL");
+        ResultSet resultSet = mockMinMaxQuery(connection, "SELECT MIN(id), MAX(id) FROM table");
+        when(resultSet.getDate(1)).thenReturn(null);
+
+        List<Fragment> fragments = getFragments(connection);
+
+        assertEquals(1, fragments.size());
+    }
+
+    @Test
+    public void testPartitionCountInvalid() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Property PARTITIONS has incorrect value -1 : must be a non-negative integer");
+
+        context.addOption("PARTITION_BY", "auto");
+        context.addOption("PARTITIONS", "-1");
+        new JdbcPartitionFragmenter().initialize(context);
+    }
+
+    private List<Fragment> getFragments(Connection connection) throws Exception {
+        Map<String, String> additionalProps = new HashMap<>();
+        additionalProps.put("jdbc.driver", "org.greenplum.pxf.plugins.jdbc.FakeJdbcDriver");
+        additionalProps.put("jdbc.url", "test-url");
+        context.setAdditionalConfigProps(additionalProps);
+
+        ConnectionManager connectionManager = mock(ConnectionManager.class);
+        when(connectionManager.getConnection(anyString(), anyString(), anyObject(), anyBoolean(), anyObject(), anyString())).thenReturn(connection);
+
+        JdbcPartitionFragmenter fragmenter = new JdbcPartitionFragmenter(connectionManager);
+        fragmenter.initialize(context);
+        return fragmenter.getFragments();
+    }
+
+    private Connection mockConnection(String productName) throws Exception {
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn(productName);
+        when(metaData.getExtraNameCharacters()).thenReturn("");
+        return connection;
+    }
+
+    private ResultSet mockMinMaxQuery(Connection connection, String query) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(getStatement(connection).executeQuery(query)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        return resultSet;
+    }
+
+    private void mockServerVersion(Connection connection, int version) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(getStatement(connection).executeQuery("SELECT current_setting('server_version_num')::integer")).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(version);
+    }
+
+    private Statement getStatement(Connection connection) throws Exception {
+        // the statements of a connection are all the same mock
+        Statement statement = connection.createStatement();
+        if (statement == null) {
+            statement = mock(Statement.class);
+            when(connection.createStatement()).thenReturn(statement);
+        }
+        return statement;
+    }
+
+    private String getConstraint(Fragment fragment) {
+        JdbcFragmentMetadata metadata = (JdbcFragmentMetadata) SerializationUtils.deserialize(fragment.getMetadata());
+        return metadata.toSqlConstraint("", DbProduct.POSTGRES);
+    }
 }
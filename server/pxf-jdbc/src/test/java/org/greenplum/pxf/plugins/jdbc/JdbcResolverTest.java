@@ -0,0 +1,193 @@
+package org.greenplum.pxf.plugins.jdbc;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JdbcResolverTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private JdbcResolver resolver;
+    private RequestContext context;
+
+    @Mock
+    private ResultSet mockResultSet;
+    @Mock
+    private PreparedStatement mockStatement;
+
+    @Before
+    public void setup() {
+        resolver = new JdbcResolver();
+        context = new RequestContext();
+        context.setConfig("default");
+        context.setDataSource("test-table");
+        Map<String, String> additionalProps = new HashMap<>();
+        additionalProps.put("jdbc.driver", "org.greenplum.pxf.plugins.jdbc.FakeJdbcDriver");
+        additionalProps.put("jdbc.url", "test-url");
+        context.setAdditionalConfigProps(additionalProps);
+        context.setUser("test-user");
+    }
+
+    @Test
+    public void testProjectedColumnsAreReadByIndex() throws Exception {
+        addColumn("id", DataType.INTEGER, true);
+        addColumn("name", DataType.TEXT, false);
+        addColumn("amount", DataType.FLOAT8, true);
+        addColumn("created", DataType.TEXT, true);
+        resolver.initialize(context);
+
+        when(mockResultSet.getInt(1)).thenReturn(7);
+        when(mockResultSet.getDouble(2)).thenReturn(1.5);
+        when(mockResultSet.getString(3)).thenReturn(null);
+        when(mockResultSet.wasNull()).thenReturn(false, false, true);
+
+        List<OneField> fields = resolver.getFields(new OneRow(mockResultSet));
+
+        assertEquals(4, fields.size());
+        assertEquals(DataType.INTEGER.getOID(), fields.get(0).type);
+        assertEquals(7, fields.get(0).val);
+        assertEquals(DataType.TEXT.getOID(), fields.get(1).type);
+        assertNull(fields.get(1).val);
+        assertEquals(DataType.FLOAT8.getOID(), fields.get(2).type);
+        assertEquals(1.5, fields.get(2).val);
+        assertNull(fields.get(3).val);
+        verify(mockResultSet, never()).getInt(anyString());
+    }
+
+    @Test
+    public void testNullValuesAreResetForEveryRow() throws Exception {
+        addColumn("id", DataType.BIGINT, true);
+        resolver.initialize(context);
+
+        when(mockResultSet.getLong(1)).thenReturn(10L, 0L);
+        when(mockResultSet.wasNull()).thenReturn(false, true);
+
+        assertEquals(10L, resolver.getFields(new OneRow(mockResultSet)).get(0).val);
+        assertNull(resolver.getFields(new OneRow(mockResultSet)).get(0).val);
+    }
+
+    @Test
+    public void testCopiedRowIsResolved() throws Exception {
+        addColumn("id", DataType.INTEGER, true);
+        addColumn("name", DataType.TEXT, false);
+        addColumn("amount", DataType.FLOAT8, true);
+        resolver.initialize(context);
+
+        List<OneField> fields = resolver.getFields(new OneRow(new Object[]{7, null, null}));
+
+        assertEquals(3, fields.size());
+        assertEquals(DataType.INTEGER.getOID(), fields.get(0).type);
+        assertEquals(7, fields.get(0).val);
+        assertNull(fields.get(1).val);
+        assertEquals(DataType.FLOAT8.getOID(), fields.get(2).type);
+        assertNull(fields.get(2).val);
+    }
+
+    @Test
+    public void testUnsupportedType() throws Exception {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("Field type 'TIME' (column");
+
+        addColumn("start", DataType.TIME, true);
+        resolver.initialize(context);
+
+        resolver.getFields(new OneRow(mockResultSet));
+    }
+
+    @Test
+    public void testTextIsParsedForInsert() throws Exception {
+        addColumn("id", DataType.INTEGER, true);
+        addColumn("created", DataType.DATE, true);
+        resolver.initialize(context);
+
+        List<OneField> fields = getTuple(resolver.setFields(createTextRecord("7", "2019-01-01")));
+        assertEquals(DataType.INTEGER.getOID(), fields.get(0).type);
+        assertEquals(7, fields.get(0).val);
+        assertEquals(Date.valueOf("2019-01-01"), fields.get(1).val);
+    }
+
+    @Test
+    public void testTextIsKeptForBulkLoad() throws Exception {
+        context.addOption("BULK_LOAD", "true");
+        addColumn("id", DataType.INTEGER, true);
+        addColumn("created", DataType.DATE, true);
+        resolver.initialize(context);
+
+        OneRow row = resolver.setFields(createTextRecord("7", null));
+        List<OneField> fields = getTuple(row);
+        assertEquals(DataType.INTEGER.getOID(), fields.get(0).type);
+        assertEquals("7", fields.get(0).val);
+        assertEquals(DataType.DATE.getOID(), fields.get(1).type);
+        assertNull(fields.get(1).val);
+
+        // the text is parsed when it is bound to a statement
+        JdbcResolver.decodeOneRowToPreparedStatement(row, mockStatement, 2);
+        verify(mockStatement).setInt(3, 7);
+        verify(mockStatement).setNull(4, Types.DATE);
+    }
+
+    private List<OneField> createTextRecord(String... values) {
+        List<OneField> record = new ArrayList<>();
+        for (String value : values) {
+            record.add(new OneField(DataType.TEXT.getOID(), value));
+        }
+        return record;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OneField> getTuple(OneRow row) {
+        return (List<OneField>) row.getData();
+    }
+
+    private void addColumn(String name, DataType type, boolean projected) {
+        int index = context.getTupleDescription().size();
+        context.getTupleDescription().add(new ColumnDescriptor(name, type.getOID(), index, type.toString(), null, projected));
+    }
+}
@@ -0,0 +1,92 @@
+package org.greenplum.pxf.plugins.jdbc;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelReaderTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testRowsOfAllSubRangesAreRead() throws Exception {
+        List<Integer> values = new ArrayList<>();
+        try (ParallelReader reader = new ParallelReader(Arrays.asList(
+                subRange(0, 100), subRange(100, 200), subRange(200, 300)), 10)) {
+            Object[] row;
+            while ((row = reader.next()) != null) {
+                values.add((Integer) row[0]);
+            }
+            assertNull(reader.next());
+        }
+
+        Collections.sort(values);
+        assertEquals(300, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i, (int) values.get(i));
+        }
+    }
+
+    @Test
+    public void testSQLExceptionOfSubRangeIsThrown() throws Exception {
+        thrown.expect(SQLException.class);
+        thrown.expectMessage("connection reset");
+
+        try (ParallelReader reader = new ParallelReader(Arrays.asList(
+                subRange(0, 10), r -> {
+                    throw new SQLException("connection reset");
+                }), 10)) {
+            while (reader.next() != null) ;
+        }
+    }
+
+    @Test
+    public void testOtherExceptionOfSubRangeIsWrapped() throws Exception {
+        thrown.expect(SQLException.class);
+        thrown.expectMessage("Failed to read a sub-range: bad value");
+
+        try (ParallelReader reader = new ParallelReader(Collections.singletonList(r -> {
+            throw new IllegalStateException("bad value");
+        }), 10)) {
+            reader.next();
+        }
+    }
+
+    @Test
+    public void testCloseStopsSubRanges() throws Exception {
+        CountDownLatch stopped = new CountDownLatch(1);
+        ParallelReader reader = new ParallelReader(Collections.singletonList(r -> {
+            // reads rows until the reader is closed
+            while (r.put(new Object[]{0})) ;
+            stopped.countDown();
+        }), 1);
+
+        reader.next();
+        reader.close();
+
+        assertTrue(stopped.await(10, TimeUnit.SECONDS));
+    }
+
+    private ParallelReader.SubRangeReader subRange(int start, int end) {
+        return reader -> {
+            for (int i = start; i < end; i++) {
+                if (!reader.put(new Object[]{i})) {
+                    return;
+                }
+            }
+        };
+    }
+}
@@ -23,6 +23,7 @@ import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -182,6 +183,52 @@ public class SQLQueryBuilderTest {
         assertEquals(SQL + " WHERE cdate IS NULL", query);
     }
 
+    @Test
+    public void testSubRangesOfDatePartition() throws Exception {
+        context.addOption("PARTITION_BY", "cdate:date");
+        context.addOption("RANGE", "2008-01-01:2008-12-01");
+        context.addOption("INTERVAL", "2:month");
+
+        JdbcPartitionFragmenter fragment = new JdbcPartitionFragmenter();
+        fragment.initialize(context);
+        List<Fragment> fragments = fragment.getFragments();
+
+        context.setFragmentMetadata(fragments.get(2).getMetadata());
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.autoSetQuoteString();
+        List<String> queries = builder.buildSelectQueries(2);
+        assertEquals(2, queries.size());
+        assertEquals(SQL + " WHERE cdate >= DATE('2008-01-01') AND cdate < DATE('2008-01-31')", queries.get(0));
+        assertEquals(SQL + " WHERE cdate >= DATE('2008-01-31') AND cdate < DATE('2008-03-01')", queries.get(1));
+
+        // open ranges are not split
+        context.setFragmentMetadata(fragments.get(0).getMetadata());
+        builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.autoSetQuoteString();
+        queries = builder.buildSelectQueries(2);
+        assertEquals(1, queries.size());
+        assertEquals(SQL + " WHERE cdate < DATE('2008-01-01')", queries.get(0));
+    }
+
+    @Test
+    public void testSubRangesWithLimit() throws Exception {
+        context.addOption("PARTITION_BY", "id:int");
+        context.addOption("RANGE", "1:100");
+        context.addOption("INTERVAL", "50");
+        context.setLimit(10);
+
+        JdbcPartitionFragmenter fragment = new JdbcPartitionFragmenter();
+        fragment.initialize(context);
+        List<Fragment> fragments = fragment.getFragments();
+
+        context.setFragmentMetadata(fragments.get(2).getMetadata());
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.autoSetQuoteString();
+        List<String> queries = builder.buildSelectQueries(4);
+        assertEquals(1, queries.size());
+        assertEquals(builder.buildSelectQuery(), queries.get(0));
+    }
+
     @Test
     public void testFilterAndPartition() throws Exception {
         // id > 5
@@ -516,4 +563,76 @@ public class SQLQueryBuilderTest {
         assertEquals("SELECT id, cdate, amt, grade, b FROM sales WHERE NOT (b)", builder.buildSelectQuery());
     }
 
+    @Test
+    public void testMultiRowInsertQuery() throws Exception {
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.autoSetQuoteString();
+
+        assertEquals("INSERT INTO sales(id, cdate, amt, grade, b) VALUES (?, ?, ?, ?, ?)", builder.buildInsertQuery());
+        assertEquals("INSERT INTO sales(id, cdate, amt, grade, b) VALUES (?, ?, ?, ?, ?), (?, ?, ?, ?, ?)", builder.buildInsertQuery(2));
+    }
+
+    @Test
+    public void testCopyQuery() throws Exception {
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.forceSetQuoteString();
+
+        assertEquals("COPY sales(\"id\", \"cdate\", \"amt\", \"grade\", \"b\") FROM STDIN CSV", builder.buildCopyQuery());
+    }
+
+    @Test
+    public void testLimit() throws Exception {
+        context.setLimit(10);
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.autoSetQuoteString();
+        assertEquals(SQL + " LIMIT 10", builder.buildSelectQuery());
+
+        when(mockMetaData.getDatabaseProductName()).thenReturn("Oracle");
+        builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.autoSetQuoteString();
+        assertEquals("SELECT * FROM (" + SQL + ") WHERE ROWNUM <= 10", builder.buildSelectQuery());
+    }
+
+    @Test
+    public void testLimitIsNotPushedDownWithFilter() throws Exception {
+        // GPDB filters the rows again, a filter that is not pushed down entirely could drop some of them
+        context.setLimit(10);
+        context.setFilterString("a0c20s1d1o5");
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.autoSetQuoteString();
+        assertEquals(SQL + " WHERE id = 1", builder.buildSelectQuery());
+    }
+
+    @Test
+    public void testLimitIsNotPushedDownWithFilterNotSent() throws Exception {
+        // the query has a qual GPDB did not send to PXF, the remote LIMIT would apply before it
+        context.setLimit(10);
+        context.setQueryHasFilter(true);
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.autoSetQuoteString();
+        assertEquals(SQL, builder.buildSelectQuery());
+    }
+
+    @Test
+    public void testAggregateQueries() throws Exception {
+        context.addOption("PARTITION_BY", "id:int");
+        context.addOption("RANGE", "1:10");
+        context.addOption("INTERVAL", "5");
+
+        JdbcPartitionFragmenter fragmenter = new JdbcPartitionFragmenter();
+        fragmenter.initialize(context);
+        // Fragment 2: id >= 1 AND id < 6
+        context.setFragmentMetadata(fragmenter.getFragments().get(2).getMetadata());
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.autoSetQuoteString();
+        assertEquals("SELECT COUNT(*) FROM sales WHERE id >= 1 AND id < 6",
+                builder.buildAggregateQuery(EnumAggregationType.COUNT, null));
+        assertEquals("SELECT MAX(amt) FROM sales WHERE id >= 1 AND id < 6",
+                builder.buildAggregateQuery(EnumAggregationType.MAX, "amt"));
+    }
+
 }
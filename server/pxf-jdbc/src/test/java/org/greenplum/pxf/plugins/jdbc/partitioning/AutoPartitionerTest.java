@@ -0,0 +1,251 @@
+package org.greenplum.pxf.plugins.jdbc.partitioning;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AutoPartitionerTest {
+
+    private static final String MIN_MAX_QUERY = "SELECT MIN(id), MAX(id) FROM foo";
+
+    @Mock
+    private Connection mockConnection;
+    @Mock
+    private PreparedStatement mockPreparedStatement;
+    @Mock
+    private Statement mockStatement;
+    @Mock
+    private ResultSet mockResultSet;
+    @Mock
+    private ResultSet mockVersionResultSet;
+
+    @Test
+    public void testPostgresTableIsSplitByBlocks() throws Exception {
+        mockServerVersion(140005);
+        mockBlockCount(10L);
+
+        List<JdbcFragmentMetadata> partitions = new AutoPartitioner(4)
+                .partitionByRowLocation(mockConnection, DbProduct.POSTGRES, "public.foo");
+
+        verify(mockPreparedStatement).setString(1, "public.foo");
+        assertEquals(4, partitions.size());
+        assertEquals("ctid < '(3,0)'::tid", partitions.get(0).toSqlConstraint("\"", DbProduct.POSTGRES));
+        assertEquals("ctid >= '(3,0)'::tid AND ctid < '(6,0)'::tid", partitions.get(1).toSqlConstraint("\"", DbProduct.POSTGRES));
+        assertEquals("ctid >= '(6,0)'::tid AND ctid < '(9,0)'::tid", partitions.get(2).toSqlConstraint("\"", DbProduct.POSTGRES));
+        assertEquals("ctid >= '(9,0)'::tid", partitions.get(3).toSqlConstraint("\"", DbProduct.POSTGRES));
+    }
+
+    @Test
+    public void testSmallPostgresTableIsNotSplitFurtherThanBlocks() throws Exception {
+        mockServerVersion(150002);
+        mockBlockCount(1L);
+
+        List<JdbcFragmentMetadata> partitions = new AutoPartitioner(4)
+                .partitionByRowLocation(mockConnection, DbProduct.POSTGRES, "foo");
+
+        assertEquals(1, partitions.size());
+        assertEquals("ctid >= '(0,0)'::tid", partitions.get(0).toSqlConstraint("", DbProduct.POSTGRES));
+    }
+
+    @Test
+    public void testPostgresRelationWithoutBlocksIsNotSplitByBlocks() throws Exception {
+        mockServerVersion(140000);
+        mockBlockCount(0L);
+
+        assertNull(new AutoPartitioner(4).partitionByRowLocation(mockConnection, DbProduct.POSTGRES, "foo"));
+    }
+
+    @Test
+    public void testPostgresBeforeTidRangeScanIsNotSplitByBlocks() throws Exception {
+        mockServerVersion(130011);
+        mockBlockCount(10L);
+
+        try {
+            new AutoPartitioner(4).partitionByRowLocation(mockConnection, DbProduct.POSTGRES, "foo");
+            fail("expected an exception");
+        } catch (SQLFeatureNotSupportedException e) {
+            assertEquals("Splitting a table by ctid requires PostgreSQL 14 or later, but server_version_num is 130011", e.getMessage());
+        }
+        verify(mockConnection, never()).prepareStatement(anyString());
+    }
+
+    @Test
+    public void testOracleTableIsSplitByRowidRanges() throws Exception {
+        mockExtents(new String[]{"AAAR3sAAEAAAACAAAA", "AAAR3sAAEAAAACIAAA", "AAAR3sAAEAAAACQAAA", "AAAR3sAAEAAAACYAAA", "AAAR3sAAFAAAAAIAAA"},
+                new long[]{8L, 8L, 8L, 8L, 8L});
+
+        List<JdbcFragmentMetadata> partitions = new AutoPartitioner(3)
+                .partitionByRowLocation(mockConnection, DbProduct.ORACLE, "scott.\"Foo\"");
+
+        verify(mockPreparedStatement).setString(1, "SCOTT");
+        verify(mockPreparedStatement).setString(2, "Foo");
+        assertEquals(3, partitions.size());
+        assertEquals("ROWID < CHARTOROWID('AAAR3sAAEAAAACQAAA')", partitions.get(0).toSqlConstraint("\"", DbProduct.ORACLE));
+        assertEquals("ROWID >= CHARTOROWID('AAAR3sAAEAAAACQAAA') AND ROWID < CHARTOROWID('AAAR3sAAFAAAAAIAAA')",
+                partitions.get(1).toSqlConstraint("\"", DbProduct.ORACLE));
+        assertEquals("ROWID >= CHARTOROWID('AAAR3sAAFAAAAAIAAA')", partitions.get(2).toSqlConstraint("\"", DbProduct.ORACLE));
+    }
+
+    @Test
+    public void testOracleTableOfOneExtentIsNotSplitByRowidRanges() throws Exception {
+        mockExtents(new String[]{"AAAR3sAAEAAAACAAAA"}, new long[]{8L});
+
+        assertNull(new AutoPartitioner(3).partitionByRowLocation(mockConnection, DbProduct.ORACLE, "foo"));
+    }
+
+    @Test
+    public void testOracleViewIsNotSplitByRowidRanges() throws Exception {
+        mockExtents(new String[0], new long[0]);
+
+        assertNull(new AutoPartitioner(3).partitionByRowLocation(mockConnection, DbProduct.ORACLE, "foo_view"));
+        verify(mockPreparedStatement).setString(1, null);
+        verify(mockPreparedStatement).setString(2, "FOO_VIEW");
+    }
+
+    @Test
+    public void testMysqlTableIsNotSplitByRowLocation() throws Exception {
+        assertNull(new AutoPartitioner(3).partitionByRowLocation(mockConnection, DbProduct.MYSQL, "foo"));
+    }
+
+    @Test
+    public void testIntRange() throws Exception {
+        mockMinMaxQuery();
+        when(mockResultSet.getLong(1)).thenReturn(1L);
+        when(mockResultSet.getLong(2)).thenReturn(100L);
+
+        List<JdbcFragmentMetadata> partitions = new AutoPartitioner(4)
+                .partitionByRange(mockConnection, MIN_MAX_QUERY, "id", PartitionType.INT, null);
+
+        // the 4 requested partitions, values out of the range and NULL values
+        assertEquals(7, partitions.size());
+        assertArrayEquals(new Long[]{null, 1L}, ((IntPartition) partitions.get(0)).getBoundaries());
+        assertArrayEquals(new Long[]{101L, null}, ((IntPartition) partitions.get(1)).getBoundaries());
+        assertArrayEquals(new Long[]{1L, 26L}, ((IntPartition) partitions.get(2)).getBoundaries());
+        assertArrayEquals(new Long[]{76L, 101L}, ((IntPartition) partitions.get(5)).getBoundaries());
+        assertTrue(partitions.get(6) instanceof NullPartition);
+    }
+
+    @Test
+    public void testIntRangeWithUserInterval() throws Exception {
+        mockMinMaxQuery();
+        when(mockResultSet.getLong(1)).thenReturn(0L);
+        when(mockResultSet.getLong(2)).thenReturn(9L);
+
+        List<JdbcFragmentMetadata> partitions = new AutoPartitioner(4)
+                .partitionByRange(mockConnection, MIN_MAX_QUERY, "id", PartitionType.INT, "5");
+
+        assertEquals(5, partitions.size());
+        assertArrayEquals(new Long[]{0L, 5L}, ((IntPartition) partitions.get(2)).getBoundaries());
+        assertArrayEquals(new Long[]{5L, 10L}, ((IntPartition) partitions.get(3)).getBoundaries());
+    }
+
+    @Test
+    public void testDateRange() throws Exception {
+        mockMinMaxQuery();
+        when(mockResultSet.getDate(1)).thenReturn(Date.valueOf("2020-01-01"));
+        when(mockResultSet.getDate(2)).thenReturn(Date.valueOf("2020-01-10"));
+
+        List<JdbcFragmentMetadata> partitions = new AutoPartitioner(2)
+                .partitionByRange(mockConnection, MIN_MAX_QUERY, "dt", PartitionType.DATE, null);
+
+        assertEquals(5, partitions.size());
+        assertEquals("dt >= date'2020-01-01' AND dt < date'2020-01-06'", partitions.get(2).toSqlConstraint("", DbProduct.POSTGRES));
+        assertEquals("dt >= date'2020-01-06' AND dt < date'2020-01-11'", partitions.get(3).toSqlConstraint("", DbProduct.POSTGRES));
+    }
+
+    @Test
+    public void testColumnWithoutValuesIsNotSplit() throws Exception {
+        mockMinMaxQuery();
+        when(mockResultSet.wasNull()).thenReturn(true);
+
+        assertNull(new AutoPartitioner(4).partitionByRange(mockConnection, MIN_MAX_QUERY, "id", PartitionType.INT, null));
+    }
+
+    @Test
+    public void testPickColumn() {
+        ColumnDescriptor name = new ColumnDescriptor("name", DataType.TEXT.getOID(), 0, "text", null);
+        ColumnDescriptor created = new ColumnDescriptor("created", DataType.DATE.getOID(), 1, "date", null);
+        ColumnDescriptor id = new ColumnDescriptor("id", DataType.BIGINT.getOID(), 2, "int8", null);
+
+        assertEquals(id, AutoPartitioner.pickColumn(Arrays.asList(name, created, id)));
+        assertEquals(created, AutoPartitioner.pickColumn(Arrays.asList(name, created)));
+        assertNull(AutoPartitioner.pickColumn(Arrays.asList(name)));
+    }
+
+    private void mockBlockCount(long blockCount) throws Exception {
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getLong(1)).thenReturn(blockCount);
+    }
+
+    private void mockServerVersion(int version) throws Exception {
+        when(mockConnection.createStatement()).thenReturn(mockStatement);
+        when(mockStatement.executeQuery("SELECT current_setting('server_version_num')::integer")).thenReturn(mockVersionResultSet);
+        when(mockVersionResultSet.next()).thenReturn(true);
+        when(mockVersionResultSet.getInt(1)).thenReturn(version);
+    }
+
+    private void mockExtents(String[] rowids, long[] blocks) throws Exception {
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        Boolean[] next = new Boolean[rowids.length + 1];
+        Arrays.fill(next, true);
+        next[rowids.length] = false;
+        when(mockResultSet.next()).thenReturn(next[0], Arrays.copyOfRange(next, 1, next.length));
+        if (rowids.length > 0) {
+            when(mockResultSet.getString(1)).thenReturn(rowids[0], Arrays.copyOfRange(rowids, 1, rowids.length));
+            Long[] boxedBlocks = Arrays.stream(blocks).boxed().toArray(Long[]::new);
+            when(mockResultSet.getLong(2)).thenReturn(boxedBlocks[0], Arrays.copyOfRange(boxedBlocks, 1, boxedBlocks.length));
+        }
+    }
+
+    private void mockMinMaxQuery() throws Exception {
+        when(mockConnection.createStatement()).thenReturn(mockStatement);
+        when(mockStatement.executeQuery(MIN_MAX_QUERY)).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+    }
+}
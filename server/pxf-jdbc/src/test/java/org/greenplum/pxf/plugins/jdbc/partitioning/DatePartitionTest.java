@@ -25,6 +25,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 
@@ -122,4 +123,28 @@ public class DatePartitionTest {
 
         partition.toSqlConstraint(COL, null);
     }
+
+    @Test
+    public void testSplit() {
+        DatePartition partition = new DatePartition(COL_RAW, LocalDate.parse("2000-01-01"), LocalDate.parse("2000-02-01"));
+        List<JdbcFragmentMetadata> subRanges = partition.split(2);
+
+        assertEquals(2, subRanges.size());
+        assertEquals(
+                COL + " >= date'2000-01-01' AND " + COL + " < date'2000-01-17'",
+                subRanges.get(0).toSqlConstraint(QUOTE, dbProduct)
+        );
+        assertEquals(
+                COL + " >= date'2000-01-17' AND " + COL + " < date'2000-02-01'",
+                subRanges.get(1).toSqlConstraint(QUOTE, dbProduct)
+        );
+    }
+
+    @Test
+    public void testOpenRangeIsNotSplit() {
+        DatePartition partition = new DatePartition(COL_RAW, LocalDate.parse("2000-01-01"), null);
+
+        assertEquals(1, partition.split(4).size());
+    }
+
 }
@@ -24,7 +24,10 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class IntPartitionTest {
     @Rule
@@ -106,4 +109,39 @@ public class IntPartitionTest {
 
         partition.toSqlConstraint(null, dbProduct);
     }
+
+    @Test
+    public void testSplit() {
+        List<JdbcFragmentMetadata> subRanges = new IntPartition(COL_RAW, 0L, 10L).split(3);
+
+        assertEquals(3, subRanges.size());
+        assertEquals(COL + " >= 0 AND " + COL + " < 4", subRanges.get(0).toSqlConstraint(QUOTE, dbProduct));
+        assertEquals(COL + " >= 4 AND " + COL + " < 7", subRanges.get(1).toSqlConstraint(QUOTE, dbProduct));
+        assertEquals(COL + " >= 7 AND " + COL + " < 10", subRanges.get(2).toSqlConstraint(QUOTE, dbProduct));
+    }
+
+    @Test
+    public void testSplitIntoMoreSubRangesThanValues() {
+        List<JdbcFragmentMetadata> subRanges = new IntPartition(COL_RAW, 0L, 2L).split(4);
+
+        assertEquals(2, subRanges.size());
+        assertEquals(COL + " >= 0 AND " + COL + " < 1", subRanges.get(0).toSqlConstraint(QUOTE, dbProduct));
+        assertEquals(COL + " >= 1 AND " + COL + " < 2", subRanges.get(1).toSqlConstraint(QUOTE, dbProduct));
+    }
+
+    @Test
+    public void testSplitHugeRange() {
+        List<JdbcFragmentMetadata> subRanges = new IntPartition(COL_RAW, Long.MIN_VALUE, Long.MAX_VALUE).split(2);
+
+        assertEquals(1, subRanges.size());
+    }
+
+    @Test
+    public void testOpenRangeIsNotSplit() {
+        IntPartition partition = new IntPartition(COL_RAW, null, 10L);
+
+        assertEquals(1, partition.split(4).size());
+        assertSame(partition, partition.split(4).get(0));
+    }
+
 }
@@ -20,12 +20,15 @@ import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -226,6 +229,86 @@ public class ConnectionManagerTest {
         verify(mockDataSource, times(1)).close(); // verify datasource is closed when evicted
     }
 
+    @Test
+    public void testWarmUpPoolOpensIdleConnections() throws SQLException {
+        ConnectionManager.DataSourceFactory mockFactory = mock(ConnectionManager.DataSourceFactory.class);
+        HikariDataSource mockDataSource = mock(HikariDataSource.class);
+        when(mockFactory.createDataSource(anyObject())).thenReturn(mockDataSource);
+        when(mockDataSource.getMinimumIdle()).thenReturn(3);
+        when(mockDataSource.getMaximumPoolSize()).thenReturn(5);
+        when(mockDataSource.getConnection()).thenReturn(mockConnection);
+        manager = new ConnectionManager(mockFactory, new MockTicker(), ConnectionManager.CLEANUP_SLEEP_INTERVAL_NANOS);
+
+        assertEquals(3, manager.warmUpPool("test-server", "test-url", connProps, poolProps, null));
+        verify(mockDataSource, times(3)).getConnection();
+        verify(mockConnection, times(3)).close();
+
+        // the query gets the warmed up pool
+        manager.getConnection("test-server", "test-url", connProps, true, poolProps, null);
+        verify(mockFactory, times(1)).createDataSource(anyObject());
+    }
+
+    @Test
+    public void testWarmUpPoolOpensOneConnectionWithoutIdleConnections() throws SQLException {
+        ConnectionManager.DataSourceFactory mockFactory = mock(ConnectionManager.DataSourceFactory.class);
+        HikariDataSource mockDataSource = mock(HikariDataSource.class);
+        when(mockFactory.createDataSource(anyObject())).thenReturn(mockDataSource);
+        when(mockDataSource.getMinimumIdle()).thenReturn(0);
+        when(mockDataSource.getMaximumPoolSize()).thenReturn(5);
+        when(mockDataSource.getConnection()).thenReturn(mockConnection);
+        manager = new ConnectionManager(mockFactory, new MockTicker(), ConnectionManager.CLEANUP_SLEEP_INTERVAL_NANOS);
+
+        assertEquals(1, manager.warmUpPool("test-server", "test-url", connProps, poolProps, null));
+        verify(mockConnection, times(1)).close();
+    }
+
+    @Test
+    public void testPoolMetrics() throws SQLException {
+        ConnectionManager.DataSourceFactory mockFactory = mock(ConnectionManager.DataSourceFactory.class);
+        HikariDataSource mockDataSource = mock(HikariDataSource.class);
+        when(mockFactory.createDataSource(anyObject())).thenReturn(mockDataSource);
+        when(mockDataSource.getPoolName()).thenReturn("HikariPool-1");
+        when(mockDataSource.getMaximumPoolSize()).thenReturn(5);
+        when(mockDataSource.getConnection())
+                .thenReturn(mockConnection)
+                .thenThrow(new SQLTransientConnectionException("timed out"));
+
+        HikariPoolMXBean mockMBean = mock(HikariPoolMXBean.class);
+        when(mockDataSource.getHikariPoolMXBean()).thenReturn(mockMBean);
+        when(mockMBean.getActiveConnections()).thenReturn(4);
+        when(mockMBean.getIdleConnections()).thenReturn(1);
+        when(mockMBean.getTotalConnections()).thenReturn(5);
+        when(mockMBean.getThreadsAwaitingConnection()).thenReturn(2);
+        manager = new ConnectionManager(mockFactory, new MockTicker(), ConnectionManager.CLEANUP_SLEEP_INTERVAL_NANOS);
+        assertTrue(manager.getPoolMetrics().isEmpty());
+
+        connProps.setProperty("user", "foo");
+        manager.getConnection("test-server", "test-url", connProps, true, poolProps, "bar");
+        try {
+            manager.getConnection("test-server", "test-url", connProps, true, poolProps, "bar");
+        } catch (SQLTransientConnectionException expected) {
+            // the failure is counted
+        }
+
+        List<Map<String, Object>> metrics = manager.getPoolMetrics();
+        assertEquals(1, metrics.size());
+        Map<String, Object> poolMetrics = metrics.get(0);
+        assertEquals("test-server", poolMetrics.get("server"));
+        assertEquals("foo", poolMetrics.get("user"));
+        assertEquals("bar", poolMetrics.get("qualifier"));
+        assertEquals("HikariPool-1", poolMetrics.get("pool"));
+        assertEquals(5, poolMetrics.get("maximumPoolSize"));
+        assertEquals(4, poolMetrics.get("active"));
+        assertEquals(1, poolMetrics.get("idle"));
+        assertEquals(5, poolMetrics.get("total"));
+        assertEquals(2, poolMetrics.get("pending"));
+        assertEquals(1L, poolMetrics.get("acquisitions"));
+        assertEquals(1L, poolMetrics.get("acquisitionFailures"));
+        assertTrue((Double) poolMetrics.get("averageAcquisitionMillis") >= 0);
+        assertEquals(poolMetrics.get("averageAcquisitionMillis"), poolMetrics.get("maxAcquisitionMillis"));
+        assertFalse(poolMetrics.containsKey("password"));
+    }
+
     class MockTicker extends Ticker {
         private final AtomicLong nanos = new AtomicLong();
 
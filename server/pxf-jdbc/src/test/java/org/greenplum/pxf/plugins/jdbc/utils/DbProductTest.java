@@ -19,13 +19,22 @@ package org.greenplum.pxf.plugins.jdbc.utils;
  * under the License.
  */
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class DbProductTest {
     private static final Date[] DATES = new Date[1];
@@ -132,4 +141,34 @@ public class DbProductTest {
             assertEquals(expected[i], dbProduct.wrapDate(DATES[i]));
         }
     }
+
+    @Test
+    public void testPostgresReadsThroughCursor() throws SQLException {
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metadata = mock(DatabaseMetaData.class);
+        Statement statement = mock(Statement.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.getMetaData()).thenReturn(metadata);
+        when(metadata.supportsTransactions()).thenReturn(true);
+
+        assertTrue(DbProduct.POSTGRES.prepareStreamingRead(connection, statement, 100, false));
+        verify(connection).setAutoCommit(false);
+        verify(statement).setFetchSize(100);
+    }
+
+    @Test
+    public void testMySQLStreamsRowByRow() throws SQLException {
+        Statement statement = mock(Statement.class);
+
+        assertFalse(DbProduct.MYSQL.prepareStreamingRead(mock(Connection.class), statement, 100, false));
+        verify(statement).setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Test
+    public void testMySQLKeepsFetchSizeOfUser() throws SQLException {
+        Statement statement = mock(Statement.class);
+
+        assertFalse(DbProduct.MYSQL.prepareStreamingRead(mock(Connection.class), statement, 500, true));
+        verify(statement).setFetchSize(500);
+    }
 }
@@ -0,0 +1,68 @@
+package org.greenplum.pxf.plugins.jdbc.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FetchSizeTunerTest {
+
+    @Test
+    public void testNarrowRowsAreFetchedInLargeBatches() {
+        FetchSizeTuner tuner = new FetchSizeTuner(1024 * 1024);
+        assertEquals(FetchSizeTuner.SAMPLE_ROWS, tuner.getInitialFetchSize());
+        sampleRows(tuner, new Object[]{1, "abc"});
+
+        // 16 + 8 bytes for the integer, 16 + 6 bytes for the text
+        assertEquals(1024 * 1024 / 46, tuner.getFetchSize());
+    }
+
+    @Test
+    public void testFetchSizeIsLimited() {
+        Object[] row = new Object[]{new byte[1024 * 1024]};
+
+        FetchSizeTuner tuner = new FetchSizeTuner(1024 * 1024);
+        sampleRows(tuner, row);
+        assertEquals(FetchSizeTuner.MIN_FETCH_SIZE, tuner.getFetchSize());
+
+        tuner = new FetchSizeTuner(Long.MAX_VALUE);
+        sampleRows(tuner, row);
+        assertEquals(FetchSizeTuner.MAX_FETCH_SIZE, tuner.getFetchSize());
+    }
+
+    @Test
+    public void testNullAndNonProjectedValues() {
+        FetchSizeTuner tuner = new FetchSizeTuner(1024);
+        sampleRows(tuner, new Object[]{null, null});
+
+        // only the overhead of the values is counted
+        assertEquals(1024 / 32, tuner.getFetchSize());
+    }
+
+    private void sampleRows(FetchSizeTuner tuner, Object[] row) {
+        for (int i = 1; i < FetchSizeTuner.SAMPLE_ROWS; i++) {
+            assertFalse(tuner.sample(row));
+        }
+        assertTrue(tuner.sample(row));
+    }
+}
@@ -0,0 +1,164 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BulkLoadWriterCallableTest {
+
+    private static final String QUERY = "INSERT INTO foo(id, name) VALUES (?, ?)";
+    private static final String MULTI_ROW_QUERY = "INSERT INTO foo(id, name) VALUES (?, ?), (?, ?)";
+
+    @Mock
+    private JdbcBasePlugin mockPlugin;
+    @Mock
+    private Connection mockConnection;
+    @Mock
+    private PreparedStatement mockStatement;
+    @Mock
+    private PreparedStatement mockInsertStatement;
+
+    @Before
+    public void setup() throws SQLException {
+        when(mockStatement.getConnection()).thenReturn(mockConnection);
+        when(mockPlugin.getPreparedStatement(mockConnection, MULTI_ROW_QUERY)).thenReturn(mockInsertStatement);
+    }
+
+    @Test
+    public void testCsvEncoding() {
+        StringBuilder sb = new StringBuilder();
+        CopyWriterCallable.appendRow(sb, new OneRow(Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), 1),
+                new OneField(DataType.TEXT.getOID(), "say \"hi\",\nbye"),
+                new OneField(DataType.TEXT.getOID(), null),
+                new OneField(DataType.TEXT.getOID(), ""),
+                new OneField(DataType.BYTEA.getOID(), new byte[]{0, 'a', (byte) 255}),
+                new OneField(DataType.DATE.getOID(), "2019-01-01"))));
+
+        assertEquals("\"1\",\"say \"\"hi\"\",\nbye\",,\"\",\"\\000\\141\\377\",\"2019-01-01\"\n", sb.toString());
+    }
+
+    @Test
+    public void testFactoryChoosesBulkLoadWriter() {
+        WriterCallableFactory factory = new WriterCallableFactory(mockPlugin, QUERY, mockStatement, 100, 1);
+        assertTrue(factory.get() instanceof BatchWriterCallable);
+
+        factory.setMultiRowInsert(this::buildInsertQuery, 2);
+        assertTrue(factory.get() instanceof MultiRowInsertWriterCallable);
+
+        factory.setCopyQuery("COPY foo(id, name) FROM STDIN CSV");
+        assertTrue(factory.get() instanceof CopyWriterCallable);
+    }
+
+    @Test
+    public void testFactoryFallsBackWhenMultiRowInsertIsNotSupported() {
+        WriterCallableFactory factory = new WriterCallableFactory(mockPlugin, QUERY, mockStatement, 100, 1);
+        factory.setMultiRowInsert(this::buildInsertQuery, 1);
+
+        assertTrue(factory.get() instanceof BatchWriterCallable);
+    }
+
+    @Test
+    public void testMultiRowInsert() throws Exception {
+        when(mockInsertStatement.executeUpdate()).thenReturn(2);
+        WriterCallable writer = new MultiRowInsertWriterCallable(mockPlugin, this::buildInsertQuery, mockStatement, 2);
+
+        writer.supply(createRow(1, "a"));
+        assertFalse(writer.isCallRequired());
+        writer.supply(createRow(2, "b"));
+        assertTrue(writer.isCallRequired());
+        assertNull(writer.call());
+
+        // the parameters of the second row follow the parameters of the first row
+        verify(mockInsertStatement).setInt(1, 1);
+        verify(mockInsertStatement).setString(2, "a");
+        verify(mockInsertStatement).setInt(3, 2);
+        verify(mockInsertStatement).setString(4, "b");
+        verify(mockInsertStatement, times(1)).executeUpdate();
+        // the connection of the given statement is kept open
+        verify(mockConnection, never()).close();
+        verify(mockPlugin, never()).getConnection();
+
+        // the statement of the full batch is reused until the writer is closed
+        verify(mockInsertStatement, never()).close();
+        writer.close();
+        verify(mockInsertStatement).close();
+    }
+
+    @Test
+    public void testMultiRowInsertReusesStatement() throws Exception {
+        PreparedStatement mockSingleRowStatement = mock(PreparedStatement.class);
+        when(mockPlugin.getPreparedStatement(mockConnection, QUERY)).thenReturn(mockSingleRowStatement);
+        when(mockInsertStatement.executeUpdate()).thenReturn(2);
+        when(mockSingleRowStatement.executeUpdate()).thenReturn(1);
+        WriterCallable writer = new MultiRowInsertWriterCallable(mockPlugin, this::buildInsertQuery, mockStatement, 2);
+
+        for (int i = 0; i < 2; i++) {
+            writer.supply(createRow(2 * i, "a"));
+            writer.supply(createRow(2 * i + 1, "b"));
+            assertNull(writer.call());
+        }
+        // the last batch is shorter
+        writer.supply(createRow(4, "c"));
+        assertNull(writer.call());
+
+        verify(mockPlugin, times(1)).getPreparedStatement(mockConnection, MULTI_ROW_QUERY);
+        verify(mockInsertStatement, times(2)).executeUpdate();
+        verify(mockSingleRowStatement).executeUpdate();
+        verify(mockSingleRowStatement).close();
+
+        writer.close();
+        verify(mockInsertStatement).close();
+    }
+
+    private String buildInsertQuery(int rows) {
+        return rows == 1 ? QUERY : MULTI_ROW_QUERY;
+    }
+
+    private OneRow createRow(int id, String name) {
+        return new OneRow(Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), id),
+                new OneField(DataType.TEXT.getOID(), name)));
+    }
+}
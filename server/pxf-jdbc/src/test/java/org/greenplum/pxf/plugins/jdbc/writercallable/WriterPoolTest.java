@@ -0,0 +1,142 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WriterPoolTest {
+
+    private static final String QUERY = "INSERT INTO foo(id) VALUES (?)";
+
+    @Mock
+    private JdbcBasePlugin mockPlugin;
+    @Mock
+    private Connection mockConnection;
+    @Mock
+    private Connection mockPoolConnection;
+    @Mock
+    private DatabaseMetaData mockMetaData;
+    @Mock
+    private PreparedStatement mockStatement;
+    @Mock
+    private PreparedStatement mockPoolStatement;
+
+    @Before
+    public void setup() throws SQLException {
+        when(mockPlugin.getConnection()).thenReturn(mockPoolConnection);
+        when(mockPlugin.getPreparedStatement(mockPoolConnection, QUERY)).thenReturn(mockPoolStatement);
+        when(mockStatement.getConnection()).thenReturn(mockConnection);
+        when(mockPoolStatement.getConnection()).thenReturn(mockPoolConnection);
+        when(mockPoolConnection.getMetaData()).thenReturn(mockMetaData);
+    }
+
+    @Test
+    public void testStatementsAreReusedAndCommittedOnce() throws Exception {
+        WriterPool pool = createPool(10, 2);
+        for (int i = 0; i < 95; i++) {
+            pool.supply(createRow(i));
+        }
+        pool.close();
+
+        // a single additional connection and statement for the whole write
+        verify(mockPlugin, times(1)).getConnection();
+        verify(mockPlugin, times(1)).getPreparedStatement(mockPoolConnection, QUERY);
+        verify(mockConnection).commit();
+        verify(mockPoolConnection).commit();
+        // only the statement opened by the pool is closed
+        verify(mockPoolStatement).close();
+        verify(mockStatement, never()).close();
+    }
+
+    @Test
+    public void testAllRowsAreWritten() throws Exception {
+        WriterPool pool = createPool(1, 1);
+        when(mockStatement.executeUpdate()).thenReturn(1);
+        for (int i = 0; i < 250; i++) {
+            pool.supply(createRow(i));
+        }
+        pool.close();
+
+        verify(mockStatement, times(250)).executeUpdate();
+        verify(mockStatement, times(250)).setInt(anyInt(), anyInt());
+        verify(mockConnection).commit();
+    }
+
+    @Test
+    public void testTransactionsAreRolledBackOnError() throws Exception {
+        SQLException error = new SQLException("constraint violation");
+        when(mockStatement.executeBatch()).thenThrow(error);
+        when(mockPoolStatement.executeBatch()).thenThrow(error);
+
+        WriterPool pool = createPool(2, 2);
+        try {
+            for (int i = 0; i < 100; i++) {
+                pool.supply(createRow(i));
+            }
+        } catch (SQLException e) {
+            // the writer stops as soon as the error is noticed
+            assertSame(error, e);
+        }
+        try {
+            pool.close();
+            fail("expected an exception");
+        } catch (SQLException e) {
+            assertSame(error, e);
+        }
+
+        verify(mockConnection, atLeast(1)).rollback();
+        verify(mockPoolConnection, atLeast(1)).rollback();
+        verify(mockConnection, never()).commit();
+        verify(mockPoolConnection, never()).commit();
+    }
+
+    private WriterPool createPool(int batchSize, int poolSize) throws SQLException {
+        WriterCallableFactory factory = new WriterCallableFactory(mockPlugin, QUERY, null, batchSize, poolSize);
+        return new WriterPool(factory, mockPlugin, QUERY, mockStatement, poolSize);
+    }
+
+    private OneRow createRow(int id) {
+        return new OneRow(Collections.singletonList(new OneField(DataType.INTEGER.getOID(), id)));
+    }
+}
@@ -22,14 +22,31 @@ package org.greenplum.pxf.plugins.json;
 import static org.apache.commons.lang.StringUtils.isEmpty;
 
 import java.io.IOException;
+import java.net.URI;
+import java.util.List;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.LineRecordReader;
+import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hdfs.CodecFactory;
+import org.greenplum.pxf.plugins.hdfs.HcfsType;
 import org.greenplum.pxf.plugins.hdfs.HdfsSplittableDataAccessor;
+import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 
 /**
  * This JSON accessor for PXF will read JSON data and pass it to a {@link JsonResolver}.
@@ -39,11 +56,17 @@ import org.greenplum.pxf.plugins.hdfs.HdfsSplittableDataAccessor;
  * <p>
  * When provided the <b>IDENTIFIER</b> indicates the member name used to determine the encapsulating json object to
  * return.
+ * <p>
+ * This accessor writes the rows of a writable table as newline-delimited JSON, optionally compressed with the codec
+ * given by the <b>COMPRESSION_CODEC</b> parameter.
  */
 public class JsonAccessor extends HdfsSplittableDataAccessor {
 
     public static final String IDENTIFIER_PARAM = "IDENTIFIER";
     public static final String RECORD_MAX_LENGTH_PARAM = "MAXLENGTH";
+    public static final String MAX_FILE_SIZE_PARAM = "MAX_FILE_SIZE";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
     /**
      * If provided indicates the member name which will be used to determine the encapsulating json object to return.
@@ -57,9 +80,25 @@ public class JsonAccessor extends HdfsSplittableDataAccessor {
      */
     private int maxRecordLength = Integer.MAX_VALUE;
 
+    private final CodecFactory codecFactory;
+
+    // write state
+    private String filePrefix;
+    private CompressionCodec codec;
+    private long maxFileSize;
+    private FileSystem fs;
+    private CountingOutputStream countingStream;
+    private JsonGenerator generator;
+    private SerializedString[] columnNames;
+    private DataType[] columnTypes;
+    private int fileCount;
+    private long fileRowsWritten;
+    private long totalRowsWritten;
+
     public JsonAccessor() {
         // Because HdfsSplittableDataAccessor doesn't use the InputFormat we set it to null.
         super(null);
+        this.codecFactory = CodecFactory.getInstance();
     }
 
     @Override
@@ -89,14 +128,35 @@ public class JsonAccessor extends HdfsSplittableDataAccessor {
     }
 
     /**
-     * Opens the resource for write.
+     * Opens the resource for write. Rows are written as newline-delimited JSON objects, one object per row with a
+     * member per column, to files named after the transaction and segment ids. When <b>MAX_FILE_SIZE</b> is set, a
+     * new file is started once the JSON data of the current one, before compression, has reached that size.
      *
      * @return true if the resource is successfully opened
-     * @throws Exception if opening the resource failed
+     * @throws IOException if opening the resource failed
      */
     @Override
-    public boolean openForWrite() throws Exception {
-        throw new UnsupportedOperationException();
+    public boolean openForWrite() throws IOException {
+        HcfsType hcfsType = HcfsType.getHcfsType(configuration, context);
+        // skip codec extension in filePrefix, because we add it in this accessor
+        filePrefix = hcfsType.getUriForWrite(configuration, context, true);
+        String compressCodec = context.getOption("COMPRESSION_CODEC");
+        codec = compressCodec != null ? codecFactory.getCodec(compressCodec, configuration) : null;
+        maxFileSize = getMaxFileSize();
+
+        int columns = context.getColumns();
+        columnNames = new SerializedString[columns];
+        columnTypes = new DataType[columns];
+        for (int i = 0; i < columns; i++) {
+            ColumnDescriptor column = context.getColumn(i);
+            columnNames[i] = new SerializedString(column.columnName());
+            columnTypes[i] = column.getDataType();
+        }
+
+        fs = FileSystem.get(URI.create(filePrefix), configuration);
+        fileCount = 0;
+        createGenerator();
+        return true;
     }
 
     /**
@@ -104,20 +164,138 @@ public class JsonAccessor extends HdfsSplittableDataAccessor {
      *
      * @param onerow the object to be written
      * @return true if the write succeeded
-     * @throws Exception writing to the resource failed
+     * @throws IOException writing to the resource failed
      */
     @Override
-    public boolean writeNextObject(OneRow onerow) throws Exception {
-        throw new UnsupportedOperationException();
+    public boolean writeNextObject(OneRow onerow) throws IOException {
+        @SuppressWarnings("unchecked")
+        List<OneField> record = (List<OneField>) onerow.getData();
+
+        if (maxFileSize > 0 && fileRowsWritten > 0 && getFileSize() >= maxFileSize) {
+            closeGenerator();
+            fileCount++;
+            createGenerator();
+        }
+
+        generator.writeStartObject();
+        for (int i = 0; i < columnNames.length; i++) {
+            generator.writeFieldName(columnNames[i]);
+            writeValue(columnTypes[i], record.get(i).val);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        fileRowsWritten++;
+        totalRowsWritten++;
+        return true;
     }
 
     /**
      * Closes the resource for write.
      *
-     * @throws Exception if closing the resource failed
+     * @throws IOException if closing the resource failed
      */
     @Override
-    public void closeForWrite() throws Exception {
-        throw new UnsupportedOperationException();
+    public void closeForWrite() throws IOException {
+        closeGenerator();
+        LOG.debug("{}-{}: writer closed, wrote a TOTAL of {} rows to {} files with prefix {}",
+                context.getTransactionId(),
+                context.getSegmentId(),
+                totalRowsWritten,
+                fileCount + 1,
+                filePrefix);
+    }
+
+    /**
+     * Writes a value with the JSON type of its class. The values of typed GPDBWritable fields are written as JSON
+     * numbers and booleans, the NUMERIC values received as text are written as JSON numbers as well.
+     *
+     * @param type  the type of the column
+     * @param value the value of the field
+     * @throws IOException writing to the resource failed
+     */
+    private void writeValue(DataType type, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Integer) {
+            generator.writeNumber((Integer) value);
+        } else if (value instanceof Long) {
+            generator.writeNumber((Long) value);
+        } else if (value instanceof Short) {
+            generator.writeNumber((Short) value);
+        } else if (value instanceof Double) {
+            generator.writeNumber((Double) value);
+        } else if (value instanceof Float) {
+            generator.writeNumber((Float) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof byte[]) {
+            // JSON has no binary type, the bytes are written as a base64 string
+            generator.writeBinary((byte[]) value);
+        } else if (type == DataType.NUMERIC && isNumber(value.toString())) {
+            generator.writeNumber(value.toString());
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    /*
+     * Returns true unless the text of a NUMERIC value is NaN or infinite,
+     * which are not valid JSON numbers.
+     */
+    private static boolean isNumber(String value) {
+        int i = value.startsWith("-") ? 1 : 0;
+        return value.length() > i && Character.isDigit(value.charAt(i));
+    }
+
+    private void createGenerator() throws IOException {
+        String extension = codec != null ? codec.getDefaultExtension() : "";
+        Path file = new Path(fileCount == 0 ?
+                filePrefix + extension :
+                filePrefix + "_" + fileCount + extension);
+        HdfsUtilities.validateFile(file, fs);
+
+        // create output stream - do not allow overwriting existing file
+        FSDataOutputStream fsdos = fs.create(file, false);
+        // count the bytes before compression, the size of a compressed file is not known until it is closed
+        countingStream = new CountingOutputStream(codec != null ? codec.createOutputStream(fsdos) : fsdos);
+        generator = JSON_FACTORY.createGenerator(countingStream, JsonEncoding.UTF8);
+        // the rows are separated by the newline written after each of them, instead of the default space
+        generator.setRootValueSeparator(null);
+        fileRowsWritten = 0;
+        LOG.debug("{}-{}: writing JSON rows to {}", context.getTransactionId(), context.getSegmentId(), file);
+    }
+
+    private void closeGenerator() throws IOException {
+        if (generator != null) {
+            // closes the compression and file streams as well
+            generator.close();
+            generator = null;
+        }
+    }
+
+    /*
+     * Returns the number of bytes of JSON data written to the current file,
+     * including the bytes still buffered by the generator.
+     */
+    private long getFileSize() {
+        return countingStream.getByteCount() + generator.getOutputBuffered();
+    }
+
+    private long getMaxFileSize() {
+        String value = context.getOption(MAX_FILE_SIZE_PARAM);
+        if (isEmpty(value)) {
+            return 0;
+        }
+        long result;
+        try {
+            result = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            result = 0;
+        }
+        if (result <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Property %s has incorrect value %s : must be a positive integer", MAX_FILE_SIZE_PARAM, value));
+        }
+        return result;
     }
 }
@@ -0,0 +1,180 @@
+package org.greenplum.pxf.plugins.json;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the JSON nodes of the columns of a table from a JSON record, in a single pass over the tokens of the
+ * record. The plan is built once from the projections of the columns, for example "user.name" or
+ * "tweet.hashtags[0]": the members and array elements on the path of a column are followed, and the others are
+ * skipped without being read. Only the values of the columns are read into {@link JsonNode}s.
+ */
+public class JsonExtractionPlan {
+
+    private final ObjectMapper mapper;
+    private final ColumnDescriptorCache[] columns;
+    private final PathNode root;
+    private final JsonNode[] values;
+    // the first array column whose value is not an array, -1 if none
+    private int notArrayColumn;
+
+    /**
+     * Builds the plan of the given columns.
+     *
+     * @param mapper  the mapper used to read the values of the columns
+     * @param columns the metadata of the columns
+     */
+    public JsonExtractionPlan(ObjectMapper mapper, ColumnDescriptorCache[] columns) {
+        this.mapper = mapper;
+        this.columns = columns;
+        this.root = new PathNode();
+        this.values = new JsonNode[columns.length];
+
+        for (int i = 0; i < columns.length; i++) {
+            PathNode node = root;
+            for (String proj : columns[i].getNormalizedProjections()) {
+                node = node.children.computeIfAbsent(proj, name -> new PathNode());
+            }
+            if (columns[i].isArray()) {
+                node.elementColumns.computeIfAbsent(columns[i].getArrayNodeIndex(), index -> new ArrayList<>()).add(i);
+            } else {
+                node.columns.add(i);
+            }
+        }
+    }
+
+    /**
+     * Reads a JSON record and returns the node of each column, in the order of the columns. The node of an array
+     * column is the element of the array at the index of the column. The node of a column that is not in the record
+     * is a {@link MissingNode}. The returned array is reused by the next calls.
+     *
+     * @param parser the parser of the record
+     * @return the nodes of the columns
+     * @throws IOException           when the record is not valid JSON
+     * @throws IllegalStateException when the value of an array column is not an array
+     */
+    public JsonNode[] extract(JsonParser parser) throws IOException {
+        Arrays.fill(values, MissingNode.getInstance());
+        notArrayColumn = -1;
+
+        JsonToken token = parser.nextToken();
+        if (token != null) {
+            visit(parser, root, token);
+        }
+
+        if (notArrayColumn >= 0) {
+            throw new IllegalStateException(columns[notArrayColumn].getColumnName() + " is not an array node");
+        }
+        return values;
+    }
+
+    private void visit(JsonParser parser, PathNode node, JsonToken token) throws IOException {
+        if (!node.columns.isEmpty()) {
+            // the value is needed as a whole, the values of the nested columns are taken from it
+            setValues(node, mapper.readTree(parser));
+            return;
+        }
+
+        if (token == JsonToken.START_ARRAY && !node.elementColumns.isEmpty()) {
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                List<Integer> elementColumns = node.elementColumns.get(index++);
+                if (elementColumns != null) {
+                    JsonNode element = mapper.readTree(parser);
+                    for (int column : elementColumns) {
+                        values[column] = element;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return;
+        }
+
+        if (!node.elementColumns.isEmpty()) {
+            setNotArray(node);
+        }
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                PathNode child = node.children.get(parser.getCurrentName());
+                JsonToken valueToken = parser.nextToken();
+                if (child != null) {
+                    visit(parser, child, valueToken);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            // members cannot be found in arrays or scalar values
+            parser.skipChildren();
+        }
+    }
+
+    private void setValues(PathNode node, JsonNode value) {
+        for (int column : node.columns) {
+            values[column] = value;
+        }
+        if (value.isArray()) {
+            for (Map.Entry<Integer, List<Integer>> element : node.elementColumns.entrySet()) {
+                for (int column : element.getValue()) {
+                    values[column] = value.path(element.getKey());
+                }
+            }
+        } else if (!value.isMissingNode()) {
+            setNotArray(node);
+        }
+        for (Map.Entry<String, PathNode> child : node.children.entrySet()) {
+            setValues(child.getValue(), value.path(child.getKey()));
+        }
+    }
+
+    private void setNotArray(PathNode node) {
+        for (List<Integer> elementColumns : node.elementColumns.values()) {
+            for (int column : elementColumns) {
+                if (notArrayColumn < 0 || column < notArrayColumn) {
+                    notArrayColumn = column;
+                }
+            }
+        }
+    }
+
+    /**
+     * A step of the paths of the columns.
+     */
+    private static class PathNode {
+        // the indexes of the columns whose path ends here
+        private final List<Integer> columns = new ArrayList<>();
+        // the indexes of the columns whose path ends at an element of the array here, by index of the element
+        private final Map<Integer, List<Integer>> elementColumns = new HashMap<>();
+        private final Map<String, PathNode> children = new HashMap<>();
+    }
+}
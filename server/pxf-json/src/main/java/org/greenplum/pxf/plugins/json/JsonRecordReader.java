@@ -42,7 +42,7 @@ import org.greenplum.pxf.plugins.json.parser.PartitionedJsonParser;
  * <p>
  * JsonRecordReader supports compressed input files as well.
  * <p>
- * As a safe guard set the optional <b>MAXLENGTH</b> parameter to limit the max size of a record.
+ * As a safe guard set the optional <b>MAXLENGTH</b> parameter to limit the max size of a record, in bytes.
  */
 public class JsonRecordReader implements RecordReader<LongWritable, Text> {
 
@@ -103,25 +103,27 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
 
         while (pos < end) {
 
-            String json = parser.nextObjectContainingMember(jsonMemberName);
+            boolean found = parser.findNextObjectContainingMember(jsonMemberName);
             pos = start + parser.getBytesRead();
 
-            if (json == null) {
+            if (!found) {
                 return false;
             }
 
-            long jsonStart = pos - json.length();
+            long jsonStart = start + parser.getObjectStart();
+            int jsonLength = parser.getObjectLength();
 
             // if the "begin-object" position is after the end of our split, we should ignore it
             if (jsonStart >= end) {
                 return false;
             }
 
-            if (json.length() > maxObjectLength) {
-                LOG.warn("Skipped JSON object of size " + json.length() + " at pos " + jsonStart);
+            if (jsonLength > maxObjectLength) {
+                LOG.warn("Skipped JSON object of size " + jsonLength + " at pos " + jsonStart);
             } else {
                 key.set(jsonStart);
-                value.set(json);
+                // the bytes of the object are UTF-8 already, no need to decode them
+                value.set(parser.getObjectBytes(), 0, jsonLength);
                 return true;
             }
         }
@@ -21,26 +21,28 @@ package org.greenplum.pxf.plugins.json;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hadoop.io.Text;
 import org.greenplum.pxf.api.BadRecordException;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.BasePlugin;
+import org.greenplum.pxf.api.model.OutputFormat;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.model.Resolver;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 /**
  * This JSON resolver for PXF will decode a given object from the {@link JsonAccessor} into a row for GPDB. It will
- * decode this data into a JsonNode and walk the tree for each column. It supports normal value mapping via projections
- * and JSON array indexing.
+ * read the JSON nodes of the columns with a {@link JsonExtractionPlan}, which skips the members that are not projected.
+ * It supports normal value mapping via projections and JSON array indexing.
  */
 public class JsonResolver extends BasePlugin implements Resolver {
 
@@ -49,6 +51,7 @@ public class JsonResolver extends BasePlugin implements Resolver {
     private ArrayList<OneField> oneFieldList;
     private ColumnDescriptorCache[] columnDescriptorCache;
     private ObjectMapper mapper;
+    private JsonExtractionPlan extractionPlan;
 
     @Override
     public void initialize(RequestContext requestContext) {
@@ -62,6 +65,7 @@ public class JsonResolver extends BasePlugin implements Resolver {
             ColumnDescriptor cd = requestContext.getColumn(i);
             columnDescriptorCache[i] = new ColumnDescriptorCache(cd);
         }
+        extractionPlan = new JsonExtractionPlan(mapper, columnDescriptorCache);
     }
 
     @Override
@@ -71,35 +75,28 @@ public class JsonResolver extends BasePlugin implements Resolver {
         if (row == null || row.getData() == null) {
             throw new BadRecordException("json record is null");
         }
-        String jsonRecordAsText = row.getData().toString();
+        Object data = row.getData();
 
-        JsonNode root;
-        try {
-            root = mapper.readTree(jsonRecordAsText);
+        JsonNode[] nodes;
+        try (JsonParser parser = createParser(data)) {
+            nodes = extractionPlan.extract(parser);
         } catch (IOException e) {
             throw new BadRecordException(
-                    String.format("error while parsing json record '%s'. invalid JSON record\n%s", e.getMessage(), jsonRecordAsText), e);
+                    String.format("error while parsing json record '%s'. invalid JSON record\n%s", e.getMessage(), data), e);
         }
 
         // Iterate through the column definition and fetch our JSON data
-        for (ColumnDescriptorCache columnMetadata : columnDescriptorCache) {
+        for (int i = 0; i < columnDescriptorCache.length; i++) {
 
-            JsonNode node = getChildJsonNode(root, columnMetadata.getNormalizedProjections());
+            ColumnDescriptorCache columnMetadata = columnDescriptorCache[i];
+            JsonNode node = nodes[i];
 
             // If this node is null or missing, add a null value here
             if (node == null || node.isMissingNode()) {
                 addNullField(columnMetadata.getColumnType());
-            } else if (columnMetadata.isArray()) {
-                // If this column is an array index, ex. "tweet.hashtags[0]"
-                if (node.isArray()) {
-                    // If the JSON node is an array, then add it to our list
-                    addFieldFromJsonArray(columnMetadata.getColumnType(), node, columnMetadata.getArrayNodeIndex());
-                } else {
-                    throw new IllegalStateException(columnMetadata.getColumnName() + " is not an array node");
-                }
             } else {
-                // This column is not an array type
-                // Add the value to the record
+                // Add the value to the record, the node of an array column
+                // is already the element at its index, ex. "tweet.hashtags[0]"
                 addFieldFromJsonNode(columnMetadata.getColumnType(), node);
             }
         }
@@ -108,63 +105,41 @@ public class JsonResolver extends BasePlugin implements Resolver {
     }
 
     /**
-     * Constructs and sets the fields of a {@link OneRow}.
+     * Constructs and sets the fields of a {@link OneRow}. The typed fields are passed as they are to the
+     * {@link JsonAccessor}, which writes them with a JSON generator.
      *
      * @param record list of {@link OneField}
      * @return the constructed {@link OneRow}
-     * @throws Exception if constructing a row from the fields failed
+     * @throws UnsupportedOperationException if the fields are not typed
+     * @throws BadRecordException            if the number of fields does not match the number of columns
      */
     @Override
-    public OneRow setFields(List<OneField> record) throws UnsupportedOperationException {
-        throw new UnsupportedOperationException();
-    }
-
-    /**
-     * Iterates down the root node to the child JSON node defined by the projs path.
-     *
-     * @param root  node to to start the traversal from.
-     * @param projs defines the path from the root to the desired child node.
-     * @return Returns the child node defined by the root and projs path.
-     */
-    private JsonNode getChildJsonNode(JsonNode root, String[] projs) {
-
-        // Iterate through all the tokens to the desired JSON node
-        JsonNode node = root;
-        for (String proj : projs) {
-            node = node.path(proj);
+    public OneRow setFields(List<OneField> record) throws BadRecordException {
+        if (context.getOutputFormat() != OutputFormat.GPDBWritable) {
+            throw new UnsupportedOperationException(
+                    "JSON data can only be written with FORMAT 'CUSTOM' (FORMATTER='pxfwritable_export')");
         }
-
-        return node;
+        if (record.size() != columnDescriptorCache.length) {
+            throw new BadRecordException(String.format("record has %d fields while the table has %d columns",
+                    record.size(), columnDescriptorCache.length));
+        }
+        return new OneRow(null, record);
     }
 
     /**
-     * Iterates through the given JSON node to the proper index and adds the field of corresponding type
+     * Creates a parser of a record. The bytes of a {@link Text} record are parsed as they are, without decoding them
+     * to a string first.
      *
-     * @param type  The {@link DataType} type
-     * @param node  The JSON array node
-     * @param index The array index to iterate to
-     * @throws IOException, BadRecordException
+     * @param data the record
+     * @return the parser of the record
+     * @throws IOException when the parser cannot be created
      */
-    private void addFieldFromJsonArray(DataType type, JsonNode node, int index) throws IOException, BadRecordException {
-
-        int count = 0;
-        boolean added = false;
-        for (Iterator<JsonNode> arrayNodes = node.elements(); arrayNodes.hasNext(); ) {
-            JsonNode arrayNode = arrayNodes.next();
-
-            if (count == index) {
-                added = true;
-                addFieldFromJsonNode(type, arrayNode);
-                break;
-            }
-
-            ++count;
-        }
-
-        // if we reached the end of the array without adding a field, add null
-        if (!added) {
-            addNullField(type);
+    private JsonParser createParser(Object data) throws IOException {
+        if (data instanceof Text) {
+            Text text = (Text) data;
+            return mapper.getFactory().createParser(text.getBytes(), 0, text.getLength());
         }
+        return mapper.getFactory().createParser(data.toString());
     }
 
     /**
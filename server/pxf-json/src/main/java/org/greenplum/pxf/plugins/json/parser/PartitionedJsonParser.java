@@ -21,11 +21,8 @@ package org.greenplum.pxf.plugins.json.parser;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.EnumSet;
-import java.util.List;
+import java.util.Arrays;
 
 import org.greenplum.pxf.plugins.json.parser.JsonLexer.JsonLexerState;
 
@@ -35,43 +32,116 @@ import org.greenplum.pxf.plugins.json.parser.JsonLexer.JsonLexerState;
  * JSON begin-object "{". From this point on it will keep reading JSON objects until it finds one containing a member
  * string that the user supplies.
  * &lt;p/&gt;
- * It is not recommended to use this with JSON text where individual JSON objects that can be large (MB's or larger).
+ * The stream is read in blocks of bytes, which are lexed without being decoded: the structural characters of JSON are
+ * ASCII and the bytes of a multi-byte UTF-8 character are never ASCII. Offsets are exact byte offsets in the stream,
+ * and the objects found are copied to a byte buffer that can be handed over to a JSON parser as is.
  */
 public class PartitionedJsonParser {
 
-	private static final char BACKSLASH = '\\';
-	private static final char START_BRACE = '{';
-	private static final int EOF = -1;
-	private final InputStreamReader inputStreamReader;
+	private static final byte BACKSLASH = '\\';
+	private static final byte START_BRACE = '{';
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final InputStream inputStream;
 	private final JsonLexer lexer;
-	private long bytesRead = 0;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	// the offset in the stream of the first byte of the buffer
+	private long bufferOffset = 0;
+	private int bufferPosition = 0;
+	private int bufferLength = 0;
 	private boolean endOfStream = false;
 
+	// the object being read, from the begin-object of the outermost object that might contain the member
+	private byte[] object = new byte[1024];
+	private int objectLength = 0;
+	private long objectStart = -1;
+	// the position in the buffer of the first byte of the object that is not copied yet, -1 if outside of any object
+	private int copyPosition = -1;
+
+	// the offsets in the stream of the begin-objects of the enclosing objects
+	private long[] objectStack = new long[16];
+	private int objectStackSize = 0;
+
+	// the bytes of the current string, only as many as the member name has
+	private byte[] currentString = new byte[0];
+	private int currentStringLength = 0;
+
 	public PartitionedJsonParser(InputStream is) {
 		this.lexer = new JsonLexer();
-
-		// You need to wrap the InputStream with an InputStreamReader, so that it can encode the incoming byte stream as
-		// UTF-8 characters
-		this.inputStreamReader = new InputStreamReader(is, StandardCharsets.UTF_8);
+		this.inputStream = is;
 	}
 
 	private boolean scanToFirstBeginObject() throws IOException {
 		// seek until we hit the first begin-object
-		char prev = ' ';
-		int i;
-		while ((i = inputStreamReader.read()) != EOF) {
-			char c = (char) i;
-			bytesRead++;
-			if (c == START_BRACE && prev != BACKSLASH) {
+		byte prev = ' ';
+		while (bufferPosition < bufferLength || fillBuffer()) {
+			byte b = buffer[bufferPosition++];
+			if (b == START_BRACE && prev != BACKSLASH) {
 				lexer.setState(JsonLexer.JsonLexerState.BEGIN_OBJECT);
 				return true;
 			}
-			prev = c;
+			prev = b;
 		}
 		endOfStream = true;
 		return false;
 	}
 
+	/**
+	 * Reads the next block of the stream into the buffer, after copying the bytes of the object that are left in it.
+	 *
+	 * @return true if bytes were read, false at the end of the stream
+	 */
+	private boolean fillBuffer() throws IOException {
+		if (copyPosition >= 0) {
+			copyToObject(bufferLength);
+			copyPosition = 0;
+		}
+		bufferOffset += bufferLength;
+		bufferPosition = 0;
+		bufferLength = 0;
+		int n = inputStream.read(buffer, 0, BUFFER_SIZE);
+		if (n <= 0) {
+			return false;
+		}
+		bufferLength = n;
+		return true;
+	}
+
+	private void copyToObject(int end) {
+		int length = end - copyPosition;
+		if (objectLength + length > object.length) {
+			object = Arrays.copyOf(object, Math.max(object.length * 2, objectLength + length));
+		}
+		System.arraycopy(buffer, copyPosition, object, objectLength, length);
+		objectLength += length;
+		copyPosition = end;
+	}
+
+	private void beginObject(long offset) {
+		objectLength = 0;
+		objectStart = offset;
+		copyPosition = bufferPosition - 1;
+	}
+
+	private void pushObject(long offset) {
+		if (objectStackSize == objectStack.length) {
+			objectStack = Arrays.copyOf(objectStack, objectStackSize * 2);
+		}
+		objectStack[objectStackSize++] = offset;
+	}
+
+	private boolean isCurrentString(byte[] memberName) {
+		if (currentStringLength != memberName.length) {
+			return false;
+		}
+		for (int i = 0; i < currentStringLength; i++) {
+			if (currentString[i] != memberName[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private enum MemberSearchState {
 		FOUND_STRING_NAME,
 
@@ -80,9 +150,6 @@ public class PartitionedJsonParser {
 		IN_MATCHING_OBJECT
 	}
 
-	private static final EnumSet<JsonLexerState> inStringStates = EnumSet.of(JsonLexerState.INSIDE_STRING,
-			JsonLexerState.STRING_ESCAPE);
-
 	/**
 	 * @param memberName
 	 *            Indicates the member name used to determine the encapsulating object to return.
@@ -91,104 +158,163 @@ public class PartitionedJsonParser {
 	 * @throws IOException IOException when stream reading
 	 */
 	public String nextObjectContainingMember(String memberName) throws IOException {
+		if (!findNextObjectContainingMember(memberName)) {
+			return null;
+		}
+		return new String(object, 0, objectLength, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads up to the end of the next json object that contains a member attribute with name: memberName. The bytes
+	 * of the object are then available from {@link #getObjectBytes()}, until the next call.
+	 *
+	 * @param memberName
+	 *            Indicates the member name used to determine the encapsulating object to return.
+	 * @return Returns true if such an object was found, false if the end of the stream is reached.
+	 * @throws IOException IOException when stream reading
+	 */
+	public boolean findNextObjectContainingMember(String memberName) throws IOException {
+
+		objectLength = 0;
+		objectStart = -1;
+		copyPosition = -1;
+		objectStackSize = 0;
 
 		if (endOfStream) {
-			return null;
+			return false;
 		}
 
-		int i;
+		byte[] memberNameBytes = memberName.getBytes(StandardCharsets.UTF_8);
+		if (currentString.length < memberNameBytes.length) {
+			currentString = new byte[memberNameBytes.length];
+		}
+		currentStringLength = 0;
 		int objectCount = 0;
-		StringBuilder currentObject = new StringBuilder();
-		StringBuilder currentString = new StringBuilder();
 		MemberSearchState memberState = MemberSearchState.SEARCHING;
 
-		List<Integer> objectStack = new ArrayList<Integer>();
-
 		if (!scanToFirstBeginObject()) {
-			return null;
+			return false;
 		}
-		currentObject.append(START_BRACE);
-		objectStack.add(0);
+		beginObject(getBytesRead() - 1);
+		pushObject(objectStart);
+
+		while (bufferPosition < bufferLength || fillBuffer()) {
+			byte b = buffer[bufferPosition++];
 
-		while ((i = inputStreamReader.read()) != EOF) {
-			char c = (char) i;
-			bytesRead++;
+			// bytes of multi-byte characters are lexed as characters that are neither structural nor whitespace
+			lexer.lex((char) (b & 0xFF));
+			JsonLexerState state = lexer.getState();
 
-			lexer.lex(c);
+			if (memberState == MemberSearchState.FOUND_STRING_NAME) {
+				// keep popping whitespaces until we hit a different token
+				if (state == JsonLexerState.WHITESPACE) {
+					continue;
+				}
+				if (state == JsonLexerState.NAME_SEPARATOR) {
+					// found our member!
+					memberState = MemberSearchState.IN_MATCHING_OBJECT;
+					objectCount = 0;
 
-			currentObject.append(c);
+					// the matching object is the innermost one, drop the bytes of the enclosing objects
+					int offset = (int) (objectStack[objectStackSize - 1] - objectStart);
+					if (offset > 0) {
+						copyToObject(bufferPosition);
+						System.arraycopy(object, offset, object, 0, objectLength - offset);
+						objectLength -= offset;
+						objectStart += offset;
+					}
+					objectStackSize = 0;
+					continue;
+				}
+				// we didn't find a name-separator (:), so our string wasn't a member string. keep searching
+				memberState = MemberSearchState.SEARCHING;
+			}
 
 			switch (memberState) {
 			case SEARCHING:
-				if (lexer.getState() == JsonLexerState.BEGIN_STRING) {
+				if (state == JsonLexerState.BEGIN_STRING) {
 					// we found the start of a string, so reset our string buffer
-					currentString.setLength(0);
-				} else if (inStringStates.contains(lexer.getState())) {
+					currentStringLength = 0;
+				} else if (state == JsonLexerState.INSIDE_STRING || state == JsonLexerState.STRING_ESCAPE) {
 					// we're still inside a string, so keep appending to our buffer
-					currentString.append(c);
-				} else if (lexer.getState() == JsonLexerState.END_STRING && memberName.equals(currentString.toString())) {
-
-					if (objectStack.size() > 0) {
-						// we hit the end of the string and it matched the member name (yay)
-						memberState = MemberSearchState.FOUND_STRING_NAME;
-						currentString.setLength(0);
+					if (currentStringLength < memberNameBytes.length) {
+						currentString[currentStringLength] = b;
 					}
-				} else if (lexer.getState() == JsonLexerState.BEGIN_OBJECT) {
-					// we are searching and found a '{', so we reset the current object string
-					if (objectStack.size() == 0) {
-						currentObject.setLength(0);
-						currentObject.append(START_BRACE);
+					currentStringLength++;
+				} else if (state == JsonLexerState.END_STRING && objectStackSize > 0 && isCurrentString(memberNameBytes)) {
+					// we hit the end of the string and it matched the member name (yay)
+					memberState = MemberSearchState.FOUND_STRING_NAME;
+					currentStringLength = 0;
+				} else if (state == JsonLexerState.BEGIN_OBJECT) {
+					long offset = getBytesRead() - 1;
+					// we are searching and found a '{', so we start a new current object
+					if (objectStackSize == 0) {
+						beginObject(offset);
 					}
-					objectStack.add(currentObject.length() - 1);
-				} else if (lexer.getState() == JsonLexerState.END_OBJECT) {
-					if (objectStack.size() > 0) {
-						objectStack.remove(objectStack.size() - 1);
+					pushObject(offset);
+				} else if (state == JsonLexerState.END_OBJECT) {
+					if (objectStackSize > 0) {
+						objectStackSize--;
 					}
-					if (objectStack.size() == 0) {
-						currentObject.setLength(0);
-					}
-				}
-				break;
-			case FOUND_STRING_NAME:
-				// keep popping whitespaces until we hit a different token
-				if (lexer.getState() != JsonLexerState.WHITESPACE) {
-					if (lexer.getState() == JsonLexerState.NAME_SEPARATOR) {
-						// found our member!
-						memberState = MemberSearchState.IN_MATCHING_OBJECT;
-						objectCount = 0;
-
-						if (objectStack.size() > 1) {
-							currentObject.delete(0, objectStack.get(objectStack.size() - 1));
-						}
-						objectStack.clear();
-					} else {
-						// we didn't find a value-separator (:), so our string wasn't a member string. keep searching
-						memberState = MemberSearchState.SEARCHING;
+					if (objectStackSize == 0) {
+						objectLength = 0;
+						copyPosition = -1;
 					}
 				}
 				break;
 			case IN_MATCHING_OBJECT:
-				if (lexer.getState() == JsonLexerState.BEGIN_OBJECT) {
+				if (state == JsonLexerState.BEGIN_OBJECT) {
 					objectCount++;
-				} else if (lexer.getState() == JsonLexerState.END_OBJECT) {
+				} else if (state == JsonLexerState.END_OBJECT) {
 					objectCount--;
 					if (objectCount < 0) {
 						// we're done! we reached an "}" which is at the same level as the member we found
-						return currentObject.toString();
+						copyToObject(bufferPosition);
+						copyPosition = -1;
+						return true;
 					}
 				}
 				break;
+			default:
+				break;
 			}
 		}
 		endOfStream = true;
-		return null;
+		objectLength = 0;
+		objectStart = -1;
+		copyPosition = -1;
+		return false;
+	}
+
+	/**
+	 * @return Returns the bytes of the object found by the last call to {@link #findNextObjectContainingMember(String)},
+	 *         from index 0 to {@link #getObjectLength()}. The buffer is reused by the next calls.
+	 */
+	public byte[] getObjectBytes() {
+		return object;
+	}
+
+	/**
+	 * @return Returns the number of bytes of the object found by the last call to
+	 *         {@link #findNextObjectContainingMember(String)}.
+	 */
+	public int getObjectLength() {
+		return objectLength;
+	}
+
+	/**
+	 * @return Returns the offset in the stream of the first byte of the object found by the last call to
+	 *         {@link #findNextObjectContainingMember(String)}, or -1 if none was found.
+	 */
+	public long getObjectStart() {
+		return objectStart;
 	}
 
 	/**
 	 * @return Returns the number of bytes read from the stream.
 	 */
 	public long getBytesRead() {
-		return bytesRead;
+		return bufferOffset + bufferPosition;
 	}
 
 	/**
@@ -197,4 +323,4 @@ public class PartitionedJsonParser {
 	public boolean isEndOfStream() {
 		return endOfStream;
 	}
-}
\ No newline at end of file
+}
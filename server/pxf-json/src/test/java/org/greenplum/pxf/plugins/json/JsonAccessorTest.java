@@ -0,0 +1,130 @@
+package org.greenplum.pxf.plugins.json;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JsonAccessorTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private JsonAccessor accessor;
+    private RequestContext context;
+
+    @Before
+    public void setup() {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        columns.add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null));
+        columns.add(new ColumnDescriptor("amount", DataType.NUMERIC.getOID(), 2, "numeric", null));
+        columns.add(new ColumnDescriptor("ok", DataType.BOOLEAN.getOID(), 3, "bool", null));
+
+        context = new RequestContext();
+        context.setConfig("default");
+        context.setServerName("default");
+        context.setUser("test-user");
+        context.setProfileScheme("localfile");
+        context.setSegmentId(2);
+        context.setTransactionId("XID-1");
+        context.setRequestType(RequestContext.RequestType.WRITE_BRIDGE);
+        context.setTupleDescription(columns);
+        context.setDataSource(temp.getRoot() + "/out/");
+
+        accessor = new JsonAccessor();
+    }
+
+    @Test
+    public void testWriteRows() throws Exception {
+        accessor.initialize(context);
+        assertTrue(accessor.openForWrite());
+        accessor.writeNextObject(row(1, "café \"x\"", "12.50", true));
+        accessor.writeNextObject(row(2, null, "NaN", false));
+        accessor.closeForWrite();
+
+        List<String> lines = Files.readAllLines(new File(temp.getRoot(), "out/XID-1_2").toPath(), StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList(
+                "{\"id\":1,\"name\":\"café \\\"x\\\"\",\"amount\":12.50,\"ok\":true}",
+                "{\"id\":2,\"name\":null,\"amount\":\"NaN\",\"ok\":false}"), lines);
+    }
+
+    @Test
+    public void testWriteCompressedRowsToRolledFiles() throws Exception {
+        context.addOption("COMPRESSION_CODEC", "org.apache.hadoop.io.compress.GzipCodec");
+        context.addOption("MAX_FILE_SIZE", "1");
+
+        accessor.initialize(context);
+        assertTrue(accessor.openForWrite());
+        for (int i = 0; i < 3; i++) {
+            accessor.writeNextObject(row(i, "row" + i, "1", true));
+        }
+        accessor.closeForWrite();
+
+        // every file gets a single row, once a file has rows it is larger than the maximum size
+        String[] names = {"XID-1_2.gz", "XID-1_2_1.gz", "XID-1_2_2.gz"};
+        for (int i = 0; i < names.length; i++) {
+            assertEquals(Collections.singletonList("{\"id\":" + i + ",\"name\":\"row" + i + "\",\"amount\":1,\"ok\":true}"),
+                    readGzipLines(new File(temp.getRoot(), "out/" + names[i])));
+        }
+        assertFalse(new File(temp.getRoot(), "out/XID-1_2_3.gz").exists());
+    }
+
+    @Test
+    public void testInvalidMaxFileSize() throws Exception {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Property MAX_FILE_SIZE has incorrect value 1GB : must be a positive integer");
+
+        context.addOption("MAX_FILE_SIZE", "1GB");
+        accessor.initialize(context);
+        accessor.openForWrite();
+    }
+
+    private OneRow row(int id, String name, String amount, boolean ok) {
+        List<OneField> record = new ArrayList<>();
+        record.add(new OneField(DataType.INTEGER.getOID(), id));
+        record.add(new OneField(DataType.TEXT.getOID(), name));
+        // NUMERIC values are sent as text
+        record.add(new OneField(DataType.TEXT.getOID(), amount));
+        record.add(new OneField(DataType.BOOLEAN.getOID(), ok));
+        return new OneRow(null, record);
+    }
+
+    private List<String> readGzipLines(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,97 @@
+package org.greenplum.pxf.plugins.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JsonExtractionPlanTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private ObjectMapper mapper;
+
+    @Before
+    public void setUp() {
+        mapper = new ObjectMapper();
+    }
+
+    @Test
+    public void testExtractNestedMembersAndArrayElements() throws IOException {
+        JsonExtractionPlan plan = createPlan("id", "user.name", "user.geo.lat", "tweet.hashtags[1]", "tweet.hashtags[5]");
+
+        //language=JSON
+        JsonNode[] nodes = extract(plan, "{" +
+                "\"id\":1," +
+                "\"skipped\":{\"a\":[1,2,{\"b\":3}]}," +
+                "\"user\":{\"name\":\"bob\",\"geo\":{\"lat\":1.5}}," +
+                "\"tweet\":{\"hashtags\":[\"a\",{\"h\":1},\"c\"]}" +
+                "}");
+
+        assertEquals(1, nodes[0].asInt());
+        assertEquals("bob", nodes[1].asText());
+        assertEquals(1.5, nodes[2].asDouble(), 0.0);
+        assertEquals("{\"h\":1}", nodes[3].toString());
+        assertTrue(nodes[4].isMissingNode());
+    }
+
+    @Test
+    public void testExtractNestedColumnsOfAColumn() throws IOException {
+        JsonExtractionPlan plan = createPlan("user", "user.name", "user.tags[0]");
+
+        JsonNode[] nodes = extract(plan, "{\"user\":{\"name\":\"bob\",\"tags\":[\"x\"]}}");
+
+        assertEquals("{\"name\":\"bob\",\"tags\":[\"x\"]}", nodes[0].toString());
+        assertEquals("bob", nodes[1].asText());
+        assertEquals("x", nodes[2].asText());
+    }
+
+    @Test
+    public void testMissingMembers() throws IOException {
+        JsonExtractionPlan plan = createPlan("user.name", "tweet.hashtags[0]");
+
+        for (String json : new String[]{"", "[1,2]", "{\"user\":\"bob\",\"tweet\":{}}"}) {
+            JsonNode[] nodes = extract(plan, json);
+            assertTrue(json, nodes[0].isMissingNode());
+            assertTrue(json, nodes[1].isMissingNode());
+        }
+    }
+
+    @Test
+    public void testArrayColumnIsNotAnArray() throws IOException {
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("tweet.hashtags[0] is not an array node");
+
+        extract(createPlan("tweet.hashtags[0]"), "{\"tweet\":{\"hashtags\":\"a\"}}");
+    }
+
+    @Test
+    public void testMalformedSkippedMember() throws IOException {
+        thrown.expect(IOException.class);
+
+        extract(createPlan("id"), "{\"id\":1,\"skipped\":{\"a\":}}");
+    }
+
+    private JsonExtractionPlan createPlan(String... columnNames) {
+        ColumnDescriptorCache[] columns = new ColumnDescriptorCache[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            columns[i] = new ColumnDescriptorCache(
+                    new ColumnDescriptor(columnNames[i], DataType.TEXT.getOID(), i, "text", null, true));
+        }
+        return new JsonExtractionPlan(mapper, columns);
+    }
+
+    private JsonNode[] extract(JsonExtractionPlan plan, String json) throws IOException {
+        return plan.extract(mapper.getFactory().createParser(json));
+    }
+}
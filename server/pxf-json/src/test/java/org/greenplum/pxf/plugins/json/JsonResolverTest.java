@@ -1,9 +1,11 @@
 package org.greenplum.pxf.plugins.json;
 
+import org.apache.hadoop.io.Text;
 import org.greenplum.pxf.api.BadRecordException;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.OutputFormat;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.junit.Before;
@@ -16,6 +18,7 @@ import java.util.List;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class JsonResolverTest {
 
@@ -254,6 +257,26 @@ public class JsonResolverTest {
         assertRow(row, 12);
     }
 
+    @Test
+    public void testGetFieldsFromText() throws Exception {
+
+        //language=JSON
+        String jsonStr = "{" +
+                "\"type_int\":7," +
+                "\"type_string1\":\"na\u00efve caf\u00e9 \u2603\"," +
+                "\"type_array\":[\"\u00fcber\"]" +
+                "}";
+
+        OneRow row = new OneRow(123, new Text(jsonStr));
+
+        List<OneField> fields = assertRow(row, 12);
+        assertField(fields, 0, 7, DataType.INTEGER);
+        assertField(fields, 1, null, DataType.BIGINT);
+        assertField(fields, 5, "na\u00efve caf\u00e9 \u2603", DataType.TEXT);
+        assertField(fields, 10, "\u00fcber", DataType.TEXT);
+        assertField(fields, 11, null, DataType.TEXT);
+    }
+
     @Test
     public void testGetFieldsShouldFailOnMalformedJson() throws Exception {
         thrown.expect(BadRecordException.class);
@@ -287,14 +310,42 @@ public class JsonResolverTest {
 
 
     @Test
-    public void testSetFieldsShouldFail() throws UnsupportedOperationException {
+    public void testSetFieldsShouldFail() throws Exception {
         thrown.expect(UnsupportedOperationException.class);
+        thrown.expectMessage("JSON data can only be written with FORMAT 'CUSTOM' (FORMATTER='pxfwritable_export')");
 
         context.setMetadata(null);
+        context.setOutputFormat(OutputFormat.TEXT);
         resolver.initialize(context);
         resolver.setFields(null);
     }
 
+    @Test
+    public void testSetFields() throws Exception {
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+        resolver.initialize(context);
+        List<OneField> record = new ArrayList<>();
+        for (ColumnDescriptor column : schema) {
+            record.add(new OneField(column.columnTypeCode(), null));
+        }
+
+        OneRow row = resolver.setFields(record);
+
+        assertSame(record, row.getData());
+    }
+
+    @Test
+    public void testSetFieldsShouldFailOnMissingFields() throws Exception {
+        thrown.expect(BadRecordException.class);
+        thrown.expectMessage("record has 1 fields while the table has 12 columns");
+
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+        resolver.initialize(context);
+        List<OneField> record = new ArrayList<>();
+        record.add(new OneField(DataType.INTEGER.getOID(), 1));
+        resolver.setFields(record);
+    }
+
     // helper functions for testing
     private List<OneField> assertRow(OneRow row, int numFields) throws Exception {
         List<OneField> fields = resolver.getFields(row);
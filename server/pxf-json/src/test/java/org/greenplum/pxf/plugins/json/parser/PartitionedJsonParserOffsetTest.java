@@ -20,11 +20,15 @@ package org.greenplum.pxf.plugins.json.parser;
  */
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.Test;
 
@@ -49,6 +53,50 @@ public class PartitionedJsonParserOffsetTest {
 		jsonInputStream.close();
 	}
 
+	@Test
+	public void testOffsetWithMultiByteCharacters() throws IOException {
+		// the accented letters take 2 bytes and the snowman 3 bytes in UTF-8
+		String json = "[{\"color\": \"r\u00e9d\"},{\"color\": \"\u2603\"}]";
+		InputStream jsonInputStream = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+		PartitionedJsonParser parser = new PartitionedJsonParser(jsonInputStream);
+
+		assertTrue(parser.findNextObjectContainingMember("color"));
+		assertEquals(1, parser.getObjectStart());
+		assertEquals(17, parser.getObjectLength());
+		assertEquals(18, parser.getBytesRead());
+		assertEquals("{\"color\": \"r\u00e9d\"}",
+				new String(parser.getObjectBytes(), 0, parser.getObjectLength(), StandardCharsets.UTF_8));
+
+		assertEquals("{\"color\": \"\u2603\"}", parser.nextObjectContainingMember("color"));
+		assertEquals(19, parser.getObjectStart());
+		assertEquals(35, parser.getBytesRead());
+
+		assertFalse(parser.findNextObjectContainingMember("color"));
+		assertEquals(-1, parser.getObjectStart());
+		assertTrue(parser.isEndOfStream());
+		jsonInputStream.close();
+	}
+
+	@Test
+	public void testObjectLargerThanBuffer() throws IOException {
+		StringBuilder value = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			value.append("\u00e9");
+		}
+		String object = "{\"a\": {\"color\": \"" + value + "\"}}";
+		String json = "[{\"skipped\": 1}, " + object + "]";
+		InputStream jsonInputStream = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+		PartitionedJsonParser parser = new PartitionedJsonParser(jsonInputStream);
+
+		String result = parser.nextObjectContainingMember("color");
+		// the matching object is the innermost one containing the member
+		assertEquals("{\"color\": \"" + value + "\"}", result);
+		assertEquals(23, parser.getObjectStart());
+		assertEquals(result.getBytes(StandardCharsets.UTF_8).length, parser.getObjectLength());
+		assertNull(parser.nextObjectContainingMember("color"));
+		jsonInputStream.close();
+	}
+
 	public InputStream createFromString(String s) {
 		return new ByteArrayInputStream(s.getBytes());
 	}
@@ -0,0 +1,273 @@
+package org.greenplum.pxf.plugins.s3;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.HadoopReadOptions;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+import org.greenplum.pxf.api.filter.Operator;
+import org.greenplum.pxf.api.model.BaseConfigurationFactory;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.plugins.hdfs.HcfsType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The row counts, null counts, minimums and maximums of the numeric columns
+ * of a Parquet object, per row group, read from the footer of the object.
+ * {@link S3SelectCostModel} uses them to estimate the selectivity of the
+ * predicates on these columns.
+ * <p>
+ * The statistics are cached per server, user and object for
+ * {@link #EXPIRATION_MINUTES} minutes, so the footer is read once for all the
+ * requests of a query, and not for every segment and fragment.
+ */
+class ParquetFooterStatistics {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParquetFooterStatistics.class);
+
+    static final long EXPIRATION_MINUTES = 10;
+    private static final long MAXIMUM_SIZE = 1000;
+
+    // objects whose footer cannot be read are cached as empty, so they are not read again
+    private static final Cache<String, Optional<ParquetFooterStatistics>> CACHE = CacheBuilder.newBuilder()
+            .expireAfterWrite(EXPIRATION_MINUTES, TimeUnit.MINUTES)
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+
+    private final Map<String, List<RowGroupStatistics>> columns;
+
+    ParquetFooterStatistics(Map<String, List<RowGroupStatistics>> columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Returns the statistics of the Parquet object of the request, reading
+     * the footer of the object if they are not cached.
+     *
+     * @param context the request context
+     * @return the statistics, or null if the footer cannot be read
+     */
+    static ParquetFooterStatistics get(RequestContext context) {
+        String key = String.join(":", context.getServerName(), context.getUser(), context.getDataSource());
+        try {
+            return CACHE.get(key, () -> Optional.ofNullable(read(context))).orElse(null);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private static ParquetFooterStatistics read(RequestContext context) {
+        try {
+            Configuration configuration = BaseConfigurationFactory.getInstance().initConfiguration(
+                    context.getConfig(), context.getServerName(), context.getUser(), context.getAdditionalConfigProps());
+            Path path = new Path(HcfsType.getHcfsType(configuration, context).getDataUri(configuration, context));
+            FileSystem fs = path.getFileSystem(configuration);
+            if (!fs.getFileStatus(path).isFile()) {
+                // the statistics of a single object only
+                return null;
+            }
+            return read(configuration, path);
+        } catch (Exception e) {
+            LOG.debug("Unable to read the Parquet footer of {}: {}", context.getDataSource(), e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the statistics of the top-level signed integer and floating
+     * point columns from the footer of a Parquet file.
+     *
+     * @param configuration the configuration
+     * @param path          the path of the Parquet file
+     * @return the statistics
+     * @throws IOException when the footer cannot be read
+     */
+    static ParquetFooterStatistics read(Configuration configuration, Path path) throws IOException {
+        Map<String, List<RowGroupStatistics>> columns = new HashMap<>();
+        try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(path, configuration),
+                HadoopReadOptions.builder(configuration).build())) {
+            MessageType schema = reader.getFileMetaData().getSchema();
+            for (BlockMetaData rowGroup : reader.getRowGroups()) {
+                for (ColumnChunkMetaData chunk : rowGroup.getColumns()) {
+                    if (chunk.getPath().size() != 1) {
+                        continue;
+                    }
+                    String name = chunk.getPath().toDotString();
+                    Statistics<?> statistics = chunk.getStatistics();
+                    if (!isNumeric(schema.getType(name)) || statistics == null || statistics.isEmpty()) {
+                        continue;
+                    }
+                    RowGroupStatistics rowGroupStatistics = statistics.hasNonNullValue() ?
+                            new RowGroupStatistics(rowGroup.getRowCount(), statistics.getNumNulls(),
+                                    ((Number) statistics.genericGetMin()).doubleValue(),
+                                    ((Number) statistics.genericGetMax()).doubleValue()) :
+                            new RowGroupStatistics(rowGroup.getRowCount(), rowGroup.getRowCount(), Double.NaN, Double.NaN);
+                    columns.computeIfAbsent(name, k -> new ArrayList<>()).add(rowGroupStatistics);
+                }
+            }
+            // a column without statistics for a row group cannot be estimated
+            int rowGroupCount = reader.getRowGroups().size();
+            columns.values().removeIf(list -> list.size() != rowGroupCount);
+        }
+        return new ParquetFooterStatistics(columns);
+    }
+
+    /**
+     * Returns true for the types whose statistics are ordered like the
+     * numbers in Greenplum: signed integers, floats and doubles.
+     */
+    private static boolean isNumeric(Type type) {
+        if (!type.isPrimitive() || type.isRepetition(Type.Repetition.REPEATED)) {
+            return false;
+        }
+        LogicalTypeAnnotation logicalType = type.getLogicalTypeAnnotation();
+        switch (type.asPrimitiveType().getPrimitiveTypeName()) {
+            case INT32:
+            case INT64:
+                return logicalType == null ||
+                        (logicalType instanceof LogicalTypeAnnotation.IntLogicalTypeAnnotation &&
+                                ((LogicalTypeAnnotation.IntLogicalTypeAnnotation) logicalType).isSigned());
+            case FLOAT:
+            case DOUBLE:
+                return logicalType == null;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Estimates the fraction of the rows of the object that a predicate
+     * keeps, weighting the estimate of every row group by its row count.
+     *
+     * @param columnName the name of the column of the predicate
+     * @param operator   the operator of the predicate
+     * @param values     the values of the predicate
+     * @return the estimated selectivity, or null if the statistics cannot estimate it
+     */
+    Double estimateSelectivity(String columnName, Operator operator, List<String> values) {
+        List<RowGroupStatistics> rowGroups = columns.get(columnName);
+        if (rowGroups == null) {
+            return null;
+        }
+        double[] numbers = new double[values.size()];
+        try {
+            for (int i = 0; i < numbers.length; i++) {
+                numbers[i] = Double.parseDouble(values.get(i));
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        long rowCount = 0;
+        double keptRows = 0;
+        for (RowGroupStatistics rowGroup : rowGroups) {
+            Double selectivity = rowGroup.estimateSelectivity(operator, numbers);
+            if (selectivity == null) {
+                return null;
+            }
+            rowCount += rowGroup.rowCount;
+            keptRows += selectivity * rowGroup.rowCount;
+        }
+        return rowCount == 0 ? 0.0 : keptRows / rowCount;
+    }
+
+    /**
+     * The statistics of a column in a row group. The minimum and maximum are
+     * NaN when the column holds only nulls.
+     */
+    static class RowGroupStatistics {
+        private final long rowCount;
+        private final long nullCount;
+        private final double min;
+        private final double max;
+
+        RowGroupStatistics(long rowCount, long nullCount, double min, double max) {
+            this.rowCount = rowCount;
+            this.nullCount = nullCount;
+            this.min = min;
+            this.max = max;
+        }
+
+        private Double estimateSelectivity(Operator operator, double[] values) {
+            if (rowCount == 0) {
+                return 0.0;
+            }
+            double nullFraction = Math.min(1.0, (double) nullCount / rowCount);
+            double nonNullFraction = 1.0 - nullFraction;
+            switch (operator) {
+                case IS_NULL:
+                    return nullFraction;
+                case IS_NOT_NULL:
+                    return nonNullFraction;
+                case EQUALS:
+                    return values.length == 1 ? nonNullFraction * equalsFraction(values[0]) : null;
+                case NOT_EQUALS:
+                    return values.length == 1 ? nonNullFraction * (1.0 - equalsFraction(values[0])) : null;
+                case IN:
+                    double fraction = 0;
+                    for (double value : values) {
+                        fraction += equalsFraction(value);
+                    }
+                    return nonNullFraction * Math.min(1.0, fraction);
+                case LESS_THAN:
+                    return values.length == 1 ? nonNullFraction * lessThanFraction(values[0]) : null;
+                case LESS_THAN_OR_EQUAL:
+                    return values.length == 1 ? nonNullFraction * lessThanOrEqualFraction(values[0]) : null;
+                case GREATER_THAN:
+                    return values.length == 1 ? nonNullFraction * (1.0 - lessThanOrEqualFraction(values[0])) : null;
+                case GREATER_THAN_OR_EQUAL:
+                    return values.length == 1 ? nonNullFraction * (1.0 - lessThanFraction(values[0])) : null;
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * @return the fraction of the non-null values equal to the value
+         */
+        private double equalsFraction(double value) {
+            if (Double.isNaN(min) || value < min || value > max) {
+                return 0.0;
+            }
+            return min == max ? 1.0 : S3SelectCostModel.EQUALS_SELECTIVITY;
+        }
+
+        /**
+         * @return the fraction of the non-null values below the value,
+         * assuming that the values are uniformly distributed between the
+         * minimum and the maximum
+         */
+        private double lessThanFraction(double value) {
+            if (Double.isNaN(min) || value <= min) {
+                return 0.0;
+            }
+            if (value > max) {
+                return 1.0;
+            }
+            return min == max ? 0.0 : (value - min) / (max - min);
+        }
+
+        private double lessThanOrEqualFraction(double value) {
+            return Math.min(1.0, lessThanFraction(value) + equalsFraction(value));
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 
 import static org.greenplum.pxf.plugins.s3.S3SelectAccessor.FILE_HEADER_INFO_IGNORE;
 import static org.greenplum.pxf.plugins.s3.S3SelectAccessor.FILE_HEADER_INFO_USE;
@@ -23,6 +24,10 @@ import static org.greenplum.pxf.plugins.s3.S3SelectAccessor.FILE_HEADER_INFO_USE
 public class S3ProtocolHandler implements ProtocolHandler {
 
     public static final String S3_SELECT_OPTION = "S3_SELECT";
+    public static final String S3_SELECT_THRESHOLD_OPTION = "S3_SELECT_THRESHOLD";
+
+    // S3 Select is used in AUTO mode when it is estimated to return at most half of the object
+    static final double DEFAULT_S3_SELECT_THRESHOLD = 0.5;
 
     private static final Logger LOG = LoggerFactory.getLogger(S3ProtocolHandler.class);
     private static final Set<String> SUPPORTED_FORMATS = Sets.newHashSet("TEXT", "CSV", "PARQUET", "JSON");
@@ -41,6 +46,10 @@ public class S3ProtocolHandler implements ProtocolHandler {
             new SupportMatrixEntry("TEXT", OutputFormat.TEXT, S3Mode.ON),
             new SupportMatrixEntry("CSV", OutputFormat.TEXT, S3Mode.ON),
             new SupportMatrixEntry("JSON", OutputFormat.TEXT, S3Mode.ON),
+            new SupportMatrixEntry("PARQUET", OutputFormat.GPDBWritable, S3Mode.ON),
+            new SupportMatrixEntry("TEXT", OutputFormat.GPDBWritable, S3Mode.ON),
+            new SupportMatrixEntry("CSV", OutputFormat.GPDBWritable, S3Mode.ON),
+            new SupportMatrixEntry("JSON", OutputFormat.GPDBWritable, S3Mode.ON),
             new SupportMatrixEntry("PARQUET", OutputFormat.TEXT, S3Mode.OFF),
             new SupportMatrixEntry("TEXT", OutputFormat.TEXT, S3Mode.OFF),
             new SupportMatrixEntry("CSV", OutputFormat.TEXT, S3Mode.OFF),
@@ -50,12 +59,25 @@ public class S3ProtocolHandler implements ProtocolHandler {
 
     private static final String STRING_PASS_RESOLVER = "org.greenplum.pxf.plugins.hdfs.StringPassResolver";
     private static final String HCFS_FILE_FRAGMENTER = "org.greenplum.pxf.plugins.hdfs.HdfsFileFragmenter";
+    private static final String HCFS_DATA_FRAGMENTER = "org.greenplum.pxf.plugins.hdfs.HdfsDataFragmenter";
+
+    private final Function<RequestContext, ParquetFooterStatistics> statisticsProvider;
+
+    public S3ProtocolHandler() {
+        this(ParquetFooterStatistics::get);
+    }
+
+    S3ProtocolHandler(Function<RequestContext, ParquetFooterStatistics> statisticsProvider) {
+        this.statisticsProvider = statisticsProvider;
+    }
 
     @Override
     public String getFragmenterClassName(RequestContext context) {
         String fragmenter = context.getFragmenter(); // default to fragmenter defined by the profile
-        if (useS3Select(context)) {
-            fragmenter = HCFS_FILE_FRAGMENTER;
+        if (useS3Select(context, false)) {
+            // objects that S3 Select can read with scan ranges are split like HDFS files
+            fragmenter = S3SelectAccessor.isScanRangeSupported(context.getFormat(), context) ?
+                    HCFS_DATA_FRAGMENTER : HCFS_FILE_FRAGMENTER;
         }
         LOG.debug("Determined to use {} fragmenter", fragmenter);
         return fragmenter;
@@ -64,7 +86,8 @@ public class S3ProtocolHandler implements ProtocolHandler {
     @Override
     public String getAccessorClassName(RequestContext context) {
         String accessor = context.getAccessor(); // default to accessor defined by the profile
-        if (useS3Select(context)) {
+        // the decision is recorded once per request, when choosing the accessor
+        if (useS3Select(context, true)) {
             accessor = S3SelectAccessor.class.getName();
         }
         LOG.debug("Determined to use {} accessor", accessor);
@@ -74,14 +97,15 @@ public class S3ProtocolHandler implements ProtocolHandler {
     @Override
     public String getResolverClassName(RequestContext context) {
         String resolver = context.getResolver(); // default to resolver defined by the profile
-        if (useS3Select(context)) {
-            resolver = STRING_PASS_RESOLVER;
+        if (useS3Select(context, false)) {
+            resolver = context.getOutputFormat() == OutputFormat.GPDBWritable ?
+                    S3SelectResolver.class.getName() : STRING_PASS_RESOLVER;
         }
         LOG.debug("Determined to use {} resolver", resolver);
         return resolver;
     }
 
-    private boolean useS3Select(RequestContext context) {
+    private boolean useS3Select(RequestContext context, boolean recordDecision) {
         String format = StringUtils.upperCase(context.getFormat());
         String compressionType = StringUtils.upperCase(context.getOption(S3SelectAccessor.COMPRESSION_TYPE));
         OutputFormat outputFormat = context.getOutputFormat();
@@ -114,7 +138,7 @@ public class S3ProtocolHandler implements ProtocolHandler {
                 // if supported for ON and not beneficial -> if supported for OFF -> use OFF, else use ON
                 // if not supported for ON -> if supported for OFF -> use OFF, else ERROR out
                 if (formatSupported(outputFormat, format, S3Mode.ON, false)) {
-                    if (willBenefitFromSelect(context) || fileHasHeaderLine(format, context)) {
+                    if (fileHasHeaderLine(format, context) || willBenefitFromSelect(format, context, recordDecision)) {
                         return true;
                     } else {
                         return !formatSupported(outputFormat, format, S3Mode.OFF, false);
@@ -149,14 +173,52 @@ public class S3ProtocolHandler implements ProtocolHandler {
     }
 
     /**
-     * Determines if the using S3_SELECT will be beneficial for performance, such as where there is
-     * a column projection or a predicate pushdown for the given query
+     * Determines if the using S3_SELECT will be beneficial for performance, when the fraction of
+     * the object that S3 Select is estimated to return, given the column projection and the
+     * predicate pushdown of the query, is not above the S3_SELECT_THRESHOLD option
      *
-     * @param context request context
+     * @param format         data format
+     * @param context        request context
+     * @param recordDecision true if the decision is recorded in the metrics, false otherwise
      * @return true if using S3_SELECT will be beneficial, false otherwise
      */
-    private boolean willBenefitFromSelect(RequestContext context) {
-        return context.hasFilter() || context.hasColumnProjection();
+    private boolean willBenefitFromSelect(String format, RequestContext context, boolean recordDecision) {
+        if (!context.hasFilter() && !context.hasColumnProjection()) {
+            return false;
+        }
+        double threshold = getThreshold(context);
+        // the footer statistics only refine the selectivity of the filter
+        ParquetFooterStatistics statistics = StringUtils.equals("PARQUET", format) && context.hasFilter() ?
+                statisticsProvider.apply(context) : null;
+        S3SelectCostModel costModel = new S3SelectCostModel(context, statistics);
+        double returnedRatio = costModel.getReturnedRatio(format);
+        boolean benefit = returnedRatio <= threshold;
+
+        LOG.debug("Estimated selectivity {} and projection ratio {}, S3 Select returns {} of the {} object " +
+                        "(threshold {}, footer statistics {}): {}", costModel.getSelectivity(),
+                costModel.getProjectionRatio(), returnedRatio, format, threshold,
+                statistics != null ? "used" : "not used", benefit ? "using S3 Select" : "reading directly");
+        if (recordDecision) {
+            S3SelectMetrics.getInstance().recordDecision(format, benefit, returnedRatio);
+        }
+        return benefit;
+    }
+
+    private double getThreshold(RequestContext context) {
+        String value = context.getOption(S3_SELECT_THRESHOLD_OPTION);
+        if (StringUtils.isBlank(value)) {
+            return DEFAULT_S3_SELECT_THRESHOLD;
+        }
+        try {
+            double threshold = Double.parseDouble(value);
+            if (threshold >= 0 && threshold <= 1) {
+                return threshold;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(String.format(
+                "Property %s has incorrect value %s : must be a number between 0 and 1", S3_SELECT_THRESHOLD_OPTION, value));
     }
 
     /**
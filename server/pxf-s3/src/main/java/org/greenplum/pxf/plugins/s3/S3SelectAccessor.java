@@ -7,24 +7,31 @@ import com.amazonaws.services.s3.model.CompressionType;
 import com.amazonaws.services.s3.model.ExpressionType;
 import com.amazonaws.services.s3.model.InputSerialization;
 import com.amazonaws.services.s3.model.JSONInput;
+import com.amazonaws.services.s3.model.JSONOutput;
+import com.amazonaws.services.s3.model.JSONType;
 import com.amazonaws.services.s3.model.OutputSerialization;
 import com.amazonaws.services.s3.model.ParquetInput;
+import com.amazonaws.services.s3.model.ScanRange;
 import com.amazonaws.services.s3.model.SelectObjectContentEvent;
 import com.amazonaws.services.s3.model.SelectObjectContentEventVisitor;
 import com.amazonaws.services.s3.model.SelectObjectContentRequest;
 import com.amazonaws.services.s3.model.SelectObjectContentResult;
+import com.amazonaws.services.s3.model.Stats;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.fs.s3a.DefaultS3ClientFactory;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.model.GreenplumCSV;
+import org.greenplum.pxf.api.model.OutputFormat;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.FragmentMetadata;
+import org.greenplum.pxf.api.utilities.Utilities;
+import org.greenplum.pxf.plugins.hdfs.ChunkReader;
+import org.greenplum.pxf.plugins.hdfs.ChunkWritable;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URI;
 import java.sql.SQLException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -35,6 +42,14 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * much computation as possible to S3. This reduces the amount of
  * data we transfer over the wire, with the purpose of speeding up
  * query times from S3.
+ * <p>
+ * For TEXT output, the records are requested as CSV and the bytes of the
+ * response are passed through to Greenplum in chunks, without decoding them.
+ * For GPDBWritable output, the records are requested as JSON, one record per
+ * line, and {@link S3SelectResolver} decodes them into typed fields.
+ * <p>
+ * When the fragment is a split of the object, only the records that start
+ * within the split are requested, with a scan range.
  */
 public class S3SelectAccessor extends BasePlugin implements Accessor {
 
@@ -47,12 +62,17 @@ public class S3SelectAccessor extends BasePlugin implements Accessor {
     public static final String FILE_HEADER_INFO_USE = "USE";
     public static final String JSON_TYPE = "JSON-TYPE";
 
+    // the size of the chunks of the response that are passed through for TEXT output
+    static final int CHUNK_SIZE = 1024 * 1024;
+
     private AtomicBoolean isResultComplete;
     private AmazonS3 s3Client;
     private SelectObjectContentResult result;
     private InputStream resultInputStream;
-    private BufferedReader reader;
-    private int lineReadCount;
+    private ChunkReader reader;
+    private boolean isJsonOutput;
+    private int rowReadCount;
+    private long bytesReadCount;
     private URI name;
 
     @Override
@@ -61,7 +81,9 @@ public class S3SelectAccessor extends BasePlugin implements Accessor {
 
         name = URI.create(context.getDataSource());
         s3Client = initS3Client();
-        lineReadCount = 0;
+        isJsonOutput = context.getOutputFormat() == OutputFormat.GPDBWritable;
+        rowReadCount = 0;
+        bytesReadCount = 0;
     }
 
     @Override
@@ -74,9 +96,13 @@ public class S3SelectAccessor extends BasePlugin implements Accessor {
                 new SelectObjectContentEventVisitor() {
                     @Override
                     public void visit(SelectObjectContentEvent.StatsEvent event) {
-                        LOG.debug("Received Stats, Bytes Scanned: {}. Bytes Processed: {}",
-                                event.getDetails().getBytesScanned(),
-                                event.getDetails().getBytesProcessed());
+                        Stats stats = event.getDetails();
+                        LOG.debug("Received Stats, Bytes Scanned: {}. Bytes Processed: {}. Bytes Returned: {}",
+                                stats.getBytesScanned(), stats.getBytesProcessed(), stats.getBytesReturned());
+                        S3SelectMetrics.getInstance().recordRequest(context.getFormat(),
+                                toLong(stats.getBytesScanned()),
+                                toLong(stats.getBytesProcessed()),
+                                toLong(stats.getBytesReturned()));
                     }
 
                     /*
@@ -89,28 +115,34 @@ public class S3SelectAccessor extends BasePlugin implements Accessor {
                     }
                 }
         );
-        reader = new BufferedReader(new InputStreamReader(resultInputStream));
+        reader = new ChunkReader(resultInputStream);
         return resultInputStream != null;
     }
 
     /**
-     * Reads one line at a time
+     * Reads the next JSON record for GPDBWritable output, or the next chunk
+     * of CSV records for TEXT output. Chunks are not aligned on records,
+     * Greenplum parses the CSV records out of the stream of chunks.
      *
-     * @return the next line, or null if the EOF has been reached
+     * @return the next record or chunk, or null if the EOF has been reached
      */
     @Override
     public OneRow readNextObject() throws Exception {
-        String str = reader.readLine();
-        if (str != null) {
-            lineReadCount++;
-            return new OneRow(null, str);
+        ChunkWritable chunk = new ChunkWritable();
+        int length = isJsonOutput ?
+                reader.readLine(chunk, Integer.MAX_VALUE) :
+                reader.readChunk(chunk, CHUNK_SIZE);
+        if (length > 0) {
+            rowReadCount++;
+            bytesReadCount += length;
+            return new OneRow(null, chunk);
         }
         return null;
     }
 
     @Override
     public void closeForRead() throws Exception {
-        LOG.debug("Read {} lines", lineReadCount);
+        LOG.debug("Read {} {} ({} bytes)", rowReadCount, isJsonOutput ? "records" : "chunks", bytesReadCount);
         /*
          * Make sure to close all streams
          */
@@ -141,6 +173,10 @@ public class S3SelectAccessor extends BasePlugin implements Accessor {
         }
     }
 
+    private static long toLong(Long value) {
+        return value == null ? 0 : value;
+    }
+
     /**
      * Generates the {@link SelectObjectContentRequest} object from
      * the request context.
@@ -158,7 +194,7 @@ public class S3SelectAccessor extends BasePlugin implements Accessor {
                         !StringUtils.equalsIgnoreCase(FILE_HEADER_INFO_USE, fileHeaderInfo));
         String query = null;
         try {
-            S3SelectQueryBuilder queryBuilder = new S3SelectQueryBuilder(context, usePositionToIdentifyColumn);
+            S3SelectQueryBuilder queryBuilder = new S3SelectQueryBuilder(context, usePositionToIdentifyColumn, isJsonOutput);
             query = queryBuilder.buildSelectQuery();
         } catch (SQLException e) {
             LOG.error("Unable to build select query for filter string {}", context.getFilterString());
@@ -181,21 +217,88 @@ public class S3SelectAccessor extends BasePlugin implements Accessor {
         OutputSerialization outputSerialization = getOutputSerialization(context);
         request.setOutputSerialization(outputSerialization);
 
+        ScanRange scanRange = getScanRange(context);
+        if (scanRange != null) {
+            LOG.debug("With scan range [{}, {}]", scanRange.getStart(), scanRange.getEnd());
+            request.setScanRange(scanRange);
+        }
+
         return request;
     }
 
+    /**
+     * Returns the {@link ScanRange} of the split of the object read by this
+     * fragment, or null when the fragment is the whole object. S3 Select
+     * returns the records that start within the scan range, just like the
+     * records of a split are the records that start within the split.
+     *
+     * @param context the request context
+     * @return the scan range of the fragment, or null to read the whole object
+     */
+    ScanRange getScanRange(RequestContext context) {
+        FragmentMetadata metadata = Utilities.parseFragmentMetadata(context);
+        // the end of the metadata of a split is the length of the split
+        long length = metadata.getEnd();
+        if (length <= 0) {
+            return null;
+        }
+        // the end of a scan range is inclusive
+        return new ScanRange()
+                .withStart(metadata.getStart())
+                .withEnd(metadata.getStart() + length - 1);
+    }
+
+    /**
+     * Returns true if the object can be read in splits with scan ranges. S3
+     * Select supports scan ranges for Parquet objects, for uncompressed CSV
+     * objects and for uncompressed JSON objects with one record per line.
+     * The header line of a CSV object is only found in the first split, so
+     * objects with a header line are not split.
+     *
+     * @param format  the format of the object
+     * @param context the request context
+     * @return true if the object can be split, false otherwise
+     */
+    static boolean isScanRangeSupported(String format, RequestContext context) {
+        // the compression of Parquet objects is the compression of their columns
+        if (StringUtils.equalsIgnoreCase(format, "parquet")) {
+            return true;
+        }
+
+        String compressionType = context.getOption(COMPRESSION_TYPE);
+        if (StringUtils.isNotBlank(compressionType) &&
+                !StringUtils.equalsIgnoreCase(compressionType, CompressionType.NONE.toString())) {
+            return false;
+        }
+
+        if (StringUtils.equalsIgnoreCase(format, "json")) {
+            return StringUtils.equalsIgnoreCase(context.getOption(JSON_TYPE), JSONType.LINES.toString());
+        } else if (StringUtils.equalsIgnoreCase(format, "csv") || StringUtils.equalsIgnoreCase(format, "text")) {
+            String fileHeaderInfo = context.getOption(FILE_HEADER_INFO);
+            return StringUtils.isBlank(fileHeaderInfo) ||
+                    StringUtils.equalsIgnoreCase(FILE_HEADER_INFO_NONE, fileHeaderInfo);
+        }
+        return false;
+    }
+
     /**
      * Returns a {@link com.amazonaws.services.s3.model.OutputSerialization}
-     * object with parsed values from the request context.
+     * object with parsed values from the request context. The records are
+     * requested as JSON for GPDBWritable output, and as CSV otherwise.
      *
      * @param context the request context
      * @return a {@link OutputSerialization} object
      */
-    private OutputSerialization getOutputSerialization(RequestContext context) {
-
-        GreenplumCSV csv = context.getGreenplumCSV();
+    OutputSerialization getOutputSerialization(RequestContext context) {
 
         OutputSerialization outputSerialization = new OutputSerialization();
+        if (isJsonOutput) {
+            // JSON strings escape the line breaks, a record is a line
+            outputSerialization.setJson(new JSONOutput().withRecordDelimiter("\n"));
+            return outputSerialization;
+        }
+
+        GreenplumCSV csv = context.getGreenplumCSV();
         CSVOutput csvOutput = new CSVOutput();
         csvOutput.setFieldDelimiter(csv.getDelimiter());
         csvOutput.setQuoteCharacter(csv.getQuote());
@@ -0,0 +1,175 @@
+package org.greenplum.pxf.plugins.s3;
+
+import org.apache.commons.lang3.StringUtils;
+import org.greenplum.pxf.api.filter.CollectionOperandNode;
+import org.greenplum.pxf.api.filter.FilterParser;
+import org.greenplum.pxf.api.filter.Node;
+import org.greenplum.pxf.api.filter.Operator;
+import org.greenplum.pxf.api.filter.OperandNode;
+import org.greenplum.pxf.api.filter.OperatorNode;
+import org.greenplum.pxf.api.filter.ScalarOperandNode;
+import org.greenplum.pxf.api.filter.TreeTraverser;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Estimates the fraction of an object that S3 Select returns for a query,
+ * used by the AUTO mode of {@link S3ProtocolHandler} to choose between S3
+ * Select and reading the object directly.
+ * <p>
+ * The projection ratio is the fraction of the columns of the table that the
+ * query projects. The selectivity is the fraction of the rows that the
+ * filter pushed down to S3 Select keeps, estimated from the shape of the
+ * filter with fixed selectivities per operator. For Parquet objects, the
+ * selectivity of the predicates on numeric columns is estimated from the
+ * minimum, maximum and null count of the row groups in the footer.
+ * <p>
+ * Reading Parquet objects directly already reads only the projected columns,
+ * so the projection does not count for Parquet objects.
+ */
+class S3SelectCostModel {
+
+    private static final Logger LOG = LoggerFactory.getLogger(S3SelectCostModel.class);
+
+    private static final TreeTraverser TRAVERSER = new TreeTraverser();
+
+    // fixed selectivities of the predicates, when no statistics are available
+    static final double EQUALS_SELECTIVITY = 0.05;
+    static final double RANGE_SELECTIVITY = 1.0 / 3;
+    static final double NULL_SELECTIVITY = 0.05;
+    static final double BOOLEAN_SELECTIVITY = 0.5;
+
+    private final RequestContext context;
+    private final ParquetFooterStatistics statistics;
+    private Double selectivity;
+
+    /**
+     * @param context    the request context
+     * @param statistics the statistics of the Parquet object, null if not available
+     */
+    S3SelectCostModel(RequestContext context, ParquetFooterStatistics statistics) {
+        this.context = context;
+        this.statistics = statistics;
+    }
+
+    /**
+     * @return the fraction of the columns of the table projected by the query
+     */
+    double getProjectionRatio() {
+        if (!context.hasColumnProjection()) {
+            return 1.0;
+        }
+        return (double) context.getNumAttrsProjected() / context.getTupleDescription().size();
+    }
+
+    /**
+     * @return the estimated fraction of the rows kept by the filter that S3 Select applies
+     */
+    double getSelectivity() {
+        if (selectivity == null) {
+            selectivity = estimateSelectivity();
+        }
+        return selectivity;
+    }
+
+    private double estimateSelectivity() {
+        if (!context.hasFilter()) {
+            return 1.0;
+        }
+        try {
+            Node root = new FilterParser().parse(context.getFilterString());
+            // only the operators that S3 Select supports are pushed down
+            Node prunedRoot = TRAVERSER.traverse(root, S3SelectQueryBuilder.PRUNER);
+            return prunedRoot == null ? 1.0 : clamp(estimate(prunedRoot));
+        } catch (Exception e) {
+            LOG.debug("Unable to estimate the selectivity of filter {}: {}", context.getFilterString(), e.toString());
+            return 1.0;
+        }
+    }
+
+    /**
+     * Returns the estimated fraction of the object that S3 Select returns,
+     * compared to reading the object directly.
+     *
+     * @param format the format of the object
+     * @return the estimated fraction of the object returned by S3 Select
+     */
+    double getReturnedRatio(String format) {
+        double selectivity = getSelectivity();
+        return StringUtils.equalsIgnoreCase(format, "parquet") ?
+                selectivity : selectivity * getProjectionRatio();
+    }
+
+    private double estimate(Node node) {
+        if (!(node instanceof OperatorNode)) {
+            return 1.0;
+        }
+        OperatorNode operatorNode = (OperatorNode) node;
+        Operator operator = operatorNode.getOperator();
+        switch (operator) {
+            case AND:
+                return estimate(node.getLeft()) * estimate(node.getRight());
+            case OR:
+                double left = estimate(node.getLeft());
+                double right = estimate(node.getRight());
+                return left + right - left * right;
+            case NOT:
+                return 1.0 - estimate(node.getLeft());
+            default:
+                return estimateSimpleOperator(operatorNode);
+        }
+    }
+
+    private double estimateSimpleOperator(OperatorNode operatorNode) {
+        Operator operator = operatorNode.getOperator();
+        List<String> values = getValues(operatorNode.getValueOperand());
+
+        if (statistics != null) {
+            String columnName = context.getColumn(operatorNode.getColumnIndexOperand().index()).columnName();
+            Double selectivity = statistics.estimateSelectivity(columnName, operator, values);
+            if (selectivity != null) {
+                return selectivity;
+            }
+        }
+
+        switch (operator) {
+            case EQUALS:
+                return EQUALS_SELECTIVITY;
+            case NOT_EQUALS:
+                return 1.0 - EQUALS_SELECTIVITY;
+            case IN:
+                return Math.min(1.0, EQUALS_SELECTIVITY * values.size());
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUAL:
+            case GREATER_THAN:
+            case GREATER_THAN_OR_EQUAL:
+                return RANGE_SELECTIVITY;
+            case IS_NULL:
+                return NULL_SELECTIVITY;
+            case IS_NOT_NULL:
+                return 1.0 - NULL_SELECTIVITY;
+            case NOOP:
+                // a boolean column
+                return BOOLEAN_SELECTIVITY;
+            default:
+                return 1.0;
+        }
+    }
+
+    private static List<String> getValues(OperandNode operand) {
+        if (operand instanceof ScalarOperandNode) {
+            return Collections.singletonList(((ScalarOperandNode) operand).getValue());
+        } else if (operand instanceof CollectionOperandNode) {
+            return ((CollectionOperandNode) operand).getData();
+        }
+        return Collections.emptyList();
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0.0, Math.min(1.0, value));
+    }
+}
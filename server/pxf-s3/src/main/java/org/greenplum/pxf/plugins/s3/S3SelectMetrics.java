@@ -0,0 +1,120 @@
+package org.greenplum.pxf.plugins.s3;
+
+import org.apache.commons.lang3.StringUtils;
+import org.greenplum.pxf.api.utilities.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records, per format, the decisions of the AUTO mode of
+ * {@link S3ProtocolHandler} with the fraction of the object that S3 Select
+ * was estimated to return, and the bytes that S3 Select actually scanned,
+ * processed and returned. They are reported by the PXF metrics endpoint to
+ * compare the estimates with the observed ratios when tuning the
+ * {@code S3_SELECT_THRESHOLD} option.
+ */
+class S3SelectMetrics {
+
+    static final String METRICS_NAME = "s3.select";
+
+    /**
+     * Singleton instance of the S3SelectMetrics
+     */
+    private static final S3SelectMetrics instance = new S3SelectMetrics();
+
+    private final ConcurrentMap<String, FormatMetrics> formats = new ConcurrentHashMap<>();
+
+    private S3SelectMetrics() {
+        MetricsRegistry.getInstance().register(METRICS_NAME, this::getMetrics);
+    }
+
+    /**
+     * @return a singleton instance of the S3 Select metrics
+     */
+    static S3SelectMetrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Records a decision of the AUTO mode.
+     *
+     * @param format         the format of the object
+     * @param useS3Select    true if S3 Select is used, false if the object is read directly
+     * @param estimatedRatio the estimated fraction of the object returned by S3 Select
+     */
+    void recordDecision(String format, boolean useS3Select, double estimatedRatio) {
+        FormatMetrics metrics = getFormatMetrics(format);
+        (useS3Select ? metrics.selectDecisions : metrics.directDecisions).increment();
+        metrics.estimatedRatios.add(estimatedRatio);
+    }
+
+    /**
+     * Records the statistics of a completed S3 Select request.
+     *
+     * @param format         the format of the object
+     * @param bytesScanned   the bytes of the object scanned by S3 Select
+     * @param bytesProcessed the uncompressed bytes processed by S3 Select
+     * @param bytesReturned  the bytes returned by S3 Select
+     */
+    void recordRequest(String format, long bytesScanned, long bytesProcessed, long bytesReturned) {
+        FormatMetrics metrics = getFormatMetrics(format);
+        metrics.requests.increment();
+        metrics.bytesScanned.add(bytesScanned);
+        metrics.bytesProcessed.add(bytesProcessed);
+        metrics.bytesReturned.add(bytesReturned);
+    }
+
+    /**
+     * Takes a snapshot of the metrics of every format.
+     *
+     * @return the decisions and the bytes of the S3 Select requests, per format
+     */
+    List<Map<String, Object>> getMetrics() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        new TreeMap<>(formats).forEach((format, formatMetrics) -> {
+            long selectDecisions = formatMetrics.selectDecisions.sum();
+            long directDecisions = formatMetrics.directDecisions.sum();
+            long decisions = selectDecisions + directDecisions;
+            long bytesProcessed = formatMetrics.bytesProcessed.sum();
+            long bytesReturned = formatMetrics.bytesReturned.sum();
+
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("format", format);
+            metrics.put("selectDecisions", selectDecisions);
+            metrics.put("directDecisions", directDecisions);
+            metrics.put("averageEstimatedRatio", decisions == 0 ? null : formatMetrics.estimatedRatios.sum() / decisions);
+            metrics.put("requests", formatMetrics.requests.sum());
+            metrics.put("bytesScanned", formatMetrics.bytesScanned.sum());
+            metrics.put("bytesProcessed", bytesProcessed);
+            metrics.put("bytesReturned", bytesReturned);
+            metrics.put("observedRatio", bytesProcessed == 0 ? null : (double) bytesReturned / bytesProcessed);
+            result.add(metrics);
+        });
+        return result;
+    }
+
+    private FormatMetrics getFormatMetrics(String format) {
+        return formats.computeIfAbsent(StringUtils.lowerCase(StringUtils.defaultString(format)), f -> new FormatMetrics());
+    }
+
+    /**
+     * The counters of a format
+     */
+    private static class FormatMetrics {
+        private final LongAdder selectDecisions = new LongAdder();
+        private final LongAdder directDecisions = new LongAdder();
+        private final DoubleAdder estimatedRatios = new DoubleAdder();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder bytesScanned = new LongAdder();
+        private final LongAdder bytesProcessed = new LongAdder();
+        private final LongAdder bytesReturned = new LongAdder();
+    }
+}
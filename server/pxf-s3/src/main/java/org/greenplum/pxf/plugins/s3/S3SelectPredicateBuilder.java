@@ -48,8 +48,8 @@ public class S3SelectPredicateBuilder extends JdbcPredicateBuilder {
             if (usePositionToIdentifyColumn) {
                 columnName = String.format("%s._%d", S3SelectQueryBuilder.S3_TABLE_ALIAS, columnIndexOperand.index() + 1);
             } else {
-                columnName = String.format("%s.\"%s\"", S3SelectQueryBuilder.S3_TABLE_ALIAS,
-                        columnDescriptor.columnName());
+                columnName = String.format("%s.%s", S3SelectQueryBuilder.S3_TABLE_ALIAS,
+                        S3SelectQueryBuilder.quoteIdentifier(columnDescriptor.columnName()));
             }
 
             switch (type) {
@@ -43,6 +43,7 @@ public class S3SelectQueryBuilder extends SQLQueryBuilder {
 
     private List<ColumnDescriptor> columns;
     private boolean usePositionToIdentifyColumn;
+    private boolean aliasProjectedColumns;
 
     /**
      * Constructor
@@ -54,16 +55,44 @@ public class S3SelectQueryBuilder extends SQLQueryBuilder {
      */
     public S3SelectQueryBuilder(RequestContext context,
                                 boolean usePositionToIdentifyColumn) throws SQLException {
+        this(context, usePositionToIdentifyColumn, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param context                     the request context
+     * @param usePositionToIdentifyColumn whether to use the column name or the
+     *                                    position to identify the column
+     * @param aliasProjectedColumns       whether to select only the projected
+     *                                    columns, each one aliased with the
+     *                                    name of the column in Greenplum
+     * @throws SQLException when a SQL exception occurs
+     */
+    public S3SelectQueryBuilder(RequestContext context,
+                                boolean usePositionToIdentifyColumn,
+                                boolean aliasProjectedColumns) throws SQLException {
         super(context, new S3SelectDatabaseMetaData());
         this.usePositionToIdentifyColumn = usePositionToIdentifyColumn;
+        this.aliasProjectedColumns = aliasProjectedColumns;
         this.columns = context.getTupleDescription();
     }
 
     @Override
     protected String buildColumnsQuery() {
-        return columns.stream()
-                .map(c -> c.isProjected() ? getColumnName(c) : "null")
+        if (!aliasProjectedColumns) {
+            return columns.stream()
+                    .map(c -> c.isProjected() ? getColumnName(c) : "null")
+                    .collect(Collectors.joining(", "));
+        }
+
+        // the members of JSON records are named after the aliases, and the
+        // columns that are not projected are left out of the records
+        String columnsQuery = columns.stream()
+                .filter(ColumnDescriptor::isProjected)
+                .map(c -> String.format("%s AS %s", getColumnName(c), quoteIdentifier(c.columnName())))
                 .collect(Collectors.joining(", "));
+        return columnsQuery.isEmpty() ? "null" : columnsQuery;
     }
 
     @Override
@@ -99,6 +128,16 @@ public class S3SelectQueryBuilder extends SQLQueryBuilder {
     private String getColumnName(ColumnDescriptor column) {
         return usePositionToIdentifyColumn ?
                 String.format("%s._%d", S3_TABLE_ALIAS, column.columnIndex() + 1) :
-                String.format("%s.\"%s\"", S3_TABLE_ALIAS, column.columnName());
+                String.format("%s.%s", S3_TABLE_ALIAS, quoteIdentifier(column.columnName()));
+    }
+
+    /**
+     * Quote an identifier, doubling the quotes it contains
+     *
+     * @param identifier the identifier
+     * @return the quoted identifier
+     */
+    static String quoteIdentifier(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
     }
 }
@@ -0,0 +1,195 @@
+package org.greenplum.pxf.plugins.s3;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.commons.lang3.StringUtils;
+import org.greenplum.pxf.api.BadRecordException;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.BasePlugin;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hdfs.ChunkWritable;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolver for the JSON records returned by {@link S3SelectAccessor} for
+ * GPDBWritable output. Each record is a JSON object whose members are named
+ * after the projected columns. The record is read with a streaming parser,
+ * and each value is converted to the type of its column. The columns that are
+ * missing from the record are null.
+ * <p>
+ * The values of CSV objects are JSON strings, the values of Parquet and JSON
+ * objects keep their JSON type, so numbers and booleans are read from both.
+ */
+public class S3SelectResolver extends BasePlugin implements Resolver {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private List<ColumnDescriptor> columns;
+    private Map<String, Integer> columnIndexes;
+
+    @Override
+    public void initialize(RequestContext requestContext) {
+        super.initialize(requestContext);
+
+        columns = context.getTupleDescription();
+        columnIndexes = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            columnIndexes.put(columns.get(i).columnName(), i);
+        }
+    }
+
+    @Override
+    public List<OneField> getFields(OneRow row) throws Exception {
+        List<OneField> fields = new ArrayList<>(columns.size());
+        for (ColumnDescriptor column : columns) {
+            fields.add(new OneField(column.columnTypeCode(), null));
+        }
+
+        byte[] record = ((ChunkWritable) row.getData()).box;
+        try (JsonParser parser = JSON_FACTORY.createParser(record)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new BadRecordException(String.format("invalid JSON record '%s'",
+                        new String(record, StandardCharsets.UTF_8).trim()));
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                Integer index = columnIndexes.get(parser.getCurrentName());
+                JsonToken token = parser.nextToken();
+                if (index == null) {
+                    parser.skipChildren();
+                } else if (token != JsonToken.VALUE_NULL) {
+                    fields.get(index).val = getValue(parser, token, columns.get(index));
+                }
+            }
+        } catch (JsonParseException e) {
+            throw new BadRecordException(e);
+        }
+        return fields;
+    }
+
+    /**
+     * Converts the current value of the parser to the type of the column.
+     *
+     * @param parser the parser, positioned on the value
+     * @param token  the token of the value
+     * @param column the column of the value
+     * @return the value converted to the type of the column
+     * @throws IOException        when the value cannot be read
+     * @throws BadRecordException when the value cannot be converted
+     */
+    private Object getValue(JsonParser parser, JsonToken token, ColumnDescriptor column)
+            throws IOException, BadRecordException {
+        DataType type = DataType.get(column.columnTypeCode());
+
+        switch (type) {
+            case BIGINT:
+            case FLOAT8:
+            case REAL:
+            case INTEGER:
+            case SMALLINT:
+                return getNumber(parser, token, type);
+            case BOOLEAN:
+                return getBoolean(parser, token);
+            case BYTEA:
+                return getText(parser, token).getBytes(StandardCharsets.UTF_8);
+            default:
+                return getText(parser, token);
+        }
+    }
+
+    private Object getNumber(JsonParser parser, JsonToken token, DataType type)
+            throws IOException, BadRecordException {
+        try {
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                switch (type) {
+                    case BIGINT:
+                        return parser.getLongValue();
+                    case FLOAT8:
+                        return parser.getDoubleValue();
+                    case REAL:
+                        return parser.getFloatValue();
+                    case INTEGER:
+                        return parser.getIntValue();
+                    default:
+                        return parser.getShortValue();
+                }
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                String text = parser.getText().trim();
+                switch (type) {
+                    case BIGINT:
+                        return Long.parseLong(text);
+                    case FLOAT8:
+                        return Double.parseDouble(text);
+                    case REAL:
+                        return Float.parseFloat(text);
+                    case INTEGER:
+                        return Integer.parseInt(text);
+                    default:
+                        return Short.parseShort(text);
+                }
+            }
+        } catch (NumberFormatException | JsonProcessingException e) {
+            // a value that is not a number, or that overflows the type
+        }
+        throw new BadRecordException(String.format("invalid %s input value '%s'", type, getText(parser, token)));
+    }
+
+    private Boolean getBoolean(JsonParser parser, JsonToken token)
+            throws IOException, BadRecordException {
+        if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+            return parser.getBooleanValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            // the text representations of booleans in Greenplum
+            String text = parser.getText().trim();
+            if (StringUtils.equalsIgnoreCase(text, "true") || StringUtils.equalsIgnoreCase(text, "t")) {
+                return true;
+            } else if (StringUtils.equalsIgnoreCase(text, "false") || StringUtils.equalsIgnoreCase(text, "f")) {
+                return false;
+            }
+        }
+        throw new BadRecordException(String.format("invalid BOOLEAN input value '%s'", getText(parser, token)));
+    }
+
+    /**
+     * Returns the text of a scalar value, or the JSON text of an object or
+     * an array.
+     */
+    private String getText(JsonParser parser, JsonToken token) throws IOException {
+        if (!token.isStructStart()) {
+            return parser.getText();
+        }
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            generator.copyCurrentStructure(parser);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Constructs and sets the fields of a {@link OneRow}.
+     *
+     * @param record list of {@link OneField}
+     * @return the constructed {@link OneRow}
+     * @throws UnsupportedOperationException S3 Select does not support writing
+     */
+    @Override
+    public OneRow setFields(List<OneField> record) {
+        throw new UnsupportedOperationException("S3 Select does not support writing");
+    }
+}
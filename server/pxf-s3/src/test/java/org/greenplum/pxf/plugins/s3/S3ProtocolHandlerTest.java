@@ -9,7 +9,10 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
@@ -17,7 +20,9 @@ import static org.junit.Assert.assertEquals;
 public class S3ProtocolHandlerTest {
 
     private static final String FILE_FRAGMENTER = "org.greenplum.pxf.plugins.hdfs.HdfsFileFragmenter";
+    private static final String DATA_FRAGMENTER = "org.greenplum.pxf.plugins.hdfs.HdfsDataFragmenter";
     private static final String STRING_PASS_RESOLVER = "org.greenplum.pxf.plugins.hdfs.StringPassResolver";
+    private static final String S3_RESOLVER = S3SelectResolver.class.getName();
     private static final String S3_ACCESSOR = S3SelectAccessor.class.getName();
     private static final String DEFAULT_ACCESSOR = "default-accessor";
     private static final String DEFAULT_RESOLVER = "default-resolver";
@@ -28,29 +33,41 @@ public class S3ProtocolHandlerTest {
 
     private static String[] EXPECTED_RESOLVER_TEXT_ON = {STRING_PASS_RESOLVER, STRING_PASS_RESOLVER, STRING_PASS_RESOLVER, STRING_PASS_RESOLVER, NOT_SUPPORTED};
     private static String[] EXPECTED_RESOLVER_TEXT_AUTO_BENEFIT = {STRING_PASS_RESOLVER, STRING_PASS_RESOLVER, STRING_PASS_RESOLVER, STRING_PASS_RESOLVER, DEFAULT_RESOLVER};
+    private static String[] EXPECTED_RESOLVER_TEXT_AUTO_PROJECTION = {DEFAULT_RESOLVER, STRING_PASS_RESOLVER, STRING_PASS_RESOLVER, STRING_PASS_RESOLVER, DEFAULT_RESOLVER};
     private static String[] EXPECTED_RESOLVER_TEXT_AUTO_NO_BENEFIT = {DEFAULT_RESOLVER, DEFAULT_RESOLVER, DEFAULT_RESOLVER, STRING_PASS_RESOLVER, DEFAULT_RESOLVER};
     private static String[] EXPECTED_RESOLVER_TEXT_OFF = {DEFAULT_RESOLVER, DEFAULT_RESOLVER, DEFAULT_RESOLVER, DEFAULT_RESOLVER, DEFAULT_RESOLVER};
 
-    private static String[] EXPECTED_RESOLVER_GPDB_WRITABLE_ON = {NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED};
-    private static String[] EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO = {DEFAULT_RESOLVER, NOT_SUPPORTED, NOT_SUPPORTED, DEFAULT_RESOLVER, DEFAULT_RESOLVER};
+    private static String[] EXPECTED_RESOLVER_GPDB_WRITABLE_ON = {S3_RESOLVER, S3_RESOLVER, S3_RESOLVER, S3_RESOLVER, NOT_SUPPORTED};
+    private static String[] EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO_BENEFIT = {S3_RESOLVER, S3_RESOLVER, S3_RESOLVER, S3_RESOLVER, DEFAULT_RESOLVER};
+    private static String[] EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO_PROJECTION = {DEFAULT_RESOLVER, S3_RESOLVER, S3_RESOLVER, S3_RESOLVER, DEFAULT_RESOLVER};
+    private static String[] EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO_NO_BENEFIT = {DEFAULT_RESOLVER, S3_RESOLVER, S3_RESOLVER, DEFAULT_RESOLVER, DEFAULT_RESOLVER};
     private static String[] EXPECTED_RESOLVER_GPDB_WRITABLE_OFF = {DEFAULT_RESOLVER, DEFAULT_RESOLVER, DEFAULT_RESOLVER, DEFAULT_RESOLVER, DEFAULT_RESOLVER};
+    private static String[] EXPECTED_RESOLVER_NOT_SUPPORTED = {NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED};
 
-    private static String[] EXPECTED_FRAGMENTER_TEXT_ON = {FILE_FRAGMENTER, FILE_FRAGMENTER, FILE_FRAGMENTER, FILE_FRAGMENTER, NOT_SUPPORTED};
-    private static String[] EXPECTED_FRAGMENTER_TEXT_AUTO_BENEFIT = {FILE_FRAGMENTER, FILE_FRAGMENTER, FILE_FRAGMENTER, FILE_FRAGMENTER, DEFAULT_FRAGMENTER};
+    private static String[] EXPECTED_FRAGMENTER_TEXT_ON = {DATA_FRAGMENTER, DATA_FRAGMENTER, DATA_FRAGMENTER, FILE_FRAGMENTER, NOT_SUPPORTED};
+    private static String[] EXPECTED_FRAGMENTER_TEXT_ON_COMPRESSED = {DATA_FRAGMENTER, FILE_FRAGMENTER, FILE_FRAGMENTER, FILE_FRAGMENTER, NOT_SUPPORTED};
+    private static String[] EXPECTED_FRAGMENTER_TEXT_ON_JSON_LINES = {DATA_FRAGMENTER, DATA_FRAGMENTER, DATA_FRAGMENTER, DATA_FRAGMENTER, NOT_SUPPORTED};
+    private static String[] EXPECTED_FRAGMENTER_TEXT_AUTO_BENEFIT = {DATA_FRAGMENTER, DATA_FRAGMENTER, DATA_FRAGMENTER, FILE_FRAGMENTER, DEFAULT_FRAGMENTER};
+    private static String[] EXPECTED_FRAGMENTER_TEXT_AUTO_PROJECTION = {DEFAULT_FRAGMENTER, DATA_FRAGMENTER, DATA_FRAGMENTER, FILE_FRAGMENTER, DEFAULT_FRAGMENTER};
     private static String[] EXPECTED_FRAGMENTER_TEXT_AUTO_NO_BENEFIT = {DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, FILE_FRAGMENTER, DEFAULT_FRAGMENTER};
     private static String[] EXPECTED_FRAGMENTER_TEXT_OFF = {DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER};
 
-    private static String[] EXPECTED_FRAGMENTER_GPDB_WRITABLE_ON = {NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED};
-    private static String[] EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO = {DEFAULT_FRAGMENTER, NOT_SUPPORTED, NOT_SUPPORTED, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER};
+    private static String[] EXPECTED_FRAGMENTER_GPDB_WRITABLE_ON = {DATA_FRAGMENTER, DATA_FRAGMENTER, DATA_FRAGMENTER, FILE_FRAGMENTER, NOT_SUPPORTED};
+    private static String[] EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO_BENEFIT = {DATA_FRAGMENTER, DATA_FRAGMENTER, DATA_FRAGMENTER, FILE_FRAGMENTER, DEFAULT_FRAGMENTER};
+    private static String[] EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO_PROJECTION = {DEFAULT_FRAGMENTER, DATA_FRAGMENTER, DATA_FRAGMENTER, FILE_FRAGMENTER, DEFAULT_FRAGMENTER};
+    private static String[] EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO_NO_BENEFIT = {DEFAULT_FRAGMENTER, DATA_FRAGMENTER, DATA_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER};
     private static String[] EXPECTED_FRAGMENTER_GPDB_WRITABLE_OFF = {DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER};
 
     private static String[] EXPECTED_ACCESSOR_TEXT_ON = {S3_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, NOT_SUPPORTED};
     private static String[] EXPECTED_ACCESSOR_TEXT_AUTO_BENEFIT = {S3_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, DEFAULT_ACCESSOR};
+    private static String[] EXPECTED_ACCESSOR_TEXT_AUTO_PROJECTION = {DEFAULT_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, DEFAULT_ACCESSOR};
     private static String[] EXPECTED_ACCESSOR_TEXT_AUTO_NO_BENEFIT = {DEFAULT_ACCESSOR, DEFAULT_ACCESSOR, DEFAULT_ACCESSOR, S3_ACCESSOR, DEFAULT_ACCESSOR};
     private static String[] EXPECTED_ACCESSOR_TEXT_OFF = {DEFAULT_ACCESSOR, DEFAULT_ACCESSOR, DEFAULT_ACCESSOR, DEFAULT_ACCESSOR, DEFAULT_ACCESSOR};
 
-    private static String[] EXPECTED_ACCESSOR_GPDB_WRITABLE_ON = {NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED};
-    private static String[] EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO = {DEFAULT_ACCESSOR, NOT_SUPPORTED, NOT_SUPPORTED, DEFAULT_ACCESSOR, DEFAULT_ACCESSOR};
+    private static String[] EXPECTED_ACCESSOR_GPDB_WRITABLE_ON = {S3_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, NOT_SUPPORTED};
+    private static String[] EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO_BENEFIT = {S3_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, DEFAULT_ACCESSOR};
+    private static String[] EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO_PROJECTION = {DEFAULT_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, DEFAULT_ACCESSOR};
+    private static String[] EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO_NO_BENEFIT = {DEFAULT_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, DEFAULT_ACCESSOR, DEFAULT_ACCESSOR};
     private static String[] EXPECTED_ACCESSOR_GPDB_WRITABLE_OFF = {DEFAULT_ACCESSOR, DEFAULT_ACCESSOR, DEFAULT_ACCESSOR, DEFAULT_ACCESSOR, DEFAULT_ACCESSOR};
 
     private static String[] EXPECTED_ACCESSOR_TEXT_AUTO_NO_BENEFIT_HAS_FORMAT_OPTIONS = {DEFAULT_ACCESSOR, DEFAULT_ACCESSOR, DEFAULT_ACCESSOR, S3_ACCESSOR, DEFAULT_ACCESSOR};
@@ -69,7 +86,7 @@ public class S3ProtocolHandlerTest {
 
     @Before
     public void before() {
-        handler = new S3ProtocolHandler();
+        handler = new S3ProtocolHandler(c -> null);
         context = new RequestContext();
         context.setFragmenter("default-fragmenter");
         context.setAccessor("default-accessor");
@@ -93,7 +110,7 @@ public class S3ProtocolHandlerTest {
     public void testTextWithSelectAutoWithBenefitFilterOnlyResolver() {
         context.addOption("S3_SELECT", "auto");
         context.setOutputFormat(OutputFormat.TEXT);
-        context.setFilterString("abc");
+        context.setFilterString("a0c23s1d1o5"); // c1 = 1
         verifyAccessors(context, EXPECTED_ACCESSOR_TEXT_AUTO_BENEFIT);
         verifyResolvers(context, EXPECTED_RESOLVER_TEXT_AUTO_BENEFIT);
         verifyFragmenters(context, EXPECTED_FRAGMENTER_TEXT_AUTO_BENEFIT);
@@ -104,16 +121,17 @@ public class S3ProtocolHandlerTest {
         context.addOption("S3_SELECT", "auto");
         context.setOutputFormat(OutputFormat.TEXT);
         context.setNumAttrsProjected(1);
-        verifyAccessors(context, EXPECTED_ACCESSOR_TEXT_AUTO_BENEFIT);
-        verifyResolvers(context, EXPECTED_RESOLVER_TEXT_AUTO_BENEFIT);
-        verifyFragmenters(context, EXPECTED_FRAGMENTER_TEXT_AUTO_BENEFIT);
+        // parquet is read directly, reading it projects the columns as well
+        verifyAccessors(context, EXPECTED_ACCESSOR_TEXT_AUTO_PROJECTION);
+        verifyResolvers(context, EXPECTED_RESOLVER_TEXT_AUTO_PROJECTION);
+        verifyFragmenters(context, EXPECTED_FRAGMENTER_TEXT_AUTO_PROJECTION);
     }
 
     @Test
     public void testTextWithSelectAutoWithBenefitFilterAndProjectionResolver() {
         context.addOption("S3_SELECT", "auto");
         context.setOutputFormat(OutputFormat.TEXT);
-        context.setFilterString("abc");
+        context.setFilterString("a0c23s1d1o5"); // c1 = 1
         context.setNumAttrsProjected(1);
         verifyAccessors(context, EXPECTED_ACCESSOR_TEXT_AUTO_BENEFIT);
         verifyResolvers(context, EXPECTED_RESOLVER_TEXT_AUTO_BENEFIT);
@@ -124,7 +142,7 @@ public class S3ProtocolHandlerTest {
     public void testTextWithSelectAutoWithBenefitFilterAndFullProjectionResolver() {
         context.addOption("S3_SELECT", "auto");
         context.setOutputFormat(OutputFormat.TEXT);
-        context.setFilterString("abc");
+        context.setFilterString("a0c23s1d1o5"); // c1 = 1
         context.setNumAttrsProjected(2);
         verifyAccessors(context, EXPECTED_ACCESSOR_TEXT_AUTO_BENEFIT);
         verifyResolvers(context, EXPECTED_RESOLVER_TEXT_AUTO_BENEFIT);
@@ -220,6 +238,67 @@ public class S3ProtocolHandlerTest {
         verifyFragmenters(context, EXPECTED_FRAGMENTER_TEXT_AUTO_NO_BENEFIT);
     }
 
+    @Test
+    public void testTextWithSelectAutoWithNonSelectiveFilterResolver() {
+        context.addOption("S3_SELECT", "auto");
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.setFilterString("a0c23s1d1o6"); // c1 <> 1
+        verifyAccessors(context, EXPECTED_ACCESSOR_TEXT_AUTO_NO_BENEFIT);
+        verifyResolvers(context, EXPECTED_RESOLVER_TEXT_AUTO_NO_BENEFIT);
+        verifyFragmenters(context, EXPECTED_FRAGMENTER_TEXT_AUTO_NO_BENEFIT);
+    }
+
+    @Test
+    public void testTextWithSelectAutoWithUnsupportedFilterResolver() {
+        context.addOption("S3_SELECT", "auto");
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.setFilterString("abc");
+        verifyAccessors(context, EXPECTED_ACCESSOR_TEXT_AUTO_NO_BENEFIT);
+        verifyResolvers(context, EXPECTED_RESOLVER_TEXT_AUTO_NO_BENEFIT);
+        verifyFragmenters(context, EXPECTED_FRAGMENTER_TEXT_AUTO_NO_BENEFIT);
+    }
+
+    @Test
+    public void testTextWithSelectAutoWithThresholdResolver() {
+        context.addOption("S3_SELECT", "auto");
+        context.addOption("S3_SELECT_THRESHOLD", "0.4");
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.setNumAttrsProjected(1);
+        verifyAccessors(context, EXPECTED_ACCESSOR_TEXT_AUTO_NO_BENEFIT);
+        verifyResolvers(context, EXPECTED_RESOLVER_TEXT_AUTO_NO_BENEFIT);
+        verifyFragmenters(context, EXPECTED_FRAGMENTER_TEXT_AUTO_NO_BENEFIT);
+    }
+
+    @Test
+    public void testSelectAutoInvalidThreshold() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Property S3_SELECT_THRESHOLD has incorrect value 1.5 : must be a number between 0 and 1");
+
+        context.addOption("S3_SELECT", "auto");
+        context.addOption("S3_SELECT_THRESHOLD", "1.5");
+        context.setFormat("CSV");
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.setNumAttrsProjected(1);
+        handler.getAccessorClassName(context);
+    }
+
+    @Test
+    public void testParquetWithSelectAutoUsesFooterStatistics() {
+        // the values of c1 are between 10 and 20 in a row group of 100 rows without nulls
+        Map<String, List<ParquetFooterStatistics.RowGroupStatistics>> columns = new HashMap<>();
+        columns.put("c1", Collections.singletonList(new ParquetFooterStatistics.RowGroupStatistics(100, 0, 10, 20)));
+        handler = new S3ProtocolHandler(c -> new ParquetFooterStatistics(columns));
+        context.addOption("S3_SELECT", "auto");
+        context.setFormat("parquet");
+        context.setOutputFormat(OutputFormat.TEXT);
+
+        context.setFilterString("a0c23s1d5o2"); // c1 > 5
+        assertEquals(DEFAULT_ACCESSOR, handler.getAccessorClassName(context));
+
+        context.setFilterString("a0c23s2d18o2"); // c1 > 18
+        assertEquals(S3_ACCESSOR, handler.getAccessorClassName(context));
+    }
+
     @Test
     public void testTextWithSelectOffResolver() {
         context.addOption("S3_SELECT", "off");
@@ -242,10 +321,10 @@ public class S3ProtocolHandlerTest {
     public void testGPDBWritableWithSelectAutoWithBenefitFilterOnlyResolver() {
         context.addOption("S3_SELECT", "auto");
         context.setOutputFormat(OutputFormat.GPDBWritable);
-        context.setFilterString("abc");
-        verifyAccessors(context, EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO);
-        verifyResolvers(context, EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO);
-        verifyFragmenters(context, EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO);
+        context.setFilterString("a0c23s1d1o5"); // c1 = 1
+        verifyAccessors(context, EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO_BENEFIT);
+        verifyResolvers(context, EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO_BENEFIT);
+        verifyFragmenters(context, EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO_BENEFIT);
     }
 
     @Test
@@ -253,40 +332,41 @@ public class S3ProtocolHandlerTest {
         context.addOption("S3_SELECT", "auto");
         context.setOutputFormat(OutputFormat.GPDBWritable);
         context.setNumAttrsProjected(1);
-        verifyAccessors(context, EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO);
-        verifyResolvers(context, EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO);
-        verifyFragmenters(context, EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO);
+        // parquet is read directly, reading it projects the columns as well
+        verifyAccessors(context, EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO_PROJECTION);
+        verifyResolvers(context, EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO_PROJECTION);
+        verifyFragmenters(context, EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO_PROJECTION);
     }
 
     @Test
     public void testGPDBWritableWithSelectAutoWithBenefitFilterAndProjectionResolver() {
         context.addOption("S3_SELECT", "auto");
         context.setOutputFormat(OutputFormat.GPDBWritable);
-        context.setFilterString("abc");
+        context.setFilterString("a0c23s1d1o5"); // c1 = 1
         context.setNumAttrsProjected(1);
-        verifyAccessors(context, EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO);
-        verifyResolvers(context, EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO);
-        verifyFragmenters(context, EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO);
+        verifyAccessors(context, EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO_BENEFIT);
+        verifyResolvers(context, EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO_BENEFIT);
+        verifyFragmenters(context, EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO_BENEFIT);
     }
 
     @Test
     public void testGPDBWritableWithSelectAutoWithBenefitFilterAndFullProjectionResolver() {
         context.addOption("S3_SELECT", "auto");
         context.setOutputFormat(OutputFormat.GPDBWritable);
-        context.setFilterString("abc");
+        context.setFilterString("a0c23s1d1o5"); // c1 = 1
         context.setNumAttrsProjected(2);
-        verifyAccessors(context, EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO);
-        verifyResolvers(context, EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO);
-        verifyFragmenters(context, EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO);
+        verifyAccessors(context, EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO_BENEFIT);
+        verifyResolvers(context, EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO_BENEFIT);
+        verifyFragmenters(context, EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO_BENEFIT);
     }
 
     @Test
     public void testGPDBWritableWithSelectAutoWithNoBenefitResolver() {
         context.addOption("S3_SELECT", "auto");
         context.setOutputFormat(OutputFormat.GPDBWritable);
-        verifyAccessors(context, EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO);
-        verifyResolvers(context, EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO);
-        verifyFragmenters(context, EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO);
+        verifyAccessors(context, EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO_NO_BENEFIT);
+        verifyResolvers(context, EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO_NO_BENEFIT);
+        verifyFragmenters(context, EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO_NO_BENEFIT);
     }
 
     @Test
@@ -294,9 +374,9 @@ public class S3ProtocolHandlerTest {
         context.addOption("S3_SELECT", "auto");
         context.setOutputFormat(OutputFormat.GPDBWritable);
         context.setNumAttrsProjected(2);
-        verifyAccessors(context, EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO);
-        verifyResolvers(context, EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO);
-        verifyFragmenters(context, EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO);
+        verifyAccessors(context, EXPECTED_ACCESSOR_GPDB_WRITABLE_AUTO_NO_BENEFIT);
+        verifyResolvers(context, EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO_NO_BENEFIT);
+        verifyFragmenters(context, EXPECTED_FRAGMENTER_GPDB_WRITABLE_AUTO_NO_BENEFIT);
     }
 
     @Test
@@ -390,7 +470,17 @@ public class S3ProtocolHandlerTest {
         context.setOutputFormat(OutputFormat.TEXT);
         verifyAccessors(context, EXPECTED_ACCESSOR_TEXT_ON);
         verifyResolvers(context, EXPECTED_RESOLVER_TEXT_ON);
-        verifyFragmenters(context, EXPECTED_FRAGMENTER_TEXT_ON);
+        verifyFragmenters(context, EXPECTED_FRAGMENTER_TEXT_ON_COMPRESSED);
+    }
+
+    @Test
+    public void testTextWithSelectOnAndWithJsonLines() {
+        context.addOption("S3_SELECT", "on");
+        context.addOption(S3SelectAccessor.JSON_TYPE, "lines");
+        context.setOutputFormat(OutputFormat.TEXT);
+        verifyAccessors(context, EXPECTED_ACCESSOR_TEXT_ON);
+        verifyResolvers(context, EXPECTED_RESOLVER_TEXT_ON);
+        verifyFragmenters(context, EXPECTED_FRAGMENTER_TEXT_ON_JSON_LINES);
     }
 
     @Test
@@ -407,8 +497,7 @@ public class S3ProtocolHandlerTest {
     public void testWithSelectOnAndWithUnSupportedCompressionType() {
         context.addOption("S3_SELECT", "on");
         context.addOption(S3SelectAccessor.COMPRESSION_TYPE, "foo");
-        // EXPECTED_RESOLVER_GPDB_WRITABLE_ON is used as its values are desirable as expected value
-        verifyResolvers(context, EXPECTED_RESOLVER_GPDB_WRITABLE_ON);
+        verifyResolvers(context, EXPECTED_RESOLVER_NOT_SUPPORTED);
     }
 
     @Test
@@ -1,16 +1,22 @@
 package org.greenplum.pxf.plugins.s3;
 
 import com.amazonaws.services.s3.model.InputSerialization;
+import com.amazonaws.services.s3.model.OutputSerialization;
+import com.amazonaws.services.s3.model.ScanRange;
 import com.amazonaws.services.s3.model.SelectObjectContentRequest;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.model.OutputFormat;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class S3SelectAccessorTest {
 
@@ -201,6 +207,92 @@ public class S3SelectAccessorTest {
         assertEquals("", request.getKey());
     }
 
+    @Test
+    public void testScanRangeOfSplit() throws Exception {
+        RequestContext context = getDefaultRequestContext();
+        context.setFragmentMetadata(HdfsUtilities.prepareFragmentMetadata(1024, 512, new String[]{"localhost"}));
+
+        ScanRange scanRange = new S3SelectAccessor().getScanRange(context);
+        assertNotNull(scanRange);
+        assertEquals(1024L, scanRange.getStart().longValue());
+        assertEquals(1535L, scanRange.getEnd().longValue());
+    }
+
+    @Test
+    public void testNoScanRangeForWholeObject() {
+        RequestContext context = getDefaultRequestContext();
+        assertNull(new S3SelectAccessor().getScanRange(context));
+    }
+
+    @Test
+    public void testRequestWithScanRange() throws Exception {
+        RequestContext context = getDefaultRequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource("s3a://my-bucket/my/s3/path/file.csv");
+        context.setFragmentMetadata(HdfsUtilities.prepareFragmentMetadata(0, 100, new String[]{"localhost"}));
+
+        S3SelectAccessor accessor = new S3SelectAccessor();
+        accessor.initialize(context);
+        SelectObjectContentRequest request = accessor.generateBaseCSVRequest(context);
+        assertEquals(0L, request.getScanRange().getStart().longValue());
+        assertEquals(99L, request.getScanRange().getEnd().longValue());
+    }
+
+    @Test
+    public void testIsScanRangeSupported() {
+        RequestContext context = getDefaultRequestContext();
+        assertTrue(S3SelectAccessor.isScanRangeSupported("csv", context));
+        assertTrue(S3SelectAccessor.isScanRangeSupported("TEXT", context));
+        assertTrue(S3SelectAccessor.isScanRangeSupported("parquet", context));
+        // JSON documents can span several lines
+        assertFalse(S3SelectAccessor.isScanRangeSupported("json", context));
+        assertFalse(S3SelectAccessor.isScanRangeSupported("avro", context));
+
+        context.addOption("JSON-TYPE", "lines");
+        assertTrue(S3SelectAccessor.isScanRangeSupported("json", context));
+
+        context.addOption("FILE_HEADER", "USE");
+        assertFalse(S3SelectAccessor.isScanRangeSupported("csv", context));
+
+        context.addOption("COMPRESSION_CODEC", "gzip");
+        assertFalse(S3SelectAccessor.isScanRangeSupported("json", context));
+        assertTrue(S3SelectAccessor.isScanRangeSupported("parquet", context));
+    }
+
+    @Test
+    public void testCSVOutputSerializationForText() {
+        RequestContext context = getDefaultRequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource("s3a://my-bucket/my/s3/path/");
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.getGreenplumCSV().withDelimiter("|");
+
+        S3SelectAccessor accessor = new S3SelectAccessor();
+        accessor.initialize(context);
+        OutputSerialization outputSerialization = accessor.getOutputSerialization(context);
+        assertNotNull(outputSerialization.getCsv());
+        assertNull(outputSerialization.getJson());
+        assertEquals('|', outputSerialization.getCsv().getFieldDelimiter().charValue());
+    }
+
+    @Test
+    public void testJSONOutputSerializationForGPDBWritable() {
+        RequestContext context = getDefaultRequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource("s3a://my-bucket/my/s3/path/");
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+
+        S3SelectAccessor accessor = new S3SelectAccessor();
+        accessor.initialize(context);
+        OutputSerialization outputSerialization = accessor.getOutputSerialization(context);
+        assertNotNull(outputSerialization.getJson());
+        assertNull(outputSerialization.getCsv());
+        assertEquals('\n', outputSerialization.getJson().getRecordDelimiter().charValue());
+    }
+
     @Test
     public void testFailsToParseNullDataSource() {
         thrown.expect(NullPointerException.class);
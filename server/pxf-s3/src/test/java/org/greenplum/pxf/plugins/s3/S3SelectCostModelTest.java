@@ -0,0 +1,125 @@
+package org.greenplum.pxf.plugins.s3;
+
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class S3SelectCostModelTest {
+
+    private static final double DELTA = 1e-9;
+
+    private RequestContext context;
+
+    @Before
+    public void setup() {
+        context = new RequestContext();
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("c1", DataType.INTEGER.getOID(), 0, "int4", null));
+        columns.add(new ColumnDescriptor("c2", DataType.INTEGER.getOID(), 1, "int4", null));
+        context.setTupleDescription(columns);
+    }
+
+    @Test
+    public void testNoFilterAndNoProjection() {
+        S3SelectCostModel costModel = new S3SelectCostModel(context, null);
+
+        assertEquals(1.0, costModel.getSelectivity(), DELTA);
+        assertEquals(1.0, costModel.getProjectionRatio(), DELTA);
+        assertEquals(1.0, costModel.getReturnedRatio("csv"), DELTA);
+    }
+
+    @Test
+    public void testProjectionIsIgnoredForParquet() {
+        context.setNumAttrsProjected(1);
+        S3SelectCostModel costModel = new S3SelectCostModel(context, null);
+
+        assertEquals(0.5, costModel.getProjectionRatio(), DELTA);
+        assertEquals(0.5, costModel.getReturnedRatio("csv"), DELTA);
+        assertEquals(1.0, costModel.getReturnedRatio("parquet"), DELTA);
+    }
+
+    @Test
+    public void testSimpleOperators() {
+        assertSelectivity(S3SelectCostModel.EQUALS_SELECTIVITY, "a0c23s1d1o5"); // c1 = 1
+        assertSelectivity(1 - S3SelectCostModel.EQUALS_SELECTIVITY, "a0c23s1d1o6"); // c1 <> 1
+        assertSelectivity(S3SelectCostModel.RANGE_SELECTIVITY, "a0c23s1d5o1"); // c1 < 5
+        assertSelectivity(S3SelectCostModel.NULL_SELECTIVITY, "a1o8"); // c2 IS NULL
+        assertSelectivity(3 * S3SelectCostModel.EQUALS_SELECTIVITY, "a0m1007s1d1s1d2s1d3o10"); // c1 IN (1, 2, 3)
+    }
+
+    @Test
+    public void testLogicalOperators() {
+        double equals = S3SelectCostModel.EQUALS_SELECTIVITY;
+        // c1 = 1 AND c2 = 1
+        assertSelectivity(equals * equals, "a0c23s1d1o5a1c23s1d1o5l0");
+        // c1 = 1 OR c2 = 1
+        assertSelectivity(equals + equals - equals * equals, "a0c23s1d1o5a1c23s1d1o5l1");
+        // NOT c1 = 1
+        assertSelectivity(1 - equals, "a0c23s1d1o5l2");
+    }
+
+    @Test
+    public void testFilterAndProjection() {
+        context.setFilterString("a0c23s1d1o5");
+        context.setNumAttrsProjected(1);
+        S3SelectCostModel costModel = new S3SelectCostModel(context, null);
+
+        assertEquals(S3SelectCostModel.EQUALS_SELECTIVITY * 0.5, costModel.getReturnedRatio("csv"), DELTA);
+        assertEquals(S3SelectCostModel.EQUALS_SELECTIVITY, costModel.getReturnedRatio("parquet"), DELTA);
+    }
+
+    @Test
+    public void testUnsupportedOperatorIsNotCounted() {
+        // c1 = 1 AND c2 LIKE '1', LIKE is not pushed down to S3 Select
+        assertSelectivity(S3SelectCostModel.EQUALS_SELECTIVITY, "a0c23s1d1o5a1c25s1d1o7l0");
+        // c2 LIKE '1'
+        assertSelectivity(1.0, "a1c25s1d1o7");
+    }
+
+    @Test
+    public void testInvalidFilter() {
+        assertSelectivity(1.0, "abc");
+    }
+
+    @Test
+    public void testFooterStatistics() {
+        // c1 is between 0 and 100 in the first row group, and between 200 and 300 in the second one
+        Map<String, List<ParquetFooterStatistics.RowGroupStatistics>> columns = new HashMap<>();
+        columns.put("c1", Arrays.asList(
+                new ParquetFooterStatistics.RowGroupStatistics(100, 10, 0, 100),
+                new ParquetFooterStatistics.RowGroupStatistics(300, 30, 200, 300)));
+        ParquetFooterStatistics statistics = new ParquetFooterStatistics(columns);
+
+        // c1 < 50: half of the non-null values of the first row group
+        assertSelectivity(statistics, 0.9 * 50 / 400, "a0c23s2d50o1");
+        // c1 > 300: no row group
+        assertSelectivity(statistics, 0.0, "a0c23s3d300o2");
+        // c1 >= 200: all the non-null values of the second row group
+        assertSelectivity(statistics, 0.9 * 300 / 400, "a0c23s3d200o4");
+        // c1 = 150: no row group
+        assertSelectivity(statistics, 0.0, "a0c23s3d150o5");
+        // c1 IS NULL
+        assertSelectivity(statistics, 0.1, "a0o8");
+        // c2 has no statistics
+        assertSelectivity(statistics, S3SelectCostModel.EQUALS_SELECTIVITY, "a1c23s1d1o5");
+    }
+
+    private void assertSelectivity(double expected, String filterString) {
+        assertSelectivity(null, expected, filterString);
+    }
+
+    private void assertSelectivity(ParquetFooterStatistics statistics, double expected, String filterString) {
+        context.setFilterString(filterString);
+        assertEquals(filterString, expected, new S3SelectCostModel(context, statistics).getSelectivity(), DELTA);
+    }
+}
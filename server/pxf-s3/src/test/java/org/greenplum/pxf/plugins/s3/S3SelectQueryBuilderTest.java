@@ -43,6 +43,44 @@ public class S3SelectQueryBuilderTest {
         assertEquals(SQL_NO_POSITION, builderNoPosition.buildSelectQuery());
     }
 
+    @Test
+    public void testAliasProjectedColumns() throws SQLException {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null, true));
+        columns.add(new ColumnDescriptor("cdate", DataType.DATE.getOID(), 1, "date", null, false));
+        columns.add(new ColumnDescriptor("amt", DataType.FLOAT8.getOID(), 2, "float8", null, true));
+        context.setTupleDescription(columns);
+        context.setFilterString("a0c20s1d1o5"); // id = 1
+
+        assertEquals("SELECT s._1 AS \"id\", s._3 AS \"amt\" FROM S3Object s WHERE CAST (s._1 AS int) = 1",
+                new S3SelectQueryBuilder(context, true, true).buildSelectQuery());
+        assertEquals("SELECT s.\"id\" AS \"id\", s.\"amt\" AS \"amt\" FROM S3Object s WHERE CAST (s.\"id\" AS int) = 1",
+                new S3SelectQueryBuilder(context, false, true).buildSelectQuery());
+    }
+
+    @Test
+    public void testQuotesInColumnNamesAreEscaped() throws SQLException {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("say \"hi\"", DataType.INTEGER.getOID(), 0, "int4", null, true));
+        context.setTupleDescription(columns);
+        context.setFilterString("a0c20s1d1o5"); // "say ""hi""" = 1
+
+        assertEquals("SELECT s._1 AS \"say \"\"hi\"\"\" FROM S3Object s WHERE CAST (s._1 AS int) = 1",
+                new S3SelectQueryBuilder(context, true, true).buildSelectQuery());
+        assertEquals("SELECT s.\"say \"\"hi\"\"\" AS \"say \"\"hi\"\"\" FROM S3Object s WHERE CAST (s.\"say \"\"hi\"\"\" AS int) = 1",
+                new S3SelectQueryBuilder(context, false, true).buildSelectQuery());
+    }
+
+    @Test
+    public void testAliasProjectedColumnsWithoutProjectedColumns() throws SQLException {
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null, false));
+        context.setTupleDescription(columns);
+
+        assertEquals("SELECT null FROM S3Object s",
+                new S3SelectQueryBuilder(context, true, true).buildSelectQuery());
+    }
+
     @Test
     public void testIdFilter() {
         context.setFilterString("a0c20s1d1o5"); // id = 1
@@ -0,0 +1,148 @@
+package org.greenplum.pxf.plugins.s3;
+
+import org.greenplum.pxf.api.BadRecordException;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hdfs.ChunkWritable;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class S3SelectResolverTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private S3SelectResolver resolver;
+
+    @Before
+    public void setup() {
+        RequestContext context = new RequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        columns.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        columns.add(new ColumnDescriptor("total", DataType.BIGINT.getOID(), 1, "int8", null));
+        columns.add(new ColumnDescriptor("amt", DataType.FLOAT8.getOID(), 2, "float8", null));
+        columns.add(new ColumnDescriptor("weight", DataType.REAL.getOID(), 3, "float4", null));
+        columns.add(new ColumnDescriptor("qty", DataType.SMALLINT.getOID(), 4, "int2", null));
+        columns.add(new ColumnDescriptor("pass", DataType.BOOLEAN.getOID(), 5, "bool", null));
+        columns.add(new ColumnDescriptor("grade", DataType.TEXT.getOID(), 6, "text", null));
+        columns.add(new ColumnDescriptor("cdate", DataType.DATE.getOID(), 7, "date", null));
+        columns.add(new ColumnDescriptor("data", DataType.BYTEA.getOID(), 8, "bytea", null));
+        context.setTupleDescription(columns);
+
+        resolver = new S3SelectResolver();
+        resolver.initialize(context);
+    }
+
+    @Test
+    public void testGetFieldsFromTypedValues() throws Exception {
+        List<OneField> fields = resolver.getFields(getRow("{\"id\":1,\"total\":12345678901,\"amt\":1.5," +
+                "\"weight\":2.5,\"qty\":3,\"pass\":true,\"grade\":\"A\",\"cdate\":\"2020-01-01\",\"data\":\"abc\"}\n"));
+
+        assertEquals(9, fields.size());
+        assertField(fields.get(0), DataType.INTEGER, 1);
+        assertField(fields.get(1), DataType.BIGINT, 12345678901L);
+        assertField(fields.get(2), DataType.FLOAT8, 1.5);
+        assertField(fields.get(3), DataType.REAL, 2.5f);
+        assertField(fields.get(4), DataType.SMALLINT, (short) 3);
+        assertField(fields.get(5), DataType.BOOLEAN, true);
+        assertField(fields.get(6), DataType.TEXT, "A");
+        assertField(fields.get(7), DataType.DATE, "2020-01-01");
+        assertArrayEquals("abc".getBytes(StandardCharsets.UTF_8), (byte[]) fields.get(8).val);
+    }
+
+    @Test
+    public void testGetFieldsFromStringValues() throws Exception {
+        List<OneField> fields = resolver.getFields(getRow("{\"id\":\"1\",\"total\":\"12345678901\",\"amt\":\"1.5\"," +
+                "\"weight\":\"2.5\",\"qty\":\"3\",\"pass\":\"f\"}\n"));
+
+        assertField(fields.get(0), DataType.INTEGER, 1);
+        assertField(fields.get(1), DataType.BIGINT, 12345678901L);
+        assertField(fields.get(2), DataType.FLOAT8, 1.5);
+        assertField(fields.get(3), DataType.REAL, 2.5f);
+        assertField(fields.get(4), DataType.SMALLINT, (short) 3);
+        assertField(fields.get(5), DataType.BOOLEAN, false);
+    }
+
+    @Test
+    public void testMissingAndNullValues() throws Exception {
+        List<OneField> fields = resolver.getFields(getRow("{\"grade\":null,\"other\":{\"a\":[1,2]},\"cdate\":\"2020-01-01\"}\n"));
+
+        assertEquals(9, fields.size());
+        assertField(fields.get(0), DataType.INTEGER, null);
+        assertField(fields.get(6), DataType.TEXT, null);
+        assertField(fields.get(7), DataType.DATE, "2020-01-01");
+    }
+
+    @Test
+    public void testNestedValueAsText() throws Exception {
+        List<OneField> fields = resolver.getFields(getRow("{\"grade\":{\"a\":[1,\"b\"]},\"id\":7}"));
+
+        assertField(fields.get(6), DataType.TEXT, "{\"a\":[1,\"b\"]}");
+        assertField(fields.get(0), DataType.INTEGER, 7);
+    }
+
+    @Test
+    public void testInvalidNumber() throws Exception {
+        thrown.expect(BadRecordException.class);
+        thrown.expectMessage("invalid INTEGER input value 'abc'");
+
+        resolver.getFields(getRow("{\"id\":\"abc\"}"));
+    }
+
+    @Test
+    public void testNumberOverflow() throws Exception {
+        thrown.expect(BadRecordException.class);
+        thrown.expectMessage("invalid SMALLINT input value '70000'");
+
+        resolver.getFields(getRow("{\"qty\":70000}"));
+    }
+
+    @Test
+    public void testInvalidBoolean() throws Exception {
+        thrown.expect(BadRecordException.class);
+        thrown.expectMessage("invalid BOOLEAN input value 'maybe'");
+
+        resolver.getFields(getRow("{\"pass\":\"maybe\"}"));
+    }
+
+    @Test
+    public void testInvalidRecord() throws Exception {
+        thrown.expect(BadRecordException.class);
+
+        resolver.getFields(getRow("{\"id\":1"));
+    }
+
+    @Test
+    public void testSetFieldsIsNotSupported() {
+        thrown.expect(UnsupportedOperationException.class);
+        thrown.expectMessage("S3 Select does not support writing");
+
+        resolver.setFields(new ArrayList<>());
+    }
+
+    private OneRow getRow(String record) {
+        ChunkWritable chunk = new ChunkWritable();
+        chunk.box = record.getBytes(StandardCharsets.UTF_8);
+        return new OneRow(null, chunk);
+    }
+
+    private void assertField(OneField field, DataType type, Object value) {
+        assertEquals(type.getOID(), field.type);
+        assertEquals(value, field.val);
+    }
+}
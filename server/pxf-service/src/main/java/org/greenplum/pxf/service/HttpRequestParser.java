@@ -110,6 +110,7 @@ public class HttpRequestParser implements RequestParser<HttpHeaders> {
 
         String filterString = params.removeOptionalProperty("FILTER");
         String hasFilter = params.removeProperty("HAS-FILTER");
+        context.setQueryHasFilter("1".equals(hasFilter));
         if (filterString != null) {
             context.setFilterString(filterString);
         } else if ("1".equals(hasFilter)) {
@@ -118,6 +119,11 @@ public class HttpRequestParser implements RequestParser<HttpHeaders> {
 
         context.setFragmenter(params.removeUserProperty("FRAGMENTER"));
 
+        String limitStr = params.removeOptionalProperty("LIMIT");
+        if (StringUtils.isNotBlank(limitStr)) {
+            context.setLimit(Long.parseLong(limitStr));
+        }
+
         String fragmentIndexStr = params.removeOptionalProperty("FRAGMENT-INDEX");
         if (StringUtils.isNotBlank(fragmentIndexStr)) {
             context.setFragmentIndex(Integer.parseInt(fragmentIndexStr));
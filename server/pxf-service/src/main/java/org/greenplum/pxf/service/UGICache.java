@@ -25,13 +25,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.DelayQueue;
-import java.util.concurrent.Delayed;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Stores UserGroupInformation instances for each active session. The UGIs are cleaned up if they
@@ -39,15 +37,23 @@ import java.util.concurrent.atomic.AtomicInteger;
  * <p>
  * The motivation for caching is that destroying UGIs is slow. The alternative, creating and
  * destroying a UGI per-request, is wasteful.
+ * <p>
+ * Getting and releasing a UGI do not take any lock shared between sessions: the reference count
+ * of an entry is updated with compare-and-set, and an entry is closed by moving its count from 0
+ * to {@link Entry#CLOSED}, which a concurrent get detects to replace the entry with a new one.
+ * The expired entries of a segment are swept by the threads getting a UGI for that segment, at
+ * most once every SWEEP_INTERVAL milliseconds, and a thread never waits for another one to finish
+ * sweeping.
  */
 public class UGICache {
 
     static final int NANOS_PER_MILLIS = 1000000;
     static final long UGI_CACHE_EXPIRY = 15 * 60 * 1000L; // 15 Minutes
+    static final long SWEEP_INTERVAL = 1000L; // 1 Second
     private static final Logger LOG = LoggerFactory.getLogger(UGICache.class);
-    private final Map<SessionId, Entry> cache = new ConcurrentHashMap<>();
-    // There is a separate DelayQueue for each segment (also being used for locking)
-    private final Map<Integer, DelayQueue<Entry>> expirationQueueMap = new HashMap<>();
+    private final ConcurrentMap<SessionId, Entry> cache = new ConcurrentHashMap<>();
+    // There is a separate set of entries for each segment, swept independently
+    private final ConcurrentMap<Integer, Segment> segments = new ConcurrentHashMap<>();
     private final UGIProvider ugiProvider;
     private final Ticker ticker;
 
@@ -78,31 +84,21 @@ public class UGICache {
      * @return the proxy UGI for the given session.
      * @throws IOException when there is an IO issue
      */
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
     public UserGroupInformation getUserGroupInformation(SessionId session, boolean isProxyUser) throws IOException {
-        Integer segmentId = session.getSegmentId();
-        String user = session.getUser();
-        DelayQueue<Entry> delayQueue = getExpirationQueue(segmentId);
-        synchronized (delayQueue) {
-            // Use the opportunity to cleanup any expired entries
-            cleanup(delayQueue);
+        Segment segment = getSegment(session.getSegmentId());
+        // Use the opportunity to cleanup any expired entries
+        sweep(segment);
+
+        while (true) {
             Entry entry = cache.get(session);
             if (entry == null) {
-
-                UserGroupInformation ugi;
-                if (isProxyUser) {
-                    LOG.debug("{} Creating proxy user = {}", session, user);
-                    ugi = ugiProvider.createProxyUGI(user, session.getLoginUser());
-                } else {
-                    LOG.debug("{} Creating remote user = {}", session, user);
-                    ugi = ugiProvider.createRemoteUser(user, session);
-                }
-                entry = new Entry(ticker, ugi, session);
-                delayQueue.offer(entry);
-                cache.put(session, entry);
+                entry = createEntry(segment, session, isProxyUser);
+            }
+            if (entry.tryAcquire()) {
+                return entry.getUGI();
             }
-            entry.incrementRefCount();
-            return entry.getUGI();
+            // The entry was closed after we got it, replace it with a new one
+            cache.remove(session, entry);
         }
     }
 
@@ -114,7 +110,6 @@ public class UGICache {
      * @param cleanImmediatelyIfNoRefs if true, destroys the UGI for the given session (only if it
      *                                 is now unreferenced).
      */
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
     public void release(SessionId session, boolean cleanImmediatelyIfNoRefs) {
 
         Entry entry = cache.get(session);
@@ -123,19 +118,10 @@ public class UGICache {
             throw new IllegalStateException("Cannot release UGI for this session; it is not cached: " + session);
         }
 
-        DelayQueue<Entry> expirationQueue = getExpirationQueue(session.getSegmentId());
-
-        synchronized (expirationQueue) {
-            entry.decrementRefCount();
-            expirationQueue.remove(entry);
-            if (cleanImmediatelyIfNoRefs && entry.isNotInUse()) {
-                closeUGI(entry);
-            } else {
-                // Reset expiration time and put it back in the queue
-                // only when we don't close the UGI
-                entry.resetTime();
-                expirationQueue.offer(entry);
-            }
+        // Reset expiration time before the entry can be seen as unreferenced
+        entry.resetTime();
+        if (entry.release() == 0 && cleanImmediatelyIfNoRefs && entry.tryClose()) {
+            closeUGI(getSegment(session.getSegmentId()), entry);
         }
     }
 
@@ -147,86 +133,116 @@ public class UGICache {
     }
 
     /**
-     * This method is not thread-safe, and is intended to be called in tests.
+     * This method is intended to be called in tests.
      *
-     * @return the sum of the sizes of the internal queues
+     * @return the sum of the number of entries of the segments
      */
-    int allQueuesSize() {
+    int allSegmentsSize() {
         int count = 0;
-        for (DelayQueue queue : expirationQueueMap.values()) {
-            count += queue.size();
+        for (Segment segment : segments.values()) {
+            count += segment.entries.size();
         }
         return count;
     }
 
     /**
-     * This method is O(n) in the number of cache entries and should only be called in tests.
+     * This method should only be called in tests.
      *
      * @param session
      * @return determine whether the session is in the internal cache
      */
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
     boolean contains(SessionId session) {
-        DelayQueue<Entry> expirationQueue = getExpirationQueue(session.getSegmentId());
-        synchronized (expirationQueue) {
-            Entry entry = cache.get(session);
-            return entry != null && expirationQueue.contains(entry);
-        }
+        Entry entry = cache.get(session);
+        return entry != null && !entry.isClosed() && getSegment(session.getSegmentId()).entries.contains(entry);
     }
 
     /**
-     * Get the queue of cache entries associated with a segment, creating it if it doesn't yet
-     * exist. This lets us lazily populate the expirationQueueMap.
+     * Get the entries associated with a segment, creating them if they don't yet exist. This lets
+     * us lazily populate the segments.
      *
      * @param segmentId
-     * @return the {@link DelayQueue} associated to the segment.
+     * @return the {@link Segment} associated to the segment id.
      */
-    private DelayQueue<Entry> getExpirationQueue(Integer segmentId) {
-        DelayQueue<Entry> queue = expirationQueueMap.get(segmentId);
-        if (queue == null) {
-            synchronized (expirationQueueMap) {
-                queue = expirationQueueMap.get(segmentId);
-                if (queue == null) {
-                    queue = new DelayQueue<>();
-                    expirationQueueMap.put(segmentId, queue);
-                }
-            }
+    private Segment getSegment(Integer segmentId) {
+        return segments.computeIfAbsent(segmentId, id -> new Segment());
+    }
+
+    /**
+     * Creates the entry of a session, and registers it with the segment of the session. The UGI is
+     * created outside of the map, since creating it may log in to Kerberos and the map would block
+     * the other sessions of the same bin meanwhile. When two threads create the entry of the same
+     * session, the entry of the thread that loses the race is destroyed.
+     *
+     * @return the entry of the session in the cache
+     * @throws IOException when the UGI cannot be created
+     */
+    private Entry createEntry(Segment segment, SessionId session, boolean isProxyUser) throws IOException {
+        String user = session.getUser();
+        UserGroupInformation ugi;
+        if (isProxyUser) {
+            LOG.debug("{} Creating proxy user = {}", session, user);
+            ugi = ugiProvider.createProxyUGI(user, session.getLoginUser());
+        } else {
+            LOG.debug("{} Creating remote user = {}", session, user);
+            ugi = ugiProvider.createRemoteUser(user, session);
+        }
+        Entry entry = new Entry(ticker, ugi, session);
+        // Register the entry before it can be acquired and closed, so that closing it unregisters it
+        segment.entries.add(entry);
+        Entry existing = cache.putIfAbsent(session, entry);
+        if (existing == null) {
+            return entry;
+        }
+
+        // A sweep may have closed the unused entry already
+        if (entry.tryClose()) {
+            LOG.debug("{} Destroying duplicate UGI for user = {}", session, user);
+            closeUGI(segment, entry);
         }
-        return queue;
+        return existing;
     }
 
     /**
-     * Iterate through all the entries in the queue and close expired {@link UserGroupInformation},
-     * otherwise it resets the timer for every non-expired entry.
+     * Iterate through all the entries of the segment and close expired, unreferenced
+     * {@link UserGroupInformation}. Entries that are still referenced have their timer reset when
+     * they are released. Returns immediately if the segment was swept less than SWEEP_INTERVAL
+     * milliseconds ago, or if another thread is sweeping it.
      *
-     * @param expirationQueue
+     * @param segment
      */
-    private void cleanup(DelayQueue<Entry> expirationQueue) {
-
-        Entry expiredUGI;
-        while ((expiredUGI = expirationQueue.poll()) != null) {
-            if (expiredUGI.isNotInUse()) {
-                closeUGI(expiredUGI);
-            } else {
-                // The UGI object is still being used by another thread
-                String fsMsg = "FileSystem for proxy user = " + expiredUGI.getSession().getUser();
-                LOG.debug("{} Skipping close of {}", expiredUGI.getSession().toString(), fsMsg);
-                // Place it back in the queue if still in use and was not closed
-                expiredUGI.resetTime();
-                expirationQueue.offer(expiredUGI);
+    private void sweep(Segment segment) {
+        long now = ticker.read() / NANOS_PER_MILLIS;
+        if (now < segment.nextSweep || !segment.sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            segment.nextSweep = now + SWEEP_INTERVAL;
+            for (Entry entry : segment.entries) {
+                if (!entry.isExpired(now)) {
+                    continue;
+                }
+                if (entry.tryClose()) {
+                    closeUGI(segment, entry);
+                } else {
+                    // The UGI object is still being used by another thread
+                    String fsMsg = "FileSystem for proxy user = " + entry.getSession().getUser();
+                    LOG.debug("{} Skipping close of {}", entry.getSession().toString(), fsMsg);
+                }
             }
-            LOG.debug("Delay Queue Size for segment {} = {}", expiredUGI.getSession().getSegmentId(), expirationQueue.size());
+            LOG.debug("Cache Size for segment = {}", segment.entries.size());
+        } finally {
+            segment.sweepLock.unlock();
         }
     }
 
     /**
-     * This method must be called from a synchronized block for the delayQueue for the given
-     * session.getSegmentId(). Removes the cachedUGI from the internal cache and then passes it to
-     * {@link UGIProvider} to destroy the UGI.
+     * This method must be called by the thread that closed the entry. Removes the cachedUGI from
+     * the internal cache and then passes it to {@link UGIProvider} to destroy the UGI.
      *
+     * @param segment    the segment of the entry
      * @param expiredUGI
      */
-    private void closeUGI(Entry expiredUGI) {
+    private void closeUGI(Segment segment, Entry expiredUGI) {
         SessionId session = expiredUGI.getSession();
         String fsMsg = "FileSystem for proxy user = " + session.getUser();
 
@@ -235,7 +251,8 @@ public class UGICache {
         try {
             // Remove it from cache, as cache now has an
             // expired entry which is not in progress
-            cache.remove(session);
+            cache.remove(session, expiredUGI);
+            segment.entries.remove(expiredUGI);
             ugiProvider.destroy(expiredUGI.getUGI());
 
         } catch (Throwable t) {
@@ -243,10 +260,23 @@ public class UGICache {
         }
     }
 
+    /**
+     * The entries of a segment, and the state of their sweeping.
+     */
+    private static class Segment {
+
+        private final Set<Entry> entries = ConcurrentHashMap.newKeySet();
+        private final ReentrantLock sweepLock = new ReentrantLock();
+        private volatile long nextSweep = Long.MIN_VALUE;
+    }
+
     /**
      * Stores a {@link UserGroupInformation}, and determines when to expire the UGI.
      */
-    private static class Entry implements Delayed {
+    private static class Entry {
+
+        // The reference count of a closed entry, which cannot be acquired anymore
+        private static final int CLOSED = -1;
 
         private final SessionId session;
         private final UserGroupInformation proxyUGI;
@@ -265,6 +295,7 @@ public class UGICache {
             this.ticker = ticker;
             this.proxyUGI = proxyUGI;
             this.session = session;
+            resetTime();
         }
 
         /**
@@ -283,71 +314,69 @@ public class UGICache {
         }
 
         /**
-         * @return true if the UGI is being referenced by a session, false otherwise
-         */
-        private boolean isNotInUse() {
-            return referenceCount.get() <= 0;
-        }
-
-        /**
-         * Increments the number of references accessing the {@link UserGroupInformation}.
+         * Increments the number of references accessing the {@link UserGroupInformation}, unless
+         * the entry has been closed.
+         *
+         * @return true if the reference was acquired, false if the entry is closed
          */
-        void incrementRefCount() {
-            referenceCount.incrementAndGet();
+        boolean tryAcquire() {
+            while (true) {
+                int count = referenceCount.get();
+                if (count == CLOSED) {
+                    return false;
+                }
+                if (referenceCount.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
         }
 
         /**
          * Decrements the number of references accessing the {@link UserGroupInformation}.
+         *
+         * @return the number of remaining references
          */
-        void decrementRefCount() {
-            int count = referenceCount.decrementAndGet();
-            if (count < 0) {
-                throw new IllegalStateException("UGICache.Entry referenceCount may not be decremented past 0.");
+        int release() {
+            while (true) {
+                int count = referenceCount.get();
+                if (count <= 0) {
+                    throw new IllegalStateException("UGICache.Entry referenceCount may not be decremented past 0.");
+                }
+                if (referenceCount.compareAndSet(count, count - 1)) {
+                    return count - 1;
+                }
             }
         }
 
         /**
-         * Resets the timer for removing this Entry from the cache.
-         */
-        void resetTime() {
-            startTime = currentTimeMillis();
-        }
-
-        /**
-         * {@inheritDoc}
+         * Closes the entry if it is not referenced. Only one thread can close an entry.
+         *
+         * @return true if the entry was closed by this call
          */
-        @Override
-        public long getDelay(TimeUnit unit) {
-            return unit.convert(getDelayMillis(), TimeUnit.MILLISECONDS);
+        boolean tryClose() {
+            return referenceCount.compareAndSet(0, CLOSED);
         }
 
         /**
-         * Compare the expiry time of this cache entry to another cache entry's expiry time.
-         *
-         * @param other a UGICache.Entry (passing any other kind of Delayed produces an error)
-         * @see java.lang.Comparable<>#compareTo(java.lang.Comparable<>)
+         * @return true if the entry has been closed
          */
-        @Override
-        public int compareTo(Delayed other) {
-            if (!(other instanceof Entry)) return 1;
-
-            Entry that = (Entry) other;
-            return Long.compare(this.getDelayMillis(), that.getDelayMillis());
+        boolean isClosed() {
+            return referenceCount.get() == CLOSED;
         }
 
         /**
-         * @return the number of milliseconds remaining before this cache entry expires.
+         * Resets the timer for removing this Entry from the cache.
          */
-        private long getDelayMillis() {
-            return (startTime + UGI_CACHE_EXPIRY) - currentTimeMillis();
+        void resetTime() {
+            startTime = ticker.read() / NANOS_PER_MILLIS;
         }
 
         /**
-         * @return the current Unix timestamp in milliseconds (equivalent to {@link
-         * System}.currentTimeMillis)
+         * @param now the current Unix timestamp in milliseconds
+         * @return true if the entry was last accessed UGI_CACHE_EXPIRY milliseconds ago or more
          */
-        private long currentTimeMillis() {
-            return ticker.read() / NANOS_PER_MILLIS;
+        boolean isExpired(long now) {
+            return now - startTime >= UGI_CACHE_EXPIRY;
         }
     }
 }
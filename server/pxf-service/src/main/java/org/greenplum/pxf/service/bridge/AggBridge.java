@@ -19,7 +19,7 @@
 
 package org.greenplum.pxf.service.bridge;
 
-import org.apache.commons.collections.map.LRUMap;
+import org.greenplum.pxf.api.AggregateResult;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.StatsAccessor;
 import org.greenplum.pxf.api.io.Writable;
@@ -27,7 +27,8 @@ import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.AccessorFactory;
 import org.greenplum.pxf.api.utilities.ResolverFactory;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Bridge class optimized for aggregate queries.
@@ -35,8 +36,10 @@ import java.util.LinkedList;
  */
 public class AggBridge extends ReadBridge implements Bridge {
 
-    /* Avoid resolving rows with the same key twice */
-    private LRUMap outputCache;
+    /* Serialized aggregate row and how many more times it has to be sent */
+    private List<Writable> aggregateOutput;
+    private long aggregateRowsRemaining;
+    private int aggregateOutputIndex;
 
     public AggBridge(RequestContext context) {
         this(context, AccessorFactory.getInstance(), ResolverFactory.getInstance());
@@ -48,20 +51,34 @@ public class AggBridge extends ReadBridge implements Bridge {
 
     @Override
     public boolean beginIteration() throws Exception {
-        /* Initialize LRU cache with 100 items*/
-        outputCache = new LRUMap();
         boolean openForReadStatus = accessor.openForRead();
-        ((StatsAccessor) accessor).retrieveStats();
+        StatsAccessor statsAccessor = (StatsAccessor) accessor;
+        statsAccessor.retrieveStats();
+
+        AggregateResult aggregateResult = statsAccessor.getAggregateResult();
+        if (aggregateResult != null) {
+            /* Serialize the aggregate row once and replay it, instead of
+             * going through the accessor and resolver for every row */
+            aggregateRowsRemaining = aggregateResult.getRowCount();
+            if (aggregateRowsRemaining > 0) {
+                aggregateOutput = new ArrayList<>(outputBuilder.makeOutput(aggregateResult.getFields()));
+            } else {
+                aggregateOutput = new ArrayList<>();
+            }
+            aggregateOutputIndex = 0;
+        }
         return openForReadStatus;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Writable getNext() throws Exception {
         Writable output = null;
-        LinkedList<Writable> cachedOutput;
         OneRow onerow;
 
+        if (aggregateOutput != null) {
+            return getNextAggregateOutput();
+        }
+
         if (!outputQueue.isEmpty()) {
             return outputQueue.pop();
         }
@@ -72,12 +89,9 @@ public class AggBridge extends ReadBridge implements Bridge {
                 if (onerow == null) {
                     break;
                 }
-                cachedOutput = (LinkedList<Writable>) outputCache.get(onerow.getKey());
-                if (cachedOutput == null) {
-                    cachedOutput = outputBuilder.makeOutput(resolver.getFields(onerow));
-                    outputCache.put(onerow.getKey(), cachedOutput);
-                }
-                outputQueue.addAll(cachedOutput);
+                /* The rows are the rows of the split, when the statistics
+                 * cannot answer the aggregate, and are resolved one by one */
+                outputQueue.addAll(makeOutput(onerow));
                 if (!outputQueue.isEmpty()) {
                     output = outputQueue.pop();
                     break;
@@ -89,4 +103,22 @@ public class AggBridge extends ReadBridge implements Bridge {
         }
         return output;
     }
+
+    /**
+     * Returns the next serialized record of the aggregate answered from
+     * statistics, or null once the row was sent the required number of times.
+     *
+     * @return the next record or null
+     */
+    private Writable getNextAggregateOutput() {
+        if (aggregateRowsRemaining == 0 || aggregateOutput.isEmpty()) {
+            return null;
+        }
+        Writable output = aggregateOutput.get(aggregateOutputIndex++);
+        if (aggregateOutputIndex == aggregateOutput.size()) {
+            aggregateOutputIndex = 0;
+            aggregateRowsRemaining--;
+        }
+        return output;
+    }
 }
@@ -0,0 +1,46 @@
+package org.greenplum.pxf.service.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.greenplum.pxf.api.utilities.MetricsRegistry;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+
+/**
+ * Class returning the metrics registered by the plugins, e.g. the usage of
+ * the JDBC connection pools.
+ *
+ * The expected format of a path is "
+ * {@code http://<host>:<port>/pxf/Metrics}" The expected response is a JSON
+ * object with the metrics by their names.
+ */
+@Path("/Metrics")
+public class MetricsResource {
+
+    private final MetricsRegistry registry;
+
+    public MetricsResource() {
+        this(MetricsRegistry.getInstance());
+    }
+
+    MetricsResource(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Returns a snapshot of all registered metrics.
+     *
+     * @return response with the metrics in JSON format
+     * @throws IOException if the metrics cannot be serialized
+     */
+    @GET
+    @Produces("application/json")
+    public Response getMetrics() throws IOException {
+        String metrics = new ObjectMapper().writeValueAsString(registry.getMetrics());
+        return Response.ok(metrics, MediaType.APPLICATION_JSON_TYPE).build();
+    }
+}
@@ -20,12 +20,18 @@ package org.greenplum.pxf.service.servlet;
  */
 
 
+import org.greenplum.pxf.api.model.StartupTask;
 import org.greenplum.pxf.service.utilities.Log4jConfigure;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 
 /**
  * Listener on lifecycle events of our webapp
@@ -38,15 +44,72 @@ public class ServletLifecycleListener implements ServletContextListener {
 	 * Called after the webapp has been initialized.
 	 *
 	 * 1. Initializes log4j.
+	 * 2. Starts the startup tasks registered by the plugins in the background.
 	 */
 	@Override
 	public void contextInitialized(ServletContextEvent event) {
 		// 1. Initialize log4j:
 		Log4jConfigure.configure(event);
 
+		// 2. Start the startup tasks, the webapp does not wait for them to finish:
+		startTasks(loadTasks(Thread.currentThread().getContextClassLoader()));
+
 		LOG.info("PXF server webapp initialized");
 	}
 
+	/**
+	 * Creates the {@link StartupTask}s registered by the plugins found by the
+	 * given class loader. A task that cannot be created is skipped.
+	 *
+	 * @param classLoader class loader of the plugins
+	 * @return the tasks
+	 */
+	static List<StartupTask> loadTasks(ClassLoader classLoader) {
+		List<StartupTask> tasks = new ArrayList<>();
+		Iterator<StartupTask> iterator = ServiceLoader.load(StartupTask.class, classLoader).iterator();
+		try {
+			while (iterator.hasNext()) {
+				try {
+					tasks.add(iterator.next());
+				} catch (ServiceConfigurationError | LinkageError e) {
+					LOG.warn("Startup task cannot be created", e);
+				}
+			}
+		} catch (ServiceConfigurationError e) {
+			LOG.warn("Startup tasks cannot be listed", e);
+		}
+		return tasks;
+	}
+
+	/**
+	 * Runs the given tasks one after the other in a background thread, e.g.
+	 * warming up the connection pools of the JDBC servers. A task that fails
+	 * does not prevent the next tasks from running.
+	 *
+	 * @param tasks the tasks
+	 * @return the thread running the tasks, or null if there are none
+	 */
+	static Thread startTasks(List<StartupTask> tasks) {
+		if (tasks.isEmpty()) {
+			return null;
+		}
+
+		Thread thread = new Thread(() -> {
+			for (StartupTask task : tasks) {
+				String taskName = task.getClass().getName();
+				try {
+					LOG.info("Running startup task {}", taskName);
+					task.run();
+				} catch (Exception | LinkageError e) {
+					LOG.warn(String.format("Startup task %s failed", taskName), e);
+				}
+			}
+		}, "pxf-startup-tasks");
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
 	/**
 	 * Called before the webapp is about to go down
 	 */
@@ -284,6 +284,28 @@ public class HttpRequestParserTest {
         assertEquals("UTF8_計算機用語_00000000", context.getFilterString());
     }
 
+    @Test
+    public void limit() {
+        RequestContext context = parser.parseRequest(mockRequestHeaders, RequestType.READ_BRIDGE);
+        assertEquals(0, context.getLimit());
+
+        parameters.putSingle("X-GP-LIMIT", "100");
+        context = parser.parseRequest(mockRequestHeaders, RequestType.READ_BRIDGE);
+        assertEquals(100, context.getLimit());
+    }
+
+    @Test
+    public void queryHasFilterNotSent() {
+        RequestContext context = parser.parseRequest(mockRequestHeaders, RequestType.READ_BRIDGE);
+        assertFalse(context.queryHasFilter());
+
+        parameters.remove("X-GP-HAS-FILTER");
+        parameters.putSingle("X-GP-HAS-FILTER", "1");
+        context = parser.parseRequest(mockRequestHeaders, RequestType.READ_BRIDGE);
+        assertFalse(context.hasFilter());
+        assertTrue(context.queryHasFilter());
+    }
+
     @Test
     public void statsParams() {
         parameters.putSingle("X-GP-OPTIONS-STATS-MAX-FRAGMENTS", "10101");
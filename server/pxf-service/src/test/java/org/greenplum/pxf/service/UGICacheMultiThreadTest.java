@@ -29,6 +29,7 @@ import java.io.IOException;
 import java.security.SecureRandom;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
@@ -104,7 +105,68 @@ public class UGICacheMultiThreadTest {
         // after the test has completed, the internal cache
         // should be 0
         assertEquals(0, cache.size());
-        assertEquals(0, cache.allQueuesSize());
+        assertEquals(0, cache.allSegmentsSize());
+    }
+
+    @Test
+    public void stressTestWithExpiration() throws Exception {
+        // every get creates a distinct UGI, to detect UGIs destroyed while in use
+        DistinctUgiProvider distinctProvider = new DistinctUgiProvider();
+        cache = new UGICache(distinctProvider, fakeTicker);
+        final AtomicInteger destroyedInUse = new AtomicInteger();
+        final AtomicInteger finishedCount = new AtomicInteger();
+        final AtomicBoolean running = new AtomicBoolean(true);
+
+        // expire the UGIs while they are being used and released
+        Thread clock = new Thread(() -> {
+            while (running.get()) {
+                fakeTicker.advanceTime(UGICache.UGI_CACHE_EXPIRY / 10);
+                Thread.yield();
+            }
+        });
+        clock.start();
+
+        int threadCount = 64;
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                Random rnd = new Random();
+                try {
+                    for (int j = 0; j < 10000; j++) {
+                        SessionId session = sessions[rnd.nextInt(sessions.length)];
+                        UserGroupInformation ugi = cache.getUserGroupInformation(session, true);
+                        if (!distinctProvider.isAlive(ugi)) {
+                            destroyedInUse.incrementAndGet();
+                        }
+                        cache.release(session, rnd.nextBoolean());
+                    }
+                    finishedCount.incrementAndGet();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        running.set(false);
+        clock.join();
+
+        assertEquals(threadCount, finishedCount.intValue());
+        assertEquals(0, destroyedInUse.get());
+
+        // the remaining UGIs are unreferenced, and destroyed by the next sweep of their segment
+        fakeTicker.advanceTime(UGICache.UGI_CACHE_EXPIRY + 1000);
+        for (int i = 0; i < numberOfSegments; i++) {
+            SessionId session = new SessionId(i, "txn-id-sweep", "the-user", "default");
+            cache.getUserGroupInformation(session, true);
+            cache.release(session, true);
+        }
+        assertEquals(0, distinctProvider.countUgisInUse());
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.allSegmentsSize());
     }
 
     class FakeUgiProvider extends UGIProvider {
@@ -127,4 +189,30 @@ public class UGICacheMultiThreadTest {
             return ugis.size();
         }
     }
+
+    class DistinctUgiProvider extends UGIProvider {
+        Set<UserGroupInformation> ugis = new ConcurrentSet<>();
+
+        @Override
+        UserGroupInformation createProxyUGI(String effectiveUser, UserGroupInformation ugi) {
+            UserGroupInformation proxyUGI = UserGroupInformation.createRemoteUser(effectiveUser);
+            ugis.add(proxyUGI);
+            return proxyUGI;
+        }
+
+        @Override
+        void destroy(UserGroupInformation ugi) {
+            if (!ugis.remove(ugi)) {
+                throw new IllegalStateException("Tried to destroy UGI that does not exist");
+            }
+        }
+
+        boolean isAlive(UserGroupInformation ugi) {
+            return ugis.contains(ugi);
+        }
+
+        int countUgisInUse() {
+            return ugis.size();
+        }
+    }
 }
@@ -389,6 +389,6 @@ public class UGICacheTest {
 
     private void assertCacheSize(int expectedSize) {
         assertEquals(expectedSize, cache.size());
-        assertEquals(expectedSize, cache.allQueuesSize());
+        assertEquals(expectedSize, cache.allSegmentsSize());
     }
 }
@@ -0,0 +1,128 @@
+package org.greenplum.pxf.service;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import com.google.common.base.Ticker;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the number of get/release pairs per second of {@link UGICache} with the one of
+ * {@link DelayQueueUGICache}, the implementation it replaced. The fragments of a query get and
+ * release the UGI of the same session from many threads. Run it on demand, the numbers depend on
+ * the host.
+ */
+@Ignore("timed comparison, run on demand")
+public class UGICacheThroughputTest {
+    private static final int THREAD_COUNT = 64;
+    private static final int SESSION_COUNT = 16;
+    private static final long DURATION_MILLIS = 5000L;
+
+    private UGIProvider provider;
+    private SessionId[] sessions = new SessionId[SESSION_COUNT];
+
+    @Before
+    public void setUp() throws IOException {
+        UserGroupInformation loginUser = UserGroupInformation.getLoginUser();
+        provider = new UGIProvider() {
+            @Override
+            UserGroupInformation createProxyUGI(String effectiveUser, UserGroupInformation ugi) {
+                return UserGroupInformation.createRemoteUser(effectiveUser);
+            }
+
+            @Override
+            void destroy(UserGroupInformation ugi) {
+            }
+        };
+        Configuration configuration = new Configuration();
+        // all the sessions of a segment share its lock in the baseline
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            sessions[i] = new SessionId(i % 2, "txn-id-" + i, "the-user", "default", configuration, loginUser);
+        }
+    }
+
+    @Test
+    public void compareThroughput() throws Exception {
+        DelayQueueUGICache baseline = new DelayQueueUGICache(provider, Ticker.systemTicker());
+        UGICache cache = new UGICache(provider, Ticker.systemTicker());
+
+        // warm up both implementations before measuring them
+        measure(baseline::getUserGroupInformation, baseline::release);
+        measure(cache::getUserGroupInformation, cache::release);
+
+        double baselineRate = measure(baseline::getUserGroupInformation, baseline::release);
+        double rate = measure(cache::getUserGroupInformation, cache::release);
+        System.out.printf("%d threads, get/release pairs per second: DelayQueue %.0f, lock-free %.0f (%.1fx)%n",
+                THREAD_COUNT, baselineRate, rate, rate / baselineRate);
+    }
+
+    /**
+     * @return the number of get/release pairs per second of all the threads
+     */
+    private double measure(Get get, Release release) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        long[] counts = new long[THREAD_COUNT];
+        Thread[] threads = new Thread[THREAD_COUNT];
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            final int index = i;
+            threads[i] = new Thread(() -> {
+                SessionId session = sessions[index % SESSION_COUNT];
+                try {
+                    start.await();
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+                    long count = 0;
+                    while (System.nanoTime() < deadline) {
+                        get.apply(session, true);
+                        release.apply(session, false);
+                        count++;
+                    }
+                    counts[index] = count;
+                } catch (IOException | InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            threads[i].start();
+        }
+
+        long then = System.nanoTime();
+        start.countDown();
+        long total = 0;
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            threads[i].join();
+            total += counts[i];
+        }
+        return total / ((System.nanoTime() - then) / 1e9);
+    }
+
+    private interface Get {
+        UserGroupInformation apply(SessionId session, boolean isProxyUser) throws IOException;
+    }
+
+    private interface Release {
+        void apply(SessionId session, boolean cleanImmediatelyIfNoRefs);
+    }
+}
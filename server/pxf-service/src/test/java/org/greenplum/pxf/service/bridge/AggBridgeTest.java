@@ -0,0 +1,80 @@
+package org.greenplum.pxf.service.bridge;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.StatsAccessor;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.io.GPDBWritable;
+import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.utilities.AccessorFactory;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.EnumAggregationType;
+import org.greenplum.pxf.api.utilities.ResolverFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AggBridgeTest {
+
+    private RequestContext context;
+    private StatsAccessor accessor;
+    private AggBridge bridge;
+
+    @Before
+    public void setup() throws Exception {
+        context = new RequestContext();
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+        context.setAggType(EnumAggregationType.MAX);
+        context.setTupleDescription(Collections.singletonList(
+                new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null)));
+
+        accessor = mock(StatsAccessor.class);
+        Resolver resolver = mock(Resolver.class);
+        when(resolver.getFields(any(OneRow.class))).thenAnswer(invocation -> {
+            OneRow row = (OneRow) invocation.getArguments()[0];
+            return Collections.singletonList(new OneField(DataType.INTEGER.getOID(), row.getData()));
+        });
+        AccessorFactory accessorFactory = mock(AccessorFactory.class);
+        when(accessorFactory.getPlugin(context)).thenReturn(accessor);
+        ResolverFactory resolverFactory = mock(ResolverFactory.class);
+        when(resolverFactory.getPlugin(context)).thenReturn(resolver);
+
+        bridge = new AggBridge(context, accessorFactory, resolverFactory);
+    }
+
+    /*
+     * Rows streamed when the statistics cannot answer the aggregate share
+     * their key, or have none, and each of them must be resolved
+     */
+    @Test
+    public void testFallbackRowsWithSameKeyAreResolvedOneByOne() throws Exception {
+        Object key = new Object();
+        when(accessor.openForRead()).thenReturn(true);
+        when(accessor.getAggregateResult()).thenReturn(null);
+        when(accessor.emitAggObject()).thenReturn(
+                new OneRow(key, 3), new OneRow(key, 7), new OneRow(null, 5), new OneRow(null, 1), null);
+
+        bridge.beginIteration();
+
+        assertEquals(Integer.valueOf(3), nextValue());
+        assertEquals(Integer.valueOf(7), nextValue());
+        assertEquals(Integer.valueOf(5), nextValue());
+        assertEquals(Integer.valueOf(1), nextValue());
+        assertNull(bridge.getNext());
+    }
+
+    private Integer nextValue() throws Exception {
+        Writable output = bridge.getNext();
+        return ((GPDBWritable) output).getInt(0);
+    }
+}
@@ -0,0 +1,41 @@
+package org.greenplum.pxf.service.rest;
+
+import org.greenplum.pxf.api.utilities.MetricsRegistry;
+import org.junit.Test;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MetricsResourceTest {
+
+    @Test
+    public void getMetrics() throws Exception {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("server", "pg");
+        pool.put("active", 2);
+        MetricsRegistry registry = mock(MetricsRegistry.class);
+        when(registry.getMetrics()).thenReturn(Collections.singletonMap("jdbc.pools", Collections.singletonList(pool)));
+
+        Response result = new MetricsResource(registry).getMetrics();
+
+        assertEquals(Response.Status.OK, Response.Status.fromStatusCode(result.getStatus()));
+        assertEquals("{\"jdbc.pools\":[{\"server\":\"pg\",\"active\":2}]}", result.getEntity());
+        assertEquals(MediaType.APPLICATION_JSON_TYPE, result.getMetadata().get(HttpHeaders.CONTENT_TYPE).get(0));
+    }
+
+    @Test
+    public void getMetricsNoneRegistered() throws Exception {
+        MetricsRegistry registry = mock(MetricsRegistry.class);
+        when(registry.getMetrics()).thenReturn(Collections.emptyMap());
+
+        assertEquals("{}", new MetricsResource(registry).getMetrics().getEntity());
+    }
+}
@@ -0,0 +1,71 @@
+package org.greenplum.pxf.service.servlet;
+
+import org.greenplum.pxf.api.model.StartupTask;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ServletLifecycleListenerTest {
+
+    private static final AtomicInteger runs = new AtomicInteger();
+
+    @Before
+    public void setup() {
+        runs.set(0);
+    }
+
+    @Test
+    public void testNoTasks() {
+        assertNull(ServletLifecycleListener.startTasks(Collections.emptyList()));
+    }
+
+    @Test
+    public void testTasksRunInBackground() throws Exception {
+        Thread thread = ServletLifecycleListener.startTasks(Arrays.asList(new CountingTask(), new CountingTask()));
+
+        assertNotNull(thread);
+        assertTrue(thread.isDaemon());
+        thread.join(10000);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testFailingTaskIsSkipped() throws Exception {
+        Thread thread = ServletLifecycleListener.startTasks(Arrays.asList(new FailingTask(), new CountingTask()));
+
+        thread.join(10000);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testRegisteredTasksAreLoaded() {
+        // the missing task registered in the test resources is skipped
+        List<StartupTask> tasks = ServletLifecycleListener.loadTasks(getClass().getClassLoader());
+
+        assertEquals(1, tasks.size());
+        assertTrue(tasks.get(0) instanceof CountingTask);
+    }
+
+    public static class CountingTask implements StartupTask {
+        @Override
+        public void run() {
+            runs.incrementAndGet();
+        }
+    }
+
+    public static class FailingTask implements StartupTask {
+        @Override
+        public void run() {
+            throw new IllegalStateException("database is down");
+        }
+    }
+}